@@ -259,6 +259,9 @@ public class App extends Application {
         scene.addEventHandler(FeatureVectorEvent.PROJECT_SURFACE_GRID, event -> {
             FeatureCollection originalFC = new FeatureCollection();
             originalFC.setFeatures(hypersurface3DPane.getAllFeatureVectors());
+            //not fit through a retained model so there is nothing to stream into,
+            //and a batch still being projected must not overlap the fit
+            projections3DPane.stopStreamingProjection();
             double[][] data = AnalysisUtils.fitUMAP(originalFC);
             FeatureCollection projectedFC = FeatureCollection.fromData(data);
             for (int i = 0; i < originalFC.getFeatures().size(); i++) {
@@ -279,6 +282,9 @@ public class App extends Application {
         scene.addEventHandler(FeatureVectorEvent.PROJECT_FEATURE_COLLECTION, event -> {
             FeatureCollection originalFC = new FeatureCollection();
             originalFC.setFeatures(hyperspace3DPane.getAllFeatureVectors());
+            //not fit through a retained model so there is nothing to stream into,
+            //and a batch still being projected must not overlap the fit
+            projections3DPane.stopStreamingProjection();
             double[][] data = AnalysisUtils.fitUMAP(originalFC);
             FeatureCollection projectedFC = FeatureCollection.fromData(data);
             for (int i = 0; i < originalFC.getFeatures().size(); i++) {
@@ -529,12 +535,18 @@ public class App extends Application {
 
         fveh = new FeatureVectorEventHandler(false);
         scene.getRoot().addEventHandler(FeatureVectorEvent.NEW_FEATURE_VECTOR, fveh);
+        scene.getRoot().addEventHandler(FeatureVectorEvent.NEW_FEATURE_VECTOR_BATCH, fveh);
         scene.getRoot().addEventHandler(FeatureVectorEvent.LOCATE_FEATURE_VECTOR, fveh);
         scene.getRoot().addEventHandler(FeatureVectorEvent.NEW_FEATURE_COLLECTION, fveh);
         scene.getRoot().addEventHandler(FeatureVectorEvent.RESCAN_FACTOR_LABELS, fveh);
         scene.getRoot().addEventHandler(FeatureVectorEvent.RESCAN_FEATURE_LAYERS, fveh);
         scene.getRoot().addEventHandler(FeatureVectorEvent.NEW_LABEL_CONFIG, fveh);
         fveh.addFeatureVectorRenderer(hyperspace3DPane);
+        //live vectors are also placed into the current UMAP projection, if any
+        scene.getRoot().addEventHandler(FeatureVectorEvent.NEW_FEATURE_VECTOR, event ->
+            projections3DPane.projectFeatureVector((FeatureVector) event.object));
+        scene.getRoot().addEventHandler(FeatureVectorEvent.NEW_FEATURE_VECTOR_BATCH, event ->
+            ((List<FeatureVector>) event.object).forEach(projections3DPane::projectFeatureVector));
 
         meh = new ManifoldEventHandler();
         
@@ -595,7 +607,7 @@ public class App extends Application {
                 Task task = new Task() {
                     @Override
                     protected Void call() throws Exception {
-                        feed.setConfig(subscriberConfig);
+                        feed.setConfigs(e.subscriberConfigs);
                         feed.startProcessing();
                         return null;
                     }
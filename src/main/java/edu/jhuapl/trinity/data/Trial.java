@@ -20,13 +20,14 @@ package edu.jhuapl.trinity.data;
  * #L%
  */
 
+import edu.jhuapl.trinity.data.files.FileTypeDetector;
+import edu.jhuapl.trinity.data.files.FileTypeDetector.FileType;
+
 import java.io.BufferedReader;
 import java.io.File;
 import java.io.FileReader;
 import java.io.IOException;
-import java.nio.file.Files;
 import java.util.ArrayList;
-import java.util.Optional;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -82,8 +83,7 @@ public class Trial {
     }
 
     public static boolean isTrialFile(File file) throws IOException {
-        Optional<String> firstLine = Files.lines(file.toPath()).findFirst();
-        return firstLine.isPresent() && firstLine.get().startsWith("TrialID");
+        return FileTypeDetector.detect(file) == FileType.TRIAL;
     }
 
     public static ArrayList<Trial> readTrialFile(File file) {
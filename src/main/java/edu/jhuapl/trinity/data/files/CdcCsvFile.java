@@ -21,6 +21,7 @@ package edu.jhuapl.trinity.data.files;
  */
 
 import edu.jhuapl.trinity.data.CdcCsv;
+import edu.jhuapl.trinity.data.files.FileTypeDetector.FileType;
 
 import java.awt.datatransfer.DataFlavor;
 import java.awt.datatransfer.Transferable;
@@ -29,7 +30,6 @@ import java.io.File;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.util.List;
-import java.util.Optional;
 
 import static edu.jhuapl.trinity.data.CdcCsv.csvToCdcCsv;
 
@@ -72,8 +72,7 @@ public class CdcCsvFile extends File implements Transferable {
      * @throws java.io.IOException
      */
     public static boolean isCdcCsvFile(File file) throws IOException {
-        Optional<String> firstLine = Files.lines(file.toPath()).findFirst();
-        return firstLine.isPresent() && firstLine.get().startsWith(FILE_DESC);
+        return FileTypeDetector.detect(file) == FileType.CDC_CSV;
     }
 
     /**
@@ -22,6 +22,7 @@ package edu.jhuapl.trinity.data.files;
 
 import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import edu.jhuapl.trinity.data.files.FileTypeDetector.FileType;
 import edu.jhuapl.trinity.data.messages.FeatureCollection;
 
 import java.awt.datatransfer.DataFlavor;
@@ -71,10 +72,7 @@ public class FeatureCollectionFile extends File implements Transferable {
      * @throws java.io.IOException
      */
     public static boolean isFeatureCollectionFile(File file) throws IOException {
-        String body = Files.readString(file.toPath());
-        return FeatureCollection.isFeatureCollection(body);
-//        return firstLine.isPresent() &&
-//        (firstLine.get().contains(FILE_DESC1) || firstLine.get().contains(FILE_DESC2));
+        return FileTypeDetector.detect(file) == FileType.FEATURE_COLLECTION;
     }
 
     /**
@@ -0,0 +1,162 @@
+package edu.jhuapl.trinity.data.files;
+
+/*-
+ * #%L
+ * trinity
+ * %%
+ * Copyright (C) 2021 - 2023 The Johns Hopkins University Applied Physics Laboratory LLC
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import edu.jhuapl.trinity.data.messages.FeatureCollection;
+import edu.jhuapl.trinity.data.messages.GaussianMixtureCollection;
+import edu.jhuapl.trinity.data.messages.LabelConfig;
+import edu.jhuapl.trinity.data.messages.ManifoldData;
+import edu.jhuapl.trinity.data.messages.SemanticMapCollection;
+import edu.jhuapl.trinity.data.messages.TextEmbeddingCollection;
+import edu.jhuapl.trinity.data.terrain.FireAreaTextFile;
+import edu.jhuapl.trinity.data.terrain.TerrainTextFile;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Works out which of the supported import formats a file holds without
+ * reading it all. The first PREFIX_BYTES of the file are read once. The text
+ * formats are told apart by their header line, which is always inside that
+ * prefix. JSON files are streamed token by token from the same bytes, and
+ * the rest of the file after them, until the root object's type or
+ * messageType field. Values ahead of that field are skipped unconverted. Our
+ * writers put the type first, so normally only the first buffer is touched.
+ */
+public class FileTypeDetector {
+    public static final int PREFIX_BYTES = 64 * 1024;
+    public static final String TRIAL_MARKER = "TrialID";
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    public enum FileType {
+        LABEL_CONFIG, TERRAIN_TEXT, FIRE_AREA_TEXT, SEMANTIC_MAP_COLLECTION,
+        FEATURE_COLLECTION, GAUSSIAN_MIXTURE_COLLECTION, TEXT_EMBEDDING_COLLECTION,
+        CDC_CSV, CDC_TISSUE_GENES, MCCLOD_SPLIT_DATA, TRIAL, ZERO_PILOT_LATENTS,
+        MANIFOLD_DATA, UNKNOWN
+    }
+
+    private FileTypeDetector() {
+    }
+
+    /**
+     * Detects the import format of a file.
+     *
+     * @param file the file to inspect
+     * @return the detected type, UNKNOWN if no supported format matches
+     * @throws IOException if the file cannot be read
+     */
+    public static FileType detect(File file) throws IOException {
+        try (InputStream in = new FileInputStream(file)) {
+            byte[] prefix = new byte[PREFIX_BYTES];
+            int length = in.readNBytes(prefix, 0, prefix.length);
+            int from = bomLength(prefix, length);
+            int start = from;
+            while (start < length && Character.isWhitespace(prefix[start]))
+                start++;
+            if (start < length && prefix[start] == '{') {
+                InputStream json = new SequenceInputStream(
+                    new ByteArrayInputStream(prefix, 0, length), in);
+                return detectJson(json);
+            }
+            return detectText(firstLine(prefix, from, length));
+        }
+    }
+
+    /**
+     * Classifies a text file by its header line.
+     *
+     * @param line the first line of the file
+     * @return the detected type, UNKNOWN if no text format matches
+     */
+    public static FileType detectText(String line) {
+        if (line.contentEquals(TerrainTextFile.TERRAIN_TEXT_MARKER))
+            return FileType.TERRAIN_TEXT;
+        if (line.contains(FireAreaTextFile.FIREAREA_TEXT_MARKER))
+            return FileType.FIRE_AREA_TEXT;
+        if (line.startsWith(CdcCsvFile.FILE_DESC))
+            return FileType.CDC_CSV;
+        if (line.contains(CdcTissueGenesFile.FILE_DESC))
+            return FileType.CDC_TISSUE_GENES;
+        if (line.contains(McclodSplitDataTsvFile.FILE_DESC))
+            return FileType.MCCLOD_SPLIT_DATA;
+        if (line.startsWith(TRIAL_MARKER))
+            return FileType.TRIAL;
+        if (line.contains(ZeroPilotLatentsFile.FILE_DESC))
+            return FileType.ZERO_PILOT_LATENTS;
+        return FileType.UNKNOWN;
+    }
+
+    private static FileType detectJson(InputStream json) throws IOException {
+        try (JsonParser parser = JSON_FACTORY.createParser(json)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT)
+                return FileType.UNKNOWN;
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String fieldName = parser.currentName();
+                JsonToken value = parser.nextToken();
+                if (value == JsonToken.VALUE_STRING
+                    && ("type".equals(fieldName) || "messageType".equals(fieldName))) {
+                    FileType type = jsonType(parser.getText());
+                    if (type != FileType.UNKNOWN)
+                        return type;
+                }
+                parser.skipChildren(); //no-op for scalar values
+            }
+        } catch (JsonProcessingException ex) {
+            //not well formed JSON, so none of ours
+        }
+        return FileType.UNKNOWN;
+    }
+
+    private static FileType jsonType(String typeString) {
+        return switch (typeString) {
+            case LabelConfig.TYPESTRING -> FileType.LABEL_CONFIG;
+            case SemanticMapCollection.TYPESTRING -> FileType.SEMANTIC_MAP_COLLECTION;
+            case FeatureCollection.TYPESTRING -> FileType.FEATURE_COLLECTION;
+            case GaussianMixtureCollection.TYPESTRING -> FileType.GAUSSIAN_MIXTURE_COLLECTION;
+            case TextEmbeddingCollection.TYPESTRING -> FileType.TEXT_EMBEDDING_COLLECTION;
+            case ManifoldData.TYPESTRING -> FileType.MANIFOLD_DATA;
+            default -> FileType.UNKNOWN;
+        };
+    }
+
+    private static int bomLength(byte[] bytes, int length) {
+        return length >= 3 && (bytes[0] & 0xFF) == 0xEF
+            && (bytes[1] & 0xFF) == 0xBB && (bytes[2] & 0xFF) == 0xBF ? 3 : 0;
+    }
+
+    private static String firstLine(byte[] bytes, int from, int length) {
+        int end = from;
+        while (end < length && bytes[end] != '\n')
+            end++;
+        if (end > from && bytes[end - 1] == '\r')
+            end--;
+        return new String(bytes, from, end - from, StandardCharsets.UTF_8);
+    }
+}
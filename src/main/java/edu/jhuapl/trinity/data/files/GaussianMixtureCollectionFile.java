@@ -22,6 +22,7 @@ package edu.jhuapl.trinity.data.files;
 
 import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import edu.jhuapl.trinity.data.files.FileTypeDetector.FileType;
 import edu.jhuapl.trinity.data.messages.GaussianMixtureCollection;
 
 import java.awt.datatransfer.DataFlavor;
@@ -30,7 +31,6 @@ import java.awt.datatransfer.UnsupportedFlavorException;
 import java.io.File;
 import java.io.IOException;
 import java.nio.file.Files;
-import java.util.Optional;
 
 /**
  * @author Sean Phillips
@@ -72,9 +72,7 @@ public class GaussianMixtureCollectionFile extends File implements Transferable
      * @throws java.io.IOException
      */
     public static boolean isGaussianMixtureCollectionFile(File file) throws IOException {
-        Optional<String> firstLine = Files.lines(file.toPath()).findFirst();
-        return firstLine.isPresent() &&
-            (firstLine.get().contains(FILE_DESC1) || firstLine.get().contains(FILE_DESC2));
+        return FileTypeDetector.detect(file) == FileType.GAUSSIAN_MIXTURE_COLLECTION;
     }
 
     /**
@@ -22,6 +22,7 @@ package edu.jhuapl.trinity.data.files;
 
 import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import edu.jhuapl.trinity.data.files.FileTypeDetector.FileType;
 import edu.jhuapl.trinity.data.messages.LabelConfig;
 
 import java.awt.datatransfer.DataFlavor;
@@ -81,8 +82,7 @@ public class LabelConfigFile extends File implements Transferable {
      * @throws java.io.IOException
      */
     public static boolean isLabelConfigFile(File file) throws IOException {
-        String body = Files.readString(file.toPath());
-        return LabelConfig.isLabelConfig(body);
+        return FileTypeDetector.detect(file) == FileType.LABEL_CONFIG;
     }
 
     /**
@@ -22,6 +22,7 @@ package edu.jhuapl.trinity.data.files;
 
 import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import edu.jhuapl.trinity.data.files.FileTypeDetector.FileType;
 import edu.jhuapl.trinity.data.messages.ManifoldData;
 import java.awt.datatransfer.DataFlavor;
 import java.awt.datatransfer.Transferable;
@@ -70,10 +71,7 @@ public class ManifoldDataFile extends File implements Transferable {
      * @throws java.io.IOException
      */
     public static boolean isManifoldDataFile(File file) throws IOException {
-        String body = Files.readString(file.toPath());
-        return ManifoldData.isManifoldData(body);
-//        return firstLine.isPresent() &&
-//        (firstLine.get().contains(FILE_DESC1) || firstLine.get().contains(FILE_DESC2));
+        return FileTypeDetector.detect(file) == FileType.MANIFOLD_DATA;
     }
 
     /**
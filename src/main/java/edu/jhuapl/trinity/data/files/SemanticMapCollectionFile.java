@@ -22,6 +22,7 @@ package edu.jhuapl.trinity.data.files;
 
 import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import edu.jhuapl.trinity.data.files.FileTypeDetector.FileType;
 import edu.jhuapl.trinity.data.messages.SemanticMapCollection;
 
 import java.awt.datatransfer.DataFlavor;
@@ -73,11 +74,7 @@ public class SemanticMapCollectionFile extends File implements Transferable {
      * @throws java.io.IOException
      */
     public static boolean isSemanticMapCollectionFile(File file) throws IOException {
-        return Files.lines(file.toPath()).limit(2).anyMatch(t -> {
-            int lim = t.length() > 256 ? 256 : t.length();
-            return t.substring(0, lim).contains(FILE_DESC1)
-                || t.substring(0, lim).contains(FILE_DESC2);
-        });
+        return FileTypeDetector.detect(file) == FileType.SEMANTIC_MAP_COLLECTION;
     }
 
     /**
@@ -22,6 +22,7 @@ package edu.jhuapl.trinity.data.files;
 
 import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import edu.jhuapl.trinity.data.files.FileTypeDetector.FileType;
 import edu.jhuapl.trinity.data.messages.TextEmbeddingCollection;
 
 import java.awt.datatransfer.DataFlavor;
@@ -71,8 +72,7 @@ public class TextEmbeddingCollectionFile extends File implements Transferable {
      * @throws java.io.IOException
      */
     public static boolean isTextEmbeddingCollection(File file) throws IOException {
-        String body = Files.readString(file.toPath());
-        return TextEmbeddingCollection.isTextEmbeddingCollection(body);
+        return FileTypeDetector.detect(file) == FileType.TEXT_EMBEDDING_COLLECTION;
     }
 
     /**
@@ -22,6 +22,7 @@ package edu.jhuapl.trinity.data.files;
 
 import edu.jhuapl.trinity.App;
 import edu.jhuapl.trinity.data.ZeroPilotLatents;
+import edu.jhuapl.trinity.data.files.FileTypeDetector.FileType;
 import edu.jhuapl.trinity.javafx.components.ProgressStatus;
 import edu.jhuapl.trinity.javafx.events.ApplicationEvent;
 import javafx.application.Platform;
@@ -41,7 +42,6 @@ import java.io.LineNumberReader;
 import java.nio.file.Files;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Optional;
 
 /**
  * @author Sean Phillips
@@ -82,8 +82,7 @@ public class ZeroPilotLatentsFile extends File implements Transferable {
      * @throws java.io.IOException
      */
     public static boolean isZeroPilotLatentsFile(File file) throws IOException {
-        Optional<String> firstLine = Files.lines(file.toPath()).findFirst();
-        return firstLine.isPresent() && firstLine.get().contains(FILE_DESC);
+        return FileTypeDetector.detect(file) == FileType.ZERO_PILOT_LATENTS;
     }
 
     /**
@@ -67,8 +67,31 @@ public class FeatureCollection extends MessageData {
         int vectorWidth = features.get(0).getData().size();
         double[][] data = new double[vectorCount][vectorWidth];
         for (int featureVectorIndex = 0; featureVectorIndex < vectorCount; featureVectorIndex++) {
+            List<Double> vector = features.get(featureVectorIndex).getData();
+            double[] row = data[featureVectorIndex];
             for (int vectorIndex = 0; vectorIndex < vectorWidth; vectorIndex++) {
-                data[featureVectorIndex][vectorIndex] = features.get(featureVectorIndex).getData().get(vectorIndex);
+                row[vectorIndex] = vector.get(vectorIndex);
+            }
+        }
+        return data;
+    }
+
+    /**
+     * Copies the feature vectors into one row-major float array in a single
+     * pass, one vector per row, ready to be used as a flat matrix. Every
+     * vector is assumed to be as wide as the first.
+     *
+     * @return vectorCount * vectorWidth values
+     */
+    public float[] convertFeaturesToFlatArray() {
+        int vectorCount = features.size();
+        int vectorWidth = features.get(0).getData().size();
+        float[] data = new float[Math.multiplyExact(vectorCount, vectorWidth)];
+        int i = 0;
+        for (FeatureVector featureVector : features) {
+            List<Double> vector = featureVector.getData();
+            for (int vectorIndex = 0; vectorIndex < vectorWidth; vectorIndex++) {
+                data[i++] = vector.get(vectorIndex).floatValue();
             }
         }
         return data;
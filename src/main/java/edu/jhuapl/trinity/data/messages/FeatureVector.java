@@ -193,6 +193,9 @@ public class FeatureVector extends MessageData {
     };
 
     public static Function<FeatureVector, double[]> mapToStateArray = (state) -> {
+        //vectors decoded from binary frames are already primitive
+        if (state.data instanceof PackedDoubleList packed)
+            return packed.toDoubleArray();
         double[] states = new double[state.data.size()];
         for (int i = 0; i < states.length; i++) {
             states[i] = state.data.get(i);
@@ -0,0 +1,89 @@
+package edu.jhuapl.trinity.data.messages;
+
+/*-
+ * #%L
+ * trinity
+ * %%
+ * Copyright (C) 2021 - 2023 The Johns Hopkins University Applied Physics Laboratory LLC
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.RandomAccess;
+
+/**
+ * Fixed size List view over a primitive double array. Used for feature vector
+ * data decoded from binary frames so that the values are not boxed up front;
+ * boxing only happens for the elements a caller actually reads through the
+ * List interface. Elements can be replaced but not added or removed.
+ */
+public final class PackedDoubleList extends AbstractList<Double> implements RandomAccess {
+    private final double[] values;
+
+    /**
+     * @param values backing array, not copied
+     */
+    public PackedDoubleList(double[] values) {
+        this.values = values;
+    }
+
+    @Override
+    public Double get(int index) {
+        return values[index];
+    }
+
+    public double getDouble(int index) {
+        return values[index];
+    }
+
+    @Override
+    public Double set(int index, Double element) {
+        double previous = values[index];
+        values[index] = element;
+        return previous;
+    }
+
+    @Override
+    public int size() {
+        return values.length;
+    }
+
+    /**
+     * @return a copy of the values
+     */
+    public double[] toDoubleArray() {
+        return values.clone();
+    }
+
+    /**
+     * @return the backing array, changes are visible through this list
+     */
+    public double[] array() {
+        return values;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (o instanceof PackedDoubleList other)
+            return Arrays.equals(values, other.values);
+        return super.equals(o);
+    }
+
+    @Override
+    public int hashCode() {
+        return super.hashCode();
+    }
+}
@@ -20,6 +20,9 @@ package edu.jhuapl.trinity.data.terrain;
  * #L%
  */
 
+import edu.jhuapl.trinity.data.files.FileTypeDetector;
+import edu.jhuapl.trinity.data.files.FileTypeDetector.FileType;
+
 import java.awt.datatransfer.DataFlavor;
 import java.awt.datatransfer.Transferable;
 import java.awt.datatransfer.UnsupportedFlavorException;
@@ -69,8 +72,7 @@ public class FireAreaTextFile extends File implements Transferable {
      * @throws java.io.IOException
      */
     public static boolean isFireAreaTextFile(File file) throws IOException {
-        return Files.lines(file.toPath())
-            .findFirst().get().contains(FIREAREA_TEXT_MARKER);
+        return FileTypeDetector.detect(file) == FileType.FIRE_AREA_TEXT;
     }
 
     /**
@@ -174,7 +174,15 @@ public class Shape3DControlPane extends LitPathPane {
             Point3D p3D = (Point3D) e.object1;
 //            org.fxyz3d.geometry.Point3D fxyzP3D = new org.fxyz3d.geometry.Point3D(
 //                p3D.getX(), p3D.getY(), p3D.getZ());
-            int shortestIndex = 0;
+            //the items mirror the manifold's points, so its index answers directly
+            int shortestIndex = null == manifold3D ? -1 : manifold3D.getClosestPointIndex(p3D);
+            if (shortestIndex >= 0 && pointListView.getItems().size()
+                == manifold3D.getOriginalPoint3DList().size()) {
+                pointListView.getSelectionModel().select(shortestIndex);
+                pointListView.scrollTo(shortestIndex);
+                return;
+            }
+            shortestIndex = 0;
             Double shortestDistance = null;
             for(int i=0;i<pointListView.getItems().size();i++){
                 PointListItem item = pointListView.getItems().get(i);
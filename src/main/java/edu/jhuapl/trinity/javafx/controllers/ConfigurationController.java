@@ -186,6 +186,8 @@ public class ConfigurationController implements Initializable {
     @FXML
     private Spinner point3DSizeSpinner;
     @FXML
+    private Spinner lodTriangleBudgetSpinner;
+    @FXML
     private Spinner pointScaleSpinner;
     @FXML
     private Spinner scatterBuffScalingSpinner;
@@ -256,6 +258,7 @@ public class ConfigurationController implements Initializable {
     int refreshRate = 500; //ms
     double pointScale = 1.0;
     double point3dSize = 10;
+    int lodTriangleBudget = 1_000_000; //zero draws every point
     double scatterBuffScaling = 1.0;
     double maxAbsVal = 1.0;
     double meanCenteredMaxAbsVal = 1.0;
@@ -595,6 +598,16 @@ public class ConfigurationController implements Initializable {
                     (Double) point3DSizeSpinner.getValue()));
         });
 
+        lodTriangleBudgetSpinner.setValueFactory(
+            new SpinnerValueFactory.IntegerSpinnerValueFactory(0, lodTriangleBudget * 100, lodTriangleBudget, 100000));
+        lodTriangleBudgetSpinner.setEditable(true);
+        //whenever the spinner value is changed...
+        lodTriangleBudgetSpinner.valueProperty().addListener(e -> {
+            scene.getRoot().fireEvent(
+                new HyperspaceEvent(HyperspaceEvent.LOD_TRIANGLE_BUDGET_GUI,
+                    lodTriangleBudgetSpinner.getValue()));
+        });
+
         pointScaleSpinner.setValueFactory(
             new SpinnerValueFactory.DoubleSpinnerValueFactory(0.1, pointScale * 10, pointScale, 0.1));
         pointScaleSpinner.setEditable(true);
@@ -27,10 +27,12 @@ import edu.jhuapl.trinity.javafx.events.TrajectoryEvent;
 import edu.jhuapl.trinity.javafx.events.ZeroMQEvent;
 import edu.jhuapl.trinity.messages.ZeroMQFeedManager;
 import edu.jhuapl.trinity.messages.ZeroMQSubscriberConfig;
+import edu.jhuapl.trinity.utils.BoundedRingBuffer.OverflowPolicy;
 import javafx.fxml.FXML;
 import javafx.fxml.Initializable;
 import javafx.scene.Scene;
 import javafx.scene.control.CheckBox;
+import javafx.scene.control.ChoiceBox;
 import javafx.scene.control.ProgressIndicator;
 import javafx.scene.control.RadioButton;
 import javafx.scene.control.Spinner;
@@ -44,6 +46,8 @@ import javafx.stage.DirectoryChooser;
 
 import java.io.File;
 import java.net.URL;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.ResourceBundle;
 
 /**
@@ -74,6 +78,10 @@ public class DataController implements Initializable {
     private RadioButton pubsubRadioButton;
     @FXML
     private RadioButton pushpullRadioButton;
+    @FXML
+    private CheckBox binaryFramesCheckBox;
+    @FXML
+    private ChoiceBox<OverflowPolicy> overflowChoiceBox;
     //// Imagery /////
     @FXML
     private TextField imageryBasePathTextField;
@@ -107,6 +115,8 @@ public class DataController implements Initializable {
         pubsubRadioButton.setToggleGroup(toggleGroup);
         pushpullRadioButton.setToggleGroup(toggleGroup);
         updateRateTextField.setText(String.valueOf(ZeroMQFeedManager.DEFAULT_TIMER_RATE_MS));
+        overflowChoiceBox.getItems().setAll(OverflowPolicy.values());
+        overflowChoiceBox.setValue(OverflowPolicy.DROP_OLDEST);
         imageryBasePathTextField.setText("imagery/");
         showTimelineCheckBox.selectedProperty().addListener(cl -> {
             showTimelineCheckBox.getScene().getRoot().fireEvent(
@@ -162,16 +172,29 @@ public class DataController implements Initializable {
     }
 
     private ZeroMQSubscriberConfig getSubscriberConfig() {
-        String hostURL = "tcp://" + hostTextField.getText().trim() + ":" +
-            Integer.valueOf(portTextField.getText());
-        ZeroMQSubscriberConfig config = new ZeroMQSubscriberConfig(
-            "ZeroMQ Subscriber", "Testing ZeroMQFeedManager.",
-            hostURL, "ALL", "SomeIDValue", Integer.valueOf(updateRateTextField.getText()));
-        if (pushpullRadioButton.isSelected())
-            config.connection = ZeroMQSubscriberConfig.CONNECTION.PULL;
-        else
-            config.connection = ZeroMQSubscriberConfig.CONNECTION.SUBSCRIBER;
-        return config;
+        return getSubscriberConfigs().get(0);
+    }
+
+    /**
+     * @return one config per port, the port field may hold a comma separated list
+     */
+    private List<ZeroMQSubscriberConfig> getSubscriberConfigs() {
+        List<ZeroMQSubscriberConfig> configs = new ArrayList<>();
+        for (String port : portTextField.getText().split(",")) {
+            String hostURL = "tcp://" + hostTextField.getText().trim() + ":" +
+                Integer.valueOf(port.trim());
+            ZeroMQSubscriberConfig config = new ZeroMQSubscriberConfig(
+                "ZeroMQ Subscriber " + port.trim(), "Testing ZeroMQFeedManager.",
+                hostURL, "ALL", "SomeIDValue", Integer.valueOf(updateRateTextField.getText()));
+            if (pushpullRadioButton.isSelected())
+                config.connection = ZeroMQSubscriberConfig.CONNECTION.PULL;
+            else
+                config.connection = ZeroMQSubscriberConfig.CONNECTION.SUBSCRIBER;
+            config.binaryFrames = binaryFramesCheckBox.isSelected();
+            config.overflowPolicy = overflowChoiceBox.getValue();
+            configs.add(config);
+        }
+        return configs;
     }
 
     @FXML
@@ -181,7 +204,8 @@ public class DataController implements Initializable {
         if (socketToggleButton.isSelected()) {
             socketToggleButton.setText("Disconnect");
             scene.getRoot().fireEvent(
-                new ZeroMQEvent(ZeroMQEvent.ZEROMQ_ESTABLISH_CONNECTION, config));
+                new ZeroMQEvent(ZeroMQEvent.ZEROMQ_ESTABLISH_CONNECTION,
+                    getSubscriberConfigs()));
         } else {
             //first stop processing messages
             scene.getRoot().fireEvent(
@@ -38,6 +38,7 @@ public class FeatureVectorEvent extends Event {
     public static final EventType<FeatureVectorEvent> EXPORT_FEATURE_COLLECTION = new EventType(ANY, "EXPORT_FEATURE_COLLECTION");
     public static final EventType<FeatureVectorEvent> NEW_FEATURE_COLLECTION = new EventType(ANY, "NEW_FEATURE_COLLECTION");
     public static final EventType<FeatureVectorEvent> NEW_FEATURE_VECTOR = new EventType(ANY, "NEW_FEATURE_VECTOR");
+    public static final EventType<FeatureVectorEvent> NEW_FEATURE_VECTOR_BATCH = new EventType(ANY, "NEW_FEATURE_VECTOR_BATCH");
     public static final EventType<FeatureVectorEvent> LOCATE_FEATURE_VECTOR = new EventType(ANY, "LOCATE_FEATURE_VECTOR");
     public static final EventType<FeatureVectorEvent> SELECT_FEATURE_VECTOR = new EventType(ANY, "SELECT_FEATURE_VECTOR");
     public static final EventType<FeatureVectorEvent> RESCAN_FEATURE_LAYERS = new EventType(ANY, "RESCAN_FEATURE_LAYERS");
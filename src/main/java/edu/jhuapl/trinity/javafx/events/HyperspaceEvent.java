@@ -55,6 +55,7 @@ public class HyperspaceEvent extends Event {
     public static final EventType<HyperspaceEvent> FACTOR_VECTORMAX_GUI = new EventType(ANY, "FACTOR_VECTORMAX_GUI");
     public static final EventType<HyperspaceEvent> NODE_QUEUELIMIT_KEYPRESS = new EventType(ANY, "NODE_QUEUELIMIT_KEYPRESS");
     public static final EventType<HyperspaceEvent> NODE_QUEUELIMIT_GUI = new EventType(ANY, "NODE_QUEUELIMIT_GUI");
+    public static final EventType<HyperspaceEvent> LOD_TRIANGLE_BUDGET_GUI = new EventType(ANY, "LOD_TRIANGLE_BUDGET_GUI");
     public static final EventType<HyperspaceEvent> REFRESH_RATE_KEYPRESS = new EventType(ANY, "REFRESH_RATE_KEYPRESS");
     public static final EventType<HyperspaceEvent> REFRESH_RATE_GUI = new EventType(ANY, "REFRESH_RATE_GUI");
     public static final EventType<HyperspaceEvent> POINT3D_SIZE_KEYPRESS = new EventType(ANY, "POINT3D_SIZE_KEYPRESS");
@@ -25,12 +25,15 @@ import javafx.event.Event;
 import javafx.event.EventTarget;
 import javafx.event.EventType;
 
+import java.util.List;
+
 /**
  * @author Sean Phillips
  */
 public class ZeroMQEvent extends Event {
 
     public ZeroMQSubscriberConfig subscriberConfig;
+    public List<ZeroMQSubscriberConfig> subscriberConfigs;
 
     public static final EventType<ZeroMQEvent> ZEROMQ_ESTABLISH_CONNECTION = new EventType(ANY, "ZEROMQ_ESTABLISH_CONNECTION");
     public static final EventType<ZeroMQEvent> ZEROMQ_TERMINATE_CONNECTION = new EventType(ANY, "ZEROMQ_TERMINATE_CONNECTION");
@@ -41,10 +44,18 @@ public class ZeroMQEvent extends Event {
     public ZeroMQEvent(EventType<? extends Event> arg0, ZeroMQSubscriberConfig t) {
         super(arg0);
         subscriberConfig = t;
+        subscriberConfigs = List.of(t);
+    }
+
+    public ZeroMQEvent(EventType<? extends Event> arg0, List<ZeroMQSubscriberConfig> t) {
+        super(arg0);
+        subscriberConfig = t.get(0);
+        subscriberConfigs = t;
     }
 
     public ZeroMQEvent(ZeroMQSubscriberConfig arg0, EventTarget arg1, EventType<? extends Event> arg2) {
         super(arg0, arg1, arg2);
         subscriberConfig = arg0;
+        subscriberConfigs = List.of(arg0);
     }
 }
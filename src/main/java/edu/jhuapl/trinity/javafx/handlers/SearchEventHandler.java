@@ -22,7 +22,6 @@ package edu.jhuapl.trinity.javafx.handlers;
 
 import edu.jhuapl.trinity.App;
 import edu.jhuapl.trinity.data.FilterSet;
-import edu.jhuapl.trinity.data.messages.FeatureVector;
 import edu.jhuapl.trinity.javafx.events.CommandTerminalEvent;
 import edu.jhuapl.trinity.javafx.events.SearchEvent;
 import edu.jhuapl.trinity.javafx.renderers.FeatureVectorRenderer;
@@ -51,11 +50,7 @@ public class SearchEventHandler implements EventHandler<SearchEvent> {
     public void handleClearAllFilters(SearchEvent event) {
         System.out.print("Clearing Filters... ");
         for (FeatureVectorRenderer renderer : renderers) {
-            List<FeatureVector> fvList = renderer.getAllFeatureVectors();
-            int size = fvList.size();
-            for (int i = 0; i < size; i++) {
-                renderer.setVisibleByIndex(i, true);
-            }
+            renderer.clearAllFilters();
             //request render update
             renderer.refresh();
         }
@@ -66,15 +61,7 @@ public class SearchEventHandler implements EventHandler<SearchEvent> {
         String metadataTerm = (String) event.eventObject;
         System.out.print("Filtering based on " + metadataTerm + "... ");
         for (FeatureVectorRenderer renderer : renderers) {
-            List<FeatureVector> fvList = renderer.getAllFeatureVectors();
-            int size = fvList.size();
-            for (int i = 0; i < size; i++) {
-                if (!fvList.get(i).metaContainsTerm(metadataTerm))
-                    renderer.setVisibleByIndex(i, false);
-//@DEBUG SMP useful print... but it is very slow
-//                else
-//                    System.out.println("Index: " + i + " | " + fvList.get(i).metadataAsString(" "));
-            }
+            renderer.filterByTerm(metadataTerm);
             //request render update
             renderer.refresh();
         }
@@ -89,18 +76,8 @@ public class SearchEventHandler implements EventHandler<SearchEvent> {
         System.out.print(msg);
 
         for (FeatureVectorRenderer renderer : renderers) {
-            List<FeatureVector> fvList = renderer.getAllFeatureVectors();
-            int size = fvList.size();
-            int filteredCount = 0;
-            double score;
-            for (int i = 0; i < size; i++) {
-                score = fvList.get(i).getScore();
-                if (score < filterSet.minimum.doubleValue()
-                    || score > filterSet.maximum.doubleValue()) {
-                    renderer.setVisibleByIndex(i, false);
-                    filteredCount++;
-                }
-            }
+            int filteredCount = renderer.filterByScore(
+                filterSet.minimum.doubleValue(), filterSet.maximum.doubleValue());
             //request render update
             renderer.refresh();
             msg = filteredCount + " featureVectors filtered.";
@@ -117,18 +94,8 @@ public class SearchEventHandler implements EventHandler<SearchEvent> {
         System.out.print(msg);
 
         for (FeatureVectorRenderer renderer : renderers) {
-            List<FeatureVector> fvList = renderer.getAllFeatureVectors();
-            int size = fvList.size();
-            int filteredCount = 0;
-            double probability;
-            for (int i = 0; i < size; i++) {
-                probability = fvList.get(i).getPfa();
-                if (probability < filterSet.minimum.doubleValue()
-                    || probability > filterSet.maximum.doubleValue()) {
-                    renderer.setVisibleByIndex(i, false);
-                    filteredCount++;
-                }
-            }
+            int filteredCount = renderer.filterByProbability(
+                filterSet.minimum.doubleValue(), filterSet.maximum.doubleValue());
             //request render update
             renderer.refresh();
             msg = filteredCount + " featureVectors filtered.";
@@ -22,16 +22,23 @@ package edu.jhuapl.trinity.javafx.javafx3d;
 
 import org.fxyz3d.geometry.Point3D;
 
-import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
 
 /**
  * @author Sean Phillips
  */
 public class DirectedScatterDataModel {
-    public ArrayList<Perspective3DNode> pNodes;
-    public ArrayList<Point3D> data;
-    public ArrayList<Point3D> endPoints;
+    /**
+     * Primitive copy of the nodes being drawn, reused between redraws
+     */
+    public final PointStore store = new PointStore();
+    //store index of each point last returned by getVisiblePoints and back,
+    //-1 when hidden. Left alone by reset so picks match what is drawn.
+    private int[] visibleToStore = new int[0];
+    private int[] storeToVisible = new int[0];
+    public List<Point3D> data;
+    public List<Point3D> endPoints;
     public Double nodeMaxX;
     public Double nodeMinX;
     public Double nodeRangeX;
@@ -61,16 +68,14 @@ public class DirectedScatterDataModel {
     public Double totalRangeZ;
     public boolean useTotalPositioning = true;
     public boolean reflectY = true;
-    public boolean ignoreVisibility = false;
     public Double xShift = 0.0;
     public Double yShift = 0.0;
     public Double zShift = 0.0;
     public double pointScale = 1.0;
 
     public DirectedScatterDataModel() {
-        pNodes = new ArrayList<>();
-        data = new ArrayList<>();
-        endPoints = new ArrayList<>();
+        data = List.of();
+        endPoints = List.of();
         nodeMaxX = null;
         nodeMinX = null;
         nodeRangeX = null;
@@ -91,9 +96,19 @@ public class DirectedScatterDataModel {
         directRangeZ = null;
     }
 
+    /**
+     * Replace the points with the given nodes. Unlike addNode the node limits
+     * are left alone, the total limits are used for positioning.
+     *
+     * @param nodes nodes in draw order
+     */
+    public void setNodes(Perspective3DNode[] nodes) {
+        store.setAll(nodes);
+    }
+
     public void addNode(Perspective3DNode pNode) {
-        //update the list of all perspective nodes
-        pNodes.add(pNode);
+        //update the store of all perspective nodes
+        store.add(pNode);
         //Its actually quicker to add them brute force and then just quick sort later
         //This facilitates binarySearch() based on converted screen coordinates
         //update coordinate transformation information for X
@@ -110,19 +125,34 @@ public class DirectedScatterDataModel {
         nodeRangeZ = nodeMaxZ - nodeMinZ;
     }
 
+    /**
+     * @param visibleFacePoint index into the points last returned by
+     *                         getVisiblePoints, as picked from the mesh
+     * @return store index of that point, or -1 if out of range
+     */
     public int findIndexFromVisibleFacePoint(int visibleFacePoint) {
-        int visibleCounter = 0;
-        for (int index = 0; index < pNodes.size(); index++) {
-            if (pNodes.get(index).visible) {
-                visibleCounter++;
-                if (visibleCounter == visibleFacePoint)
-                    return index;
-            }
-        }
-        return -1;
+        int[] map = visibleToStore;
+        return visibleFacePoint >= 0 && visibleFacePoint < map.length ? map[visibleFacePoint] : -1;
+    }
+
+    /**
+     * @param storeIndex index into the point store
+     * @return index of that point within the points last returned by
+     * getVisiblePoints, or -1 if it was hidden or out of range
+     */
+    public int findVisibleFacePointFromIndex(int storeIndex) {
+        int[] map = storeToVisible;
+        return storeIndex >= 0 && storeIndex < map.length ? map[storeIndex] : -1;
     }
 
-    public ArrayList<Point3D> getVisiblePoints(boolean useVisibility, double sceneWidth, double sceneHeight) {
+    /**
+     * Positions the visible points of the store for the scene, hidden points
+     * are skipped, and records which store index each returned point came
+     * from for picking.
+     *
+     * @return visible points in store order
+     */
+    public List<Point3D> getVisiblePoints(double sceneWidth, double sceneHeight) {
         double halfSceneWidth = sceneWidth / 2.0;
         double halfSceneHeight = sceneHeight / 2.0;
         float quarterSceneWidth = (float) sceneWidth / 4.0f;
@@ -145,48 +175,46 @@ public class DirectedScatterDataModel {
             minZ = totalMinZ;
             rangeZ = totalRangeZ;
         }
+        //unbox once rather than per point
+        double shiftX = xShift, shiftY = yShift, shiftZ = zShift;
+        float ySign = reflectY ? -1f : 1f;
 
-        ArrayList<Point3D> data = new ArrayList<>(pNodes.size());
-        float xCoord;
-        float yCoord;
-        float zCoord;
-        Point3D point3D;
-        for (Perspective3DNode pNode : pNodes) {
-            if (null == pNode) {
-                System.out.println("Null... wtf...");
-            } else if (pNode.visible) {
-                try {
-                    //X ==> X Positive
-                    xCoord = rangeX == 0.0 ? 0.0f : (float) ((((pNode.xCoord - xShift) * pointScale - minX) * halfSceneWidth) / rangeX);
-                    //Y ==> Z Positive
-                    yCoord = rangeY == 0.0 ? 0.0f : (float) ((((pNode.yCoord - yShift) * pointScale - minY) * halfSceneHeight) / rangeY);
-                    //Z ==> Y Positive
-                    zCoord = rangeZ == 0.0 ? 0.0f : (float) ((((pNode.zCoord - zShift) * pointScale - minZ) * halfSceneWidth) / rangeZ);
-                    //the offset of a quarter the size of the 3D scene because
-                    //our data is centered and we need to center again within 3D coordinate system
-                    point3D = new Point3D(xCoord - quarterSceneWidth, yCoord - quarterSceneWidth, zCoord - quarterSceneWidth);
-                    if (reflectY) {
-                        point3D.y *= -1;
-                    }
-                    point3D.f = Double.valueOf(pNode.nodeColor.getHue()).floatValue();
-                    data.add(point3D);
-                } catch (Exception ex) {
-                    ex.printStackTrace();
-                }
-            }
+        int count = store.visibleCount();
+        float[] xyz = new float[3 * count];
+        float[] f = new float[count];
+        int[] toStore = new int[count];
+        int[] toVisible = new int[store.size()];
+        Arrays.fill(toVisible, -1);
+        int j = 0;
+        for (int i = store.nextVisible(0); i >= 0; i = store.nextVisible(i + 1)) {
+            toStore[j] = i;
+            toVisible[i] = j;
+            //X ==> X Positive
+            float xCoord = rangeX == 0.0 ? 0.0f : (float) ((((store.getX(i) - shiftX) * pointScale - minX) * halfSceneWidth) / rangeX);
+            //Y ==> Z Positive
+            float yCoord = rangeY == 0.0 ? 0.0f : (float) ((((store.getY(i) - shiftY) * pointScale - minY) * halfSceneHeight) / rangeY);
+            //Z ==> Y Positive
+            float zCoord = rangeZ == 0.0 ? 0.0f : (float) ((((store.getZ(i) - shiftZ) * pointScale - minZ) * halfSceneWidth) / rangeZ);
+            //the offset of a quarter the size of the 3D scene because
+            //our data is centered and we need to center again within 3D coordinate system
+            xyz[3 * j] = xCoord - quarterSceneWidth;
+            xyz[3 * j + 1] = (yCoord - quarterSceneWidth) * ySign;
+            xyz[3 * j + 2] = zCoord - quarterSceneWidth;
+            f[j++] = store.getHue(i);
         }
-        return data;
+        //swapped in whole so a pick never sees half built maps
+        visibleToStore = toStore;
+        storeToVisible = toVisible;
+        return new PackedPoint3DList(xyz, f, count);
     }
 
     public void updateModel(double sceneWidth, double sceneHeight) {
-        data = getVisiblePoints(true, sceneWidth, sceneHeight);
+        data = getVisiblePoints(sceneWidth, sceneHeight);
         endPoints = getFixedEndPoints(0f);
     }
 
-    public ArrayList<Point3D> getFixedEndPoints(float fixedSize) {
-        Point3D[] endArray = new Point3D[pNodes.size()];
-        Arrays.parallelSetAll(endArray, i -> new Point3D(fixedSize, fixedSize, fixedSize));
-        return new ArrayList<>(Arrays.asList(endArray));
+    public List<Point3D> getFixedEndPoints(float fixedSize) {
+        return PackedPoint3DList.filled(store.size(), fixedSize);
     }
 
     public void setShifts(double xShift, double yShift, double zShift) {
@@ -210,9 +238,9 @@ public class DirectedScatterDataModel {
     }
 
     public void reset() {
-        pNodes.clear();
-        data.clear();
-        endPoints.clear();
+        store.clear();
+        data = List.of();
+        endPoints = List.of();
         nodeMaxX = null;
         nodeMinX = null;
         nodeRangeX = null;
@@ -79,6 +79,18 @@ public class DirectedScatterMesh extends Group implements TextureMode {
     private final static int DEFAULT_LEVEL = 0;
     private final static boolean DEFAULT_JOIN_SEGMENTS = true;
     private ObservableList<DirectedTexturedMesh> meshes = FXCollections.<DirectedTexturedMesh>observableArrayList();
+    private InPlaceTetrahedraMesh inPlaceMesh;
+    //level of detail state of the in place mesh
+    private ScatterOctree octree;
+    private List<Point3D> octreeData;
+    private ScatterOctree.Selection selection;
+    private double eyeX = Double.NaN, eyeY = Double.NaN, eyeZ = Double.NaN;
+    private double selectedEyeX = Double.NaN, selectedEyeY = Double.NaN, selectedEyeZ = Double.NaN;
+    /**
+     * Fraction of the eye's distance to the cloud it must move before the
+     * level of detail is chosen again
+     */
+    public double lodRefreshDistance = 0.1;
     public boolean renderOnChange = true;
 
     public DirectedScatterMesh() {
@@ -247,7 +259,127 @@ public class DirectedScatterMesh extends Group implements TextureMode {
         return joinSegments;
     }
 
+    /**
+     * When true joined segments are drawn by one InPlaceTetrahedraMesh that is
+     * updated in place, so redrawing moved points only rewrites what changed.
+     * Texture modes other than density colored vertices with a fixed range
+     * switch back to rebuilt meshes.
+     */
+    private final BooleanProperty inPlaceUpdates = new SimpleBooleanProperty(false) {
+        @Override
+        protected void invalidated() {
+            if (meshes != null) {
+                updateMesh();
+            }
+        }
+    };
+
+    public boolean isInPlaceUpdates() {
+        return inPlaceUpdates.get();
+    }
+
+    public final void setInPlaceUpdates(boolean value) {
+        inPlaceUpdates.set(value);
+    }
+
+    public BooleanProperty inPlaceUpdatesProperty() {
+        return inPlaceUpdates;
+    }
+
+    /**
+     * Triangle budget of the in place mesh. When drawing every point would
+     * take more, an octree collapses distant and dense cells into aggregate
+     * points that refine as the viewpoint approaches. Zero draws every point.
+     */
+    private final IntegerProperty maxTriangles = new SimpleIntegerProperty(0) {
+        @Override
+        protected void invalidated() {
+            if (null != inPlaceMesh) {
+                updateMesh();
+            }
+        }
+    };
+
+    public int getMaxTriangles() {
+        return maxTriangles.get();
+    }
+
+    public final void setMaxTriangles(int value) {
+        maxTriangles.set(value);
+    }
+
+    public IntegerProperty maxTrianglesProperty() {
+        return maxTriangles;
+    }
+
+    /**
+     * Move the eye the level of detail is chosen for. The points are chosen
+     * again only once the eye has moved far enough to change them.
+     *
+     * @param x eye position in the local coordinates of this mesh
+     * @param y eye position
+     * @param z eye position
+     */
+    public void setViewpoint(double x, double y, double z) {
+        eyeX = x;
+        eyeY = y;
+        eyeZ = z;
+        if (null == selection || null == inPlaceMesh)
+            return;
+        if (!Double.isNaN(selectedEyeX)) {
+            double dx = x - selectedEyeX;
+            double dy = y - selectedEyeY;
+            double dz = z - selectedEyeZ;
+            double moved = Math.sqrt(dx * dx + dy * dy + dz * dz);
+            //distance to the dummy at the origin stands in for distance to the cloud
+            double distance = Math.sqrt(selectedEyeX * selectedEyeX
+                + selectedEyeY * selectedEyeY + selectedEyeZ * selectedEyeZ);
+            if (moved < lodRefreshDistance * distance)
+                return;
+        }
+        drawLevelOfDetail();
+    }
+
+    /**
+     * @return true if the points drawn are a level of detail selection
+     * rather than the scatter data itself
+     */
+    public boolean isLevelOfDetail() {
+        return null != selection;
+    }
+
+    /**
+     * @return the points actually drawn, so that face / facesPerPoint indexes
+     * into this list
+     */
+    public List<Point3D> getDrawnData() {
+        return null != selection ? selection.points : scatterData.get();
+    }
+
+    /**
+     * @param drawnIndex index into getDrawnData
+     * @return index into the scatter data of the point drawn there, or of a
+     * member of the aggregate drawn there
+     */
+    public int getSourceIndex(int drawnIndex) {
+        return null != selection ? selection.source[drawnIndex] : drawnIndex;
+    }
+
+    /**
+     * @param drawnIndex index into getDrawnData
+     * @return number of scatter points the point drawn there stands for
+     */
+    public int getDrawnCount(int drawnIndex) {
+        return null != selection ? selection.counts[drawnIndex] : 1;
+    }
+
     protected final void updateMesh() {
+        if (inPlaceUpdates.get() && joinSegments.get()) {
+            updateMeshInPlace();
+            return;
+        }
+        inPlaceMesh = null;
+        clearLevelOfDetail();
 //        meshes=FXCollections.<DirectedTexturedMesh>observableArrayList();
         meshes.clear();
         createDots();
@@ -255,6 +387,64 @@ public class DirectedScatterMesh extends Group implements TextureMode {
         updateTransforms();
     }
 
+    private void updateMeshInPlace() {
+        if (null == inPlaceMesh) {
+            inPlaceMesh = new InPlaceTetrahedraMesh(height.get(), level.get());
+            inPlaceMesh.setId("0");
+            meshes.clear();
+            getChildren().setAll(inPlaceMesh);
+        } else {
+            inPlaceMesh.setShape(height.get(), level.get());
+        }
+        List<Point3D> data = scatterData.get();
+        int n = Math.min(data.size(), endPoints.get().size());
+        if (maxTriangles.get() > 0
+            && (long) n * inPlaceMesh.getFacesPerPoint() > maxTriangles.get()) {
+            if (null == octree)
+                octree = new ScatterOctree();
+            if (data != octreeData) {
+                octree.build(PackedPoint3DList.of(n < data.size() ? data.subList(0, n) : data));
+                octreeData = data;
+            }
+            drawLevelOfDetail();
+        } else {
+            clearLevelOfDetail();
+            inPlaceMesh.update(data, endPoints.get());
+        }
+    }
+
+    private void drawLevelOfDetail() {
+        int maxPoints = Math.max(1, maxTriangles.get() / inPlaceMesh.getFacesPerPoint());
+        selection = octree.select(eyeX, eyeY, eyeZ, maxPoints);
+        selectedEyeX = eyeX;
+        selectedEyeY = eyeY;
+        selectedEyeZ = eyeZ;
+        //aggregates take the direction of the member they map to
+        PackedPoint3DList ends = PackedPoint3DList.of(endPoints.get());
+        int drawn = selection.size();
+        float[] xyz = new float[3 * drawn];
+        for (int i = 0; i < drawn; i++) {
+            int source = selection.source[i];
+            xyz[3 * i] = ends.getX(source);
+            xyz[3 * i + 1] = ends.getY(source);
+            xyz[3 * i + 2] = ends.getZ(source);
+        }
+        inPlaceMesh.update(selection.points, new PackedPoint3DList(xyz, null, drawn));
+    }
+
+    private void clearLevelOfDetail() {
+        octree = null;
+        octreeData = null;
+        selection = null;
+        selectedEyeX = selectedEyeY = selectedEyeZ = Double.NaN;
+    }
+
+    //the in place mesh only knows how to color by a fixed range density
+    private void leaveInPlaceUpdates() {
+        if (null != inPlaceMesh)
+            setInPlaceUpdates(false);
+    }
+
     /**
      * @WIP @EXPERIMENTAL
      */
@@ -330,75 +520,93 @@ public class DirectedScatterMesh extends Group implements TextureMode {
 
     @Override
     public void setTextureModeNone() {
+        leaveInPlaceUpdates();
         meshes.stream().forEach(m -> m.setTextureModeNone());
     }
 
     @Override
     public void setTextureModeNone(Color color) {
+        leaveInPlaceUpdates();
         meshes.stream().forEach(m -> m.setTextureModeNone(color));
     }
 
     @Override
     public void setTextureModeNone(Color color, String image) {
+        leaveInPlaceUpdates();
         meshes.stream().forEach(m -> m.setTextureModeNone(color, image));
     }
 
     @Override
     public void setTextureModeImage(String image) {
+        leaveInPlaceUpdates();
         meshes.stream().forEach(m -> m.setTextureModeImage(image));
     }
 
     @Override
     public void setTextureModePattern(Patterns.CarbonPatterns pattern, double scale) {
+        leaveInPlaceUpdates();
         meshes.stream().forEach(m -> m.setTextureModePattern(pattern, scale));
     }
 
     @Override
     public void setTextureModeVertices3D(int colors, Function<Point3D, Number> dens) {
+        leaveInPlaceUpdates();
         meshes.stream().forEach(m -> m.setTextureModeVertices3D(colors, dens));
     }
 
     @Override
     public void setTextureModeVertices3D(ColorPalette palette, Function<Point3D, Number> dens) {
+        leaveInPlaceUpdates();
         meshes.stream().forEach(m -> m.setTextureModeVertices3D(palette, dens));
     }
 
     @Override
     public void setTextureModeVertices3D(int colors, Function<Point3D, Number> dens, double min, double max) {
+        if (null != inPlaceMesh)
+            inPlaceMesh.setTextureModeVertices3D(colors, dens, min, max);
         meshes.stream().forEach(m -> m.setTextureModeVertices3D(colors, dens, min, max));
     }
 
     @Override
     public void setTextureModeVertices1D(int colors, Function<Number, Number> function) {
+        leaveInPlaceUpdates();
         meshes.stream().forEach(m -> m.setTextureModeVertices1D(colors, function));
     }
 
     @Override
     public void setTextureModeVertices1D(ColorPalette palette, Function<Number, Number> function) {
+        leaveInPlaceUpdates();
         meshes.stream().forEach(m -> m.setTextureModeVertices1D(palette, function));
     }
 
     @Override
     public void setTextureModeVertices1D(int colors, Function<Number, Number> function, double min, double max) {
+        leaveInPlaceUpdates();
         meshes.stream().forEach(m -> m.setTextureModeVertices1D(colors, function, min, max));
     }
 
     @Override
     public void setTextureModeFaces(int colors) {
+        leaveInPlaceUpdates();
         meshes.stream().forEach(m -> m.setTextureModeFaces(colors));
     }
 
     @Override
     public void setTextureModeFaces(ColorPalette palette) {
+        leaveInPlaceUpdates();
         meshes.stream().forEach(m -> m.setTextureModeFaces(palette));
     }
 
     @Override
     public void updateF(List<Number> values) {
+        if (null != inPlaceMesh)
+            inPlaceMesh.updateF(values);
         meshes.stream().forEach(m -> m.updateF(values));
     }
 
     public void setDrawMode(DrawMode mode) {
+        if (null != inPlaceMesh)
+            inPlaceMesh.setDrawMode(mode);
         meshes.stream().forEach(m -> m.setDrawMode(mode));
     }
 
@@ -412,6 +620,8 @@ public class DirectedScatterMesh extends Group implements TextureMode {
 
     @Override
     public void setTextureOpacity(double value) {
+        if (null != inPlaceMesh)
+            inPlaceMesh.setTextureOpacity(value);
         meshes.stream().forEach(m -> m.setTextureOpacity(value));
     }
 }
@@ -0,0 +1,488 @@
+package edu.jhuapl.trinity.javafx.javafx3d;
+
+/*-
+ * #%L
+ * trinity
+ * %%
+ * Copyright (C) 2021 - 2023 The Johns Hopkins University Applied Physics Laboratory LLC
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import edu.jhuapl.trinity.data.FactorLabel;
+import edu.jhuapl.trinity.data.FeatureLayer;
+import edu.jhuapl.trinity.data.HyperspaceSeed;
+import edu.jhuapl.trinity.data.messages.FeatureVector;
+import edu.jhuapl.trinity.utils.FeatureSearchIndex;
+import edu.jhuapl.trinity.utils.VisibilityIndex;
+import javafx.scene.paint.Color;
+
+import java.lang.reflect.Array;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Fixed capacity circular window of feature vectors with the seed and render
+ * node made from each, kept in one ring so the three can never drift apart.
+ * Appending past capacity evicts the oldest entry in O(1). Index 0 is always
+ * the oldest entry still in the window, and every entry also carries a
+ * sequence number that stays the same for as long as it is in the window.
+ * Visibility by label, layer and per entry filter is tracked in a
+ * VisibilityIndex addressed by ring slot, and metadata, score and pfa are
+ * indexed by sequence so search filters do not scan every entry.
+ * All methods are synchronized so loader threads can append while the FX
+ * thread reads.
+ */
+public class FeatureWindow {
+
+    private static final int INITIAL_STORAGE = 16;
+
+    private FeatureVector[] vectors = new FeatureVector[0];
+    private HyperspaceSeed[] seeds = new HyperspaceSeed[0];
+    private Perspective3DNode[] nodes = new Perspective3DNode[0];
+    private int head = 0;
+    private int size = 0;
+    private int capacity;
+    private long evictedCount = 0;
+    private Consumer<FeatureVector> evictionListener = null;
+    private final List<FeatureVector> featureVectorView = new FeatureVectorView();
+    private final VisibilityIndex visibility = new VisibilityIndex(
+        FactorLabel::visibilityByLabel, FeatureLayer::visibilityByIndex);
+    private final FeatureSearchIndex search = new FeatureSearchIndex();
+    //sequence of each vector in the window, by identity
+    private final IdentityHashMap<FeatureVector, Long> sequences = new IdentityHashMap<>();
+
+    /**
+     * @param capacity maximum number of entries, storage grows on demand
+     */
+    public FeatureWindow(int capacity) {
+        if (capacity < 0)
+            throw new IllegalArgumentException("Capacity must not be negative: " + capacity);
+        this.capacity = capacity;
+    }
+
+    /**
+     * @param listener called with each feature vector as it leaves the window,
+     *                 not called by clear
+     */
+    public synchronized void setEvictionListener(Consumer<FeatureVector> listener) {
+        evictionListener = listener;
+    }
+
+    /**
+     * Appends an entry as the newest, evicting the oldest if the window is full.
+     */
+    public synchronized void add(FeatureVector featureVector, HyperspaceSeed seed, Perspective3DNode node) {
+        if (capacity == 0) {
+            evictedCount++;
+            search.evictBefore(evictedCount);
+            if (null != evictionListener)
+                evictionListener.accept(featureVector);
+            return;
+        }
+        if (size == capacity)
+            evictOldest();
+        else if (size == vectors.length)
+            grow();
+        int slot = slot(size);
+        if (null != featureVector) {
+            search.add(evictedCount + size, featureVector);
+            sequences.put(featureVector, evictedCount + size);
+        }
+        vectors[slot] = featureVector;
+        seeds[slot] = seed;
+        nodes[slot] = node;
+        if (null == seed)
+            visibility.setPoint(slot, null, null);
+        else
+            visibility.setPoint(slot, seed.label, seed.layer);
+        size++;
+    }
+
+    /**
+     * Changes the capacity, evicting the oldest entries that no longer fit.
+     */
+    public synchronized void setCapacity(int capacity) {
+        if (capacity < 0)
+            throw new IllegalArgumentException("Capacity must not be negative: " + capacity);
+        this.capacity = capacity;
+        while (size > capacity)
+            evictOldest();
+    }
+
+    public synchronized int getCapacity() {
+        return capacity;
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    public synchronized boolean isEmpty() {
+        return size == 0;
+    }
+
+    public synchronized FeatureVector getFeatureVector(int index) {
+        return vectors[slot(checkIndex(index))];
+    }
+
+    public synchronized HyperspaceSeed getSeed(int index) {
+        return seeds[slot(checkIndex(index))];
+    }
+
+    public synchronized Perspective3DNode getNode(int index) {
+        return nodes[slot(checkIndex(index))];
+    }
+
+    public synchronized void setNode(int index, Perspective3DNode node) {
+        nodes[slot(checkIndex(index))] = node;
+    }
+
+    /**
+     * @param index position in the window, 0 being the oldest
+     * @return sequence number of the entry, unchanged by later evictions
+     */
+    public synchronized long getSequence(int index) {
+        return evictedCount + checkIndex(index);
+    }
+
+    /**
+     * @param sequence sequence number returned by getSequence
+     * @return current position of the entry or -1 if it has been evicted
+     */
+    public synchronized int indexOfSequence(long sequence) {
+        long index = sequence - evictedCount;
+        return index >= 0 && index < size ? (int) index : -1;
+    }
+
+    /**
+     * @param featureVector a vector added to the window, matched by identity
+     * @return its current position, the newest if added more than once, or
+     * -1 if it is not in the window
+     */
+    public synchronized int indexOf(FeatureVector featureVector) {
+        Long sequence = sequences.get(featureVector);
+        return null == sequence ? -1 : indexOfSequence(sequence);
+    }
+
+    /**
+     * @return whether the entry's label and layer are shown and it has not
+     * been filtered out with setVisible
+     */
+    public synchronized boolean isVisible(int index) {
+        return visibility.isVisible(slot(checkIndex(index)));
+    }
+
+    /**
+     * Filters a single entry in or out, independent of its label and layer.
+     */
+    public synchronized void setVisible(int index, boolean visible) {
+        visibility.setPointVisible(slot(checkIndex(index)), visible);
+    }
+
+    /**
+     * Clears every per entry filter.
+     */
+    public synchronized void setAllVisible() {
+        visibility.setAllPointsVisible();
+    }
+
+    /**
+     * Filters out every entry whose metadata keys and values do not contain
+     * the term, matching FeatureVector.metaContainsTerm.
+     *
+     * @return number of entries that did not match
+     */
+    public synchronized int filterByTerm(String term) {
+        return retain(search.searchTerm(term));
+    }
+
+    /**
+     * Filters out every entry with a score outside minimum to maximum.
+     *
+     * @return number of entries that did not match
+     */
+    public synchronized int filterByScore(double minimum, double maximum) {
+        return retain(search.searchScore(minimum, maximum));
+    }
+
+    /**
+     * Filters out every entry with a pfa outside minimum to maximum.
+     *
+     * @return number of entries that did not match
+     */
+    public synchronized int filterByProbability(double minimum, double maximum) {
+        return retain(search.searchProbability(minimum, maximum));
+    }
+
+    /**
+     * Picks up label and layer visibility changes and copies the result onto
+     * each seed and render node. The label and layer lookups happen once per
+     * distinct label and layer, the per entry work is a bit test.
+     */
+    public synchronized void refreshVisibility() {
+        visibility.refresh();
+        for (int i = 0; i < size; i++) {
+            int slot = slot(i);
+            boolean visible = visibility.isVisible(slot);
+            if (null != seeds[slot])
+                seeds[slot].visible = visible;
+            if (null != nodes[slot])
+                nodes[slot].visible = visible;
+        }
+    }
+
+    /**
+     * Colors each render node by its seed's label. The color is resolved once
+     * per distinct label, the per entry work is an array read.
+     */
+    public synchronized void colorNodesByLabel(Function<String, Color> labelColor) {
+        List<Color> colors = visibility.mapLabels(labelColor);
+        for (int i = 0; i < size; i++) {
+            int slot = slot(i);
+            if (null != nodes[slot])
+                nodes[slot].nodeColor = colors.get(visibility.labelIdOf(slot));
+        }
+    }
+
+    /**
+     * Colors each render node by its seed's layer, resolving the color once
+     * per distinct layer.
+     */
+    public synchronized void colorNodesByLayer(Function<Integer, Color> layerColor) {
+        List<Color> colors = visibility.mapLayers(layerColor);
+        for (int i = 0; i < size; i++) {
+            int slot = slot(i);
+            if (null != nodes[slot])
+                nodes[slot].nodeColor = colors.get(visibility.layerIdOf(slot));
+        }
+    }
+
+    /**
+     * Replaces every render node, for example after the projected dimensions
+     * change. The factory is given each position and seed, oldest first.
+     */
+    public synchronized void rebuildNodes(BiFunction<Integer, HyperspaceSeed, Perspective3DNode> factory) {
+        for (int i = 0; i < size; i++) {
+            int slot = slot(i);
+            nodes[slot] = factory.apply(i, seeds[slot]);
+        }
+    }
+
+    /**
+     * Render nodes in draw order, which follows the ring slots rather than
+     * age. Once the window is full an entry keeps its draw position until it
+     * is evicted and the entry replacing it takes that same position, so a
+     * mesh built from successive arrays only changes where entries were
+     * replaced. Use drawPosition and indexAtDrawPosition to convert.
+     *
+     * @param leading number of empty slots to leave at the front of the array
+     * @return render nodes in draw order, after the leading slots
+     */
+    public synchronized Perspective3DNode[] toNodeArray(int leading) {
+        Perspective3DNode[] array = new Perspective3DNode[leading + size];
+        int wrapped = wrapped();
+        System.arraycopy(nodes, 0, array, leading, wrapped);
+        System.arraycopy(nodes, head, array, leading + wrapped, size - wrapped);
+        return array;
+    }
+
+    /**
+     * @param index position in the window, 0 being the oldest
+     * @return position of the entry's node in toNodeArray, not counting the
+     * leading slots, or -1 if the index is out of range
+     */
+    public synchronized int drawPosition(int index) {
+        if (index < 0 || index >= size)
+            return -1;
+        int wrapped = wrapped();
+        return index < size - wrapped ? index + wrapped : index - (size - wrapped);
+    }
+
+    /**
+     * @param position position of a node in toNodeArray, not counting the
+     *                 leading slots
+     * @return position in the window of that entry, or -1 if out of range
+     */
+    public synchronized int indexAtDrawPosition(int position) {
+        if (position < 0 || position >= size)
+            return -1;
+        int wrapped = wrapped();
+        return position < wrapped ? size - wrapped + position : position - wrapped;
+    }
+
+    public synchronized HyperspaceSeed[] toSeedArray() {
+        HyperspaceSeed[] array = new HyperspaceSeed[size];
+        copyOut(seeds, array, 0);
+        return array;
+    }
+
+    /**
+     * Empties the window without notifying the eviction listener. Sequence
+     * numbers keep counting so stale ones never match a new entry.
+     */
+    public synchronized void clear() {
+        evictedCount += size;
+        Arrays.fill(vectors, null);
+        Arrays.fill(seeds, null);
+        Arrays.fill(nodes, null);
+        visibility.clear();
+        search.clear();
+        search.evictBefore(evictedCount);
+        sequences.clear();
+        head = 0;
+        size = 0;
+    }
+
+    /**
+     * @return number of vectors tracked for indexOf, at most size
+     */
+    synchronized int trackedVectors() {
+        return sequences.size();
+    }
+
+    /**
+     * @return read only live view of the feature vectors, oldest first
+     */
+    public List<FeatureVector> featureVectors() {
+        return featureVectorView;
+    }
+
+    private void evictOldest() {
+        FeatureVector evicted = vectors[head];
+        vectors[head] = null;
+        seeds[head] = null;
+        nodes[head] = null;
+        visibility.clearPoint(head);
+        if (null != evicted) {
+            //IdentityHashMap.remove(key, value) compares values by identity
+            Long sequence = sequences.get(evicted);
+            if (null != sequence && sequence == evictedCount)
+                sequences.remove(evicted);
+        }
+        head = (head + 1) % vectors.length;
+        size--;
+        evictedCount++;
+        search.evictBefore(evictedCount);
+        if (null != evictionListener)
+            evictionListener.accept(evicted);
+    }
+
+    /**
+     * Turns search matches into a bitset over slots and applies it to the
+     * filters in one pass.
+     */
+    private int retain(long[] matches) {
+        long[] keep = new long[(vectors.length + 63) >>> 6];
+        int kept = 0;
+        for (long sequence : matches) {
+            int index = indexOfSequence(sequence);
+            if (index >= 0) {
+                int slot = slot(index);
+                long bit = 1L << slot;
+                if ((keep[slot >>> 6] & bit) == 0) {
+                    keep[slot >>> 6] |= bit;
+                    kept++;
+                }
+            }
+        }
+        visibility.retainPoints(keep);
+        return size - kept;
+    }
+
+    private void grow() {
+        int length = (int) Math.min(capacity, Math.max(INITIAL_STORAGE, 2L * vectors.length));
+        FeatureVector[] newVectors = new FeatureVector[length];
+        HyperspaceSeed[] newSeeds = new HyperspaceSeed[length];
+        Perspective3DNode[] newNodes = new Perspective3DNode[length];
+        copyOut(vectors, newVectors, 0);
+        copyOut(seeds, newSeeds, 0);
+        copyOut(nodes, newNodes, 0);
+        //entries move to slots 0..size-1, carry their filters across
+        boolean[] filters = new boolean[size];
+        for (int i = 0; i < size; i++)
+            filters[i] = visibility.isPointVisible(slot(i));
+        visibility.clear();
+        for (int i = 0; i < size; i++) {
+            HyperspaceSeed seed = newSeeds[i];
+            visibility.setPoint(i, null == seed ? null : seed.label, null == seed ? null : seed.layer);
+            visibility.setPointVisible(i, filters[i]);
+        }
+        vectors = newVectors;
+        seeds = newSeeds;
+        nodes = newNodes;
+        head = 0;
+    }
+
+    private <T> void copyOut(T[] ring, T[] array, int offset) {
+        int first = Math.min(size, ring.length - head);
+        System.arraycopy(ring, head, array, offset, first);
+        System.arraycopy(ring, 0, array, offset + first, size - first);
+    }
+
+    /**
+     * @return number of entries stored at the start of the ring, these are
+     * the newest and come first in draw order
+     */
+    private int wrapped() {
+        return Math.max(0, head + size - vectors.length);
+    }
+
+    private int slot(int index) {
+        int slot = head + index;
+        return slot < vectors.length ? slot : slot - vectors.length;
+    }
+
+    private int checkIndex(int index) {
+        if (index < 0 || index >= size)
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for length " + size);
+        return index;
+    }
+
+    private class FeatureVectorView extends AbstractList<FeatureVector> implements RandomAccess {
+        @Override
+        public FeatureVector get(int index) {
+            return getFeatureVector(index);
+        }
+
+        @Override
+        public int size() {
+            return FeatureWindow.this.size();
+        }
+
+        @Override
+        public Object[] toArray() {
+            return toArray(new Object[0]);
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <T> T[] toArray(T[] a) {
+            synchronized (FeatureWindow.this) {
+                T[] array = a.length >= size ? a
+                    : (T[]) Array.newInstance(a.getClass().getComponentType(), size);
+                copyOut((T[]) vectors, array, 0);
+                if (array.length > size)
+                    array[size] = null;
+                return array;
+            }
+        }
+    }
+}
@@ -52,7 +52,7 @@ import edu.jhuapl.trinity.javafx.renderers.GaussianMixtureRenderer;
 import edu.jhuapl.trinity.javafx.renderers.ManifoldRenderer;
 import edu.jhuapl.trinity.utils.JavaFX3DUtils;
 import edu.jhuapl.trinity.utils.ResourceUtils;
-import edu.jhuapl.trinity.utils.VisibilityMap;
+import edu.jhuapl.trinity.utils.RunningStatistics;
 import javafx.animation.AnimationTimer;
 import javafx.animation.Timeline;
 import javafx.application.Platform;
@@ -94,11 +94,9 @@ import org.fxyz3d.utils.CameraTransformer;
 
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Optional;
-import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.function.Function;
 
 /**
@@ -139,6 +137,7 @@ public class Hyperspace3DPane extends StackPane implements
     public double scatterBuffScaling = 1.0; //scales domain range in transform
     public long hyperspaceRefreshRate = 500; //milliseconds
     public int queueLimit = 50000;
+    public int lodTriangleBudget = 1_000_000; //triangles drawn before octree level of detail kicks in
 
     //feature vector indices for 3D coordinates
     private boolean directionEnabled = false;
@@ -168,8 +167,8 @@ public class Hyperspace3DPane extends StackPane implements
     double trajectoryScale = 1.0;
     int trajectoryTailSize = 5;
 
-    ArrayList<Point3D> data;
-    ArrayList<Point3D> endPoints;
+    List<Point3D> data;
+    List<Point3D> endPoints;
     //This maps each seed to a Point3D object which represents its transfromed screen coordinates.
     HashMap<Point3D, HyperspaceSeed> seedToDataMap = new HashMap<>();
     //This maps each seed to a Point3D object which represents its end point transfromed to screen coordinates.
@@ -181,7 +180,9 @@ public class Hyperspace3DPane extends StackPane implements
     //allows 2D labels to track their 3D counterparts
     HashMap<Shape3D, Label> shape3DToLabel = new HashMap<>();
 
-    public List<FeatureVector> featureVectors = new ArrayList<>();
+    //vector, seed and render node of each queued sample kept together
+    public final FeatureWindow featureWindow = new FeatureWindow(queueLimit);
+    public final List<FeatureVector> featureVectors = featureWindow.featureVectors();
     public boolean meanCentered = true;
     public boolean autoScaling = true;
     public COLOR_MODE colorMode = COLOR_MODE.COLOR_BY_LABEL;
@@ -189,9 +190,12 @@ public class Hyperspace3DPane extends StackPane implements
     public List<Double> meanVector = new ArrayList<>();
     public double maxAbsValue = 1.0;
     public double meanCenteredMaxAbsValue = 1.0;
+    //kept in step with featureVectors so the values above never need a rescan
+    private final RunningStatistics featureStatistics = new RunningStatistics();
 
-    public ConcurrentLinkedQueue<HyperspaceSeed> hyperspaceSeeds = new ConcurrentLinkedQueue<>();
-    public ConcurrentLinkedQueue<Perspective3DNode> pNodes = new ConcurrentLinkedQueue<>();
+    //dummy seed and node at the origin for the mesh to form around, always drawn first
+    HyperspaceSeed dummySeed;
+    Perspective3DNode dummyPNode;
     int TOTAL_COLORS = 1530; //colors used by map function
     Function<Point3D, Number> colorByLabelFunction = p -> p.f; //Color mapping function
 
@@ -220,6 +224,8 @@ public class Hyperspace3DPane extends StackPane implements
 
     public Hyperspace3DPane(Scene scene) {
         this.scene = scene;
+        featureWindow.setEvictionListener(fv ->
+            featureStatistics.removeOldest(FeatureVector.mapToStateArray.apply(fv)));
         cubeWorld = new ShadowCubeWorld(cubeSize, 100, false, featureVectors);
         cubeWorld.setScene(this.scene);
         setBackground(Background.EMPTY);
@@ -623,8 +629,8 @@ public class Hyperspace3DPane extends StackPane implements
         double[] features = new double[factorMaxIndex];
         Arrays.fill(features, 0);
         HyperspaceSeed seed = new HyperspaceSeed(0, 1, 2, 3, 4, 5, features);
-        hyperspaceSeeds.add(seed);
-        addPNodeFromSeed(seed);
+        dummySeed = seed;
+        dummyPNode = createPNodeFromSeed(seed);
         //load empty mesh (except single 0'ed point.
         loadDirectedMesh();
 
@@ -801,6 +807,11 @@ public class Hyperspace3DPane extends StackPane implements
         });
         //3D point rendering Events
         scene.addEventHandler(HyperspaceEvent.NODE_QUEUELIMIT_GUI, e -> queueLimit = (int) e.object);
+        scene.addEventHandler(HyperspaceEvent.LOD_TRIANGLE_BUDGET_GUI, e -> {
+            lodTriangleBudget = (int) e.object;
+            if (null != scatterMesh3D)
+                scatterMesh3D.setMaxTriangles(lodTriangleBudget);
+        });
         scene.addEventHandler(HyperspaceEvent.REFRESH_RATE_GUI, e -> hyperspaceRefreshRate = (long) e.object);
         scene.addEventHandler(HyperspaceEvent.POINT3D_SIZE_GUI, e -> {
             point3dSize = (double) e.object;
@@ -876,6 +887,8 @@ public class Hyperspace3DPane extends StackPane implements
 
             @Override
             public void handle(long now) {
+                //cheap unless the camera moved far enough to change the detail
+                updateLevelOfDetail();
                 sleepNs = hyperspaceRefreshRate * NANOS_IN_MILLI;
                 if ((now - prevTime) < sleepNs) return;
                 prevTime = now;
@@ -947,7 +960,7 @@ public class Hyperspace3DPane extends StackPane implements
         shape3DToLabel.put(ySphere, yLabel);
         shape3DToLabel.put(zSphere, zLabel);
 
-        Perspective3DNode[] pNodeArray = pNodes.toArray(Perspective3DNode[]::new);
+        Perspective3DNode[] pNodeArray = getPNodeArray();
         if (useVisiblePoints) {
             data = getVisiblePoints(pNodeArray);
         } else {
@@ -1167,7 +1180,7 @@ public class Hyperspace3DPane extends StackPane implements
         if (forcePNodeUpdate) //pointScale
             updatePNodes();
         if (null != scatterMesh3D) {
-            Perspective3DNode[] pNodeArray = pNodes.toArray(Perspective3DNode[]::new);
+            Perspective3DNode[] pNodeArray = getPNodeArray();
 
             data = getVisiblePoints(pNodeArray);
             //Implementation for directional arrows based on additional dimensions
@@ -1196,12 +1209,12 @@ public class Hyperspace3DPane extends StackPane implements
         //    + Utils.totalTimeString(startTime2));
         //Since we changed the mesh unfortunately we have to reset the color mode
         //otherwise the triangles won't have color.
-        //5ms for 20k points
+        //5ms for 20k points, free when the mesh was updated in place
         scatterMesh3D.setTextureModeVertices3D(TOTAL_COLORS, colorByLabelFunction, 0.0, 360.0);
         isDirty = false;
     }
 
-    private ArrayList<Point3D> getAllPoints(Perspective3DNode[] pNodeArray) {
+    private List<Point3D> getAllPoints(Perspective3DNode[] pNodeArray) {
         //Build scatter model
         if (null == scatterModel)
             scatterModel = new DirectedScatterDataModel();
@@ -1209,8 +1222,8 @@ public class Hyperspace3DPane extends StackPane implements
         scatterModel.reset();
         //synch model reflection status with current boolean value
         scatterModel.reflectY = reflectY;
-        //Add our nodes to the model's collection
-        Collections.addAll(scatterModel.pNodes, pNodeArray);
+        //Copy our nodes into the model's point store
+        scatterModel.setNodes(pNodeArray);
         //Check flag to see if we are auto normalizing
         double buff = scatterBuffScaling;
         if (autoScaling)
@@ -1225,10 +1238,10 @@ public class Hyperspace3DPane extends StackPane implements
         } else {
             scatterModel.setShifts(0, 0, 0);
         }
-        return scatterModel.getVisiblePoints(false, sceneWidth, sceneHeight);
+        return scatterModel.getVisiblePoints(sceneWidth, sceneHeight);
     }
 
-    private ArrayList<Point3D> getVisiblePoints(Perspective3DNode[] pNodeArray) {
+    private List<Point3D> getVisiblePoints(Perspective3DNode[] pNodeArray) {
         //Build scatter model
         if (null == scatterModel)
             scatterModel = new DirectedScatterDataModel();
@@ -1236,27 +1249,27 @@ public class Hyperspace3DPane extends StackPane implements
         scatterModel.reset();
         //synch model reflection status with current boolean value
         scatterModel.reflectY = reflectY;
-        //Add our nodes to the model's collection
-        Collections.addAll(scatterModel.pNodes, pNodeArray);
+        //Copy our nodes into the model's point store
+        scatterModel.setNodes(pNodeArray);
         //True calls updateModel which is where the pain is
         updateScatterLimits(scatterBuffScaling, true);
         return scatterModel.data;
     }
 
-    private ArrayList<Point3D> getEndPoints(Perspective3DNode[] pNodes, float fixedSize) {
-        ArrayList<Point3D> ends = new ArrayList<>(pNodes.length);
+    private List<Point3D> getEndPoints(Perspective3DNode[] pNodes, float fixedSize) {
+        float[] ends = new float[3 * pNodes.length];
         for (int i = 0; i < pNodes.length; i++) {
-            ends.add(new Point3D(pNodes[i].xDirCoord * fixedSize,
-                pNodes[i].xDirCoord * fixedSize, pNodes[i].xDirCoord * fixedSize));
+            float end = (float) (pNodes[i].xDirCoord * fixedSize);
+            ends[3 * i] = end;
+            ends[3 * i + 1] = end;
+            ends[3 * i + 2] = end;
         }
-        return ends;
+        return new PackedPoint3DList(ends, null, pNodes.length);
     }
 
-    private ArrayList<Point3D> getFixedEndPoints(Perspective3DNode[] pNodes, float fixedSize) {
-        Point3D[] endArray = new Point3D[pNodes.length];
+    private List<Point3D> getFixedEndPoints(Perspective3DNode[] pNodes, float fixedSize) {
         //Fix endpoints so they are just zero adds
-        Arrays.parallelSetAll(endArray, i -> new Point3D(fixedSize, fixedSize, fixedSize));
-        return new ArrayList<>(Arrays.asList(endArray));
+        return PackedPoint3DList.filled(pNodes.length, fixedSize);
     }
 
     public void updateScatterLimits(double bufferScale, boolean updateModel) {
@@ -1278,7 +1291,7 @@ public class Hyperspace3DPane extends StackPane implements
             scatterModel.updateModel(sceneWidth, sceneHeight);
     }
 
-    public Perspective3DNode addPNodeFromSeed(HyperspaceSeed seed) {
+    public Perspective3DNode createPNodeFromSeed(HyperspaceSeed seed) {
         //make sure our extra dimensions are within the data vector's width
         int xDir = seed.xDir >= seed.vector.length ? seed.vector.length - 1 : seed.xDir;
         int yDir = seed.yDir >= seed.vector.length ? seed.vector.length - 1 : seed.yDir;
@@ -1300,27 +1313,26 @@ public class Hyperspace3DPane extends StackPane implements
         pNode.nodeColor = Perspective3DNode.getPNodeColor(colorMode, colorMap, seed,
             minX, minY, minZ, domainWidth);
         pNode.visible = pNode.factorAnalysisSeed.visible;
-        pNodes.add(pNode);
         return pNode;
     }
 
     private void updatePNodes() {
-        pNodes.clear();
-        HyperspaceSeed[] seeds = hyperspaceSeeds.toArray(HyperspaceSeed[]::new);
-        HyperspaceSeed seed;
-        for (int i = 0; i < seeds.length; i++) {
-            seed = seeds[i];
-            seed.x = xFactorIndex;
-            seed.y = yFactorIndex;
-            seed.z = zFactorIndex;
-            seed.xDir = seed.vector.length > xDirFactorIndex ? xDirFactorIndex : seed.vector.length - 1;
-            seed.yDir = seed.vector.length > yDirFactorIndex ? yDirFactorIndex : seed.vector.length - 1;
-            seed.zDir = seed.vector.length > zDirFactorIndex ? zDirFactorIndex : seed.vector.length - 1;
-            seed.visible = FactorLabel.visibilityByLabel(seed.label)
-                && FeatureLayer.visibilityByIndex(seed.layer)
-                && VisibilityMap.visibilityByIndex(i);
-            addPNodeFromSeed(seed);
-        }
+        //sets seed visibility from the window's bitsets
+        featureWindow.refreshVisibility();
+        dummySeed.visible = FactorLabel.visibilityByLabel(dummySeed.label)
+            && FeatureLayer.visibilityByIndex(dummySeed.layer);
+        dummyPNode = updatePNodeFromSeed(dummySeed);
+        featureWindow.rebuildNodes((i, seed) -> updatePNodeFromSeed(seed));
+    }
+
+    private Perspective3DNode updatePNodeFromSeed(HyperspaceSeed seed) {
+        seed.x = xFactorIndex;
+        seed.y = yFactorIndex;
+        seed.z = zFactorIndex;
+        seed.xDir = seed.vector.length > xDirFactorIndex ? xDirFactorIndex : seed.vector.length - 1;
+        seed.yDir = seed.vector.length > yDirFactorIndex ? yDirFactorIndex : seed.vector.length - 1;
+        seed.zDir = seed.vector.length > zDirFactorIndex ? zDirFactorIndex : seed.vector.length - 1;
+        return createPNodeFromSeed(seed);
     }
 
     private void updatePNodeColorsAndVisibility() {
@@ -1339,18 +1351,46 @@ public class Hyperspace3DPane extends StackPane implements
         double minZ = mz;
         double domainWidth = dw;
 
-        pNodes.parallelStream().forEach(pNode -> {
-            pNode.nodeColor = Perspective3DNode.getPNodeColor(colorMode, colorMap, pNode.factorAnalysisSeed,
-                minX, minY, minZ, domainWidth);
-            pNode.visible = FactorLabel.visibilityByLabel(pNode.factorAnalysisSeed.label)
-                && FeatureLayer.visibilityByIndex(pNode.factorAnalysisSeed.layer)
-                && VisibilityMap.visibilityByPNode(pNode);
-        });
+        dummyPNode.nodeColor = Perspective3DNode.getPNodeColor(colorMode, colorMap, dummySeed,
+            minX, minY, minZ, domainWidth);
+        //label and layer colors are looked up once per label or layer, not per node
+        switch (colorMode) {
+            case COLOR_BY_LABEL -> featureWindow.colorNodesByLabel(Perspective3DNode::getLabelColor);
+            case COLOR_BY_LAYER -> featureWindow.colorNodesByLayer(Perspective3DNode::getLayerColor);
+            default -> Arrays.stream(featureWindow.toNodeArray(0)).parallel().forEach(pNode -> {
+                pNode.nodeColor = Perspective3DNode.getPNodeColor(colorMode, colorMap, pNode.factorAnalysisSeed,
+                    minX, minY, minZ, domainWidth);
+            });
+        }
+        //a word wide bitset update rather than label, layer and filter lookups per node
+        featureWindow.refreshVisibility();
+        dummyPNode.visible = FactorLabel.visibilityByLabel(dummySeed.label)
+            && FeatureLayer.visibilityByIndex(dummySeed.layer);
     }
 
     private void updatePNodeIndices(int x, int y, int z, int xDir, int yDir, int zDir) {
-        //always skip the first node since its a dummy node.
-        pNodes.parallelStream().skip(1).forEach(p -> p.setParamsByIndex(x, y, z, xDir, yDir, zDir));
+        //the dummy node is not in the window so it is left alone
+        Arrays.stream(featureWindow.toNodeArray(0)).parallel().forEach(p -> p.setParamsByIndex(x, y, z, xDir, yDir, zDir));
+    }
+
+    /**
+     * @param pointId index of a point drawn by the scatter mesh
+     * @return index into featureVectors of the vector drawn there, -1 for the
+     * origin dummy or a pick that no longer matches the window
+     */
+    private int featureIndexFromFacePoint(int pointId) {
+        //the dummy node is store index 0, ahead of the window
+        int position = scatterModel.findIndexFromVisibleFacePoint(
+            scatterMesh3D.getSourceIndex(pointId)) - 1;
+        return featureWindow.indexAtDrawPosition(position);
+    }
+
+    private void updateLevelOfDetail() {
+        if (null == scatterMesh3D || !scatterMesh3D.isLevelOfDetail())
+            return;
+        //the eye in the mesh's own coordinates, the mesh may sit under a rotated transform
+        javafx.geometry.Point3D eye = scatterMesh3D.sceneToLocal(camera.localToScene(0, 0, 0));
+        scatterMesh3D.setViewpoint(eye.getX(), eye.getY(), eye.getZ());
     }
 
     public void loadDirectedMesh() {
@@ -1358,7 +1398,7 @@ public class Hyperspace3DPane extends StackPane implements
         //@TODO SMP this is where you might load some dank data from a file
         showAll();
         updatePNodes();
-        Perspective3DNode[] pNodeArray = pNodes.toArray(Perspective3DNode[]::new);
+        Perspective3DNode[] pNodeArray = getPNodeArray();
         data = getVisiblePoints(pNodeArray);
         endPoints = getFixedEndPoints(pNodeArray, 0f);
         //System.out.println("Rendering 3D Mesh...");
@@ -1368,6 +1408,8 @@ public class Hyperspace3DPane extends StackPane implements
             scatterMesh3D.setScatterDataAndEndPoints(data, endPoints);
         } else {
             scatterMesh3D = new DirectedScatterMesh(data, endPoints, true, point3dSize, 0);
+            scatterMesh3D.setInPlaceUpdates(true);
+            scatterMesh3D.setMaxTriangles(lodTriangleBudget);
             scatterMesh3D.setDrawMode(DrawMode.FILL);
             scatterMesh3D.setTextureModeVertices3D(TOTAL_COLORS, colorByLabelFunction, 0.0, 360.0);
             highlightedPoint.visibleProperty().bind(scatterMesh3D.visibleProperty());
@@ -1377,15 +1419,15 @@ public class Hyperspace3DPane extends StackPane implements
                 PickResult n = event.getPickResult();
                 int pointId1 = n.getIntersectedFace() / 4;
                 //System.out.println("Intersected Face:  " + n.getIntersectedFace());
-                if (pointId1 < scatterMesh3D.scatterDataProperty().get().size()) {
-                    Point3D pt1 = scatterMesh3D.scatterDataProperty().get().get(pointId1);
+                if (pointId1 < scatterMesh3D.getDrawnData().size()) {
+                    Point3D pt1 = scatterMesh3D.getDrawnData().get(pointId1);
                     Sphere sphere = new Sphere(1, 1);
                     sphere.setTranslateX(pt1.x);
                     sphere.setTranslateY(pt1.y);
                     sphere.setTranslateZ(pt1.z);
                     nodeGroup.getChildren().add(sphere);
                     //find correct feature vector
-                    int correctIndex = scatterModel.findIndexFromVisibleFacePoint(pointId1);
+                    int correctIndex = featureIndexFromFacePoint(pointId1);
                     if (correctIndex >= 0)
                         radialOverlayPane.createCallout(sphere,
                             featureVectors.get(correctIndex), subScene);
@@ -1395,15 +1437,15 @@ public class Hyperspace3DPane extends StackPane implements
                 PickResult n = event.getPickResult();
                 final int pointId1 = n.getIntersectedFace() / 4;
                 Platform.runLater(() -> {
-                    if (pointId1 < scatterMesh3D.scatterDataProperty().get().size()) {
-                        Point3D pt1 = scatterMesh3D.scatterDataProperty().get().get(pointId1);
+                    if (pointId1 < scatterMesh3D.getDrawnData().size()) {
+                        Point3D pt1 = scatterMesh3D.getDrawnData().get(pointId1);
                         Translate highlightTranslate = new Translate(pt1.x, pt1.y, pt1.z);
                         highlightedPoint.getTransforms().clear();
                         highlightedPoint.getTransforms().add(highlightTranslate);
                         highlightedPoint.setUserData(pt1);
                         highlightedPoint.setRadius(point3dSize / 2.0);
-                        int correctIndex = scatterModel.findIndexFromVisibleFacePoint(pointId1);
-                        if (correctIndex >= 0 && correctIndex <= featureVectors.size()) {
+                        int correctIndex = featureIndexFromFacePoint(pointId1);
+                        if (correctIndex >= 0) {
                             scene.getRoot().fireEvent(new FeatureVectorEvent(
                                 FeatureVectorEvent.SELECT_FEATURE_VECTOR,
                                 featureVectors.get(correctIndex), featureLabels));
@@ -1453,8 +1495,6 @@ public class Hyperspace3DPane extends StackPane implements
         ellipsoidToGMMessageMap.clear();
         ellipsoidToGMDataMap.clear();
         clearFeatureVectors();
-        hyperspaceSeeds.clear();
-        pNodes.clear();
         seedToDataMap.clear();
         seedToEndMap.clear();
         shape3DToLabel.clear();
@@ -1465,9 +1505,8 @@ public class Hyperspace3DPane extends StackPane implements
         //Create dummy seed and pnode for mesh to form around
         double[] features = new double[]{0, 0, 0, 0, 0, 0};
         HyperspaceSeed seed = new HyperspaceSeed(0, 1, 2, 3, 4, 5, features);
-        hyperspaceSeeds.add(seed);
-        addPNodeFromSeed(seed);
-        VisibilityMap.clearAll();
+        dummySeed = seed;
+        dummyPNode = createPNodeFromSeed(seed);
         updateLabels(); //make sure all remaining floating labels and strings are updated
     }
 
@@ -1485,20 +1524,25 @@ public class Hyperspace3DPane extends StackPane implements
             //System.out.println("Requested anchor index of " + index + " less than zero.");
             return;
         }
-        Point3D p3d = scatterModel.data.get(index);
-        anchorTSM.setTranslateX(p3d.x);
-        anchorTSM.setTranslateY(p3d.y);
-        anchorTSM.setTranslateZ(p3d.z);
+        int visibleIndex = visibleIndexOf(index);
+        if (visibleIndex >= 0) {
+            Point3D p3d = scatterModel.data.get(visibleIndex);
+            anchorTSM.setTranslateX(p3d.x);
+            anchorTSM.setTranslateY(p3d.y);
+            anchorTSM.setTranslateZ(p3d.z);
+        }
 
         //make sure we have the latest states using the latest feature indices
         anchorTrajectory.states.clear();
-        List<Point3D> p3ds = scatterModel.data;
-        if (index < scatterModel.data.size())
-            p3ds = scatterModel.data.subList(0, index + 1);
-        if (!p3ds.isEmpty()) {
-            for (Point3D p : p3ds) {
+        //points are drawn in ring order, walk them oldest first
+        for (int i = 0; i <= index; i++) {
+            int v = visibleIndexOf(i);
+            if (v >= 0) {
+                Point3D p = scatterModel.data.get(v);
                 anchorTrajectory.states.add(new double[]{p.x, p.y, p.z});
             }
+        }
+        if (!anchorTrajectory.states.isEmpty()) {
             //recreate and add to the scene the 3D trajectory
             updateTrajectory3D();
         }
@@ -1675,8 +1719,26 @@ public class Hyperspace3DPane extends StackPane implements
 
     @Override
     public void addFeatureVector(FeatureVector featureVector) {
-        featureVectors.add(featureVector);
+        addSeedFromFeatureVector(featureVector);
+        cubeWorld.setDirty(true); //signals to animation timer to redraw
+        //rather than directly call updateView() let the rendering thread know there is a change
+        isDirty = true;
+    }
+
+    @Override
+    public void addFeatureVectors(List<FeatureVector> newFeatureVectors) {
+        //anything older than the queue limit would be trimmed straight away
+        int start = Math.max(0, newFeatureVectors.size() - queueLimit);
+        for (int i = start; i < newFeatureVectors.size(); i++) {
+            addSeedFromFeatureVector(newFeatureVectors.get(i));
+        }
+        cubeWorld.setDirty(true); //one redraw for the whole batch
+        isDirty = true;
+    }
+
+    private void addSeedFromFeatureVector(FeatureVector featureVector) {
         double[] features = FeatureVector.mapToStateArray.apply(featureVector);
+        featureStatistics.add(features);
         HyperspaceSeed seed = new HyperspaceSeed(
             xFactorIndex, yFactorIndex, zFactorIndex,
             xDirFactorIndex, yDirFactorIndex, zDirFactorIndex, features);
@@ -1686,12 +1748,8 @@ public class Hyperspace3DPane extends StackPane implements
         seed.pfa = featureVector.getPfa();
         seed.visible = FactorLabel.visibilityByLabel(seed.label)
             && FeatureLayer.visibilityByIndex(seed.layer);
-        hyperspaceSeeds.add(seed);
+        featureWindow.add(featureVector, seed, createPNodeFromSeed(seed));
         trimQueueNow();
-        addPNodeFromSeed(seed);
-        cubeWorld.setDirty(true); //signals to animation timer to redraw
-        //rather than directly call updateView() let the rendering thread know there is a change
-        isDirty = true;
     }
 
     @Override
@@ -1776,24 +1834,22 @@ public class Hyperspace3DPane extends StackPane implements
 
                 featureCollection.getFeatures().subList(start, end)
                     .stream().forEach(featureVector -> {
-                        featureVectors.add(featureVector);
+                        double[] features = FeatureVector.mapToStateArray.apply(featureVector);
+                        featureStatistics.add(features);
                         HyperspaceSeed seed = new HyperspaceSeed(
                             xFactorIndex, yFactorIndex, zFactorIndex,
                             xDirFactorIndex, yDirFactorIndex, zDirFactorIndex,
-                            FeatureVector.mapToStateArray.apply(featureVector));
+                            features);
                         seed.label = featureVector.getLabel();
                         seed.layer = featureVector.getLayer();
                         seed.score = featureVector.getScore();
                         seed.pfa = featureVector.getPfa();
-                        hyperspaceSeeds.add(seed);
-                        VisibilityMap.visibilityList.add(true);
-                        addPNodeFromSeed(seed);
+                        featureWindow.add(featureVector, seed, createPNodeFromSeed(seed));
                     });
 
                 trimQueueNow();
-                //Need to rotate  visibility index
-                VisibilityMap.clearAll();
-                VisibilityMap.resetVisibilityList(pNodes.toArray(Perspective3DNode[]::new), true);
+                //a fresh load starts with no filters applied
+                featureWindow.setAllVisible();
                 updateMaxAndMeans();
                 Platform.runLater(() -> {
                     ProgressStatus ps = new ProgressStatus("Finished loading vectors.", -1);
@@ -1809,9 +1865,9 @@ public class Hyperspace3DPane extends StackPane implements
     }
 
     public void updateMaxAndMeans() {
-        meanVector = FeatureVector.getMeanVector(featureVectors);
-        maxAbsValue = FeatureVector.getMaxAbsValue(featureVectors);
-        meanCenteredMaxAbsValue = FeatureVector.getMeanCenteredMaxAbsValue(featureVectors, meanVector);
+        meanVector = featureStatistics.getMeanVector();
+        maxAbsValue = featureStatistics.getMaxAbsValue();
+        meanCenteredMaxAbsValue = featureStatistics.getMeanCenteredMaxAbsValue();
 
         String str = "Mean Centered MaxAbsValue: " + meanCenteredMaxAbsValue;
         cubeWorld.meanVector.clear();
@@ -1831,15 +1887,28 @@ public class Hyperspace3DPane extends StackPane implements
     }
 
     public void trimQueueNow() {
-        while (hyperspaceSeeds.size() > queueLimit) {
-            hyperspaceSeeds.poll();
-        }
-        while (pNodes.size() > queueLimit) {
-            pNodes.poll();
-        }
-        while (featureVectors.size() > queueLimit) {
-            featureVectors.remove(0);
-        }
+        featureWindow.setCapacity(queueLimit);
+    }
+
+    /**
+     * @param index 0 for the origin dummy, otherwise one more than the
+     *              position in the window, oldest first
+     * @return index of that point in scatterModel.data, or -1 if it is hidden
+     */
+    private int visibleIndexOf(int index) {
+        if (index == 0)
+            return scatterModel.findVisibleFacePointFromIndex(0);
+        int position = featureWindow.drawPosition(index - 1);
+        return position < 0 ? -1 : scatterModel.findVisibleFacePointFromIndex(position + 1);
+    }
+
+    /**
+     * @return the dummy node followed by the queued nodes in draw order
+     */
+    private Perspective3DNode[] getPNodeArray() {
+        Perspective3DNode[] pNodeArray = featureWindow.toNodeArray(1);
+        pNodeArray[0] = dummyPNode;
+        return pNodeArray;
     }
 
     @Override
@@ -1881,6 +1950,17 @@ public class Hyperspace3DPane extends StackPane implements
 
     @Override
     public void locateFeatureVector(FeatureVector featureVector) {
+        //where the vector is actually drawn, if it is, after centering and scaling
+        int visibleIndex = null == scatterModel || null == scatterMesh3D ? -1
+            : scatterModel.findVisibleFacePointFromIndex(
+                featureWindow.drawPosition(featureWindow.indexOf(featureVector)) + 1);
+        if (visibleIndex > 0 && visibleIndex < scatterModel.data.size()) {
+            Point3D p = scatterModel.data.get(visibleIndex);
+            javafx.geometry.Point3D target = scatterMesh3D.localToScene(p.x, p.y, p.z);
+            JavaFX3DUtils.transitionCameraTo(1000, camera, cameraTransform,
+                target.getX(), target.getY(), target.getZ() - 750, 0, 0, 0);
+            return;
+        }
         //pixel ranges we wish to fit our scaling to
         double halfSceneWidth = sceneWidth / 2.0;
         double halfSceneHeight = sceneHeight / 2.0;
@@ -1911,7 +1991,8 @@ public class Hyperspace3DPane extends StackPane implements
 
     @Override
     public void clearFeatureVectors() {
-        featureVectors.clear();
+        featureWindow.clear();
+        featureStatistics.clear();
     }
 
     @Override
@@ -1921,8 +2002,29 @@ public class Hyperspace3DPane extends StackPane implements
 
     @Override
     public void setVisibleByIndex(int i, boolean b) {
-        VisibilityMap.pNodeVisibilityMap.put(pNodes.toArray(Perspective3DNode[]::new)[i], b);
-        VisibilityMap.visibilityList.set(i, b);
+        //i indexes getAllFeatureVectors(), which is the window's order
+        if (i < featureWindow.size())
+            featureWindow.setVisible(i, b);
+    }
+
+    @Override
+    public int filterByTerm(String term) {
+        return featureWindow.filterByTerm(term);
+    }
+
+    @Override
+    public int filterByScore(double minimum, double maximum) {
+        return featureWindow.filterByScore(minimum, maximum);
+    }
+
+    @Override
+    public int filterByProbability(double minimum, double maximum) {
+        return featureWindow.filterByProbability(minimum, maximum);
+    }
+
+    @Override
+    public void clearAllFilters() {
+        featureWindow.setAllVisible();
     }
 
     @Override
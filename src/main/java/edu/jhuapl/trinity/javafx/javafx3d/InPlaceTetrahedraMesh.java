@@ -0,0 +1,316 @@
+package edu.jhuapl.trinity.javafx.javafx3d;
+
+/*-
+ * #%L
+ * trinity
+ * %%
+ * Copyright (C) 2021 - 2023 The Johns Hopkins University Applied Physics Laboratory LLC
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import javafx.collections.ObservableFloatArray;
+import javafx.scene.DepthTest;
+import javafx.scene.shape.CullFace;
+import javafx.scene.shape.DrawMode;
+import javafx.scene.shape.MeshView;
+import javafx.scene.shape.ObservableFaceArray;
+import javafx.scene.shape.TriangleMesh;
+import org.fxyz3d.geometry.Point3D;
+import org.fxyz3d.scene.paint.Palette.ColorPalette;
+import org.fxyz3d.shapes.primitives.helper.MeshHelper;
+import org.fxyz3d.shapes.primitives.helper.TriangleMeshHelper;
+import org.fxyz3d.shapes.primitives.helper.TriangleMeshHelper.TextureType;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Function;
+
+import static org.fxyz3d.scene.paint.Palette.DEFAULT_COLOR_PALETTE;
+
+/**
+ * A single mesh of directed tetrahedra, one per scatter point, that is kept
+ * between updates rather than rebuilt. Face topology, texture coordinates and
+ * smoothing groups are written once per tetrahedron. Later updates compare the
+ * new positions and F values against what the mesh already holds and only
+ * rewrite the changed ranges of the point array and of the face texture
+ * indices that encode the colors. Backing arrays grow by doubling.
+ * <p>
+ * The layout matches the joined mesh DirectedScatterMesh builds through
+ * DirectedMeshHelper: tetrahedron 0 is a dummy at the origin and tetrahedron
+ * i is scatter point i, so face / facesPerPoint picking still works.
+ */
+public class InPlaceTetrahedraMesh extends MeshView {
+
+    private final TriangleMeshHelper helper = new TriangleMeshHelper();
+    private final TriangleMesh mesh = new TriangleMesh();
+    private double height;
+    private int level;
+    //one tetrahedron at the origin that every point is a translated copy of
+    private float[] templatePoints;
+    private int[] templateFaces;
+    private int[] templateSmoothingGroups;
+    private int verticesPerPoint;
+    private int facesPerPoint;
+    //mirrors of what the mesh currently holds
+    private float[] points = new float[0];
+    private float[] vertexF = new float[0];
+    private int[] faces = new int[0];
+    private int count = 0;
+    //current coloring, faces are only recolored when these change
+    private boolean colored = false;
+    private int colors;
+    private Function<Point3D, Number> density;
+    private double minGlobal;
+    private double maxGlobal;
+    private ColorPalette colorPalette = DEFAULT_COLOR_PALETTE;
+    private final Point3D scratch = new Point3D(0f, 0f, 0f, 0f);
+
+    public InPlaceTetrahedraMesh(double height, int level) {
+        setShape(height, level);
+        mesh.getTexCoords().setAll(0f, 0f);
+        setMesh(mesh);
+        setMaterial(helper.getMaterial());
+        setCullFace(CullFace.BACK);
+        setDrawMode(DrawMode.FILL);
+        setDepthTest(DepthTest.ENABLE);
+    }
+
+    /**
+     * Change the tetrahedron size or subdivision level. Positions are
+     * rewritten on the next update, a new level also rebuilds the topology.
+     *
+     * @param height size of each tetrahedron
+     * @param level  subdivision level of each tetrahedron
+     */
+    public final void setShape(double height, int level) {
+        if (null != templatePoints && height == this.height && level == this.level)
+            return;
+        MeshHelper mh = new MeshHelper((TriangleMesh)
+            new DirectedTetrahedraMesh(height, level, null, null).getMesh());
+        int vertices = mh.getPoints().length / 3;
+        int triangles = mh.getFaces().length / 6;
+        if (vertices != verticesPerPoint || triangles != facesPerPoint) {
+            count = 0; //topology changed, everything is rewritten
+            mesh.getFaces().clear();
+            mesh.getFaceSmoothingGroups().clear();
+            mesh.getPoints().clear();
+        }
+        this.height = height;
+        this.level = level;
+        templatePoints = mh.getPoints();
+        templateFaces = mh.getFaces();
+        templateSmoothingGroups = mh.getFaceSmoothingGroups();
+        verticesPerPoint = vertices;
+        facesPerPoint = triangles;
+    }
+
+    /**
+     * Bring the mesh in line with the given points, writing only what changed.
+     *
+     * @param startPoints position and F value of each point
+     * @param endPoints   direction offset applied to the apex of each point
+     */
+    public void update(List<Point3D> startPoints, List<Point3D> endPoints) {
+        //packed lists are read in place, anything else is packed once here
+        PackedPoint3DList starts = PackedPoint3DList.of(startPoints);
+        PackedPoint3DList ends = PackedPoint3DList.of(endPoints);
+        int n = Math.min(starts.size(), ends.size());
+        int pointStride = verticesPerPoint * 3;
+        int faceStride = facesPerPoint * 6;
+        ensureCapacity(n);
+        int previous = count;
+        int pointLo = Integer.MAX_VALUE, pointHi = -1;
+        int faceLo = Integer.MAX_VALUE, faceHi = -1;
+        for (int i = 0; i < n; i++) {
+            boolean added = i >= previous;
+            boolean changed = added;
+            //the first point is a dummy anchored at the origin
+            boolean dummy = i == 0;
+            int base = i * pointStride;
+            for (int v = 0; v < verticesPerPoint; v++) {
+                for (int c = 0; c < 3; c++) {
+                    float value = templatePoints[3 * v + c];
+                    if (!dummy) {
+                        value += c == 0 ? starts.getX(i) : c == 1 ? starts.getY(i) : starts.getZ(i);
+                        if (v == 0) //only the apex is pulled towards the end point
+                            value += c == 0 ? ends.getX(i) : c == 1 ? ends.getY(i) : ends.getZ(i);
+                    }
+                    int index = base + 3 * v + c;
+                    if (added || points[index] != value) {
+                        points[index] = value;
+                        pointLo = Math.min(pointLo, index);
+                        pointHi = Math.max(pointHi, index);
+                        changed = true;
+                    }
+                }
+                float f = dummy ? 0f : starts.getF(i);
+                int vertex = i * verticesPerPoint + v;
+                if (added || vertexF[vertex] != f) {
+                    vertexF[vertex] = f;
+                    changed = true;
+                }
+            }
+            //a moved point can change color too if the density is positional
+            if (changed) {
+                writeFaces(i, added);
+                faceLo = Math.min(faceLo, i * faceStride);
+                faceHi = Math.max(faceHi, (i + 1) * faceStride - 1);
+            }
+        }
+        count = n;
+
+        ObservableFloatArray meshPoints = mesh.getPoints();
+        if (meshPoints.size() != n * pointStride)
+            meshPoints.resize(n * pointStride);
+        if (pointHi >= 0)
+            meshPoints.set(pointLo, points, pointLo, pointHi - pointLo + 1);
+
+        ObservableFaceArray meshFaces = mesh.getFaces();
+        if (meshFaces.size() != n * faceStride)
+            meshFaces.resize(n * faceStride);
+        if (faceHi >= 0)
+            meshFaces.set(faceLo, faces, faceLo, faceHi - faceLo + 1);
+
+        if (n > previous) {
+            mesh.getFaceSmoothingGroups().resize(n * facesPerPoint);
+            for (int i = previous; i < n; i++)
+                mesh.getFaceSmoothingGroups().set(i * facesPerPoint,
+                    templateSmoothingGroups, 0, facesPerPoint);
+        } else if (n < previous) {
+            mesh.getFaceSmoothingGroups().resize(n * facesPerPoint);
+        }
+    }
+
+    /**
+     * Color faces by a density function over a fixed range, the texture mode
+     * used by the hyperspace panes. Repeating the current settings is free.
+     *
+     * @param colors  number of palette colors
+     * @param density maps each vertex to a value
+     * @param min     value mapped to the first color
+     * @param max     value mapped to the last color
+     */
+    public void setTextureModeVertices3D(int colors, Function<Point3D, Number> density,
+                                         double min, double max) {
+        if (colored && colors == this.colors && density == this.density
+            && min == minGlobal && max == maxGlobal)
+            return;
+        colored = true;
+        this.colors = colors;
+        this.density = density;
+        minGlobal = min;
+        maxGlobal = max;
+        helper.setTextureType(TextureType.COLORED_VERTICES_3D);
+        helper.createPalette(colors, false, colorPalette);
+        helper.getMaterialWithPalette();
+        helper.setDensity(density);
+        helper.updateExtremes(min, max);
+        mesh.getTexCoords().setAll(helper.getTexturePaletteArray());
+        recolor(0, count * verticesPerPoint);
+    }
+
+    /**
+     * @param palette palette used by the next setTextureModeVertices3D
+     */
+    public void setColorPalette(ColorPalette palette) {
+        if (palette != colorPalette) {
+            colorPalette = palette;
+            colored = false; //forces the palette to be recreated
+        }
+    }
+
+    /**
+     * Replace the F value of each vertex, recoloring only what changed.
+     *
+     * @param values one value per vertex
+     */
+    public void updateF(List<Number> values) {
+        int vertices = Math.min(values.size(), count * verticesPerPoint);
+        int lo = Integer.MAX_VALUE, hi = -1;
+        for (int i = 0; i < vertices; i++) {
+            float f = values.get(i).floatValue();
+            if (vertexF[i] != f) {
+                vertexF[i] = f;
+                lo = Math.min(lo, i);
+                hi = i;
+            }
+        }
+        if (hi >= 0)
+            recolor(lo, hi + 1);
+    }
+
+    public void setTextureOpacity(double value) {
+        helper.setTextureOpacity(value);
+    }
+
+    /**
+     * @return number of points, including the dummy, in the mesh
+     */
+    public int getCount() {
+        return count;
+    }
+
+    /**
+     * @return number of triangles drawn for each point
+     */
+    public int getFacesPerPoint() {
+        return facesPerPoint;
+    }
+
+    private void recolor(int fromVertex, int toVertex) {
+        if (toVertex <= fromVertex)
+            return;
+        int first = fromVertex / verticesPerPoint;
+        int last = (toVertex - 1) / verticesPerPoint;
+        for (int i = first; i <= last; i++)
+            writeFaces(i, false);
+        int faceStride = facesPerPoint * 6;
+        mesh.getFaces().set(first * faceStride, faces, first * faceStride,
+            (last - first + 1) * faceStride);
+    }
+
+    private void writeFaces(int point, boolean added) {
+        int faceBase = point * facesPerPoint * 6;
+        int vertexBase = point * verticesPerPoint;
+        for (int j = 0; j < facesPerPoint * 3; j++) {
+            int vertexIndex = vertexBase + templateFaces[2 * j];
+            if (added)
+                faces[faceBase + 2 * j] = vertexIndex;
+            faces[faceBase + 2 * j + 1] = textureIndex(vertexIndex);
+        }
+    }
+
+    private int textureIndex(int vertexIndex) {
+        if (!colored)
+            return 0;
+        scratch.x = points[3 * vertexIndex];
+        scratch.y = points[3 * vertexIndex + 1];
+        scratch.z = points[3 * vertexIndex + 2];
+        scratch.f = vertexF[vertexIndex];
+        return helper.mapDensity(scratch);
+    }
+
+    private void ensureCapacity(int n) {
+        if (vertexF.length >= n * verticesPerPoint && faces.length >= n * facesPerPoint * 6)
+            return;
+        int capacity = Math.max(n, 2 * (vertexF.length / verticesPerPoint));
+        points = Arrays.copyOf(points, capacity * verticesPerPoint * 3);
+        vertexF = Arrays.copyOf(vertexF, capacity * verticesPerPoint);
+        faces = Arrays.copyOf(faces, capacity * facesPerPoint * 6);
+        mesh.getPoints().ensureCapacity(points.length);
+        mesh.getFaces().ensureCapacity(faces.length);
+        mesh.getFaceSmoothingGroups().ensureCapacity(capacity * facesPerPoint);
+    }
+}
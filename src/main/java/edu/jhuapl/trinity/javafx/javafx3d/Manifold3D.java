@@ -25,6 +25,7 @@ import com.github.quickhull3d.QuickHull3D;
 import edu.jhuapl.trinity.data.Manifold;
 import edu.jhuapl.trinity.javafx.events.ApplicationEvent;
 import edu.jhuapl.trinity.javafx.events.ManifoldEvent;
+import edu.jhuapl.trinity.utils.SpatialIndex3D;
 import java.io.File;
 import javafx.animation.AnimationTimer;
 import javafx.scene.Group;
@@ -73,6 +74,8 @@ public class Manifold3D extends Group {
     HashMap<Shape3D, Label> shape3DToLabel = new HashMap<>();
     AnimationTimer tessellationTimer;
     private List<Point3D> originalPoint3Ds = null;
+    //built over originalPoint3Ds on first use
+    private SpatialIndex3D originalPointIndex = null;
     public static File latestDir = new File(".");
     
     public Manifold3D(List<Point3D> point3DList, boolean triangulate, boolean makeLines, boolean makePoints) {
@@ -157,16 +160,23 @@ public class Manifold3D extends Group {
         return shortestPoint;
     }
     public javafx.geometry.Point3D getClosestHullPoint(javafx.geometry.Point3D startingPoint) {
-        javafx.geometry.Point3D shortestPoint = null;
-        double distance = 0;
-        for(Point3D point : originalPoint3Ds) {
-            double currentDistance = startingPoint.distance(point.x, point.y, point.z);
-            if(null == shortestPoint || currentDistance < distance) {
-               distance = currentDistance;
-               shortestPoint = new javafx.geometry.Point3D(point.x, point.y, point.z);
-            }
-        }
-        return shortestPoint;
+        int index = getClosestPointIndex(startingPoint);
+        if (index < 0)
+            return null;
+        Point3D point = originalPoint3Ds.get(index);
+        return new javafx.geometry.Point3D(point.x, point.y, point.z);
+    }
+
+    /**
+     * @param startingPoint point to measure from
+     * @return index into getOriginalPoint3DList of the closest point, or -1
+     * if there are none
+     */
+    public int getClosestPointIndex(javafx.geometry.Point3D startingPoint) {
+        if (null == originalPointIndex)
+            originalPointIndex = SpatialIndex3D.of(originalPoint3Ds);
+        return originalPointIndex.nearest(
+            startingPoint.getX(), startingPoint.getY(), startingPoint.getZ());
     }
     
     public void refreshMesh(List<Point3D> point3DList, boolean triangulate, boolean makeLines, boolean makePoints) {
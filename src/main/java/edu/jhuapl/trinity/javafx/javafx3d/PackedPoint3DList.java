@@ -0,0 +1,114 @@
+package edu.jhuapl.trinity.javafx.javafx3d;
+
+/*-
+ * #%L
+ * trinity
+ * %%
+ * Copyright (C) 2021 - 2023 The Johns Hopkins University Applied Physics Laboratory LLC
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import org.fxyz3d.geometry.Point3D;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * Fixed size list of points packed into primitive arrays, three coordinates
+ * and one F value per point. Points are only materialized when read through
+ * get, so bulk consumers such as InPlaceTetrahedraMesh read the arrays
+ * directly and a scene of a million points costs two arrays rather than a
+ * million objects.
+ */
+public class PackedPoint3DList extends AbstractList<Point3D> implements RandomAccess {
+    private final float[] xyz;
+    private final float[] f;
+    private final int size;
+
+    /**
+     * @param xyz x, y, z of each point in turn
+     * @param f   F value of each point, may be null for all zero
+     * @param size number of points
+     */
+    public PackedPoint3DList(float[] xyz, float[] f, int size) {
+        if (xyz.length < 3 * size || (null != f && f.length < size))
+            throw new IllegalArgumentException("Arrays too short for " + size + " points.");
+        this.xyz = xyz;
+        this.f = f;
+        this.size = size;
+    }
+
+    /**
+     * @param size  number of points
+     * @param value value of every coordinate
+     * @return points that all sit at (value, value, value)
+     */
+    public static PackedPoint3DList filled(int size, float value) {
+        float[] xyz = new float[3 * size];
+        if (value != 0f)
+            Arrays.fill(xyz, value);
+        return new PackedPoint3DList(xyz, null, size);
+    }
+
+    /**
+     * @param points any list of points
+     * @return the list itself if already packed, otherwise a packed copy
+     */
+    public static PackedPoint3DList of(List<Point3D> points) {
+        if (points instanceof PackedPoint3DList packed)
+            return packed;
+        int n = points.size();
+        float[] xyz = new float[3 * n];
+        float[] f = new float[n];
+        int i = 0;
+        for (Point3D p : points) {
+            xyz[3 * i] = p.x;
+            xyz[3 * i + 1] = p.y;
+            xyz[3 * i + 2] = p.z;
+            f[i++] = p.f;
+        }
+        return new PackedPoint3DList(xyz, f, n);
+    }
+
+    @Override
+    public Point3D get(int index) {
+        if (index < 0 || index >= size)
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for length " + size);
+        return new Point3D(xyz[3 * index], xyz[3 * index + 1], xyz[3 * index + 2], getF(index));
+    }
+
+    public float getX(int index) {
+        return xyz[3 * index];
+    }
+
+    public float getY(int index) {
+        return xyz[3 * index + 1];
+    }
+
+    public float getZ(int index) {
+        return xyz[3 * index + 2];
+    }
+
+    public float getF(int index) {
+        return null == f ? 0f : f[index];
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+}
@@ -99,10 +99,7 @@ public class Perspective3DNode {
         , double minX, double minY, double minZ, double domainRange) {
         switch (colorMode) {
             case COLOR_BY_LAYER -> {
-                if (null == seed.layer)
-                    return Color.ALICEBLUE;
-                else
-                    return FeatureLayer.getColorByIndex(seed.layer);
+                return getLayerColor(seed.layer);
             }
             case COLOR_BY_GRADIENT -> {
                 return Color.color(
@@ -179,15 +176,26 @@ public class Perspective3DNode {
                 return Color.ALICEBLUE;
             }
             case COLOR_BY_LABEL -> {
-                if (null == seed.label || seed.label.isBlank())
-                    return Color.ALICEBLUE;
-                else
-                    return FactorLabel.getColorByLabel(seed.label);
+                return getLabelColor(seed.label);
             }
         }
         return Color.ALICEBLUE;
     }
 
+    public static Color getLabelColor(String label) {
+        if (null == label || label.isBlank())
+            return Color.ALICEBLUE;
+        else
+            return FactorLabel.getColorByLabel(label);
+    }
+
+    public static Color getLayerColor(Integer layer) {
+        if (null == layer)
+            return Color.ALICEBLUE;
+        else
+            return FeatureLayer.getColorByIndex(layer);
+    }
+
     //We will need a comparator for binary searches
     public static Comparator<Perspective3DNode> PerspectiveXComparator = (Perspective3DNode p1, Perspective3DNode p2) -> {
         if (p1.xCoord < p2.xCoord) return -1;
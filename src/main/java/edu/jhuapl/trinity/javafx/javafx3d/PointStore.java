@@ -0,0 +1,250 @@
+package edu.jhuapl.trinity.javafx.javafx3d;
+
+/*-
+ * #%L
+ * trinity
+ * %%
+ * Copyright (C) 2021 - 2023 The Johns Hopkins University Applied Physics Laboratory LLC
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import javafx.scene.paint.Color;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Columnar, primitive backed copy of the perspective nodes being drawn. Each
+ * point is a slot across parallel arrays of coordinates, direction, hue,
+ * label id, layer and a visibility bit. The arrays are reused between redraws
+ * and grow by doubling, so filling the store allocates nothing once it has
+ * reached its working size.
+ */
+public class PointStore {
+    //layer value for points without one
+    public static final int NO_LAYER = Integer.MIN_VALUE;
+    private static final int DEFAULT_CAPACITY = 1024;
+
+    private double[] x, y, z;
+    private double[] xDir, yDir, zDir;
+    private float[] hue;
+    private int[] labelId;
+    private int[] layer;
+    private long[] visible;
+    private int size = 0;
+    private int visibleCount = 0;
+    //label ids are stable for the life of the store
+    private final Map<String, Integer> labelIds = new HashMap<>();
+    private final List<String> labels = new ArrayList<>();
+
+    public PointStore() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public PointStore(int capacity) {
+        allocate(Math.max(1, capacity));
+    }
+
+    /**
+     * Replace the contents with the given nodes.
+     *
+     * @param nodes nodes in draw order, null entries are skipped
+     */
+    public void setAll(Perspective3DNode[] nodes) {
+        clear();
+        ensureCapacity(nodes.length);
+        for (Perspective3DNode node : nodes) {
+            if (null != node)
+                add(node);
+        }
+    }
+
+    /**
+     * @param node node to copy into the next slot
+     * @return the slot of the point
+     */
+    public int add(Perspective3DNode node) {
+        String label = null;
+        Integer nodeLayer = null;
+        if (null != node.factorAnalysisSeed) {
+            label = node.factorAnalysisSeed.label;
+            nodeLayer = node.factorAnalysisSeed.layer;
+        }
+        Color color = node.nodeColor;
+        return add(node.xCoord, node.yCoord, node.zCoord,
+            node.xDirCoord, node.yDirCoord, node.zDirCoord,
+            null == color ? 0f : (float) color.getHue(),
+            internLabel(label), null == nodeLayer ? NO_LAYER : nodeLayer, node.visible);
+    }
+
+    public int add(double x, double y, double z, double xDir, double yDir, double zDir,
+                   float hue, int labelId, int layer, boolean visible) {
+        ensureCapacity(size + 1);
+        int i = size++;
+        this.x[i] = x;
+        this.y[i] = y;
+        this.z[i] = z;
+        this.xDir[i] = xDir;
+        this.yDir[i] = yDir;
+        this.zDir[i] = zDir;
+        this.hue[i] = hue;
+        this.labelId[i] = labelId;
+        this.layer[i] = layer;
+        setVisible(i, visible);
+        return i;
+    }
+
+    public void clear() {
+        Arrays.fill(visible, 0, (size + 63) >>> 6, 0L);
+        size = 0;
+        visibleCount = 0;
+    }
+
+    /**
+     * @param label label to look up, may be null
+     * @return a small id for the label, -1 for null
+     */
+    public int internLabel(String label) {
+        if (null == label)
+            return -1;
+        Integer id = labelIds.get(label);
+        if (null == id) {
+            id = labels.size();
+            labels.add(label);
+            labelIds.put(label, id);
+        }
+        return id;
+    }
+
+    /**
+     * @param id id returned by internLabel
+     * @return the label, null for -1
+     */
+    public String labelOf(int id) {
+        return id < 0 ? null : labels.get(id);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int visibleCount() {
+        return visibleCount;
+    }
+
+    public boolean isVisible(int i) {
+        return (visible[i >>> 6] & (1L << i)) != 0;
+    }
+
+    public void setVisible(int i, boolean value) {
+        long bit = 1L << i;
+        long word = visible[i >>> 6];
+        if (value && (word & bit) == 0) {
+            visible[i >>> 6] = word | bit;
+            visibleCount++;
+        } else if (!value && (word & bit) != 0) {
+            visible[i >>> 6] = word & ~bit;
+            visibleCount--;
+        }
+    }
+
+    /**
+     * @param from first slot to check
+     * @return the first visible slot at or after from, or -1
+     */
+    public int nextVisible(int from) {
+        if (from >= size)
+            return -1;
+        int w = from >>> 6;
+        long word = visible[w] & (-1L << from);
+        while (true) {
+            if (word != 0) {
+                int i = (w << 6) + Long.numberOfTrailingZeros(word);
+                return i < size ? i : -1;
+            }
+            if (++w > (size - 1) >>> 6)
+                return -1;
+            word = visible[w];
+        }
+    }
+
+    public double getX(int i) {
+        return x[i];
+    }
+
+    public double getY(int i) {
+        return y[i];
+    }
+
+    public double getZ(int i) {
+        return z[i];
+    }
+
+    public double getXDir(int i) {
+        return xDir[i];
+    }
+
+    public double getYDir(int i) {
+        return yDir[i];
+    }
+
+    public double getZDir(int i) {
+        return zDir[i];
+    }
+
+    public float getHue(int i) {
+        return hue[i];
+    }
+
+    public int getLabelId(int i) {
+        return labelId[i];
+    }
+
+    public int getLayer(int i) {
+        return layer[i];
+    }
+
+    public void ensureCapacity(int capacity) {
+        if (capacity <= x.length)
+            return;
+        int newCapacity = Math.max(capacity, 2 * x.length);
+        x = Arrays.copyOf(x, newCapacity);
+        y = Arrays.copyOf(y, newCapacity);
+        z = Arrays.copyOf(z, newCapacity);
+        xDir = Arrays.copyOf(xDir, newCapacity);
+        yDir = Arrays.copyOf(yDir, newCapacity);
+        zDir = Arrays.copyOf(zDir, newCapacity);
+        hue = Arrays.copyOf(hue, newCapacity);
+        labelId = Arrays.copyOf(labelId, newCapacity);
+        layer = Arrays.copyOf(layer, newCapacity);
+        visible = Arrays.copyOf(visible, (newCapacity + 63) >>> 6);
+    }
+
+    private void allocate(int capacity) {
+        x = new double[capacity];
+        y = new double[capacity];
+        z = new double[capacity];
+        xDir = new double[capacity];
+        yDir = new double[capacity];
+        zDir = new double[capacity];
+        hue = new float[capacity];
+        labelId = new int[capacity];
+        layer = new int[capacity];
+        visible = new long[(capacity + 63) >>> 6];
+    }
+}
@@ -54,8 +54,10 @@ import edu.jhuapl.trinity.javafx.renderers.GaussianMixtureRenderer;
 import edu.jhuapl.trinity.javafx.renderers.ManifoldRenderer;
 import edu.jhuapl.trinity.utils.AnalysisUtils;
 import edu.jhuapl.trinity.utils.JavaFX3DUtils;
-import edu.jhuapl.trinity.utils.VisibilityMap;
+import edu.jhuapl.trinity.utils.StreamingUmapProjector;
+import edu.jhuapl.trinity.utils.umap.ProgressListener;
 import edu.jhuapl.trinity.utils.umap.Umap;
+import edu.jhuapl.trinity.utils.umap.UmapProgress;
 import javafx.animation.AnimationTimer;
 import javafx.animation.Timeline;
 import javafx.animation.Transition;
@@ -99,14 +101,16 @@ import javafx.util.Duration;
 import org.fxyz3d.geometry.Point3D;
 import org.fxyz3d.scene.Skybox;
 import org.fxyz3d.utils.CameraTransformer;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
-import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.Set;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Function;
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -158,6 +162,7 @@ public class Projections3DPane extends StackPane implements
     public double scatterBuffScaling = 1.0; //scales domain range in transform
     public long hyperspaceRefreshRate = 500; //milliseconds
     public int queueLimit = 50000;
+    public int lodTriangleBudget = 1_000_000; //triangles drawn before octree level of detail kicks in
 
     //feature vector indices for 3D coordinates
     private int xFactorIndex = 0;
@@ -185,15 +190,20 @@ public class Projections3DPane extends StackPane implements
     double trajectoryScale = 1.0;
     int trajectoryTailSize = 5;
     double projectionScalar = 100.0;
+    //live feature vectors are transformed into the last fitted UMAP embedding
+    public boolean streamingProjection = true;
+    StreamingUmapProjector umapStreamProjector = null;
 
-    ArrayList<Point3D> data;
-    ArrayList<Point3D> endPoints;
+    List<Point3D> data;
+    List<Point3D> endPoints;
     //This maps each seed to a Point3D object which represents its transfromed screen coordinates.
     HashMap<Point3D, HyperspaceSeed> seedToDataMap = new HashMap<>();
     //This maps each seed to a Point3D object which represents its end point transfromed to screen coordinates.
     HashMap<Point3D, HyperspaceSeed> seedToEndMap = new HashMap<>();
     //This maps each ellipsoid to a GMM
     HashMap<Sphere, FeatureVector> sphereToFeatureVectorMap = new HashMap<>();
+    //projection spheres oldest first, trimmed as their vectors leave featureWindow
+    ArrayDeque<Sphere> projectedSpheres = new ArrayDeque<>();
     //This maps each ellipsoid to a GMM
     HashMap<TriaxialSpheroidMesh, GaussianMixture> ellipsoidToGMMessageMap = new HashMap<>();
     //This maps each ellipsoid to its specific GaussianMixtureData
@@ -205,7 +215,9 @@ public class Projections3DPane extends StackPane implements
     //This maps distance objects to label overlays
     HashMap<Distance, Shape3D> distanceToShape3DMap = new HashMap<>();
 
-    public List<FeatureVector> featureVectors = new ArrayList<>();
+    //vector, seed and render node of each queued sample kept together
+    public final FeatureWindow featureWindow = new FeatureWindow(queueLimit);
+    public final List<FeatureVector> featureVectors = featureWindow.featureVectors();
     public List<FeatureVector> hyperFeatures = new ArrayList<>();
     
     public boolean meanCentered = true;
@@ -217,8 +229,9 @@ public class Projections3DPane extends StackPane implements
     public double meanCenteredMaxAbsValue = 1.0;
     public boolean pointToPointDistanceMode = false;
 
-    public ConcurrentLinkedQueue<HyperspaceSeed> hyperspaceSeeds = new ConcurrentLinkedQueue<>();
-    public ConcurrentLinkedQueue<Perspective3DNode> pNodes = new ConcurrentLinkedQueue<>();
+    //dummy seed and node at the origin for the mesh to form around, always drawn first
+    HyperspaceSeed dummySeed;
+    Perspective3DNode dummyPNode;
     int TOTAL_COLORS = 1530; //colors used by map function
     Function<Point3D, Number> colorByLabelFunction = p -> p.f; //Color mapping function
 
@@ -709,8 +722,8 @@ public class Projections3DPane extends StackPane implements
         double[] features = new double[factorMaxIndex];
         Arrays.fill(features, 0);
         HyperspaceSeed seed = new HyperspaceSeed(0, 1, 2, 3, 4, 5, features);
-        hyperspaceSeeds.add(seed);
-        addPNodeFromSeed(seed);
+        dummySeed = seed;
+        dummyPNode = createPNodeFromSeed(seed);
         //load empty mesh (except single 0'ed point.
         loadDirectedMesh();
 
@@ -822,6 +835,11 @@ public class Projections3DPane extends StackPane implements
             updateView(false);
         });
         scene.addEventHandler(HyperspaceEvent.NODE_QUEUELIMIT_GUI, e -> queueLimit = (int) e.object);
+        scene.addEventHandler(HyperspaceEvent.LOD_TRIANGLE_BUDGET_GUI, e -> {
+            lodTriangleBudget = (int) e.object;
+            if (null != scatterMesh3D)
+                scatterMesh3D.setMaxTriangles(lodTriangleBudget);
+        });
         scene.addEventHandler(HyperspaceEvent.REFRESH_RATE_GUI, e -> hyperspaceRefreshRate = (long) e.object);
         scene.addEventHandler(HyperspaceEvent.POINT3D_SIZE_GUI, e -> {
             point3dSize = (double) e.object;
@@ -925,6 +943,8 @@ public class Projections3DPane extends StackPane implements
 
             @Override
             public void handle(long now) {
+                //cheap unless the camera moved far enough to change the detail
+                updateLevelOfDetail();
                 sleepNs = hyperspaceRefreshRate * NANOS_IN_MILLI;
                 if ((now - prevTime) < sleepNs) return;
                 prevTime = now;
@@ -1278,7 +1298,7 @@ public class Projections3DPane extends StackPane implements
         if (forcePNodeUpdate) //pointScale
             updatePNodes();
         if (null != scatterMesh3D) {
-            Perspective3DNode[] pNodeArray = pNodes.toArray(Perspective3DNode[]::new);
+            Perspective3DNode[] pNodeArray = getPNodeArray();
 
             data = getVisiblePoints(pNodeArray);
             //@TODO SMP if we want to implement directional arrows
@@ -1307,12 +1327,12 @@ public class Projections3DPane extends StackPane implements
         //    + Utils.totalTimeString(startTime2));
         //Since we changed the mesh unfortunately we have to reset the color mode
         //otherwise the triangles won't have color.
-        //5ms for 20k points
+        //5ms for 20k points, free when the mesh was updated in place
         scatterMesh3D.setTextureModeVertices3D(TOTAL_COLORS, colorByLabelFunction, 0.0, 360.0);
         isDirty = false;
     }
 
-    private ArrayList<Point3D> getAllPoints(Perspective3DNode[] pNodeArray) {
+    private List<Point3D> getAllPoints(Perspective3DNode[] pNodeArray) {
         //Build scatter model
         if (null == scatterModel)
             scatterModel = new DirectedScatterDataModel();
@@ -1320,8 +1340,8 @@ public class Projections3DPane extends StackPane implements
         scatterModel.reset();
         //synch model reflection status with current boolean value
         scatterModel.reflectY = reflectY;
-        //Add our nodes to the model's collection
-        Collections.addAll(scatterModel.pNodes, pNodeArray);
+        //Copy our nodes into the model's point store
+        scatterModel.setNodes(pNodeArray);
         //Check flag to see if we are auto normalizing
         double buff = scatterBuffScaling;
         if (autoScaling)
@@ -1336,10 +1356,10 @@ public class Projections3DPane extends StackPane implements
         } else {
             scatterModel.setShifts(0, 0, 0);
         }
-        return scatterModel.getVisiblePoints(false, sceneWidth, sceneHeight);
+        return scatterModel.getVisiblePoints(sceneWidth, sceneHeight);
     }
 
-    private ArrayList<Point3D> getVisiblePoints(Perspective3DNode[] pNodeArray) {
+    private List<Point3D> getVisiblePoints(Perspective3DNode[] pNodeArray) {
         //Build scatter model
         if (null == scatterModel)
             scatterModel = new DirectedScatterDataModel();
@@ -1347,28 +1367,16 @@ public class Projections3DPane extends StackPane implements
         scatterModel.reset();
         //synch model reflection status with current boolean value
         scatterModel.reflectY = reflectY;
-        //Add our nodes to the model's collection
-        Collections.addAll(scatterModel.pNodes, pNodeArray);
+        //Copy our nodes into the model's point store
+        scatterModel.setNodes(pNodeArray);
         //True calls updateModel which is where the pain is
         updateScatterLimits(scatterBuffScaling, true);
         return scatterModel.data;
     }
 
-    private ArrayList<Point3D> getFixedEndPoints(Perspective3DNode[] pNodes, float fixedSize) {
-//        ArrayList<Point3D> ends = new ArrayList<>(pNodes.length);
-////        seedToEndMap.clear(); //@TODO SMP
-//        for(int i=0; i<pNodes.length; i++){
-//            ends.add(new Point3D(fixedSize, fixedSize, fixedSize));
-//            //HyperspaceSeed seed = seedToDataMap.get(pNode.factorAnalysisSeed);
-//            //Fix endpoints so they are just zero adds
-////            Point3D endPoint3D = new Point3D(fixedSize, fixedSize, fixedSize);
-////            ends.add(endPoint3D);
-////            seedToEndMap.put(endPoint3D, pNode.factorAnalysisSeed);
-//        }
-//        return ends;
-        Point3D[] endArray = new Point3D[pNodes.length];
-        Arrays.parallelSetAll(endArray, i -> new Point3D(fixedSize, fixedSize, fixedSize));
-        return new ArrayList<>(Arrays.asList(endArray));
+    private List<Point3D> getFixedEndPoints(Perspective3DNode[] pNodes, float fixedSize) {
+        //Fix endpoints so they are just zero adds
+        return PackedPoint3DList.filled(pNodes.length, fixedSize);
     }
 
     public void updateScatterLimits(double bufferScale, boolean updateModel) {
@@ -1390,7 +1398,7 @@ public class Projections3DPane extends StackPane implements
             scatterModel.updateModel(sceneWidth, sceneHeight);
     }
 
-    public Perspective3DNode addPNodeFromSeed(HyperspaceSeed seed) {
+    public Perspective3DNode createPNodeFromSeed(HyperspaceSeed seed) {
         Perspective3DNode pNode = new Perspective3DNode(
             seed.vector[seed.x], seed.vector[seed.y], seed.vector[seed.z],
             seed.vector[seed.xDir], seed.vector[seed.yDir], seed.vector[seed.zDir],
@@ -1413,47 +1421,63 @@ public class Projections3DPane extends StackPane implements
         else
             pNode.nodeColor = FeatureLayer.getColorByIndex(pNode.factorAnalysisSeed.layer);
         pNode.visible = pNode.factorAnalysisSeed.visible;
-        pNodes.add(pNode);
         return pNode;
     }
 
     private void updatePNodes() {
-        pNodes.clear();
-        HyperspaceSeed[] seeds = hyperspaceSeeds.toArray(HyperspaceSeed[]::new);
-        HyperspaceSeed seed;
-        for (int i = 0; i < seeds.length; i++) {
-            seed = seeds[i];
-            seed.x = xFactorIndex;
-            seed.y = yFactorIndex;
-            seed.z = zFactorIndex;
-            seed.visible = FactorLabel.visibilityByLabel(seed.label)
-                && FeatureLayer.visibilityByIndex(seed.layer)
-                && VisibilityMap.visibilityByIndex(i);
-            addPNodeFromSeed(seed);
-        }
+        //sets seed visibility from the window's bitsets
+        featureWindow.refreshVisibility();
+        dummySeed.visible = FactorLabel.visibilityByLabel(dummySeed.label)
+            && FeatureLayer.visibilityByIndex(dummySeed.layer);
+        dummyPNode = updatePNodeFromSeed(dummySeed);
+        featureWindow.rebuildNodes((i, seed) -> updatePNodeFromSeed(seed));
+    }
+
+    private Perspective3DNode updatePNodeFromSeed(HyperspaceSeed seed) {
+        seed.x = xFactorIndex;
+        seed.y = yFactorIndex;
+        seed.z = zFactorIndex;
+        return createPNodeFromSeed(seed);
     }
 
     private void updatePNodeColorsAndVisibility() {
-        pNodes.parallelStream().forEach(p -> {
-            if (colorByLabel)
-                if (p.factorAnalysisSeed.label.isBlank())
-                    p.nodeColor = Color.ALICEBLUE;
-                else
-                    p.nodeColor = FactorLabel.getColorByLabel(p.factorAnalysisSeed.label);
-            else //color by layer index
-                if (null == p.factorAnalysisSeed.layer)
-                    p.nodeColor = Color.ALICEBLUE;
-                else
-                    p.nodeColor = FeatureLayer.getColorByIndex(p.factorAnalysisSeed.layer);
-            p.visible = FactorLabel.visibilityByLabel(p.factorAnalysisSeed.label)
-                && FeatureLayer.visibilityByIndex(p.factorAnalysisSeed.layer)
-                && VisibilityMap.visibilityByPNode(p);
-        });
+        //colors are looked up once per label or layer, not per node
+        if (colorByLabel) {
+            dummyPNode.nodeColor = Perspective3DNode.getLabelColor(dummySeed.label);
+            featureWindow.colorNodesByLabel(Perspective3DNode::getLabelColor);
+        } else { //color by layer index
+            dummyPNode.nodeColor = Perspective3DNode.getLayerColor(dummySeed.layer);
+            featureWindow.colorNodesByLayer(Perspective3DNode::getLayerColor);
+        }
+        //a word wide bitset update rather than label, layer and filter lookups per node
+        featureWindow.refreshVisibility();
+        dummyPNode.visible = FactorLabel.visibilityByLabel(dummySeed.label)
+            && FeatureLayer.visibilityByIndex(dummySeed.layer);
     }
 
     private void updatePNodeIndices(int x, int y, int z, int xDir, int yDir, int zDir) {
-        //always skip the first node since its a dummy node.
-        pNodes.parallelStream().skip(1).forEach(p -> p.setParamsByIndex(x, y, z, xDir, yDir, zDir));
+        //the dummy node is not in the window so it is left alone
+        Arrays.stream(featureWindow.toNodeArray(0)).parallel().forEach(p -> p.setParamsByIndex(x, y, z, xDir, yDir, zDir));
+    }
+
+    /**
+     * @param pointId index of a point drawn by the scatter mesh
+     * @return index into featureVectors of the vector drawn there, -1 for the
+     * origin dummy or a pick that no longer matches the window
+     */
+    private int featureIndexFromFacePoint(int pointId) {
+        //the dummy node is store index 0, ahead of the window
+        int position = scatterModel.findIndexFromVisibleFacePoint(
+            scatterMesh3D.getSourceIndex(pointId)) - 1;
+        return featureWindow.indexAtDrawPosition(position);
+    }
+
+    private void updateLevelOfDetail() {
+        if (null == scatterMesh3D || !scatterMesh3D.isLevelOfDetail())
+            return;
+        //the eye in the mesh's own coordinates, the mesh may sit under a rotated transform
+        javafx.geometry.Point3D eye = scatterMesh3D.sceneToLocal(camera.localToScene(0, 0, 0));
+        scatterMesh3D.setViewpoint(eye.getX(), eye.getY(), eye.getZ());
     }
 
     public void loadDirectedMesh() {
@@ -1461,7 +1485,7 @@ public class Projections3DPane extends StackPane implements
         //@TODO SMP this is where you might load some dank data from a file
         showAll();
         updatePNodes();
-        Perspective3DNode[] pNodeArray = pNodes.toArray(Perspective3DNode[]::new);
+        Perspective3DNode[] pNodeArray = getPNodeArray();
         data = getVisiblePoints(pNodeArray);
         endPoints = getFixedEndPoints(pNodeArray, 0f);
         //System.out.println("Rendering 3D Mesh...");
@@ -1471,6 +1495,8 @@ public class Projections3DPane extends StackPane implements
             scatterMesh3D.setScatterDataAndEndPoints(data, endPoints);
         } else {
             scatterMesh3D = new DirectedScatterMesh(data, endPoints, true, point3dSize, 0);
+            scatterMesh3D.setInPlaceUpdates(true);
+            scatterMesh3D.setMaxTriangles(lodTriangleBudget);
             scatterMesh3D.setDrawMode(DrawMode.FILL);
             scatterMesh3D.setTextureModeVertices3D(TOTAL_COLORS, colorByLabelFunction, 0.0, 360.0);
             highlightedPoint.visibleProperty().bind(scatterMesh3D.visibleProperty());
@@ -1480,15 +1506,15 @@ public class Projections3DPane extends StackPane implements
                 PickResult n = event.getPickResult();
                 int pointId1 = n.getIntersectedFace() / 4;
                 //System.out.println("Intersected Face:  " + n.getIntersectedFace());
-                if (pointId1 < scatterMesh3D.scatterDataProperty().get().size()) {
-                    Point3D pt1 = scatterMesh3D.scatterDataProperty().get().get(pointId1);
+                if (pointId1 < scatterMesh3D.getDrawnData().size()) {
+                    Point3D pt1 = scatterMesh3D.getDrawnData().get(pointId1);
                     Sphere sphere = new Sphere(1, 1);
                     sphere.setTranslateX(pt1.x);
                     sphere.setTranslateY(pt1.y);
                     sphere.setTranslateZ(pt1.z);
                     nodeGroup.getChildren().add(sphere);
                     //find correct feature vector
-                    int correctIndex = scatterModel.findIndexFromVisibleFacePoint(pointId1);
+                    int correctIndex = featureIndexFromFacePoint(pointId1);
                     if (correctIndex >= 0)
                         radialOverlayPane.createCallout(sphere,
                             featureVectors.get(correctIndex), subScene);
@@ -1498,15 +1524,15 @@ public class Projections3DPane extends StackPane implements
                 PickResult n = event.getPickResult();
                 final int pointId1 = n.getIntersectedFace() / 4;
                 Platform.runLater(() -> {
-                    if (pointId1 < scatterMesh3D.scatterDataProperty().get().size()) {
-                        Point3D pt1 = scatterMesh3D.scatterDataProperty().get().get(pointId1);
+                    if (pointId1 < scatterMesh3D.getDrawnData().size()) {
+                        Point3D pt1 = scatterMesh3D.getDrawnData().get(pointId1);
                         Translate highlightTranslate = new Translate(pt1.x, pt1.y, pt1.z);
                         highlightedPoint.getTransforms().clear();
                         highlightedPoint.getTransforms().add(highlightTranslate);
                         highlightedPoint.setUserData(pt1);
                         highlightedPoint.setRadius(point3dSize / 2.0);
-                        int correctIndex = scatterModel.findIndexFromVisibleFacePoint(pointId1);
-                        if (correctIndex >= 0 && correctIndex <= featureVectors.size()) {
+                        int correctIndex = featureIndexFromFacePoint(pointId1);
+                        if (correctIndex >= 0) {
                             scene.getRoot().fireEvent(new FeatureVectorEvent(
                                 FeatureVectorEvent.SELECT_FEATURE_VECTOR,
                                 featureVectors.get(correctIndex), featureLabels));
@@ -1555,8 +1581,6 @@ public class Projections3DPane extends StackPane implements
         ellipsoidToGMMessageMap.clear();
         ellipsoidToGMDataMap.clear();
         clearFeatureVectors();
-        hyperspaceSeeds.clear();
-        pNodes.clear();
         seedToDataMap.clear();
         seedToEndMap.clear();
         shape3DToLabel.clear();
@@ -1567,9 +1591,8 @@ public class Projections3DPane extends StackPane implements
         //Create dummy seed and pnode for mesh to form around
         double[] features = new double[]{0, 0, 0, 0, 0, 0};
         HyperspaceSeed seed = new HyperspaceSeed(0, 1, 2, 3, 4, 5, features);
-        hyperspaceSeeds.add(seed);
-        addPNodeFromSeed(seed);
-        VisibilityMap.clearAll();
+        dummySeed = seed;
+        dummyPNode = createPNodeFromSeed(seed);
     }
 
     public void showAll() {
@@ -1776,7 +1799,6 @@ public class Projections3DPane extends StackPane implements
 
     @Override
     public void addFeatureVector(FeatureVector featureVector) {
-        featureVectors.add(featureVector);
         double[] features = FeatureVector.mapToStateArray.apply(featureVector);
         HyperspaceSeed seed = new HyperspaceSeed(
             xFactorIndex, yFactorIndex, zFactorIndex,
@@ -1785,9 +1807,8 @@ public class Projections3DPane extends StackPane implements
         seed.layer = featureVector.getLayer();
         seed.visible = FactorLabel.visibilityByLabel(seed.label)
             && FeatureLayer.visibilityByIndex(seed.layer);
-        hyperspaceSeeds.add(seed);
+        featureWindow.add(featureVector, seed, createPNodeFromSeed(seed));
         trimQueueNow();
-        addPNodeFromSeed(seed);
         cubeWorld.setDirty(true); //signals to animation timer to redraw
         //rather than directly call updateView() let the rendering thread know there is a change
         isDirty = true;
@@ -1809,6 +1830,7 @@ public class Projections3DPane extends StackPane implements
 
         ellipsoidGroup.getChildren().clear();
         sphereToFeatureVectorMap.clear();
+        projectedSpheres.clear();
 
         //Add artificial scaling to feature vector values...
         //@TODO SMP Fix this so it isn't hard coded
@@ -1821,60 +1843,71 @@ public class Projections3DPane extends StackPane implements
 
         //Make a 3D sphere for each projected feature vector
         for(int i=0;i<featureCollection.getFeatures().size();i++){ 
-            FeatureVector featureVector = featureCollection.getFeatures().get(i);
-            Sphere sphere = new Sphere(point3dSize);
-            PhongMaterial mat = new PhongMaterial(
-                FactorLabel.getColorByLabel(featureVector.getLabel()));
-            mat.setSpecularColor(Color.TRANSPARENT);
-            sphere.setMaterial(mat);
-            sphere.setTranslateX(featureVector.getData().get(0));
-            sphere.setTranslateY(featureVector.getData().get(1));
-            sphere.setTranslateZ(featureVector.getData().get(2));
-            ellipsoidGroup.getChildren().add(sphere);
-            sphereToFeatureVectorMap.put(sphere, featureVector);
-            //@TODO add Spinning Circle as highlight when mouse hovering
-            int sphereIndex = i;
-            sphere.addEventHandler(MouseEvent.MOUSE_ENTERED, e -> {
-                highlightedPoint = sphere;
-                updateFloatingNodes(); //Will transform location of all floating 2D nodes
-                javafx.geometry.Point3D p1 = new javafx.geometry.Point3D(
-                    sphere.getTranslateX(), sphere.getTranslateY(), sphere.getTranslateZ());
-                scene.getRoot().fireEvent(new ManifoldEvent(
-                    ManifoldEvent.SELECT_PROJECTION_POINT3D, p1));                
-
-                miniCrosshair.size = point3dSize * 4.0;
-                miniCrosshair.setCenter(p1);
-                setCircleRadiusByDistance(highlighterNeonCircle, sphere);
-                //update selection listeners with original hyper dimensions (eg RADAR plot)
-                if(sphereIndex < hyperFeatures.size())
-                    scene.getRoot().fireEvent(new FeatureVectorEvent(
-                        FeatureVectorEvent.SELECT_FEATURE_VECTOR,
-                        hyperFeatures.get(sphereIndex), featureLabels));                
-            });
-
-            //Add click handler to popup callout or point distance measurements
-            sphere.addEventHandler(MouseEvent.MOUSE_CLICKED, e -> {
-                if (e.getButton() == MouseButton.PRIMARY && !e.isControlDown())
-                    radialOverlayPane.createCallout(sphere, featureVector, subScene);
-                else if ((e.getButton() == MouseButton.PRIMARY && e.isControlDown())
-                    || (e.getButton() == MouseButton.PRIMARY && pointToPointDistanceMode)) {
-                    processDistanceClick(sphere);
-                }
-            });
-
-            featureVectors.add(featureVector);
-            HyperspaceSeed seed = new HyperspaceSeed(
-                0, 1, 2, 0, 1, 2,
-                FeatureVector.mapToStateArray.apply(featureVector));
-            seed.label = featureVector.getLabel();
-            seed.layer = featureVector.getLayer();
-            seed.score = featureVector.getScore();
-            seed.pfa = featureVector.getPfa();
-            hyperspaceSeeds.add(seed);
-            addPNodeFromSeed(seed);
+            addProjectedFeatureVector(featureCollection.getFeatures().get(i),
+                i < hyperFeatures.size() ? hyperFeatures.get(i) : null);
         }
         trimQueueNow();
     }
+
+    /**
+     * Adds the sphere, seed and point node for a single projected feature
+     * vector. Values are expected to already be scaled for display.
+     *
+     * @param featureVector projected vector
+     * @param original      matching vector in the original high dimensional
+     *                      space, used for selection events, may be null
+     */
+    private void addProjectedFeatureVector(FeatureVector featureVector, FeatureVector original) {
+        Sphere sphere = new Sphere(point3dSize);
+        PhongMaterial mat = new PhongMaterial(
+            FactorLabel.getColorByLabel(featureVector.getLabel()));
+        mat.setSpecularColor(Color.TRANSPARENT);
+        sphere.setMaterial(mat);
+        sphere.setTranslateX(featureVector.getData().get(0));
+        sphere.setTranslateY(featureVector.getData().get(1));
+        sphere.setTranslateZ(featureVector.getData().get(2));
+        ellipsoidGroup.getChildren().add(sphere);
+        sphereToFeatureVectorMap.put(sphere, featureVector);
+        projectedSpheres.add(sphere);
+        //@TODO add Spinning Circle as highlight when mouse hovering
+        sphere.addEventHandler(MouseEvent.MOUSE_ENTERED, e -> {
+            highlightedPoint = sphere;
+            updateFloatingNodes(); //Will transform location of all floating 2D nodes
+            javafx.geometry.Point3D p1 = new javafx.geometry.Point3D(
+                sphere.getTranslateX(), sphere.getTranslateY(), sphere.getTranslateZ());
+            scene.getRoot().fireEvent(new ManifoldEvent(
+                ManifoldEvent.SELECT_PROJECTION_POINT3D, p1));                
+
+            miniCrosshair.size = point3dSize * 4.0;
+            miniCrosshair.setCenter(p1);
+            setCircleRadiusByDistance(highlighterNeonCircle, sphere);
+            //update selection listeners with original hyper dimensions (eg RADAR plot)
+            if(null != original)
+                scene.getRoot().fireEvent(new FeatureVectorEvent(
+                    FeatureVectorEvent.SELECT_FEATURE_VECTOR,
+                    original, featureLabels));                
+        });
+
+        //Add click handler to popup callout or point distance measurements
+        sphere.addEventHandler(MouseEvent.MOUSE_CLICKED, e -> {
+            if (e.getButton() == MouseButton.PRIMARY && !e.isControlDown())
+                radialOverlayPane.createCallout(sphere, featureVector, subScene);
+            else if ((e.getButton() == MouseButton.PRIMARY && e.isControlDown())
+                || (e.getButton() == MouseButton.PRIMARY && pointToPointDistanceMode)) {
+                processDistanceClick(sphere);
+            }
+        });
+
+        HyperspaceSeed seed = new HyperspaceSeed(
+            0, 1, 2, 0, 1, 2,
+            FeatureVector.mapToStateArray.apply(featureVector));
+        seed.label = featureVector.getLabel();
+        seed.layer = featureVector.getLayer();
+        seed.score = featureVector.getScore();
+        seed.pfa = featureVector.getPfa();
+        featureWindow.add(featureVector, seed, createPNodeFromSeed(seed));
+    }
+
     private void processDistanceClick(Manifold3D manifold3D) {
         System.out.println("Point: " + manifold3D.toString());
         if (null == selectedManifoldA) {
@@ -2038,15 +2071,16 @@ public class Projections3DPane extends StackPane implements
     }
 
     public void trimQueueNow() {
-        while (hyperspaceSeeds.size() > queueLimit) {
-            hyperspaceSeeds.poll();
-        }
-        while (pNodes.size() > queueLimit) {
-            pNodes.poll();
-        }
-        while (featureVectors.size() > queueLimit) {
-            featureVectors.remove(0);
-        }
+        featureWindow.setCapacity(queueLimit);
+    }
+
+    /**
+     * @return the dummy node followed by the queued nodes in draw order
+     */
+    private Perspective3DNode[] getPNodeArray() {
+        Perspective3DNode[] pNodeArray = featureWindow.toNodeArray(1);
+        pNodeArray[0] = dummyPNode;
+        return pNodeArray;
     }
 
     @Override
@@ -2080,6 +2114,17 @@ public class Projections3DPane extends StackPane implements
 
     @Override
     public void locateFeatureVector(FeatureVector featureVector) {
+        //where the vector is actually drawn, if it is, after centering and scaling
+        int visibleIndex = null == scatterModel || null == scatterMesh3D ? -1
+            : scatterModel.findVisibleFacePointFromIndex(
+                featureWindow.drawPosition(featureWindow.indexOf(featureVector)) + 1);
+        if (visibleIndex > 0 && visibleIndex < scatterModel.data.size()) {
+            Point3D p = scatterModel.data.get(visibleIndex);
+            javafx.geometry.Point3D target = scatterMesh3D.localToScene(p.x, p.y, p.z);
+            JavaFX3DUtils.transitionCameraTo(1000, camera, cameraTransform,
+                target.getX(), target.getY(), target.getZ() - 750, 0, 0, 0);
+            return;
+        }
         //pixel ranges we wish to fit our scaling to
         double halfSceneWidth = sceneWidth / 2.0;
         double halfSceneHeight = sceneHeight / 2.0;
@@ -2110,7 +2155,7 @@ public class Projections3DPane extends StackPane implements
 
     @Override
     public void clearFeatureVectors() {
-        featureVectors.clear();
+        featureWindow.clear();
     }
 
     @Override
@@ -2120,8 +2165,29 @@ public class Projections3DPane extends StackPane implements
 
     @Override
     public void setVisibleByIndex(int i, boolean b) {
-        VisibilityMap.pNodeVisibilityMap.put(pNodes.toArray(Perspective3DNode[]::new)[i], b);
-        VisibilityMap.visibilityList.set(i, b);
+        //i indexes getAllFeatureVectors(), which is the window's order
+        if (i < featureWindow.size())
+            featureWindow.setVisible(i, b);
+    }
+
+    @Override
+    public int filterByTerm(String term) {
+        return featureWindow.filterByTerm(term);
+    }
+
+    @Override
+    public int filterByScore(double minimum, double maximum) {
+        return featureWindow.filterByScore(minimum, maximum);
+    }
+
+    @Override
+    public int filterByProbability(double minimum, double maximum) {
+        return featureWindow.filterByProbability(minimum, maximum);
+    }
+
+    @Override
+    public void clearAllFilters() {
+        featureWindow.setAllVisible();
     }
 
     @Override
@@ -2132,7 +2198,7 @@ public class Projections3DPane extends StackPane implements
         cubeWorld.redraw(true);
     }
     private List<Point3D> getPointsByLabel(boolean useVisiblePoints, String label) {
-        Perspective3DNode[] pNodeArray = pNodes.toArray(Perspective3DNode[]::new);
+        Perspective3DNode[] pNodeArray = getPNodeArray();
         List<Point3D> labelMatchedPoints = null;
         if(null == label)
             labelMatchedPoints = Arrays.stream(pNodeArray)
@@ -2217,12 +2283,70 @@ public class Projections3DPane extends StackPane implements
     }
 
     public void setHyperDimensionFeatures(FeatureCollection originalFC) {
-        hyperFeatures = originalFC.getFeatures();
+        hyperFeatures = new ArrayList<>(originalFC.getFeatures());
+    }
+
+    /**
+     * Queue a live feature vector for projection into the current UMAP
+     * embedding. Ignored until a UMAP projection has been fit.
+     *
+     * @param featureVector vector in the original high dimensional space
+     * @return true if the vector was queued for projection
+     */
+    public boolean projectFeatureVector(FeatureVector featureVector) {
+        StreamingUmapProjector projector = umapStreamProjector;
+        if (!streamingProjection || null == projector)
+            return false;
+        return projector.submit(featureVector);
     }
+
+    /**
+     * Stop projecting live vectors, waiting for a batch already being
+     * projected to finish.
+     */
+    public void stopStreamingProjection() {
+        if (null != umapStreamProjector) {
+            umapStreamProjector.stop();
+            umapStreamProjector = null;
+        }
+    }
+
+    private void addStreamedProjections(List<FeatureVector> originals, List<FeatureVector> projected) {
+        for (int i = 0; i < projected.size(); i++) {
+            FeatureVector featureVector = projected.get(i);
+            for (int j = 0; j < featureVector.getData().size(); j++) {
+                featureVector.getData().set(j,
+                    featureVector.getData().get(j) * projectionScalar);
+            }
+            addProjectedFeatureVector(featureVector, originals.get(i));
+        }
+        trimQueueNow();
+        //the window evicts oldest first, so evicted spheres are at the front
+        Set<Sphere> evicted = new HashSet<>();
+        while (!projectedSpheres.isEmpty() && featureWindow.indexOf(
+            sphereToFeatureVectorMap.get(projectedSpheres.peek())) < 0) {
+            Sphere sphere = projectedSpheres.poll();
+            sphereToFeatureVectorMap.remove(sphere);
+            evicted.add(sphere);
+        }
+        if (!evicted.isEmpty())
+            ellipsoidGroup.getChildren().removeAll(evicted);
+        cubeWorld.setDirty(true);
+        isDirty = true;
+    }
+
     public void projectFeatureCollection(FeatureCollection originalFC, Umap umap) {
+        //the previous model is about to be replaced, its batches are dropped
+        //from here on and it is stopped before the fit starts
+        StreamingUmapProjector previous = umapStreamProjector;
+        umapStreamProjector = null;
+        AtomicReference<StreamingUmapProjector> streamProjector = new AtomicReference<>();
         Task task = new Task() {
             @Override
             protected FeatureCollection call() throws Exception {
+                //waits for a batch still being projected, off the FX thread
+                if (null != previous)
+                    previous.stop();
                 //Scene scene = App.getAppScene();
                 Platform.runLater(() -> {
                     ProgressStatus ps = new ProgressStatus("Fitting UMAP Transform...", 0.5);
@@ -2234,7 +2358,24 @@ public class Projections3DPane extends StackPane implements
                         new ApplicationEvent(ApplicationEvent.UPDATE_BUSY_INDICATOR, ps));
                 });
 
-                double[][] umapMatrix = AnalysisUtils.fitUMAP(originalFC, umap);
+                //UMAP reports progress headlessly, forward it to the busy indicator
+                ProgressListener progressListener = state -> Platform.runLater(() -> {
+                    ProgressStatus ps = new ProgressStatus(
+                        state.getPhase() + "...", state.getFraction());
+                    ps.fillStartColor = Color.CYAN;
+                    ps.fillEndColor = Color.NAVY;
+                    ps.innerStrokeColor = Color.CYAN;
+                    ps.outerStrokeColor = Color.NAVY;
+                    scene.getRoot().fireEvent(
+                        new ApplicationEvent(ApplicationEvent.UPDATE_BUSY_INDICATOR, ps));
+                });
+                UmapProgress.addProgressListener(progressListener);
+                double[][] umapMatrix;
+                try {
+                    umapMatrix = AnalysisUtils.fitUMAP(originalFC, umap);
+                } finally {
+                    UmapProgress.removeProgressListener(progressListener);
+                }
 
                 Platform.runLater(() -> {
                     ProgressStatus ps = new ProgressStatus("Converting to FeatureCollection...", 0.5);
@@ -2253,6 +2394,15 @@ public class Projections3DPane extends StackPane implements
                     projectedFC.getFeatures().get(i).setScore(origFV.getScore());
                     projectedFC.getFeatures().get(i).setImageURL(origFV.getImageURL());
                 }
+                //keep the fitted model around to place live vectors as they arrive,
+                //preparing it here keeps the search graph build off the FX thread
+                streamProjector.set(new StreamingUmapProjector(umap,
+                    (originals, projected) -> Platform.runLater(() -> {
+                        //drop batches from a projector that has since been replaced
+                        StreamingUmapProjector current = streamProjector.get();
+                        if (current == umapStreamProjector && !current.isStopped())
+                            addStreamedProjections(originals, projected);
+                    })));
                 Platform.runLater(() -> {
                     ProgressStatus ps = new ProgressStatus("", -1);
                     scene.getRoot().fireEvent(
@@ -2271,6 +2421,7 @@ public class Projections3DPane extends StackPane implements
                     fc.setDimensionLabels(originalFC.getDimensionLabels());
                 }
                 addFeatureCollection(fc);
+                umapStreamProjector = streamProjector.get();
             } catch (InterruptedException | ExecutionException ex) {
                 Logger.getLogger(Projections3DPane.class.getName()).log(Level.SEVERE, null, ex);
             }
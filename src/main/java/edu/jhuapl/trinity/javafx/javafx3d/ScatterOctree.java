@@ -0,0 +1,423 @@
+package edu.jhuapl.trinity.javafx.javafx3d;
+
+/*-
+ * #%L
+ * trinity
+ * %%
+ * Copyright (C) 2021 - 2023 The Johns Hopkins University Applied Physics Laboratory LLC
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.util.Arrays;
+
+/**
+ * Octree over the drawn scatter points used to draw very large clouds within
+ * a point budget. Each cell keeps the centroid, point count and dominant F
+ * value (the hue of its most common label) of the points below it, so a cell
+ * that is not refined is drawn as one aggregate point standing in for them.
+ * <p>
+ * Cells are refined in order of their size as seen from the eye, the largest
+ * first, until the budget is spent. Nearby cells are refined before distant
+ * ones, so the cloud sharpens as the camera approaches it. Point 0 is the
+ * origin dummy of the joined mesh and is always drawn as itself.
+ */
+public class ScatterOctree {
+    /**
+     * Cells holding this many points or fewer are not split further
+     */
+    public static final int LEAF_SIZE = 8;
+    private static final int MAX_DEPTH = 21;
+
+    private PackedPoint3DList points = new PackedPoint3DList(new float[0], null, 0);
+    //point indices ordered so that every cell covers one contiguous range
+    private int[] order = new int[0];
+    private int[] scratch = new int[0];
+    private byte[] octants = new byte[0];
+    //flat cell arrays, the children of a cell are stored next to each other
+    private int cellCount = 0;
+    private int[] cellStart = new int[0];
+    private int[] cellEnd = new int[0];
+    private int[] firstChild = new int[0];
+    private byte[] childCount = new byte[0];
+    private float[] centroid = new float[0];
+    private float[] halfSize = new float[0];
+    private float[] dominantF = new float[0];
+    private int[] representative = new int[0];
+    //selection state
+    private boolean[] refined = new boolean[0];
+    private double[] heapPriority = new double[0];
+    private int[] heapCell = new int[0];
+    private int[] stack = new int[0];
+
+    /**
+     * Rebuild the tree over the given points.
+     *
+     * @param points drawn points, point 0 being the origin dummy
+     */
+    public void build(PackedPoint3DList points) {
+        this.points = points;
+        cellCount = 0;
+        int n = points.size() - 1;
+        if (n <= 0)
+            return;
+        if (order.length < n) {
+            order = new int[n];
+            scratch = new int[n];
+            octants = new byte[n];
+        }
+        float minX = Float.MAX_VALUE, minY = Float.MAX_VALUE, minZ = Float.MAX_VALUE;
+        float maxX = -Float.MAX_VALUE, maxY = -Float.MAX_VALUE, maxZ = -Float.MAX_VALUE;
+        for (int i = 0; i < n; i++) {
+            int p = i + 1;
+            order[i] = p;
+            minX = Math.min(minX, points.getX(p));
+            minY = Math.min(minY, points.getY(p));
+            minZ = Math.min(minZ, points.getZ(p));
+            maxX = Math.max(maxX, points.getX(p));
+            maxY = Math.max(maxY, points.getY(p));
+            maxZ = Math.max(maxZ, points.getZ(p));
+        }
+        float half = Math.max(maxX - minX, Math.max(maxY - minY, maxZ - minZ)) / 2f;
+        newCells(1);
+        buildCell(0, 0, n, (minX + maxX) / 2f, (minY + maxY) / 2f, (minZ + maxZ) / 2f, half, 0);
+    }
+
+    /**
+     * @return number of points the tree was built over, including the dummy
+     */
+    public int getPointCount() {
+        return points.size();
+    }
+
+    /**
+     * @return number of cells in the tree
+     */
+    public int getCellCount() {
+        return cellCount;
+    }
+
+    /**
+     * Choose what to draw from the given eye within the given number of
+     * points. Points and aggregates are listed in a fixed depth first order
+     * so a small camera move changes little of the result.
+     *
+     * @param eyeX      eye position in the coordinates of the points, NaN to
+     *                  refine by cell size alone
+     * @param eyeY      eye position
+     * @param eyeZ      eye position
+     * @param maxPoints number of points that may be drawn, at least 1
+     * @return the points to draw, point 0 being the dummy
+     */
+    public Selection select(double eyeX, double eyeY, double eyeZ, int maxPoints) {
+        if (cellCount == 0 || maxPoints < 2)
+            return emit(points.size() > 0 ? 1 : 0);
+        if (refined.length < cellCount)
+            refined = new boolean[cellCount];
+        else
+            Arrays.fill(refined, 0, cellCount, false);
+        boolean useEye = !Double.isNaN(eyeX) && !Double.isNaN(eyeY) && !Double.isNaN(eyeZ);
+        //the dummy and the root
+        int drawn = 2;
+        int heapSize = 0;
+        heapSize = push(heapSize, priority(0, useEye, eyeX, eyeY, eyeZ), 0);
+        while (heapSize > 0) {
+            int cell = heapCell[0];
+            heapSize = pop(heapSize);
+            boolean leaf = childCount[cell] == 0;
+            int replacement = leaf ? cellEnd[cell] - cellStart[cell] : childCount[cell];
+            if (drawn + replacement - 1 > maxPoints)
+                continue; //a smaller cell may still fit
+            drawn += replacement - 1;
+            refined[cell] = true;
+            if (leaf)
+                continue;
+            for (int c = firstChild[cell]; c < firstChild[cell] + childCount[cell]; c++) {
+                if (cellEnd[c] - cellStart[c] > 1)
+                    heapSize = push(heapSize, priority(c, useEye, eyeX, eyeY, eyeZ), c);
+            }
+        }
+        return emit(drawn);
+    }
+
+    /**
+     * The result of a selection, packed for InPlaceTetrahedraMesh.
+     */
+    public static class Selection {
+        /**
+         * Positions and F values to draw
+         */
+        public final PackedPoint3DList points;
+        /**
+         * Index of the point each drawn point stands for, an aggregate maps to
+         * a member carrying its dominant F value
+         */
+        public final int[] source;
+        /**
+         * Number of points each drawn point stands for
+         */
+        public final int[] counts;
+
+        Selection(PackedPoint3DList points, int[] source, int[] counts) {
+            this.points = points;
+            this.source = source;
+            this.counts = counts;
+        }
+
+        public int size() {
+            return points.size();
+        }
+    }
+
+    private Selection emit(int drawn) {
+        float[] xyz = new float[3 * drawn];
+        float[] f = new float[drawn];
+        int[] source = new int[drawn];
+        int[] counts = new int[drawn];
+        int j = 0;
+        if (drawn > 0) {
+            xyz[0] = points.getX(0);
+            xyz[1] = points.getY(0);
+            xyz[2] = points.getZ(0);
+            f[0] = points.getF(0);
+            counts[0] = 1;
+            j = 1;
+        }
+        if (cellCount > 0 && drawn > 1) {
+            if (stack.length < cellCount)
+                stack = new int[cellCount];
+            int top = 0;
+            stack[top++] = 0;
+            while (top > 0) {
+                int cell = stack[--top];
+                if (!refined[cell]) {
+                    xyz[3 * j] = centroid[3 * cell];
+                    xyz[3 * j + 1] = centroid[3 * cell + 1];
+                    xyz[3 * j + 2] = centroid[3 * cell + 2];
+                    f[j] = dominantF[cell];
+                    source[j] = representative[cell];
+                    counts[j++] = cellEnd[cell] - cellStart[cell];
+                } else if (childCount[cell] == 0) {
+                    for (int i = cellStart[cell]; i < cellEnd[cell]; i++) {
+                        int p = order[i];
+                        xyz[3 * j] = points.getX(p);
+                        xyz[3 * j + 1] = points.getY(p);
+                        xyz[3 * j + 2] = points.getZ(p);
+                        f[j] = points.getF(p);
+                        source[j] = p;
+                        counts[j++] = 1;
+                    }
+                } else {
+                    //pushed in reverse so children come out in octant order
+                    for (int c = firstChild[cell] + childCount[cell] - 1; c >= firstChild[cell]; c--)
+                        stack[top++] = c;
+                }
+            }
+        }
+        return new Selection(new PackedPoint3DList(xyz, f, j), source, counts);
+    }
+
+    private double priority(int cell, boolean useEye, double eyeX, double eyeY, double eyeZ) {
+        if (!useEye)
+            return halfSize[cell];
+        double dx = centroid[3 * cell] - eyeX;
+        double dy = centroid[3 * cell + 1] - eyeY;
+        double dz = centroid[3 * cell + 2] - eyeZ;
+        double distance = Math.sqrt(dx * dx + dy * dy + dz * dz);
+        return halfSize[cell] / Math.max(distance, 1e-6);
+    }
+
+    private void buildCell(int cell, int start, int end, float cx, float cy, float cz,
+                           float half, int depth) {
+        cellStart[cell] = start;
+        cellEnd[cell] = end;
+        halfSize[cell] = half;
+        double sx = 0, sy = 0, sz = 0;
+        for (int i = start; i < end; i++) {
+            int p = order[i];
+            sx += points.getX(p);
+            sy += points.getY(p);
+            sz += points.getZ(p);
+        }
+        int n = end - start;
+        centroid[3 * cell] = (float) (sx / n);
+        centroid[3 * cell + 1] = (float) (sy / n);
+        centroid[3 * cell + 2] = (float) (sz / n);
+        if (n <= LEAF_SIZE || depth >= MAX_DEPTH) {
+            childCount[cell] = 0;
+            setLeafDominant(cell, start, end);
+            return;
+        }
+        //counting sort of the range into octants
+        int[] counts = new int[8];
+        for (int i = start; i < end; i++) {
+            int p = order[i];
+            int octant = (points.getX(p) >= cx ? 1 : 0)
+                | (points.getY(p) >= cy ? 2 : 0)
+                | (points.getZ(p) >= cz ? 4 : 0);
+            octants[i] = (byte) octant;
+            counts[octant]++;
+        }
+        int[] offsets = new int[8];
+        int children = 0;
+        for (int o = 0, offset = start; o < 8; o++) {
+            offsets[o] = offset;
+            offset += counts[o];
+            if (counts[o] > 0)
+                children++;
+        }
+        int[] cursor = offsets.clone();
+        for (int i = start; i < end; i++)
+            scratch[cursor[octants[i]]++] = order[i];
+        System.arraycopy(scratch, start, order, start, n);
+
+        int first = newCells(children);
+        firstChild[cell] = first;
+        childCount[cell] = (byte) children;
+        float quarter = half / 2f;
+        int c = first;
+        for (int o = 0; o < 8; o++) {
+            if (counts[o] == 0)
+                continue;
+            buildCell(c++, offsets[o], offsets[o] + counts[o],
+                cx + ((o & 1) != 0 ? quarter : -quarter),
+                cy + ((o & 2) != 0 ? quarter : -quarter),
+                cz + ((o & 4) != 0 ? quarter : -quarter),
+                quarter, depth + 1);
+        }
+        setInnerDominant(cell, first, children);
+    }
+
+    private void setLeafDominant(int cell, int start, int end) {
+        if (end - start > 4 * LEAF_SIZE) {
+            //only piles of duplicates at the depth limit get here
+            float[] values = new float[end - start];
+            for (int i = start; i < end; i++)
+                values[i - start] = points.getF(order[i]);
+            Arrays.sort(values);
+            float mode = values[0];
+            for (int i = 0, run = 0, bestRun = 0; i < values.length; i++) {
+                run = i > 0 && values[i] == values[i - 1] ? run + 1 : 1;
+                if (run > bestRun) {
+                    bestRun = run;
+                    mode = values[i];
+                }
+            }
+            int i = start;
+            while (points.getF(order[i]) != mode && i < end - 1)
+                i++;
+            dominantF[cell] = mode;
+            representative[cell] = order[i];
+            return;
+        }
+        //leaves are small, count each value against the rest
+        int best = start, bestCount = 0;
+        for (int i = start; i < end && bestCount <= (end - i); i++) {
+            float f = points.getF(order[i]);
+            int count = 0;
+            for (int k = i; k < end; k++) {
+                if (points.getF(order[k]) == f)
+                    count++;
+            }
+            if (count > bestCount) {
+                best = i;
+                bestCount = count;
+            }
+        }
+        dominantF[cell] = points.getF(order[best]);
+        representative[cell] = order[best];
+    }
+
+    private void setInnerDominant(int cell, int first, int children) {
+        //the plurality of the children's dominant values weighted by their counts
+        int best = first;
+        long bestWeight = -1;
+        for (int c = first; c < first + children; c++) {
+            long weight = 0;
+            for (int k = first; k < first + children; k++) {
+                if (dominantF[k] == dominantF[c])
+                    weight += cellEnd[k] - cellStart[k];
+            }
+            if (weight > bestWeight || (weight == bestWeight
+                && cellEnd[c] - cellStart[c] > cellEnd[best] - cellStart[best])) {
+                best = c;
+                bestWeight = weight;
+            }
+        }
+        dominantF[cell] = dominantF[best];
+        representative[cell] = representative[best];
+    }
+
+    private int newCells(int count) {
+        int first = cellCount;
+        cellCount += count;
+        if (cellCount > cellStart.length) {
+            int capacity = Math.max(cellCount, 2 * cellStart.length);
+            cellStart = Arrays.copyOf(cellStart, capacity);
+            cellEnd = Arrays.copyOf(cellEnd, capacity);
+            firstChild = Arrays.copyOf(firstChild, capacity);
+            childCount = Arrays.copyOf(childCount, capacity);
+            centroid = Arrays.copyOf(centroid, 3 * capacity);
+            halfSize = Arrays.copyOf(halfSize, capacity);
+            dominantF = Arrays.copyOf(dominantF, capacity);
+            representative = Arrays.copyOf(representative, capacity);
+        }
+        return first;
+    }
+
+    //binary max heap on priority
+    private int push(int size, double priority, int cell) {
+        if (size == heapCell.length) {
+            int capacity = Math.max(64, 2 * size);
+            heapCell = Arrays.copyOf(heapCell, capacity);
+            heapPriority = Arrays.copyOf(heapPriority, capacity);
+        }
+        int i = size;
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (heapPriority[parent] >= priority)
+                break;
+            heapCell[i] = heapCell[parent];
+            heapPriority[i] = heapPriority[parent];
+            i = parent;
+        }
+        heapCell[i] = cell;
+        heapPriority[i] = priority;
+        return size + 1;
+    }
+
+    private int pop(int size) {
+        size--;
+        int cell = heapCell[size];
+        double priority = heapPriority[size];
+        int i = 0;
+        while (true) {
+            int child = 2 * i + 1;
+            if (child >= size)
+                break;
+            if (child + 1 < size && heapPriority[child + 1] > heapPriority[child])
+                child++;
+            if (heapPriority[child] <= priority)
+                break;
+            heapCell[i] = heapCell[child];
+            heapPriority[i] = heapPriority[child];
+            i = child;
+        }
+        if (size > 0) {
+            heapCell[i] = cell;
+            heapPriority[i] = priority;
+        }
+        return size;
+    }
+}
@@ -33,6 +33,16 @@ public interface FeatureVectorRenderer {
 
     public void addFeatureVector(FeatureVector featureVector);
 
+    /**
+     * Add several vectors received together. Renderers that can update their
+     * view once for the whole batch should override this.
+     *
+     * @param featureVectors vectors in arrival order
+     */
+    public default void addFeatureVectors(List<FeatureVector> featureVectors) {
+        featureVectors.forEach(this::addFeatureVector);
+    }
+
     public List<FeatureVector> getAllFeatureVectors();
 
     public void locateFeatureVector(FeatureVector featureVector);
@@ -41,6 +51,73 @@ public interface FeatureVectorRenderer {
 
     public void setVisibleByIndex(int i, boolean b);
 
+    /**
+     * Hide every feature vector whose metadata keys and values do not
+     * contain the term. Takes effect on the next refresh.
+     *
+     * @param term case sensitive substring
+     * @return number of feature vectors filtered out
+     */
+    public default int filterByTerm(String term) {
+        List<FeatureVector> fvList = getAllFeatureVectors();
+        int filteredCount = 0;
+        for (int i = 0; i < fvList.size(); i++) {
+            if (!fvList.get(i).metaContainsTerm(term)) {
+                setVisibleByIndex(i, false);
+                filteredCount++;
+            }
+        }
+        return filteredCount;
+    }
+
+    /**
+     * Hide every feature vector with a score outside the range. Takes effect
+     * on the next refresh.
+     *
+     * @return number of feature vectors filtered out
+     */
+    public default int filterByScore(double minimum, double maximum) {
+        List<FeatureVector> fvList = getAllFeatureVectors();
+        int filteredCount = 0;
+        for (int i = 0; i < fvList.size(); i++) {
+            double score = fvList.get(i).getScore();
+            if (score < minimum || score > maximum) {
+                setVisibleByIndex(i, false);
+                filteredCount++;
+            }
+        }
+        return filteredCount;
+    }
+
+    /**
+     * Hide every feature vector with a pfa outside the range. Takes effect on
+     * the next refresh.
+     *
+     * @return number of feature vectors filtered out
+     */
+    public default int filterByProbability(double minimum, double maximum) {
+        List<FeatureVector> fvList = getAllFeatureVectors();
+        int filteredCount = 0;
+        for (int i = 0; i < fvList.size(); i++) {
+            double probability = fvList.get(i).getPfa();
+            if (probability < minimum || probability > maximum) {
+                setVisibleByIndex(i, false);
+                filteredCount++;
+            }
+        }
+        return filteredCount;
+    }
+
+    /**
+     * Undo every filter. Takes effect on the next refresh.
+     */
+    public default void clearAllFilters() {
+        int size = getAllFeatureVectors().size();
+        for (int i = 0; i < size; i++) {
+            setVisibleByIndex(i, true);
+        }
+    }
+
     public void refresh();
 
     public void setSpheroidAnchor(boolean animate, int index);
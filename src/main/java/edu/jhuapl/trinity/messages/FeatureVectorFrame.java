@@ -0,0 +1,200 @@
+package edu.jhuapl.trinity.messages;
+
+/*-
+ * #%L
+ * trinity
+ * %%
+ * Copyright (C) 2021 - 2023 The Johns Hopkins University Applied Physics Laboratory LLC
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import edu.jhuapl.trinity.data.messages.FeatureVector;
+import edu.jhuapl.trinity.data.messages.PackedDoubleList;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * Binary wire format for feature vectors, an opt-in alternative to the JSON
+ * feature_vector message for high rate feeds. All values are little endian so
+ * that numpy arrays can be written out directly with tobytes().
+ * <pre>
+ * offset  size  field
+ *      0     4  magic "TFVB"
+ *      4     1  version (1)
+ *      5     1  element type, 1 = float32, 2 = float64
+ *      6     2  label length in bytes (unsigned)
+ *      8     4  element count
+ *     12     4  layer
+ *     16     8  frameId
+ *     24     8  imageId
+ *     32     8  score (float64)
+ *     40     8  pfa (float64)
+ *     48     n  label (UTF-8)
+ *   48+n     *  packed elements
+ * </pre>
+ */
+public enum FeatureVectorFrame {
+    INSTANCE;
+
+    /**
+     * "TFVB" read as a little endian int
+     */
+    public static final int MAGIC = 0x42564654;
+    public static final byte VERSION = 1;
+    public static final byte FLOAT32 = 1;
+    public static final byte FLOAT64 = 2;
+    public static final int HEADER_BYTES = 48;
+
+    /**
+     * Cheap check of the frame header, does not move the buffer position.
+     *
+     * @param buffer received bytes between position and limit
+     * @return true if the bytes start with a binary feature vector header
+     */
+    public static boolean isFeatureVectorFrame(ByteBuffer buffer) {
+        if (buffer.remaining() < HEADER_BYTES)
+            return false;
+        int magic = buffer.getInt(buffer.position());
+        if (buffer.order() == ByteOrder.BIG_ENDIAN)
+            magic = Integer.reverseBytes(magic);
+        return magic == MAGIC;
+    }
+
+    /**
+     * @param dimensions number of elements
+     * @param type       FLOAT32 or FLOAT64
+     * @param label      optional label
+     * @return size in bytes of the encoded frame
+     */
+    public static int frameBytes(int dimensions, byte type, String label) {
+        int labelBytes = null == label ? 0 : label.getBytes(StandardCharsets.UTF_8).length;
+        return HEADER_BYTES + labelBytes + dimensions * elementBytes(type);
+    }
+
+    private static int elementBytes(byte type) {
+        return switch (type) {
+            case FLOAT32 -> Float.BYTES;
+            case FLOAT64 -> Double.BYTES;
+            default -> throw new IllegalArgumentException("Unknown element type " + type);
+        };
+    }
+
+    /**
+     * Decode a frame into a feature vector whose data is a PackedDoubleList.
+     * The buffer position is advanced past the frame, so the buffer can be
+     * reused as soon as this returns. Its byte order is left unchanged.
+     *
+     * @param buffer received bytes between position and limit
+     * @return the decoded feature vector
+     * @throws IllegalArgumentException if the frame is malformed or truncated
+     */
+    public static FeatureVector decode(ByteBuffer buffer) {
+        ByteBuffer frame = buffer.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+        if (!isFeatureVectorFrame(frame))
+            throw new IllegalArgumentException("Not a binary feature vector frame.");
+        int start = frame.position();
+        byte version = frame.get(start + 4);
+        if (version != VERSION)
+            throw new IllegalArgumentException("Unsupported frame version " + version);
+        byte type = frame.get(start + 5);
+        int labelLength = Short.toUnsignedInt(frame.getShort(start + 6));
+        int dimensions = frame.getInt(start + 8);
+        if (dimensions < 0)
+            throw new IllegalArgumentException("Negative element count " + dimensions);
+        long payload = (long) labelLength + (long) dimensions * elementBytes(type);
+        if (frame.remaining() - HEADER_BYTES < payload)
+            throw new IllegalArgumentException("Truncated frame, expected "
+                + (HEADER_BYTES + payload) + " bytes but received " + frame.remaining());
+
+        FeatureVector featureVector = new FeatureVector();
+        featureVector.setLayer(frame.getInt(start + 12));
+        featureVector.setFrameId(frame.getLong(start + 16));
+        featureVector.setImageId(frame.getLong(start + 24));
+        featureVector.setScore(frame.getDouble(start + 32));
+        featureVector.setPfa(frame.getDouble(start + 40));
+        frame.position(start + HEADER_BYTES);
+        if (labelLength > 0) {
+            byte[] labelBytes = new byte[labelLength];
+            frame.get(labelBytes);
+            featureVector.setLabel(new String(labelBytes, StandardCharsets.UTF_8));
+        }
+        double[] values = new double[dimensions];
+        if (type == FLOAT64) {
+            frame.asDoubleBuffer().get(values);
+        } else {
+            int offset = frame.position();
+            for (int i = 0; i < dimensions; i++) {
+                values[i] = frame.getFloat(offset + i * Float.BYTES);
+            }
+        }
+        frame.position(frame.position() + dimensions * elementBytes(type));
+        buffer.position(frame.position());
+        featureVector.setData(new PackedDoubleList(values));
+        return featureVector;
+    }
+
+    /**
+     * Encode a feature vector as a binary frame. Mainly for publishers and
+     * test tools; Trinity itself only decodes.
+     *
+     * @param featureVector vector to encode
+     * @param type          FLOAT32 or FLOAT64
+     * @param buffer        destination with at least frameBytes() remaining
+     * @return the destination buffer, positioned after the frame
+     */
+    public static ByteBuffer encode(FeatureVector featureVector, byte type, ByteBuffer buffer) {
+        List<Double> data = featureVector.getData();
+        byte[] labelBytes = null == featureVector.getLabel() ? new byte[0]
+            : featureVector.getLabel().getBytes(StandardCharsets.UTF_8);
+        if (labelBytes.length > 0xFFFF)
+            throw new IllegalArgumentException("Label longer than 65535 bytes.");
+        elementBytes(type);
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putInt(MAGIC);
+        buffer.put(VERSION);
+        buffer.put(type);
+        buffer.putShort((short) labelBytes.length);
+        buffer.putInt(data.size());
+        buffer.putInt(featureVector.getLayer());
+        buffer.putLong(featureVector.getFrameId());
+        buffer.putLong(featureVector.getImageId());
+        buffer.putDouble(featureVector.getScore());
+        buffer.putDouble(featureVector.getPfa());
+        buffer.put(labelBytes);
+        for (int i = 0; i < data.size(); i++) {
+            if (type == FLOAT64)
+                buffer.putDouble(data.get(i));
+            else
+                buffer.putFloat(data.get(i).floatValue());
+        }
+        return buffer;
+    }
+
+    /**
+     * Convenience form of encode that allocates an exactly sized array.
+     *
+     * @param featureVector vector to encode
+     * @param type          FLOAT32 or FLOAT64
+     * @return the encoded frame
+     */
+    public static byte[] encode(FeatureVector featureVector, byte type) {
+        byte[] frame = new byte[frameBytes(featureVector.getData().size(), type, featureVector.getLabel())];
+        encode(featureVector, type, ByteBuffer.wrap(frame));
+        return frame;
+    }
+}
@@ -20,7 +20,9 @@ package edu.jhuapl.trinity.messages;
  * #L%
  */
 
+import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import edu.jhuapl.trinity.data.FactorAnalysisState;
@@ -33,14 +35,30 @@ import edu.jhuapl.trinity.javafx.events.FactorAnalysisDataEvent;
 import edu.jhuapl.trinity.javafx.events.FeatureVectorEvent;
 import edu.jhuapl.trinity.javafx.events.GaussianMixtureEvent;
 import javafx.application.Platform;
+import javafx.event.Event;
 import javafx.scene.Scene;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
 
 /**
  * @author Sean Phillips
  */
 public class MessageProcessor {
+    public static final String MESSAGE_TYPE_FIELD = "messageType";
+    /**
+     * Classes deserialized for each messageType routed by process
+     */
+    private static final Map<String, Class<?>> MESSAGE_TYPES = Map.of(
+        ChannelFrame.TYPESTRING, ChannelFrame.class,
+        FactorAnalysisState.TYPESTRING, FactorAnalysisState.class,
+        FeatureVector.TYPESTRING, FeatureVector.class,
+        GaussianMixture.TYPESTRING, GaussianMixture.class,
+        LabelConfig.TYPESTRING, LabelConfig.class);
     /**
      * Provides deserializaton support for JSON messages
      */
@@ -49,6 +67,22 @@ public class MessageProcessor {
      * Scene reference that enables the processor to route data to events
      */
     private Scene scene;
+    /**
+     * When true decoded messages are queued and delivered to the scene in one
+     * FX pulse per poll cycle, rather than as an event per message
+     */
+    public boolean batchDelivery = true;
+    /**
+     * Decoded items waiting for the FX thread, in arrival order. Either
+     * FeatureVectors, which are coalesced into batch events, or other events
+     */
+    private final List<Object> pendingDelivery = new ArrayList<>();
+    private boolean deliveryScheduled = false;
+    private final AtomicInteger openBatches = new AtomicInteger();
+    /**
+     * Hands deliveries to the FX thread, replaced in tests
+     */
+    Consumer<Runnable> runLater = Platform::runLater;
 
     public MessageProcessor() {
         this(null);
@@ -58,60 +92,197 @@ public class MessageProcessor {
         this.scene = scene;
         mapper = new ObjectMapper();
         mapper.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+        //vector payloads are mostly doubles, the default parser dominates decode time
+        mapper.configure(JsonParser.Feature.USE_FAST_DOUBLE_PARSER, true);
         // force serialization of timestamps as ISO-8601 standard. Assumption is most formats are ISO-8601 standard.
         // Also used later during conversion from objects by jackson.
 //        mapper.configure(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS, false);
 //        mapper.registerModule(new JavaTimeModule());
     }
 
+    /**
+     * Reads only as far as the top level messageType field. Values of any
+     * other fields, including large data arrays that come before it, are
+     * skipped without being converted.
+     *
+     * @param message JSON message body
+     * @return the messageType value, or null if the message has none
+     * @throws IOException if the message is not well formed JSON
+     */
+    public String peekMessageType(String message) throws IOException {
+        try (JsonParser parser = getMapper().getFactory().createParser(message)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT)
+                return null;
+            return readMessageType(parser);
+        }
+    }
+
+    /**
+     * Advances the parser through top level fields until the messageType.
+     *
+     * @param parser parser positioned on the root object start
+     * @return the messageType value, or null if the message has none
+     */
+    private static String readMessageType(JsonParser parser) throws IOException {
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String fieldName = parser.currentName();
+            JsonToken value = parser.nextToken();
+            if (MESSAGE_TYPE_FIELD.equals(fieldName))
+                return value == JsonToken.VALUE_STRING ? parser.getText() : null;
+            parser.skipChildren(); //no-op for scalar values
+        }
+        return null;
+    }
+
+    /**
+     * Deserialize a JSON message into the class registered for its
+     * messageType. When the messageType is the first field, which is how our
+     * producers write it, the rest of the message is deserialized straight
+     * from the same parser. Otherwise the fields before it are skipped
+     * unconverted and the message is deserialized once it is known.
+     *
+     * @param message JSON message body
+     * @return the deserialized message, or null if its type is not routed here
+     * @throws IOException if the message is not well formed JSON
+     */
+    public Object readMessage(String message) throws JsonProcessingException, IOException {
+        try (JsonParser parser = getMapper().getFactory().createParser(message)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT)
+                return null;
+            String messageType = readMessageType(parser);
+            Class<?> type = null == messageType ? null : MESSAGE_TYPES.get(messageType);
+            if (null == type)
+                return null;
+            if (parser.getParsingContext().getCurrentIndex() == 0) {
+                //continue deserializing from the field after the type
+                parser.nextToken();
+                return getMapper().readValue(parser, type);
+            }
+            return getMapper().readValue(message, type);
+        }
+    }
+
     public void process(String message) throws JsonProcessingException, IOException {
-        if (ChannelFrame.isChannelFrame(message)) {
-            ChannelFrame frame = getMapper().readValue(message, ChannelFrame.class);
+        Object object = readMessage(message);
+        if (object instanceof ChannelFrame frame) {
             System.out.println("Frame: " + frame.getFrameId());
             System.out.println("Channel Values: " + frame.getChannelData());
             //@fire event to load data in JavaFX Scene
-            Platform.runLater(() -> {
-                scene.getRoot().fireEvent(new ChannelFrameDataEvent(frame));
-            });
-        } else if (FactorAnalysisState.isFactorAnalysisState(message)) {
-            FactorAnalysisState fas = getMapper().readValue(message, FactorAnalysisState.class);
+            deliver(new ChannelFrameDataEvent(frame));
+        } else if (object instanceof FactorAnalysisState fas) {
             System.out.println("Frame ID: " + fas.getFrameId());
             System.out.println("Factor Values: " + fas.getFactors());
             //@fire event to load data in JavaFX Scene
-            Platform.runLater(() -> {
-                scene.getRoot().fireEvent(new FactorAnalysisDataEvent(fas));
-            });
-        } else if (FeatureVector.isFeatureVector(message)) {
-            FeatureVector featureVector = getMapper().readValue(message, FeatureVector.class);
+            deliver(new FactorAnalysisDataEvent(fas));
+        } else if (object instanceof FeatureVector featureVector) {
             //@DEBUG SMP helpful debug prints
             //System.out.println("Image URL: " + object.getImageURL());
             //System.out.println("Feature Vector: " + object.getData());
-            //fire event to load data in JavaFX Scene
-            //Platform.runLater(() -> {
-            scene.getRoot().fireEvent(new FeatureVectorEvent(
-                FeatureVectorEvent.NEW_FEATURE_VECTOR, featureVector));
-            //});
-        } else if (GaussianMixture.isGaussianMixture(message)) {
-            GaussianMixture gaussianMixture = getMapper().readValue(message, GaussianMixture.class);
+            process(featureVector);
+        } else if (object instanceof GaussianMixture gaussianMixture) {
             //@DEBUG SMP helpful debug prints
             //System.out.println("GaussianMixture Msg Received: " + gaussianMixture.getCovarianceMode());
             //fire event to load data in JavaFX Scene
-            Platform.runLater(() -> {
-                scene.getRoot().fireEvent(new GaussianMixtureEvent(
-                    GaussianMixtureEvent.NEW_GAUSSIAN_MIXTURE, gaussianMixture));
-            });
-        } else if (LabelConfig.isLabelConfig(message)) {
-            LabelConfig labelConfig = getMapper().readValue(message, LabelConfig.class);
-            //@DEBUG SMP helpful debug prints
-            //System.out.println("GaussianMixture Msg Received: " + gaussianMixture.getCovarianceMode());
+            deliver(new GaussianMixtureEvent(
+                GaussianMixtureEvent.NEW_GAUSSIAN_MIXTURE, gaussianMixture));
+        } else if (object instanceof LabelConfig labelConfig) {
+            //fire event to load data in JavaFX Scene
+            deliver(new FeatureVectorEvent(
+                FeatureVectorEvent.NEW_LABEL_CONFIG, labelConfig));
+        }
+    }
+
+    /**
+     * Route an already decoded feature vector into the scene.
+     *
+     * @param featureVector the received vector
+     */
+    public void process(FeatureVector featureVector) {
+        if (batchDelivery) {
+            queueDelivery(featureVector);
+        } else {
             //fire event to load data in JavaFX Scene
-            Platform.runLater(() -> {
-                scene.getRoot().fireEvent(new FeatureVectorEvent(
-                    FeatureVectorEvent.NEW_LABEL_CONFIG, labelConfig));
-            });
+            scene.getRoot().fireEvent(new FeatureVectorEvent(
+                FeatureVectorEvent.NEW_FEATURE_VECTOR, featureVector));
+        }
+    }
+
+    private void deliver(Event event) {
+        if (batchDelivery) {
+            queueDelivery(event);
+        } else {
+            Platform.runLater(() -> scene.getRoot().fireEvent(event));
         }
     }
 
+    /**
+     * Mark the start of a poll cycle. Messages processed until the matching
+     * endBatch are delivered to the scene together in one FX pulse.
+     */
+    public void beginBatch() {
+        openBatches.incrementAndGet();
+    }
+
+    /**
+     * Mark the end of a poll cycle and schedule delivery of what it produced,
+     * even if another poll cycle is still open.
+     */
+    public void endBatch() {
+        openBatches.decrementAndGet();
+        scheduleDelivery();
+    }
+
+    private void queueDelivery(Object item) {
+        synchronized (pendingDelivery) {
+            pendingDelivery.add(item);
+        }
+        //outside of a poll cycle deliver as soon as the FX thread is free
+        if (openBatches.get() <= 0)
+            scheduleDelivery();
+    }
+
+    private void scheduleDelivery() {
+        synchronized (pendingDelivery) {
+            //if a delivery is already waiting on the FX thread it will pick
+            //these up as well, so a slow FX thread sees fewer, larger batches
+            if (deliveryScheduled || pendingDelivery.isEmpty())
+                return;
+            deliveryScheduled = true;
+        }
+        runLater.accept(this::deliverPending);
+    }
+
+    /**
+     * Runs on the FX thread. Consecutive feature vectors become a single
+     * NEW_FEATURE_VECTOR_BATCH event, any other events are fired in order
+     * around them.
+     */
+    private void deliverPending() {
+        List<Object> items;
+        synchronized (pendingDelivery) {
+            items = new ArrayList<>(pendingDelivery);
+            pendingDelivery.clear();
+            deliveryScheduled = false;
+        }
+        List<FeatureVector> featureVectors = new ArrayList<>();
+        for (Object item : items) {
+            if (item instanceof FeatureVector featureVector) {
+                featureVectors.add(featureVector);
+            } else {
+                fireFeatureVectorBatch(featureVectors);
+                featureVectors = new ArrayList<>();
+                scene.getRoot().fireEvent((Event) item);
+            }
+        }
+        fireFeatureVectorBatch(featureVectors);
+    }
+
+    private void fireFeatureVectorBatch(List<FeatureVector> featureVectors) {
+        if (!featureVectors.isEmpty())
+            scene.getRoot().fireEvent(new FeatureVectorEvent(
+                FeatureVectorEvent.NEW_FEATURE_VECTOR_BATCH, featureVectors));
+    }
+
     /**
      * @return the mapper
      */
@@ -0,0 +1,210 @@
+package edu.jhuapl.trinity.messages;
+
+/*-
+ * #%L
+ * trinity
+ * %%
+ * Copyright (C) 2021 - 2023 The Johns Hopkins University Applied Physics Laboratory LLC
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import edu.jhuapl.trinity.messages.ZeroMQSubscriberConfig.CONNECTION;
+import edu.jhuapl.trinity.utils.BoundedRingBuffer;
+import org.zeromq.SocketType;
+import org.zeromq.ZContext;
+import org.zeromq.ZMQ;
+import org.zeromq.ZMQ.Socket;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * One socket multiplexed by the ZeroMQFeedManager along with its queue of
+ * received messages and throughput counters. The queue is only ever drained
+ * by one decode worker at a time so messages from a feed are processed in
+ * the order they arrived.
+ */
+public class ZeroMQFeed {
+    private final ZeroMQSubscriberConfig config;
+    private final BoundedRingBuffer<byte[]> messageBuffer;
+    private final AtomicBoolean draining = new AtomicBoolean(false);
+    private final AtomicLong receivedCount = new AtomicLong();
+    private final AtomicLong receivedBytes = new AtomicLong();
+    private final AtomicLong processedCount = new AtomicLong();
+    private final AtomicLong failedCount = new AtomicLong();
+    private Socket socket;
+    private long startNanos = System.nanoTime();
+
+    ZeroMQFeed(ZeroMQSubscriberConfig config) {
+        this.config = config;
+        messageBuffer = new BoundedRingBuffer<>(config.queueLimit, config.overflowPolicy);
+    }
+
+    Socket open(ZContext context) {
+        if (config.connection == CONNECTION.SUBSCRIBER) {
+            socket = context.createSocket(SocketType.SUB);
+            socket.connect(config.host);
+            socket.subscribe(""); //must subscribe with at least the empty option
+        } else {
+            socket = context.createSocket(SocketType.PULL);
+            socket.bind(config.host);
+        }
+        startNanos = System.nanoTime();
+        return socket;
+    }
+
+    void close() {
+        if (null == socket)
+            return;
+        if (config.connection == CONNECTION.SUBSCRIBER) {
+            socket.unsubscribe("");
+            socket.disconnect(config.host);
+        } else {
+            socket.unbind(config.host);
+        }
+        socket.close();
+        socket = null;
+    }
+
+    /**
+     * Move everything waiting in the socket into the message queue without
+     * decoding it.
+     *
+     * @param keepWaiting checked while a BLOCK policy waits for room
+     * @param limit       most messages to take so other feeds get a turn
+     */
+    void receive(BooleanSupplier keepWaiting, int limit) {
+        for (int i = 0; i < limit; i++) {
+            byte[] message = socket.recv(ZMQ.DONTWAIT); //null on no message
+            if (null == message)
+                break;
+            receivedCount.incrementAndGet();
+            receivedBytes.addAndGet(message.length);
+            //a BLOCK policy holds the receive loop here, leaving further messages
+            //in the ZeroMQ socket buffer, until there is room or the feed stops
+            messageBuffer.put(message, keepWaiting);
+        }
+    }
+
+    /**
+     * Claim this feed for a decode worker.
+     *
+     * @return true if there is work and no other worker is draining the feed
+     */
+    boolean tryClaim() {
+        return !messageBuffer.isEmpty() && draining.compareAndSet(false, true);
+    }
+
+    /**
+     * Decode and process queued messages. Must only be called after a
+     * successful tryClaim, and releases the claim when done.
+     *
+     * @param processor where decoded messages are routed
+     */
+    void drain(MessageProcessor processor) {
+        //everything decoded in this cycle reaches the FX thread as one batch
+        processor.beginBatch();
+        try {
+            //at most one buffer's worth so a flood cannot starve other feeds
+            messageBuffer.drain(message -> process(processor, message),
+                messageBuffer.capacity());
+        } finally {
+            processor.endBatch();
+            draining.set(false);
+        }
+    }
+
+    private void process(MessageProcessor processor, byte[] message) {
+        try {
+            ByteBuffer buffer = ByteBuffer.wrap(message);
+            if (config.binaryFrames && FeatureVectorFrame.isFeatureVectorFrame(buffer))
+                processor.process(FeatureVectorFrame.decode(buffer));
+            else
+                processor.process(new String(message, ZMQ.CHARSET));
+            processedCount.incrementAndGet();
+        } catch (IOException | RuntimeException ex) {
+            failedCount.incrementAndGet();
+            Logger.getLogger(ZeroMQFeed.class.getName()).log(Level.SEVERE,
+                "Failed to process message from " + config.name, ex);
+        }
+    }
+
+    public ZeroMQSubscriberConfig getConfig() {
+        return config;
+    }
+
+    /**
+     * @return number of messages taken off the socket
+     */
+    public long getReceivedCount() {
+        return receivedCount.get();
+    }
+
+    /**
+     * @return number of bytes taken off the socket
+     */
+    public long getReceivedBytes() {
+        return receivedBytes.get();
+    }
+
+    /**
+     * @return number of messages discarded by the queue overflow policy
+     */
+    public long getDroppedCount() {
+        return messageBuffer.getDroppedCount();
+    }
+
+    /**
+     * @return number of messages successfully handed to the processor
+     */
+    public long getProcessedCount() {
+        return processedCount.get();
+    }
+
+    /**
+     * @return number of messages that could not be decoded or processed
+     */
+    public long getFailedCount() {
+        return failedCount.get();
+    }
+
+    /**
+     * @return number of messages waiting to be decoded
+     */
+    public int getQueuedCount() {
+        return messageBuffer.size();
+    }
+
+    /**
+     * @return processed messages per second since the socket was opened
+     */
+    public double getProcessedRate() {
+        double seconds = (System.nanoTime() - startNanos) / 1e9;
+        return seconds > 0 ? processedCount.get() / seconds : 0.0;
+    }
+
+    @Override
+    public String toString() {
+        return config.name + " (" + config.host + ") received: " + getReceivedCount()
+            + " dropped: " + getDroppedCount() + " processed: " + getProcessedCount()
+            + " failed: " + getFailedCount()
+            + String.format(" rate: %.1f msg/s", getProcessedRate());
+    }
+}
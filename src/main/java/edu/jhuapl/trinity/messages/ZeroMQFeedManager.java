@@ -20,22 +20,27 @@ package edu.jhuapl.trinity.messages;
  * #L%
  */
 
-import edu.jhuapl.trinity.messages.ZeroMQSubscriberConfig.CONNECTION;
-import org.zeromq.SocketType;
 import org.zeromq.ZContext;
 import org.zeromq.ZMQ;
-import org.zeromq.ZMQ.Socket;
 
-import java.io.IOException;
-import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.ScheduledThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
 /**
- * Asynchronous service that will subscribe to a ZeroMQ feed
+ * Asynchronous service that will subscribe to one or more ZeroMQ feeds.
+ * A single receive thread multiplexes every socket with a ZMQ.Poller and
+ * only queues the raw messages. Decoding is fanned out to a pool of workers,
+ * with each feed drained by at most one worker at a time so per-feed
+ * ordering is kept.
  *
  * @author Sean Phillips
  */
@@ -45,20 +50,29 @@ public class ZeroMQFeedManager extends ScheduledThreadPoolExecutor {
      */
     private MessageProcessor processor;
     /**
-     * Configuration of the connection
+     * Configuration of each connection
      */
-    private ZeroMQSubscriberConfig config;
-    //default number of Detection objects to hold in the queue
-    public static int DEFAULT_QUEUE_LIMIT = 1000;
-    private int queueLimit = DEFAULT_QUEUE_LIMIT;
+    private List<ZeroMQSubscriberConfig> configs;
+    //default number of messages to hold in each feed's queue, rounded up to a power of two
+    public static int DEFAULT_QUEUE_LIMIT = 1024;
+    //default number of threads decoding messages
+    public static int DEFAULT_DECODE_THREADS =
+        Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+    //most messages taken from one socket before the poller moves on
+    private static final int RECEIVE_WATCHDOG = 5000;
     /**
-     * thread safe collection of BoundingBox objects
+     * Feeds of the current connection, replaced each time processing starts
      */
-    private ConcurrentLinkedQueue<String> concurrentMessageQueue;
+    private volatile List<ZeroMQFeed> feeds = Collections.emptyList();
+    //counts from feeds that have since been replaced
+    private long retiredReceivedCount = 0;
+    private long retiredDroppedCount = 0;
+    private long retiredProcessedCount = 0;
+    private long retiredFailedCount = 0;
     /**
-     * When in playback mode limit how many detection data blocks to process
+     * Workers that decode queued messages
      */
-    public boolean queueLimitEnabled = true;
+    private final ExecutorService decodePool;
     /**
      * how often to wake up to poll the queue
      */
@@ -70,133 +84,141 @@ public class ZeroMQFeedManager extends ScheduledThreadPoolExecutor {
     /**
      * starts/stops the scheduled thread from updating the view
      */
-    public boolean enabled = false;
+    public volatile boolean enabled = false;
 
-    private boolean connected = false;
-    private String currentHost = null;
-    private Socket subscriber;
-    private int threadGeneration = 0;
+    private volatile boolean connected = false;
+    private volatile int threadGeneration = 0;
+    private ScheduledFuture<?> dispatchTask;
 
     public ZeroMQFeedManager(int corePoolSize,
                              ZeroMQSubscriberConfig config, MessageProcessor processor) {
+        this(corePoolSize, List.of(config), processor, DEFAULT_DECODE_THREADS);
+    }
+
+    public ZeroMQFeedManager(int corePoolSize, List<ZeroMQSubscriberConfig> configs,
+                             MessageProcessor processor, int decodeThreads) {
         super(corePoolSize);
-        this.config = config;
+        this.configs = new ArrayList<>(configs);
         this.processor = processor;
-        concurrentMessageQueue = new ConcurrentLinkedQueue<>();
         setThreadFactory((Runnable r) -> {
             Thread t = new Thread(r);
             t.setDaemon(true);
             t.setName("ZeroMQ Feed Manager processing thread " + threadGeneration);
             return t;
         });
+        AtomicInteger workerCount = new AtomicInteger();
+        decodePool = Executors.newFixedThreadPool(Math.max(1, decodeThreads), (Runnable r) -> {
+            Thread t = new Thread(r);
+            t.setDaemon(true);
+            t.setName("ZeroMQ decode worker " + workerCount.getAndIncrement());
+            return t;
+        });
     }
 
     public void startProcessing() {
         enabled = true;
-        scheduledFixedRate = config.updateRateMS;
-        if (null != subscriber) {
+        //the first feed sets the pace for everyone
+        scheduledFixedRate = configs.get(0).updateRateMS;
+        if (connected) {
             disconnect(false);
         }
-        System.out.println("Creating ZeroMQ subscriber at " + config.host);
+        int generation = ++threadGeneration;
+        List<ZeroMQFeed> newFeeds = new ArrayList<>(configs.size());
         try (ZContext context = new ZContext()) {
-            if (config.connection == CONNECTION.SUBSCRIBER) {
-                subscriber = context.createSocket(SocketType.SUB);
-                subscriber.connect(config.host);
-                subscriber.subscribe(""); //must subscribe with at least the empty option
-            } else {
-                subscriber = context.createSocket(SocketType.PULL);
-                subscriber.bind(config.host);
+            ZMQ.Poller poller = context.createPoller(configs.size());
+            for (ZeroMQSubscriberConfig config : configs) {
+                System.out.println("Creating ZeroMQ subscriber at " + config.host);
+                ZeroMQFeed feed = new ZeroMQFeed(config);
+                poller.register(feed.open(context), ZMQ.Poller.POLLIN);
+                newFeeds.add(feed);
             }
-
-            currentHost = config.host;
+            replaceFeeds(newFeeds);
             connected = true;
-            System.out.println("Starting ZeroMQ subscriber scheduled thread " + threadGeneration);
-            this.scheduleAtFixedRate(() -> {
+            System.out.println("Starting ZeroMQ subscriber scheduled thread " + generation);
+            dispatchTask = this.scheduleAtFixedRate(() -> {
                 if (enabled) {
-                    try {
-                        processQueue();
-                    } catch (IOException ex) {
-                        Logger.getLogger(ZeroMQFeedManager.class.getName()).log(Level.SEVERE, null, ex);
-                    }
+                    dispatchDecoding();
                 }
             }, 0, scheduledFixedRate, TimeUnit.MILLISECONDS);
-            threadGeneration++;
-            while (connected && !Thread.currentThread().isInterrupted()) {
-                if (enabled) {
-                    int wdt = 0; //watch dog timer
-                    String contents = ""; //if this is ever null then the zmq buffer is empty
-                    //Poll messages from ZMQ buffer up to a limit of 1000
-                    while (null != contents && wdt < 5000) {
-                        contents = null; //reset contents to null prior to ZMQ recvStr
-                        //@DEBUG SMP Useful debugging print
-                        //System.out.println("Attempting to recvStr from ZeroMQ...");
-                        // Read single message contents.
-                        contents = subscriber.recvStr(ZMQ.DONTWAIT); //Null on no message
-                        if (null != contents) {
-                            //@DEBUG SMP Useful debugging print
-                            //System.out.println("Recieved: " + contents);
-                            concurrentMessageQueue.add(contents);
-                            trimQueueNow();
-                        } else
-                            break; //null from recvStr means nothing in the zmq buffer
-                        wdt++; //keep ticking watch dog timer
-                    }
+            while (connected && generation == threadGeneration
+                && !Thread.currentThread().isInterrupted()) {
+                if (!enabled) {
+                    Thread.sleep(scheduledFixedRate);
+                    continue;
+                }
+                //wakes as soon as any socket has data, or after one update period
+                if (poller.poll(scheduledFixedRate) <= 0)
+                    continue;
+                for (int i = 0; i < newFeeds.size(); i++) {
+                    if (poller.pollin(i))
+                        newFeeds.get(i).receive(() -> connected && enabled, RECEIVE_WATCHDOG);
                 }
-                Thread.sleep(scheduledFixedRate);
             }
-            System.out.println("Ending ZeroMQ subscriber scheduled thread " + threadGeneration);
+            System.out.println("Ending ZeroMQ subscriber scheduled thread " + generation);
+            newFeeds.forEach(feed -> System.out.println(feed));
         } catch (Exception ex) {
             Logger.getLogger(ZeroMQFeedManager.class.getName()).log(Level.SEVERE, null, ex);
         } finally {
-            disconnect(false);
+            //sockets are only touched by the thread that opened them
+            newFeeds.forEach(ZeroMQFeed::close);
+            if (generation == threadGeneration)
+                connected = false;
         }
     }
 
+    /**
+     * Hand every feed with queued messages, and no worker already on it, to
+     * the decode pool.
+     */
+    private void dispatchDecoding() {
+        for (ZeroMQFeed feed : feeds) {
+            if (feed.tryClaim())
+                decodePool.execute(() -> feed.drain(processor));
+        }
+    }
+
+    private synchronized void replaceFeeds(List<ZeroMQFeed> newFeeds) {
+        for (ZeroMQFeed feed : feeds) {
+            retiredReceivedCount += feed.getReceivedCount();
+            retiredDroppedCount += feed.getDroppedCount();
+            retiredProcessedCount += feed.getProcessedCount();
+            retiredFailedCount += feed.getFailedCount();
+        }
+        feeds = Collections.unmodifiableList(newFeeds);
+    }
+
     public void setEnableProcessing(boolean enabled) {
         this.enabled = enabled;
     }
 
     public void setConfig(ZeroMQSubscriberConfig config) {
-        this.config = config;
-    }
-
-    private void processQueue() throws IOException {
-//        System.out.print("Setting took.... ");
-//        long startTime = System.nanoTime();
-        //retrieve all the messages from the queue
-        String[] messages = concurrentMessageQueue.toArray(new String[0]);
-        concurrentMessageQueue.clear();
-        for (String message : messages) {
-            processor.process(message);
-        }
-//        Utils.printTotalTime(startTime);
+        setConfigs(List.of(config));
     }
 
-    public void trimQueueNow() {
-//        long startTime;
-//        System.out.print("Queueing took... ");
-//        startTime = System.nanoTime();
-        int size = concurrentMessageQueue.size();
-        if (queueLimitEnabled && size > getQueueLimit()) {
-            for (int i = 0; i < size - getQueueLimit(); i++)
-                concurrentMessageQueue.poll();
-        }
-//        Utils.printTotalTime(startTime);
+    /**
+     * @param configs feeds to open the next time processing starts
+     */
+    public void setConfigs(List<ZeroMQSubscriberConfig> configs) {
+        if (configs.isEmpty())
+            throw new IllegalArgumentException("At least one feed must be configured.");
+        this.configs = new ArrayList<>(configs);
     }
 
+    /**
+     * Stops the receive loop, which closes its sockets within one update
+     * period.
+     *
+     * @param shutdown also terminate the timer and decode threads
+     */
     public void disconnect(boolean shutdown) {
         connected = false;
-        if (null != subscriber) {
-            if (config.connection == CONNECTION.SUBSCRIBER) {
-                subscriber.unsubscribe("");
-                subscriber.disconnect(currentHost);
-            } else {
-                subscriber.unbind(config.host);
-            }
-            subscriber.close();
+        if (null != dispatchTask) {
+            dispatchTask.cancel(false);
+            dispatchTask = null;
         }
         if (shutdown) {
-            boolean status = shutdownAndAwaitTermination(this, 500, TimeUnit.MILLISECONDS);
+            boolean status = shutdownAndAwaitTermination(this, 500, TimeUnit.MILLISECONDS)
+                & shutdownAndAwaitTermination(decodePool, 500, TimeUnit.MILLISECONDS);
             System.out.println("Thread Termination status: " + status);
         }
     }
@@ -233,25 +255,71 @@ public class ZeroMQFeedManager extends ScheduledThreadPoolExecutor {
     }
 
     /**
-     * @return the queueLimit
+     * @return the queue limit of the first feed
      */
     public int getQueueLimit() {
-        return queueLimit;
+        return configs.get(0).queueLimit;
     }
 
     /**
-     * @param queueLimit the queueLimit to set
+     * @param queueLimit the queueLimit of every feed, applied when processing next starts
      */
     public void setQueueLimit(int queueLimit) {
-        this.queueLimit = queueLimit;
+        configs.forEach(config -> config.queueLimit = queueLimit);
+    }
+
+    /**
+     * @return the feeds of the current connection, with their own counters
+     */
+    public List<ZeroMQFeed> getFeeds() {
+        return feeds;
+    }
+
+    /**
+     * @return number of messages taken off all sockets
+     */
+    public synchronized long getReceivedCount() {
+        return retiredReceivedCount + feeds.stream().mapToLong(ZeroMQFeed::getReceivedCount).sum();
+    }
+
+    /**
+     * @return number of messages discarded by the queue overflow policies
+     */
+    public synchronized long getDroppedCount() {
+        return retiredDroppedCount + feeds.stream().mapToLong(ZeroMQFeed::getDroppedCount).sum();
+    }
+
+    /**
+     * @return number of messages successfully handed to the processor
+     */
+    public synchronized long getProcessedCount() {
+        return retiredProcessedCount + feeds.stream().mapToLong(ZeroMQFeed::getProcessedCount).sum();
+    }
+
+    /**
+     * @return number of messages that could not be decoded or processed
+     */
+    public synchronized long getFailedCount() {
+        return retiredFailedCount + feeds.stream().mapToLong(ZeroMQFeed::getFailedCount).sum();
+    }
+
+    /**
+     * @return number of messages waiting to be decoded across all feeds
+     */
+    public int getQueuedCount() {
+        return feeds.stream().mapToInt(ZeroMQFeed::getQueuedCount).sum();
     }
 
     public ZeroMQSubscriberConfig getConfig() {
-        return config;
+        return configs.get(0);
+    }
+
+    public List<ZeroMQSubscriberConfig> getConfigs() {
+        return Collections.unmodifiableList(configs);
     }
 
     public boolean isFeed(String feedName) {
-        return config.name.contentEquals(feedName);
+        return configs.stream().anyMatch(config -> config.name.contentEquals(feedName));
     }
 
 }
@@ -20,6 +20,8 @@ package edu.jhuapl.trinity.messages;
  * #L%
  */
 
+import edu.jhuapl.trinity.utils.BoundedRingBuffer.OverflowPolicy;
+
 /**
  * @author Sean Phillips
  */
@@ -43,6 +45,20 @@ public class ZeroMQSubscriberConfig {
     public String groupID;
     public Integer updateRateMS;
     public CONNECTION connection = CONNECTION.SUBSCRIBER;
+    /**
+     * Check each message for a binary feature vector frame so it can be
+     * decoded without a JSON pass. JSON messages are still accepted on the
+     * same socket.
+     */
+    public boolean binaryFrames = false;
+    /**
+     * Most received messages held between processing cycles
+     */
+    public int queueLimit = ZeroMQFeedManager.DEFAULT_QUEUE_LIMIT;
+    /**
+     * What to do with new messages when the queue is full
+     */
+    public OverflowPolicy overflowPolicy = OverflowPolicy.DROP_OLDEST;
 
     public ZeroMQSubscriberConfig() {
         this(DEFAULT_NAME, DEFAULT_DESCRIPTION, DEFAULT_HOST,
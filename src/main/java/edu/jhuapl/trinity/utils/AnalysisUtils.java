@@ -190,10 +190,11 @@ public enum AnalysisUtils {
 
     public static double[][] fitUMAP(FeatureCollection featureCollection, Umap umap) {
         //for each dimension extract transform via UMAP
-        double[][] data = featureCollection.convertFeaturesToArray();
+        float[] data = featureCollection.convertFeaturesToFlatArray();
+        int width = featureCollection.getFeatures().get(0).getData().size();
         System.out.println("Starting UMAP Fit... ");
         long start = System.nanoTime();
-        double[][] projected = umap.fitTransform(data);
+        double[][] projected = umap.fitTransform(data, width);
         Utils.printTotalTime(start);
         return projected;
     }
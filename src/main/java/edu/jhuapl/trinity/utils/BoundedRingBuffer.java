@@ -0,0 +1,235 @@
+package edu.jhuapl.trinity.utils;
+
+/*-
+ * #%L
+ * trinity
+ * %%
+ * Copyright (C) 2021 - 2023 The Johns Hopkins University Applied Physics Laboratory LLC
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+
+/**
+ * Fixed capacity, lock free, multiple producer multiple consumer FIFO. Each
+ * slot carries a sequence number that tells producers and consumers whether it
+ * is free or filled for the lap they are on (Vyukov's bounded queue), so size
+ * is O(1) and nothing is allocated per element. What happens when a producer
+ * finds the buffer full is decided by the OverflowPolicy.
+ *
+ * @param <E> element type
+ */
+public class BoundedRingBuffer<E> {
+
+    public static enum OverflowPolicy {
+        /**
+         * Evict the oldest queued element to make room for the new one
+         */
+        DROP_OLDEST,
+        /**
+         * Discard the new element and keep what is already queued
+         */
+        DROP_NEWEST,
+        /**
+         * Wait for a consumer to make room, pushing back on the producer
+         */
+        BLOCK
+    }
+
+    private static final long BLOCK_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(100);
+
+    private final int mask;
+    private final AtomicReferenceArray<E> elements;
+    private final AtomicLongArray sequences;
+    private final AtomicLong head = new AtomicLong();
+    private final AtomicLong tail = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final OverflowPolicy policy;
+
+    /**
+     * @param capacity minimum capacity, rounded up to a power of two
+     * @param policy   what put does when the buffer is full
+     */
+    public BoundedRingBuffer(int capacity, OverflowPolicy policy) {
+        if (capacity < 1 || capacity > 1 << 30)
+            throw new IllegalArgumentException("Capacity out of range: " + capacity);
+        int size = Integer.highestOneBit(capacity);
+        if (size < capacity)
+            size <<= 1;
+        mask = size - 1;
+        elements = new AtomicReferenceArray<>(size);
+        sequences = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) {
+            sequences.set(i, i);
+        }
+        this.policy = policy;
+    }
+
+    /**
+     * Add an element if there is room.
+     *
+     * @param e element, not null
+     * @return false if the buffer was full
+     */
+    public boolean offer(E e) {
+        long pos = tail.get();
+        while (true) {
+            int index = (int) pos & mask;
+            long difference = sequences.get(index) - pos;
+            if (difference == 0) {
+                if (tail.compareAndSet(pos, pos + 1)) {
+                    elements.lazySet(index, e);
+                    sequences.set(index, pos + 1);
+                    return true;
+                }
+                pos = tail.get();
+            } else if (difference < 0) {
+                return false; //a full lap behind the consumers
+            } else {
+                pos = tail.get(); //another producer claimed this slot
+            }
+        }
+    }
+
+    /**
+     * @return the oldest element, or null if the buffer is empty
+     */
+    public E poll() {
+        long pos = head.get();
+        while (true) {
+            int index = (int) pos & mask;
+            long difference = sequences.get(index) - (pos + 1);
+            if (difference == 0) {
+                if (head.compareAndSet(pos, pos + 1)) {
+                    E e = elements.get(index);
+                    elements.lazySet(index, null);
+                    //free the slot for the producer one lap ahead
+                    sequences.set(index, pos + mask + 1);
+                    return e;
+                }
+                pos = head.get();
+            } else if (difference < 0) {
+                return null;
+            } else {
+                pos = head.get();
+            }
+        }
+    }
+
+    /**
+     * Add an element, applying the overflow policy if the buffer is full.
+     *
+     * @param e element, not null
+     * @return true if the element was queued
+     */
+    public boolean put(E e) {
+        return put(e, () -> true);
+    }
+
+    /**
+     * Add an element, applying the overflow policy if the buffer is full.
+     *
+     * @param e           element, not null
+     * @param keepWaiting checked while a BLOCK put waits for room; when it
+     *                    returns false the element is dropped instead
+     * @return true if the element was queued
+     */
+    public boolean put(E e, BooleanSupplier keepWaiting) {
+        while (!offer(e)) {
+            switch (policy) {
+                case DROP_NEWEST -> {
+                    dropped.incrementAndGet();
+                    return false;
+                }
+                case DROP_OLDEST -> {
+                    if (null != poll())
+                        dropped.incrementAndGet();
+                }
+                case BLOCK -> {
+                    if (Thread.currentThread().isInterrupted() || !keepWaiting.getAsBoolean()) {
+                        dropped.incrementAndGet();
+                        return false;
+                    }
+                    LockSupport.parkNanos(BLOCK_PARK_NANOS);
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Hand queued elements to a consumer, oldest first.
+     *
+     * @param consumer receives each element
+     * @param limit    most elements to take, so a busy producer cannot keep
+     *                 the caller here indefinitely
+     * @return number of elements taken
+     */
+    public int drain(Consumer<? super E> consumer, int limit) {
+        int count = 0;
+        E e;
+        while (count < limit && null != (e = poll())) {
+            consumer.accept(e);
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * Discard everything currently queued. Cleared elements are not counted
+     * as dropped.
+     */
+    public void clear() {
+        while (null != poll()) {
+            //nothing else to do
+        }
+    }
+
+    /**
+     * @return number of queued elements, exact when producers and consumers
+     * are idle
+     */
+    public int size() {
+        //read head first so a concurrent poll cannot make the result negative
+        long h = head.get();
+        long t = tail.get();
+        return (int) Math.max(0, Math.min(t - h, capacity()));
+    }
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    public int capacity() {
+        return mask + 1;
+    }
+
+    public OverflowPolicy getPolicy() {
+        return policy;
+    }
+
+    /**
+     * @return elements discarded by the overflow policy since creation
+     */
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+}
@@ -0,0 +1,454 @@
+package edu.jhuapl.trinity.utils;
+
+/*-
+ * #%L
+ * trinity
+ * %%
+ * Copyright (C) 2021 - 2023 The Johns Hopkins University Applied Physics Laboratory LLC
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import edu.jhuapl.trinity.data.messages.FeatureVector;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+
+/**
+ * Search index over a FIFO stream of feature vectors, each identified by an
+ * increasing sequence number. Metadata keys and values are kept once each in
+ * a dictionary with the sequences that carry them, and a trigram index over
+ * the dictionary narrows a substring search to the few strings that can
+ * contain the term. Scores and probabilities are kept in sorted columns for
+ * range queries. Eviction only moves a floor, entries below it are dropped
+ * lazily as the index is queried or compacted.
+ */
+public class FeatureSearchIndex {
+
+    private static final int GRAM = 3;
+    private static final int MIN_COMPACT = 1024;
+
+    private final Map<String, Integer> stringIds = new HashMap<>();
+    private final List<String> strings = new ArrayList<>();
+    //sequences of the vectors whose metadata has each dictionary string
+    private final List<LongList> postings = new ArrayList<>();
+    private final GramTable grams = new GramTable();
+    private int compactAt = MIN_COMPACT;
+    private final SortedColumn scores = new SortedColumn();
+    private final SortedColumn probabilities = new SortedColumn();
+    private long floor = 0;
+
+    /**
+     * @param sequence increasing number identifying the vector
+     * @param featureVector vector whose metadata, score and pfa are indexed
+     */
+    public synchronized void add(long sequence, FeatureVector featureVector) {
+        if (null != featureVector.getMetaData()) {
+            for (Entry<String, String> entry : featureVector.getMetaData().entrySet()) {
+                addString(entry.getKey(), sequence);
+                addString(entry.getValue(), sequence);
+            }
+        }
+        scores.add(sequence, featureVector.getScore(), floor);
+        probabilities.add(sequence, featureVector.getPfa(), floor);
+        if (strings.size() >= compactAt)
+            compact();
+    }
+
+    /**
+     * Drops every vector with a sequence below the given one.
+     */
+    public synchronized void evictBefore(long sequence) {
+        floor = Math.max(floor, sequence);
+    }
+
+    public synchronized void clear() {
+        stringIds.clear();
+        strings.clear();
+        postings.clear();
+        grams.clear();
+        compactAt = MIN_COMPACT;
+        scores.clear();
+        probabilities.clear();
+    }
+
+    /**
+     * Same result as FeatureVector.metaContainsTerm applied to every vector.
+     *
+     * @param term case sensitive substring to look for in keys and values
+     * @return sequences of the vectors with a key or value containing the term,
+     * a sequence may be listed more than once
+     */
+    public synchronized long[] searchTerm(String term) {
+        LongList result = new LongList();
+        if (term.length() < GRAM) {
+            for (int id = 0; id < strings.size(); id++) {
+                if (strings.get(id).contains(term))
+                    postings.get(id).appendTo(result, floor);
+            }
+            return result.toArray();
+        }
+        //the strings holding every trigram of the term are the only candidates
+        IntList smallest = null;
+        for (int i = 0; i + GRAM <= term.length(); i++) {
+            IntList ids = grams.get(gram(term, i));
+            if (null == ids)
+                return new long[0];
+            if (null == smallest || ids.size < smallest.size)
+                smallest = ids;
+        }
+        for (int k = 0; k < smallest.size; k++) {
+            int id = smallest.values[k];
+            if (strings.get(id).contains(term))
+                postings.get(id).appendTo(result, floor);
+        }
+        return result.toArray();
+    }
+
+    /**
+     * @return sequences with minimum &lt;= score &lt;= maximum, or a score that
+     * is not a number
+     */
+    public synchronized long[] searchScore(double minimum, double maximum) {
+        return scores.range(minimum, maximum, floor);
+    }
+
+    /**
+     * @return sequences with minimum &lt;= pfa &lt;= maximum, or a pfa that is
+     * not a number
+     */
+    public synchronized long[] searchProbability(double minimum, double maximum) {
+        return probabilities.range(minimum, maximum, floor);
+    }
+
+    private void addString(String value, long sequence) {
+        if (null == value)
+            return;
+        Integer id = stringIds.get(value);
+        if (null == id) {
+            id = strings.size();
+            stringIds.put(value, id);
+            strings.add(value);
+            postings.add(new LongList());
+            indexGrams(value, id);
+        }
+        LongList list = postings.get(id);
+        list.trimBelow(floor);
+        //a vector may use the same string as key and value
+        if (list.size == list.start || list.last() != sequence)
+            list.add(sequence);
+    }
+
+    private void indexGrams(String value, int id) {
+        for (int i = 0; i + GRAM <= value.length(); i++) {
+            IntList ids = grams.getOrCreate(gram(value, i));
+            //the same trigram can repeat within a string
+            if (ids.size == 0 || ids.values[ids.size - 1] != id)
+                ids.add(id);
+        }
+    }
+
+    /**
+     * Rebuilds the dictionary without strings that only evicted vectors used.
+     */
+    private void compact() {
+        List<String> liveStrings = new ArrayList<>();
+        List<LongList> livePostings = new ArrayList<>();
+        for (int id = 0; id < strings.size(); id++) {
+            LongList list = postings.get(id);
+            list.trimBelow(floor);
+            if (list.size > list.start) {
+                liveStrings.add(strings.get(id));
+                livePostings.add(list);
+            }
+        }
+        stringIds.clear();
+        strings.clear();
+        postings.clear();
+        grams.clear();
+        for (int id = 0; id < liveStrings.size(); id++) {
+            stringIds.put(liveStrings.get(id), id);
+            strings.add(liveStrings.get(id));
+            postings.add(livePostings.get(id));
+            indexGrams(liveStrings.get(id), id);
+        }
+        compactAt = Math.max(MIN_COMPACT, 2 * strings.size());
+    }
+
+    private static long gram(String value, int index) {
+        return ((long) value.charAt(index) << 32)
+            | ((long) value.charAt(index + 1) << 16)
+            | value.charAt(index + 2);
+    }
+
+    /**
+     * Open addressing map from a packed trigram to the ids of the strings
+     * holding it, without boxing the keys.
+     */
+    private static class GramTable {
+        long[] keys = new long[1024];
+        IntList[] values = new IntList[1024];
+        int size = 0;
+
+        IntList get(long key) {
+            int mask = keys.length - 1;
+            for (int i = hash(key) & mask; values[i] != null; i = (i + 1) & mask) {
+                if (keys[i] == key)
+                    return values[i];
+            }
+            return null;
+        }
+
+        IntList getOrCreate(long key) {
+            int mask = keys.length - 1;
+            int i = hash(key) & mask;
+            for (; values[i] != null; i = (i + 1) & mask) {
+                if (keys[i] == key)
+                    return values[i];
+            }
+            IntList list = new IntList();
+            keys[i] = key;
+            values[i] = list;
+            if (++size * 2 > keys.length)
+                rehash();
+            return list;
+        }
+
+        void clear() {
+            keys = new long[1024];
+            values = new IntList[1024];
+            size = 0;
+        }
+
+        private void rehash() {
+            long[] oldKeys = keys;
+            IntList[] oldValues = values;
+            keys = new long[oldKeys.length * 2];
+            values = new IntList[oldKeys.length * 2];
+            int mask = keys.length - 1;
+            for (int j = 0; j < oldKeys.length; j++) {
+                if (null == oldValues[j])
+                    continue;
+                int i = hash(oldKeys[j]) & mask;
+                while (values[i] != null)
+                    i = (i + 1) & mask;
+                keys[i] = oldKeys[j];
+                values[i] = oldValues[j];
+            }
+        }
+
+        private static int hash(long key) {
+            long h = key * 0x9E3779B97F4A7C15L;
+            return (int) (h ^ (h >>> 32));
+        }
+    }
+
+    private static class IntList {
+        int[] values = new int[4];
+        int size = 0;
+
+        void add(int value) {
+            if (size == values.length)
+                values = Arrays.copyOf(values, size * 2);
+            values[size++] = value;
+        }
+    }
+
+    /**
+     * Growable list of ascending sequences, evicted ones are skipped from the
+     * front.
+     */
+    private static class LongList {
+        long[] values = new long[4];
+        int start = 0;
+        int size = 0;
+
+        void add(long value) {
+            if (size == values.length) {
+                if (start > size / 2) {
+                    System.arraycopy(values, start, values, 0, size - start);
+                    size -= start;
+                    start = 0;
+                } else {
+                    values = Arrays.copyOf(values, size * 2);
+                }
+            }
+            values[size++] = value;
+        }
+
+        long last() {
+            return values[size - 1];
+        }
+
+        void trimBelow(long floor) {
+            while (start < size && values[start] < floor)
+                start++;
+        }
+
+        void appendTo(LongList target, long floor) {
+            trimBelow(floor);
+            for (int i = start; i < size; i++)
+                target.add(values[i]);
+        }
+
+        long[] toArray() {
+            return Arrays.copyOfRange(values, start, size);
+        }
+    }
+
+    /**
+     * Values sorted with their sequences. New values wait in an unsorted tail
+     * that is sorted and merged in, dropping evicted entries, on the next
+     * query.
+     */
+    private static class SortedColumn {
+        double[] values = new double[0];
+        long[] sequences = new long[0];
+        int size = 0;
+        double[] pendingValues = new double[16];
+        long[] pendingSequences = new long[16];
+        int pending = 0;
+
+        void add(long sequence, double value, long floor) {
+            //merge now and then so evicted entries do not pile up between queries
+            if (pending >= Math.max(MIN_COMPACT, size))
+                merge(floor);
+            if (pending == pendingValues.length) {
+                pendingValues = Arrays.copyOf(pendingValues, pending * 2);
+                pendingSequences = Arrays.copyOf(pendingSequences, pending * 2);
+            }
+            //+0.0 folds -0.0 into 0.0 so ordering matches the < and > operators
+            pendingValues[pending] = value + 0.0;
+            pendingSequences[pending++] = sequence;
+        }
+
+        void clear() {
+            values = new double[0];
+            sequences = new long[0];
+            size = 0;
+            pending = 0;
+        }
+
+        long[] range(double minimum, double maximum, long floor) {
+            merge(floor);
+            double min = minimum + 0.0;
+            double max = maximum + 0.0;
+            int from = lowerBound(min, false);
+            int to = lowerBound(max, true);
+            //NaN sorts last and never fails a range check
+            int nan = lowerBound(Double.NaN, false);
+            LongList result = new LongList();
+            for (int i = from; i < Math.min(to, nan); i++) {
+                if (sequences[i] >= floor)
+                    result.add(sequences[i]);
+            }
+            for (int i = nan; i < size; i++) {
+                if (sequences[i] >= floor)
+                    result.add(sequences[i]);
+            }
+            return result.toArray();
+        }
+
+        /**
+         * @return first index whose value is not below the key, or above it
+         * when inclusive is set
+         */
+        private int lowerBound(double key, boolean inclusive) {
+            int low = 0;
+            int high = size;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                int c = Double.compare(values[mid], key);
+                if (c < 0 || (inclusive && c == 0))
+                    low = mid + 1;
+                else
+                    high = mid;
+            }
+            return low;
+        }
+
+        private void merge(long floor) {
+            if (pending == 0)
+                return;
+            sort(pendingValues, pendingSequences, 0, pending - 1);
+            double[] mergedValues = new double[size + pending];
+            long[] mergedSequences = new long[size + pending];
+            int i = 0, j = 0, k = 0;
+            while (i < size || j < pending) {
+                boolean takeOld = j == pending
+                    || (i < size && Double.compare(values[i], pendingValues[j]) <= 0);
+                double value = takeOld ? values[i] : pendingValues[j];
+                long sequence = takeOld ? sequences[i++] : pendingSequences[j++];
+                if (sequence >= floor) {
+                    mergedValues[k] = value;
+                    mergedSequences[k++] = sequence;
+                }
+            }
+            values = mergedValues;
+            sequences = mergedSequences;
+            size = k;
+            pending = 0;
+        }
+
+        private static void sort(double[] v, long[] s, int low, int high) {
+            while (low < high) {
+                if (high - low < 16) {
+                    for (int i = low + 1; i <= high; i++) {
+                        double value = v[i];
+                        long sequence = s[i];
+                        int j = i - 1;
+                        while (j >= low && Double.compare(v[j], value) > 0) {
+                            v[j + 1] = v[j];
+                            s[j + 1] = s[j];
+                            j--;
+                        }
+                        v[j + 1] = value;
+                        s[j + 1] = sequence;
+                    }
+                    return;
+                }
+                double pivot = v[(low + high) >>> 1];
+                int i = low, j = high;
+                while (i <= j) {
+                    while (Double.compare(v[i], pivot) < 0)
+                        i++;
+                    while (Double.compare(v[j], pivot) > 0)
+                        j--;
+                    if (i <= j) {
+                        double tv = v[i];
+                        v[i] = v[j];
+                        v[j] = tv;
+                        long ts = s[i];
+                        s[i] = s[j];
+                        s[j] = ts;
+                        i++;
+                        j--;
+                    }
+                }
+                //recurse into the smaller half to bound the stack
+                if (j - low < high - i) {
+                    sort(v, s, low, j);
+                    low = i;
+                } else {
+                    sort(v, s, i, high);
+                    high = j;
+                }
+            }
+        }
+    }
+}
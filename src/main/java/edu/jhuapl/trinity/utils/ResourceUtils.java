@@ -22,15 +22,12 @@ package edu.jhuapl.trinity.utils;
 
 import edu.jhuapl.trinity.data.Trial;
 import edu.jhuapl.trinity.data.files.CdcCsvFile;
-import edu.jhuapl.trinity.data.files.CdcTissueGenesFile;
 import edu.jhuapl.trinity.data.files.FeatureCollectionFile;
+import edu.jhuapl.trinity.data.files.FileTypeDetector;
 import edu.jhuapl.trinity.data.files.GaussianMixtureCollectionFile;
 import edu.jhuapl.trinity.data.files.LabelConfigFile;
 import edu.jhuapl.trinity.data.files.ManifoldDataFile;
-import edu.jhuapl.trinity.data.files.McclodSplitDataTsvFile;
 import edu.jhuapl.trinity.data.files.SemanticMapCollectionFile;
-import edu.jhuapl.trinity.data.files.TextEmbeddingCollectionFile;
-import edu.jhuapl.trinity.data.files.ZeroPilotLatentsFile;
 import edu.jhuapl.trinity.data.messages.FeatureCollection;
 import edu.jhuapl.trinity.data.terrain.FireAreaTextFile;
 import edu.jhuapl.trinity.data.terrain.TerrainTextFile;
@@ -45,7 +42,9 @@ import edu.jhuapl.trinity.utils.loaders.CdcTissueGenesLoader;
 import edu.jhuapl.trinity.utils.loaders.McclodSplitDataLoader;
 import edu.jhuapl.trinity.utils.loaders.TextEmbeddingsLoader;
 import edu.jhuapl.trinity.utils.loaders.ZeroPilotLatentsLoader;
+import javafx.application.Platform;
 import javafx.embed.swing.SwingFXUtils;
+import javafx.event.Event;
 import javafx.scene.Scene;
 import javafx.scene.image.Image;
 import javafx.scene.image.ImageView;
@@ -246,6 +245,9 @@ public enum ResourceUtils {
 
     /**
      * Any time a drop event occurs this attempts to process the object.
+     * Textures are loaded in place. Every other file type is detected from
+     * the head of the file and parsed on a daemon thread, so large drops do
+     * not stall the FX thread.
      *
      * @param event DragEvent.DragDropped
      * @param scene
@@ -260,72 +262,99 @@ public enum ResourceUtils {
                     Image image = new Image(file.toURI().toURL().toExternalForm());
                     scene.getRoot().fireEvent(
                         new ImageEvent(ImageEvent.NEW_TEXTURE_SURFACE, image));
-                } else if (LabelConfigFile.isLabelConfigFile(file)) {
+                } else {
+                    startDaemon(() -> loadDroppedFile(file, scene));
+                }
+            } catch (IOException ex) {
+                Logger.getLogger(ResourceUtils.class.getName()).log(Level.SEVERE, null, ex);
+            }
+            success = true;
+        }
+        event.setDropCompleted(success);
+        event.consume();
+    }
+
+    /**
+     * Detects the type of a dropped file and hands it to the matching parser
+     * or loader. Runs off the FX thread; results are fired on it.
+     *
+     * @param file  the dropped file
+     * @param scene scene whose root receives the resulting events
+     */
+    private static void loadDroppedFile(File file, Scene scene) {
+        try {
+            switch (FileTypeDetector.detect(file)) {
+                case LABEL_CONFIG -> {
                     LabelConfigFile labelConfigFile = new LabelConfigFile(file.getAbsolutePath(), true);
-                    scene.getRoot().fireEvent(
-                        new FeatureVectorEvent(FeatureVectorEvent.NEW_LABEL_CONFIG, labelConfigFile.labelConfig));
-                } else if (TerrainTextFile.isTerrainTextFile(file)) {
+                    fireLater(scene, new FeatureVectorEvent(
+                        FeatureVectorEvent.NEW_LABEL_CONFIG, labelConfigFile.labelConfig));
+                }
+                case TERRAIN_TEXT -> {
                     TerrainTextFile terrainTextFile = new TerrainTextFile(file.getAbsolutePath(), true);
-                    scene.getRoot().fireEvent(
-                        new TerrainEvent(TerrainEvent.NEW_TERRAIN_TEXTFILE, terrainTextFile.dataGrid));
-                } else if (FireAreaTextFile.isFireAreaTextFile(file)) {
+                    fireLater(scene, new TerrainEvent(
+                        TerrainEvent.NEW_TERRAIN_TEXTFILE, terrainTextFile.dataGrid));
+                }
+                case FIRE_AREA_TEXT -> {
                     FireAreaTextFile fireAreaTextFile = new FireAreaTextFile(file.getAbsolutePath(), true);
-                    scene.getRoot().fireEvent(
-                        new TerrainEvent(TerrainEvent.NEW_FIREAREA_TEXTFILE, fireAreaTextFile.dataGrid));
-                } else if (SemanticMapCollectionFile.isSemanticMapCollectionFile(file)) {
+                    fireLater(scene, new TerrainEvent(
+                        TerrainEvent.NEW_FIREAREA_TEXTFILE, fireAreaTextFile.dataGrid));
+                }
+                case SEMANTIC_MAP_COLLECTION -> {
                     SemanticMapCollectionFile smcFile = new SemanticMapCollectionFile(file.getAbsolutePath(), true);
-                    scene.getRoot().fireEvent(
-                        new SemanticMapEvent(SemanticMapEvent.NEW_SEMANTICMAP_COLLECTION, smcFile.semanticMapCollection));
-                } else if (FeatureCollectionFile.isFeatureCollectionFile(file)) {
+                    fireLater(scene, new SemanticMapEvent(
+                        SemanticMapEvent.NEW_SEMANTICMAP_COLLECTION, smcFile.semanticMapCollection));
+                }
+                case FEATURE_COLLECTION -> {
                     FeatureCollectionFile fcFile = new FeatureCollectionFile(file.getAbsolutePath(), true);
-                    scene.getRoot().fireEvent(
-                        new FeatureVectorEvent(FeatureVectorEvent.NEW_FEATURE_COLLECTION, fcFile.featureCollection));
-                } else if (GaussianMixtureCollectionFile.isGaussianMixtureCollectionFile(file)) {
+                    fireLater(scene, new FeatureVectorEvent(
+                        FeatureVectorEvent.NEW_FEATURE_COLLECTION, fcFile.featureCollection));
+                }
+                case GAUSSIAN_MIXTURE_COLLECTION -> {
                     GaussianMixtureCollectionFile gmcFile = new GaussianMixtureCollectionFile(file.getAbsolutePath(), true);
-                    scene.getRoot().fireEvent(
-                        new GaussianMixtureEvent(GaussianMixtureEvent.NEW_GAUSSIAN_COLLECTION, gmcFile.gaussianMixtureCollection));
-                } else if (TextEmbeddingCollectionFile.isTextEmbeddingCollection(file)) {
-                    TextEmbeddingsLoader task = new TextEmbeddingsLoader(scene, file);
-                    Thread thread = new Thread(task);
-                    thread.setDaemon(true);
-                    thread.start();
-                } else if (CdcCsvFile.isCdcCsvFile(file)) {
+                    fireLater(scene, new GaussianMixtureEvent(
+                        GaussianMixtureEvent.NEW_GAUSSIAN_COLLECTION, gmcFile.gaussianMixtureCollection));
+                }
+                case CDC_CSV -> {
                     CdcCsvFile cdcCsvFile = new CdcCsvFile(file.getAbsolutePath(), true);
                     //convert to Feature Vector Collection for the lulz
                     FeatureCollection fc = DataUtils.convertCdcCsv(cdcCsvFile.cdcCsvList, true);
-                    scene.getRoot().fireEvent(
-                        new FeatureVectorEvent(FeatureVectorEvent.NEW_FEATURE_COLLECTION, fc));
-                } else if (CdcTissueGenesFile.isCdcTissueGenesFile(file)) {
-                    CdcTissueGenesLoader task = new CdcTissueGenesLoader(scene, file);
-                    Thread thread = new Thread(task);
-                    thread.setDaemon(true);
-                    thread.start();
-                } else if (McclodSplitDataTsvFile.isMcclodSplitDataTsvFile(file)) {
-                    McclodSplitDataLoader task = new McclodSplitDataLoader(scene, file);
-                    Thread thread = new Thread(task);
-                    thread.setDaemon(true);
-                    thread.start();
-                } else if (Trial.isTrialFile(file)) {
+                    fireLater(scene, new FeatureVectorEvent(
+                        FeatureVectorEvent.NEW_FEATURE_COLLECTION, fc));
+                }
+                case TRIAL -> {
                     ArrayList<Trial> trialList = Trial.readTrialFile(file);
                     System.out.println("Trials loaded.");
-                    scene.getRoot().fireEvent(
-                        new NeuralEvent(NeuralEvent.NEURAL_TRIAL_LIST, trialList));
-                } else if (ZeroPilotLatentsFile.isZeroPilotLatentsFile(file)) {
-                    ZeroPilotLatentsLoader task = new ZeroPilotLatentsLoader(scene, file);
-                    Thread thread = new Thread(task);
-                    thread.setDaemon(true);
-                    thread.start();
-                } else if (ManifoldDataFile.isManifoldDataFile(file)) {
+                    fireLater(scene, new NeuralEvent(NeuralEvent.NEURAL_TRIAL_LIST, trialList));
+                }
+                case MANIFOLD_DATA -> {
                     ManifoldDataFile mdFile = new ManifoldDataFile(file.getAbsolutePath(), true);
-                    scene.getRoot().fireEvent(
-                        new ManifoldEvent(ManifoldEvent.NEW_MANIFOLD_DATA, mdFile.manifoldData));
+                    fireLater(scene, new ManifoldEvent(
+                        ManifoldEvent.NEW_MANIFOLD_DATA, mdFile.manifoldData));
+                }
+                //these loaders ask whether to clear existing data when constructed
+                case TEXT_EMBEDDING_COLLECTION ->
+                    Platform.runLater(() -> startDaemon(new TextEmbeddingsLoader(scene, file)));
+                case CDC_TISSUE_GENES ->
+                    Platform.runLater(() -> startDaemon(new CdcTissueGenesLoader(scene, file)));
+                case MCCLOD_SPLIT_DATA ->
+                    Platform.runLater(() -> startDaemon(new McclodSplitDataLoader(scene, file)));
+                case ZERO_PILOT_LATENTS ->
+                    Platform.runLater(() -> startDaemon(new ZeroPilotLatentsLoader(scene, file)));
+                default -> {
                 }
-            } catch (IOException ex) {
-                Logger.getLogger(ResourceUtils.class.getName()).log(Level.SEVERE, null, ex);
             }
-            success = true;
+        } catch (IOException ex) {
+            Logger.getLogger(ResourceUtils.class.getName()).log(Level.SEVERE, null, ex);
         }
-        event.setDropCompleted(success);
-        event.consume();
+    }
+
+    private static void fireLater(Scene scene, Event event) {
+        Platform.runLater(() -> scene.getRoot().fireEvent(event));
+    }
+
+    private static void startDaemon(Runnable runnable) {
+        Thread thread = new Thread(runnable);
+        thread.setDaemon(true);
+        thread.start();
     }
 }
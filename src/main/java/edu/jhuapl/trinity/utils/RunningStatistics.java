@@ -0,0 +1,254 @@
+package edu.jhuapl.trinity.utils;
+
+/*-
+ * #%L
+ * trinity
+ * %%
+ * Copyright (C) 2021 - 2023 The Johns Hopkins University Applied Physics Laboratory LLC
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Per dimension streaming statistics over a FIFO window of vectors. Mean and
+ * variance use Welford's update, which can also be run backwards to evict the
+ * oldest vector. Minimum and maximum are kept with one monotonic deque per
+ * dimension so the window extremes survive eviction without a rescan. Adding or
+ * evicting a vector costs O(d) amortized, where d is the dimension count.
+ * Removals must come in the same order the vectors were added.
+ */
+public class RunningStatistics {
+
+    private int dimensions = -1;
+    private long[] counts;
+    private double[] means;
+    private double[] m2s;
+    private MonotonicDeque[] minimums;
+    private MonotonicDeque[] maximums;
+    private long addedSequence = 0;
+    private long removedSequence = 0;
+
+    /**
+     * Adds a vector to the newest end of the window. The first vector fixes
+     * the dimension count, extra values on later vectors are ignored.
+     *
+     * @param values vector to add
+     */
+    public void add(double[] values) {
+        if (dimensions < 0)
+            allocate(values.length);
+        int width = Math.min(dimensions, values.length);
+        long sequence = addedSequence++;
+        for (int d = 0; d < width; d++) {
+            double x = values[d];
+            long n = ++counts[d];
+            double delta = x - means[d];
+            means[d] += delta / n;
+            m2s[d] += delta * (x - means[d]);
+            minimums[d].push(sequence, x, true);
+            maximums[d].push(sequence, x, false);
+        }
+    }
+
+    public void add(List<Double> values) {
+        add(toArray(values));
+    }
+
+    /**
+     * Evicts the oldest vector in the window. The values must be the ones that
+     * were passed to the matching add call.
+     *
+     * @param values vector being evicted
+     */
+    public void removeOldest(double[] values) {
+        if (size() == 0)
+            throw new IllegalStateException("No vectors to remove");
+        int width = Math.min(dimensions, values.length);
+        long sequence = removedSequence++;
+        for (int d = 0; d < width; d++) {
+            double x = values[d];
+            long n = --counts[d];
+            if (n == 0) {
+                means[d] = 0.0;
+                m2s[d] = 0.0;
+            } else {
+                double delta = x - means[d];
+                means[d] -= delta / n;
+                m2s[d] = Math.max(0.0, m2s[d] - delta * (x - means[d]));
+            }
+            minimums[d].evict(sequence);
+            maximums[d].evict(sequence);
+        }
+    }
+
+    public void removeOldest(List<Double> values) {
+        removeOldest(toArray(values));
+    }
+
+    public void clear() {
+        dimensions = -1;
+        counts = null;
+        means = null;
+        m2s = null;
+        minimums = null;
+        maximums = null;
+        addedSequence = 0;
+        removedSequence = 0;
+    }
+
+    /**
+     * @return number of vectors currently in the window
+     */
+    public int size() {
+        return (int) (addedSequence - removedSequence);
+    }
+
+    /**
+     * @return dimension count fixed by the first vector, 0 when empty
+     */
+    public int getDimensions() {
+        return Math.max(0, dimensions);
+    }
+
+    public double getMean(int dimension) {
+        return means[dimension];
+    }
+
+    public List<Double> getMeanVector() {
+        List<Double> meanVector = new ArrayList<>(getDimensions());
+        for (int d = 0; d < getDimensions(); d++)
+            meanVector.add(means[d]);
+        return meanVector;
+    }
+
+    /**
+     * @param dimension index of the dimension
+     * @return population variance of the dimension over the window
+     */
+    public double getVariance(int dimension) {
+        return counts[dimension] > 0 ? m2s[dimension] / counts[dimension] : 0.0;
+    }
+
+    public double getMin(int dimension) {
+        return minimums[dimension].front();
+    }
+
+    public double getMax(int dimension) {
+        return maximums[dimension].front();
+    }
+
+    /**
+     * @return largest absolute value of any element in the window
+     */
+    public double getMaxAbsValue() {
+        double maxAbs = 0.0;
+        for (int d = 0; d < getDimensions(); d++) {
+            if (counts[d] > 0)
+                maxAbs = Math.max(maxAbs,
+                    Math.max(Math.abs(getMin(d)), Math.abs(getMax(d))));
+        }
+        return maxAbs;
+    }
+
+    /**
+     * The distance from the mean is largest at one of the two extremes, so the
+     * per dimension answer is max(max - mean, mean - min).
+     *
+     * @return largest absolute distance of any element from its dimension mean
+     */
+    public double getMeanCenteredMaxAbsValue() {
+        double maxAbs = 0.0;
+        for (int d = 0; d < getDimensions(); d++) {
+            if (counts[d] > 0)
+                maxAbs = Math.max(maxAbs,
+                    Math.max(getMax(d) - means[d], means[d] - getMin(d)));
+        }
+        return maxAbs;
+    }
+
+    private void allocate(int dimensionCount) {
+        dimensions = dimensionCount;
+        counts = new long[dimensionCount];
+        means = new double[dimensionCount];
+        m2s = new double[dimensionCount];
+        minimums = new MonotonicDeque[dimensionCount];
+        maximums = new MonotonicDeque[dimensionCount];
+        for (int d = 0; d < dimensionCount; d++) {
+            minimums[d] = new MonotonicDeque();
+            maximums[d] = new MonotonicDeque();
+        }
+    }
+
+    private static double[] toArray(List<Double> values) {
+        double[] array = new double[values.size()];
+        for (int i = 0; i < array.length; i++)
+            array[i] = values.get(i);
+        return array;
+    }
+
+    /**
+     * Ring buffer of (sequence, value) pairs kept monotonic so the front is
+     * always the window extreme. A new value pops every value behind it that
+     * it beats, so each value is pushed and popped at most once.
+     */
+    private static class MonotonicDeque {
+        private long[] sequences = new long[16];
+        private double[] values = new double[16];
+        private int head = 0;
+        private int size = 0;
+
+        void push(long sequence, double value, boolean minimum) {
+            while (size > 0) {
+                double back = values[(head + size - 1) & (values.length - 1)];
+                if (minimum ? back >= value : back <= value)
+                    size--;
+                else
+                    break;
+            }
+            if (size == values.length)
+                grow();
+            int slot = (head + size) & (values.length - 1);
+            sequences[slot] = sequence;
+            values[slot] = value;
+            size++;
+        }
+
+        void evict(long sequence) {
+            if (size > 0 && sequences[head] == sequence) {
+                head = (head + 1) & (values.length - 1);
+                size--;
+            }
+        }
+
+        double front() {
+            return values[head];
+        }
+
+        private void grow() {
+            long[] newSequences = new long[sequences.length << 1];
+            double[] newValues = new double[values.length << 1];
+            for (int i = 0; i < size; i++) {
+                int slot = (head + i) & (values.length - 1);
+                newSequences[i] = sequences[slot];
+                newValues[i] = values[slot];
+            }
+            sequences = newSequences;
+            values = newValues;
+            head = 0;
+        }
+    }
+}
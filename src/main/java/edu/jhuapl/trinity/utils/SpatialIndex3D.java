@@ -0,0 +1,374 @@
+package edu.jhuapl.trinity.utils;
+
+/*-
+ * #%L
+ * trinity
+ * %%
+ * Copyright (C) 2021 - 2023 The Johns Hopkins University Applied Physics Laboratory LLC
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import org.fxyz3d.geometry.Point3D;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Static KD-tree over a set of 3D points for nearest neighbor, radius and
+ * ray proximity queries. The tree is implicit: points are reordered so that
+ * the median of every range is the splitting node of that range, split on
+ * the axis of largest extent. Build once when the points change, queries
+ * then cost about log n instead of a scan. Results are indices into the
+ * points as given.
+ */
+public class SpatialIndex3D {
+
+    //coordinates in tree order
+    private final double[] xyz;
+    //index of each tree slot in the original points
+    private final int[] ids;
+    //split axis of each tree slot
+    private final byte[] axes;
+    private final int size;
+    private final double[] min = new double[3];
+    private final double[] max = new double[3];
+
+    /**
+     * @param coordinates x, y, z of each point in turn, not modified
+     * @param count       number of points
+     */
+    public SpatialIndex3D(double[] coordinates, int count) {
+        if (coordinates.length < 3 * count)
+            throw new IllegalArgumentException("Array too short for " + count + " points.");
+        size = count;
+        xyz = Arrays.copyOf(coordinates, 3 * count);
+        ids = new int[count];
+        for (int i = 0; i < count; i++)
+            ids[i] = i;
+        axes = new byte[count];
+        Arrays.fill(min, Double.POSITIVE_INFINITY);
+        Arrays.fill(max, Double.NEGATIVE_INFINITY);
+        for (int i = 0; i < count; i++) {
+            for (int a = 0; a < 3; a++) {
+                min[a] = Math.min(min[a], xyz[3 * i + a]);
+                max[a] = Math.max(max[a], xyz[3 * i + a]);
+            }
+        }
+        build(0, count);
+    }
+
+    /**
+     * @param points points to index
+     * @return an index over the points, in list order
+     */
+    public static SpatialIndex3D of(List<Point3D> points) {
+        double[] coordinates = new double[3 * points.size()];
+        int i = 0;
+        for (Point3D p : points) {
+            coordinates[i++] = p.x;
+            coordinates[i++] = p.y;
+            coordinates[i++] = p.z;
+        }
+        return new SpatialIndex3D(coordinates, points.size());
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return index of the point closest to (x, y, z) or -1 if there are none
+     */
+    public int nearest(double x, double y, double z) {
+        int[] result = nearest(x, y, z, 1);
+        return result.length > 0 ? result[0] : -1;
+    }
+
+    /**
+     * @param k number of neighbors
+     * @return indices of the k points closest to (x, y, z), nearest first
+     */
+    public int[] nearest(double x, double y, double z, int k) {
+        k = Math.min(k, size);
+        if (k <= 0)
+            return new int[0];
+        Neighbors neighbors = new Neighbors(k);
+        nearest(0, size, x, y, z, neighbors);
+        return neighbors.sorted();
+    }
+
+    /**
+     * @param radius distance from (x, y, z), inclusive
+     * @return indices of every point within radius, in no particular order
+     */
+    public int[] withinRadius(double x, double y, double z, double radius) {
+        IntBuffer found = new IntBuffer();
+        withinRadius(0, size, x, y, z, radius * radius, found);
+        return found.toArray();
+    }
+
+    /**
+     * Find the point closest to a ray, such as the pick ray under the mouse.
+     * Points behind the origin are measured to the origin itself.
+     *
+     * @param ox          ray origin
+     * @param oy          ray origin
+     * @param oz          ray origin
+     * @param dx          ray direction, need not be normalized
+     * @param dy          ray direction
+     * @param dz          ray direction
+     * @param maxDistance largest distance from the ray a point may be
+     * @return index of the point with the least distance to the ray, or -1
+     * if none is within maxDistance
+     */
+    public int nearestToRay(double ox, double oy, double oz,
+                            double dx, double dy, double dz, double maxDistance) {
+        double length = Math.sqrt(dx * dx + dy * dy + dz * dz);
+        if (size == 0 || length == 0)
+            return -1;
+        Ray ray = new Ray(ox, oy, oz, dx / length, dy / length, dz / length, maxDistance);
+        nearestToRay(0, size, min.clone(), max.clone(), ray);
+        return ray.best;
+    }
+
+    private void build(int lo, int hi) {
+        if (hi - lo <= 1) {
+            return;
+        }
+        //split on the axis of largest extent
+        double[] low = {Double.POSITIVE_INFINITY, Double.POSITIVE_INFINITY, Double.POSITIVE_INFINITY};
+        double[] high = {Double.NEGATIVE_INFINITY, Double.NEGATIVE_INFINITY, Double.NEGATIVE_INFINITY};
+        for (int i = lo; i < hi; i++) {
+            for (int a = 0; a < 3; a++) {
+                low[a] = Math.min(low[a], xyz[3 * i + a]);
+                high[a] = Math.max(high[a], xyz[3 * i + a]);
+            }
+        }
+        int axis = 0;
+        for (int a = 1; a < 3; a++) {
+            if (high[a] - low[a] > high[axis] - low[axis])
+                axis = a;
+        }
+        int mid = (lo + hi) >>> 1;
+        select(lo, hi - 1, mid, axis);
+        axes[mid] = (byte) axis;
+        build(lo, mid);
+        build(mid + 1, hi);
+    }
+
+    //quickselect so that slot k holds the k-th smallest on the axis
+    private void select(int left, int right, int k, int axis) {
+        while (right > left) {
+            double pivot = xyz[3 * ((left + right) >>> 1) + axis];
+            int i = left, j = right;
+            while (i <= j) {
+                while (xyz[3 * i + axis] < pivot)
+                    i++;
+                while (xyz[3 * j + axis] > pivot)
+                    j--;
+                if (i <= j)
+                    swap(i++, j--);
+            }
+            if (k <= j)
+                right = j;
+            else if (k >= i)
+                left = i;
+            else
+                return;
+        }
+    }
+
+    private void swap(int i, int j) {
+        for (int a = 0; a < 3; a++) {
+            double t = xyz[3 * i + a];
+            xyz[3 * i + a] = xyz[3 * j + a];
+            xyz[3 * j + a] = t;
+        }
+        int t = ids[i];
+        ids[i] = ids[j];
+        ids[j] = t;
+    }
+
+    private double distanceSquared(int slot, double x, double y, double z) {
+        double dx = xyz[3 * slot] - x;
+        double dy = xyz[3 * slot + 1] - y;
+        double dz = xyz[3 * slot + 2] - z;
+        return dx * dx + dy * dy + dz * dz;
+    }
+
+    private void nearest(int lo, int hi, double x, double y, double z, Neighbors neighbors) {
+        if (lo >= hi)
+            return;
+        int mid = (lo + hi) >>> 1;
+        neighbors.offer(ids[mid], distanceSquared(mid, x, y, z));
+        if (hi - lo == 1)
+            return;
+        int axis = axes[mid];
+        double diff = (axis == 0 ? x : axis == 1 ? y : z) - xyz[3 * mid + axis];
+        if (diff < 0) {
+            nearest(lo, mid, x, y, z, neighbors);
+            if (diff * diff <= neighbors.worst())
+                nearest(mid + 1, hi, x, y, z, neighbors);
+        } else {
+            nearest(mid + 1, hi, x, y, z, neighbors);
+            if (diff * diff <= neighbors.worst())
+                nearest(lo, mid, x, y, z, neighbors);
+        }
+    }
+
+    private void withinRadius(int lo, int hi, double x, double y, double z,
+                              double radiusSquared, IntBuffer found) {
+        if (lo >= hi)
+            return;
+        int mid = (lo + hi) >>> 1;
+        if (distanceSquared(mid, x, y, z) <= radiusSquared)
+            found.add(ids[mid]);
+        if (hi - lo == 1)
+            return;
+        int axis = axes[mid];
+        double diff = (axis == 0 ? x : axis == 1 ? y : z) - xyz[3 * mid + axis];
+        if (diff < 0 || diff * diff <= radiusSquared)
+            withinRadius(lo, mid, x, y, z, radiusSquared, found);
+        if (diff >= 0 || diff * diff <= radiusSquared)
+            withinRadius(mid + 1, hi, x, y, z, radiusSquared, found);
+    }
+
+    private void nearestToRay(int lo, int hi, double[] low, double[] high, Ray ray) {
+        if (lo >= hi)
+            return;
+        //the box around this range bounds how close any point in it can be
+        double cx = (low[0] + high[0]) / 2, cy = (low[1] + high[1]) / 2, cz = (low[2] + high[2]) / 2;
+        double hx = (high[0] - low[0]) / 2, hy = (high[1] - low[1]) / 2, hz = (high[2] - low[2]) / 2;
+        double reach = Math.sqrt(hx * hx + hy * hy + hz * hz);
+        if (ray.distance(cx, cy, cz) - reach > ray.bestDistance)
+            return;
+        int mid = (lo + hi) >>> 1;
+        double d = ray.distance(xyz[3 * mid], xyz[3 * mid + 1], xyz[3 * mid + 2]);
+        if (d <= ray.bestDistance && (d < ray.bestDistance || ray.best < 0)) {
+            ray.best = ids[mid];
+            ray.bestDistance = d;
+        }
+        if (hi - lo == 1)
+            return;
+        int axis = axes[mid];
+        double split = xyz[3 * mid + axis];
+        double[] leftHigh = high.clone();
+        leftHigh[axis] = split;
+        double[] rightLow = low.clone();
+        rightLow[axis] = split;
+        nearestToRay(lo, mid, low, leftHigh, ray);
+        nearestToRay(mid + 1, hi, rightLow, high, ray);
+    }
+
+    /**
+     * Bounded max heap on squared distance holding the k best so far.
+     */
+    private static class Neighbors {
+        private final int[] ids;
+        private final double[] distances;
+        private int count = 0;
+
+        Neighbors(int k) {
+            ids = new int[k];
+            distances = new double[k];
+        }
+
+        double worst() {
+            return count < ids.length ? Double.POSITIVE_INFINITY : distances[0];
+        }
+
+        void offer(int id, double distance) {
+            if (count < ids.length) {
+                int i = count++;
+                while (i > 0) {
+                    int parent = (i - 1) >>> 1;
+                    if (distances[parent] >= distance)
+                        break;
+                    ids[i] = ids[parent];
+                    distances[i] = distances[parent];
+                    i = parent;
+                }
+                ids[i] = id;
+                distances[i] = distance;
+            } else if (distance < distances[0]) {
+                int i = 0;
+                while (true) {
+                    int child = 2 * i + 1;
+                    if (child >= count)
+                        break;
+                    if (child + 1 < count && distances[child + 1] > distances[child])
+                        child++;
+                    if (distances[child] <= distance)
+                        break;
+                    ids[i] = ids[child];
+                    distances[i] = distances[child];
+                    i = child;
+                }
+                ids[i] = id;
+                distances[i] = distance;
+            }
+        }
+
+        int[] sorted() {
+            Integer[] order = new Integer[count];
+            for (int i = 0; i < count; i++)
+                order[i] = i;
+            Arrays.sort(order, (a, b) -> Double.compare(distances[a], distances[b]));
+            int[] result = new int[count];
+            for (int i = 0; i < count; i++)
+                result[i] = ids[order[i]];
+            return result;
+        }
+    }
+
+    private static class Ray {
+        final double ox, oy, oz, dx, dy, dz;
+        int best = -1;
+        double bestDistance;
+
+        Ray(double ox, double oy, double oz, double dx, double dy, double dz, double maxDistance) {
+            this.ox = ox;
+            this.oy = oy;
+            this.oz = oz;
+            this.dx = dx;
+            this.dy = dy;
+            this.dz = dz;
+            bestDistance = maxDistance;
+        }
+
+        //distance to the ray, points behind the origin measure to the origin
+        double distance(double x, double y, double z) {
+            double px = x - ox, py = y - oy, pz = z - oz;
+            double t = Math.max(0, px * dx + py * dy + pz * dz);
+            double ex = px - t * dx, ey = py - t * dy, ez = pz - t * dz;
+            return Math.sqrt(ex * ex + ey * ey + ez * ez);
+        }
+    }
+
+    private static class IntBuffer {
+        private int[] values = new int[16];
+        private int count = 0;
+
+        void add(int value) {
+            if (count == values.length)
+                values = Arrays.copyOf(values, 2 * count);
+            values[count++] = value;
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(values, count);
+        }
+    }
+}
@@ -0,0 +1,218 @@
+package edu.jhuapl.trinity.utils;
+
+/*-
+ * #%L
+ * trinity
+ * %%
+ * Copyright (C) 2021 - 2023 The Johns Hopkins University Applied Physics Laboratory LLC
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import edu.jhuapl.trinity.data.messages.FeatureVector;
+import edu.jhuapl.trinity.utils.umap.Umap;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Projects a live stream of feature vectors into the embedding of an already
+ * fitted UMAP model. Vectors are queued as they arrive and drained on a single
+ * background thread, so whatever accumulates while one transform is running is
+ * projected together as the next micro-batch. The fitted model is never refit;
+ * new points are placed relative to the training embedding. When the model
+ * has a neighbor index each projected batch is added to it, so later vectors
+ * are also placed relative to the ones streamed before them.
+ */
+public class StreamingUmapProjector {
+    private static final Logger LOG = Logger.getLogger(StreamingUmapProjector.class.getName());
+    public static final int DEFAULT_MAX_BATCH_SIZE = 256;
+    private static final long STOP_TIMEOUT_SECONDS = 30;
+
+    private final Umap umap;
+    private final int dimensions;
+    private final int maxBatchSize;
+    private final BiConsumer<List<FeatureVector>, List<FeatureVector>> sink;
+    private final ConcurrentLinkedQueue<FeatureVector> pending = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean draining = new AtomicBoolean(false);
+    private final AtomicLong projectedCount = new AtomicLong();
+    private final AtomicLong rejectedCount = new AtomicLong();
+    private final ExecutorService executor;
+    private volatile boolean stopped = false;
+    private volatile Thread worker = null;
+
+    /**
+     * @param umap         fitted model, owned by this projector from here on
+     * @param maxBatchSize largest number of vectors handed to a single transform
+     * @param sink         receives each batch of original vectors together with
+     *                     their projections, in the same order, on the
+     *                     projection thread
+     */
+    public StreamingUmapProjector(Umap umap, int maxBatchSize,
+                                  BiConsumer<List<FeatureVector>, List<FeatureVector>> sink) {
+        if (!umap.isFitted()) {
+            throw new IllegalArgumentException("UMAP model must be fit before streaming transforms.");
+        }
+        this.umap = umap;
+        this.dimensions = umap.getInputDimension();
+        this.maxBatchSize = Math.max(1, maxBatchSize);
+        this.sink = sink;
+        umap.prepareTransform();
+        executor = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "umap-stream-projector");
+            thread.setDaemon(true);
+            worker = thread;
+            return thread;
+        });
+    }
+
+    public StreamingUmapProjector(Umap umap,
+                                  BiConsumer<List<FeatureVector>, List<FeatureVector>> sink) {
+        this(umap, DEFAULT_MAX_BATCH_SIZE, sink);
+    }
+
+    /**
+     * Queue a vector for projection. Vectors whose width does not match the
+     * data the model was fit on are rejected.
+     *
+     * @param featureVector vector in the original high dimensional space
+     * @return true if the vector was queued
+     */
+    public boolean submit(FeatureVector featureVector) {
+        if (stopped || null == featureVector.getData()
+            || featureVector.getData().size() != dimensions) {
+            rejectedCount.incrementAndGet();
+            return false;
+        }
+        pending.add(featureVector);
+        schedule();
+        return true;
+    }
+
+    private void schedule() {
+        if (!stopped && draining.compareAndSet(false, true)) {
+            executor.execute(this::drain);
+        }
+    }
+
+    private void drain() {
+        try {
+            while (!stopped) {
+                List<FeatureVector> batch = new ArrayList<>(Math.min(maxBatchSize, pending.size()));
+                FeatureVector featureVector;
+                while (batch.size() < maxBatchSize && (featureVector = pending.poll()) != null) {
+                    batch.add(featureVector);
+                }
+                if (batch.isEmpty())
+                    break;
+                project(batch);
+            }
+        } finally {
+            draining.set(false);
+        }
+        //a vector may have been queued after the last poll but before the flag was released
+        if (!pending.isEmpty())
+            schedule();
+    }
+
+    private void project(List<FeatureVector> batch) {
+        float[] instances = new float[batch.size() * dimensions];
+        for (int i = 0, k = 0; i < batch.size(); i++) {
+            List<Double> data = batch.get(i).getData();
+            for (int j = 0; j < dimensions; j++) {
+                instances[k++] = data.get(j).floatValue();
+            }
+        }
+        float[][] embedding;
+        //quiet, per batch console output and progress would swamp everything
+        //else at feed rates and must not disturb a fit running elsewhere
+        try {
+            embedding = null != umap.getNeighborIndex()
+                ? umap.transformAndAdd(instances, dimensions, true)
+                : umap.transform(instances, dimensions, true);
+        } catch (RuntimeException ex) {
+            rejectedCount.addAndGet(batch.size());
+            if (!stopped)
+                LOG.log(Level.WARNING, "Unable to project streamed feature vectors", ex);
+            return;
+        }
+        List<FeatureVector> projected = new ArrayList<>(batch.size());
+        for (int i = 0; i < embedding.length; i++) {
+            FeatureVector origFV = batch.get(i);
+            FeatureVector fv = new FeatureVector();
+            for (float value : embedding[i]) {
+                fv.getData().add((double) value);
+            }
+            fv.setLabel(origFV.getLabel());
+            fv.setScore(origFV.getScore());
+            fv.setPfa(origFV.getPfa());
+            fv.setLayer(origFV.getLayer());
+            fv.setImageURL(origFV.getImageURL());
+            projected.add(fv);
+        }
+        if (stopped)
+            return;
+        projectedCount.addAndGet(projected.size());
+        sink.accept(batch, projected);
+    }
+
+    /**
+     * Stop accepting vectors and discard anything not yet projected. A batch
+     * already being transformed is allowed to finish but is not delivered,
+     * and this waits for it so the model is idle once this returns.
+     */
+    public void stop() {
+        stopped = true;
+        pending.clear();
+        executor.shutdownNow();
+        //a sink stopping its own projector cannot wait for itself
+        if (Thread.currentThread() == worker)
+            return;
+        try {
+            if (!executor.awaitTermination(STOP_TIMEOUT_SECONDS, TimeUnit.SECONDS))
+                LOG.log(Level.WARNING, "Streamed batch still running after {0} seconds", STOP_TIMEOUT_SECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public boolean isStopped() {
+        return stopped;
+    }
+
+    public int getDimensions() {
+        return dimensions;
+    }
+
+    public int getPendingCount() {
+        return pending.size();
+    }
+
+    public long getProjectedCount() {
+        return projectedCount.get();
+    }
+
+    public long getRejectedCount() {
+        return rejectedCount.get();
+    }
+}
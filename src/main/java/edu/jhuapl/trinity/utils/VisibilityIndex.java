@@ -0,0 +1,325 @@
+package edu.jhuapl.trinity.utils;
+
+/*-
+ * #%L
+ * trinity
+ * %%
+ * Copyright (C) 2021 - 2023 The Johns Hopkins University Applied Physics Laboratory LLC
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Visibility of a set of points decided by label, layer and a per point mask,
+ * kept as bitsets so a label or layer toggle is a handful of word wide
+ * operations instead of a map lookup per point. Labels and layers are interned
+ * to small ids the first time a point carries them, and each id owns a bitset
+ * of the points that have it. A point is visible when its label is visible,
+ * its layer is visible and its mask bit is set. Points are addressed by slot,
+ * which the caller keeps stable for as long as the point is present.
+ */
+public class VisibilityIndex {
+
+    private final Predicate<String> labelVisibility;
+    private final Predicate<Integer> layerVisibility;
+    private final Map<String, Integer> labelIds = new HashMap<>();
+    private final Map<Integer, Integer> layerIds = new HashMap<>();
+    private final List<String> labels = new ArrayList<>();
+    private final List<Integer> layers = new ArrayList<>();
+    private final List<long[]> labelBits = new ArrayList<>();
+    private final List<long[]> layerBits = new ArrayList<>();
+    private boolean[] labelVisible = new boolean[8];
+    private boolean[] layerVisible = new boolean[8];
+    private int[] labelOf = new int[0];
+    private int[] layerOf = new int[0];
+    private long[] occupied = new long[0];
+    private long[] mask = new long[0];
+    private long[] labelOr = new long[0];
+    private long[] layerOr = new long[0];
+    private long[] visible = new long[0];
+
+    /**
+     * @param labelVisibility whether a label is shown, asked once per label when
+     *                        it is first seen and again on refresh
+     * @param layerVisibility whether a layer is shown, asked the same way
+     */
+    public VisibilityIndex(Predicate<String> labelVisibility, Predicate<Integer> layerVisibility) {
+        this.labelVisibility = labelVisibility;
+        this.layerVisibility = layerVisibility;
+    }
+
+    /**
+     * Places a point in a slot with its mask bit set, replacing whatever was
+     * there.
+     */
+    public synchronized void setPoint(int slot, String label, Integer layer) {
+        ensureSlots(slot + 1);
+        if (isSet(occupied, slot))
+            clearPoint(slot);
+        int labelId = internLabel(label);
+        int layerId = internLayer(layer);
+        labelOf[slot] = labelId;
+        layerOf[slot] = layerId;
+        set(occupied, slot);
+        set(mask, slot);
+        set(labelBits.get(labelId), slot);
+        set(layerBits.get(layerId), slot);
+        if (labelVisible[labelId])
+            set(labelOr, slot);
+        if (layerVisible[layerId])
+            set(layerOr, slot);
+        updateWord(slot >>> 6);
+    }
+
+    public synchronized void clearPoint(int slot) {
+        if (slot >= labelOf.length || !isSet(occupied, slot))
+            return;
+        clear(labelBits.get(labelOf[slot]), slot);
+        clear(layerBits.get(layerOf[slot]), slot);
+        clear(occupied, slot);
+        clear(mask, slot);
+        clear(labelOr, slot);
+        clear(layerOr, slot);
+        clear(visible, slot);
+    }
+
+    public synchronized void clear() {
+        Arrays.fill(occupied, 0L);
+        Arrays.fill(mask, 0L);
+        Arrays.fill(labelOr, 0L);
+        Arrays.fill(layerOr, 0L);
+        Arrays.fill(visible, 0L);
+        labelBits.forEach(bits -> Arrays.fill(bits, 0L));
+        layerBits.forEach(bits -> Arrays.fill(bits, 0L));
+    }
+
+    /**
+     * Sets the per point mask bit, for filters that act on single points.
+     */
+    public synchronized void setPointVisible(int slot, boolean pointVisible) {
+        if (slot >= labelOf.length || !isSet(occupied, slot))
+            return;
+        if (pointVisible)
+            set(mask, slot);
+        else
+            clear(mask, slot);
+        updateWord(slot >>> 6);
+    }
+
+    public synchronized boolean isPointVisible(int slot) {
+        return slot < labelOf.length && isSet(mask, slot);
+    }
+
+    /**
+     * Sets the mask bit of every point present.
+     */
+    public synchronized void setAllPointsVisible() {
+        System.arraycopy(occupied, 0, mask, 0, occupied.length);
+        updateAll();
+    }
+
+    /**
+     * Clears the mask bit of every point not set in keep, one AND per word.
+     *
+     * @param keep bitset over slots, missing words count as zero
+     */
+    public synchronized void retainPoints(long[] keep) {
+        for (int w = 0; w < mask.length; w++)
+            mask[w] &= w < keep.length ? keep[w] : 0L;
+        updateAll();
+    }
+
+    public synchronized void setLabelVisible(String label, boolean labelShown) {
+        int id = internLabel(label);
+        setVisible(labelBits.get(id), labelVisible, id, labelShown, labelOr);
+    }
+
+    public synchronized void setLayerVisible(Integer layer, boolean layerShown) {
+        int id = internLayer(layer);
+        setVisible(layerBits.get(id), layerVisible, id, layerShown, layerOr);
+    }
+
+    /**
+     * Asks the visibility predicates again for every label and layer seen so
+     * far and applies any that changed. Costs one lookup per label and layer,
+     * not per point.
+     */
+    public synchronized void refresh() {
+        for (int id = 0; id < labels.size(); id++)
+            setVisible(labelBits.get(id), labelVisible, id, labelVisibility.test(labels.get(id)), labelOr);
+        for (int id = 0; id < layers.size(); id++)
+            setVisible(layerBits.get(id), layerVisible, id, layerVisibility.test(layers.get(id)), layerOr);
+    }
+
+    public synchronized boolean isVisible(int slot) {
+        return slot < labelOf.length && isSet(visible, slot);
+    }
+
+    public synchronized int visibleCount() {
+        int count = 0;
+        for (long word : visible)
+            count += Long.bitCount(word);
+        return count;
+    }
+
+    /**
+     * @param from first slot to look at
+     * @return the first visible slot at or after from, or -1 if there is none
+     */
+    public synchronized int nextVisible(int from) {
+        int word = from >>> 6;
+        if (word >= visible.length)
+            return -1;
+        long bits = visible[word] & (-1L << from);
+        while (true) {
+            if (bits != 0)
+                return (word << 6) + Long.numberOfTrailingZeros(bits);
+            if (++word == visible.length)
+                return -1;
+            bits = visible[word];
+        }
+    }
+
+    /**
+     * @return id of the label of the point in a slot, an index into mapLabels
+     */
+    public synchronized int labelIdOf(int slot) {
+        return labelOf[slot];
+    }
+
+    /**
+     * @return id of the layer of the point in a slot, an index into mapLayers
+     */
+    public synchronized int layerIdOf(int slot) {
+        return layerOf[slot];
+    }
+
+    /**
+     * Applies a function once to every label seen so far.
+     *
+     * @return the results indexed by label id
+     */
+    public synchronized <T> List<T> mapLabels(Function<String, T> function) {
+        List<T> mapped = new ArrayList<>(labels.size());
+        for (String label : labels)
+            mapped.add(function.apply(label));
+        return mapped;
+    }
+
+    /**
+     * Applies a function once to every layer seen so far.
+     *
+     * @return the results indexed by layer id
+     */
+    public synchronized <T> List<T> mapLayers(Function<Integer, T> function) {
+        List<T> mapped = new ArrayList<>(layers.size());
+        for (Integer layer : layers)
+            mapped.add(function.apply(layer));
+        return mapped;
+    }
+
+    /**
+     * @return number of slots the index currently has room for
+     */
+    public synchronized int getSlotCapacity() {
+        return labelOf.length;
+    }
+
+    private void setVisible(long[] bits, boolean[] shown, int id, boolean show, long[] or) {
+        if (shown[id] == show)
+            return;
+        shown[id] = show;
+        if (show) {
+            for (int w = 0; w < bits.length; w++)
+                or[w] |= bits[w];
+        } else {
+            for (int w = 0; w < bits.length; w++)
+                or[w] &= ~bits[w];
+        }
+        updateAll();
+    }
+
+    private void updateAll() {
+        for (int w = 0; w < visible.length; w++)
+            visible[w] = labelOr[w] & layerOr[w] & mask[w];
+    }
+
+    private void updateWord(int w) {
+        visible[w] = labelOr[w] & layerOr[w] & mask[w];
+    }
+
+    private int internLabel(String label) {
+        Integer id = labelIds.get(label);
+        if (null == id) {
+            id = labels.size();
+            labelIds.put(label, id);
+            labels.add(label);
+            labelBits.add(new long[occupied.length]);
+            if (id == labelVisible.length)
+                labelVisible = Arrays.copyOf(labelVisible, id * 2);
+            labelVisible[id] = labelVisibility.test(label);
+        }
+        return id;
+    }
+
+    private int internLayer(Integer layer) {
+        Integer id = layerIds.get(layer);
+        if (null == id) {
+            id = layers.size();
+            layerIds.put(layer, id);
+            layers.add(layer);
+            layerBits.add(new long[occupied.length]);
+            if (id == layerVisible.length)
+                layerVisible = Arrays.copyOf(layerVisible, id * 2);
+            layerVisible[id] = layerVisibility.test(layer);
+        }
+        return id;
+    }
+
+    private void ensureSlots(int slots) {
+        if (slots <= labelOf.length)
+            return;
+        int capacity = Math.max(64, Math.max(slots, labelOf.length * 2));
+        int words = (capacity + 63) >>> 6;
+        labelOf = Arrays.copyOf(labelOf, capacity);
+        layerOf = Arrays.copyOf(layerOf, capacity);
+        occupied = Arrays.copyOf(occupied, words);
+        mask = Arrays.copyOf(mask, words);
+        labelOr = Arrays.copyOf(labelOr, words);
+        layerOr = Arrays.copyOf(layerOr, words);
+        visible = Arrays.copyOf(visible, words);
+        labelBits.replaceAll(bits -> Arrays.copyOf(bits, words));
+        layerBits.replaceAll(bits -> Arrays.copyOf(bits, words));
+    }
+
+    private static boolean isSet(long[] bits, int slot) {
+        return (bits[slot >>> 6] & (1L << slot)) != 0;
+    }
+
+    private static void set(long[] bits, int slot) {
+        bits[slot >>> 6] |= 1L << slot;
+    }
+
+    private static void clear(long[] bits, int slot) {
+        bits[slot >>> 6] &= ~(1L << slot);
+    }
+}
@@ -269,7 +269,10 @@ class CooMatrix extends Matrix {
                 indptr[++r] = k;
             }
         }
-        indptr[rows()] = mData.length;
+        // trailing rows without entries end where the data ends
+        while (r < rows()) {
+            indptr[++r] = mData.length;
+        }
         // todo can we drop these copies?
         return new CsrMatrix(Arrays.copyOf(mData, mData.length), indptr, Arrays.copyOf(mCol, mCol.length), rows(), cols());
     }
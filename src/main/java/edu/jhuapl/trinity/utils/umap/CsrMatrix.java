@@ -84,6 +84,18 @@ class CsrMatrix extends Matrix {
         return this;
     }
 
+    int[] indptr() {
+        return mIndptr;
+    }
+
+    int[] indices() {
+        return mIndices;
+    }
+
+    float[] data() {
+        return mData;
+    }
+
     @Override
     Matrix add(final Matrix m) {
         // Sparse implementation would be better than using super.
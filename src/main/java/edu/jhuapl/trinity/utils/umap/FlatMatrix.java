@@ -0,0 +1,192 @@
+/*
+ * BSD 3-Clause License
+ * Copyright (c) 2017, Leland McInnes, 2019 Tag.bio (Java port).
+ * See UMAPLicense.txt.
+ */
+package edu.jhuapl.trinity.utils.umap;
+
+/*-
+ * #%L
+ * trinity
+ * %%
+ * Copyright (C) 2021 - 2023 The Johns Hopkins University Applied Physics Laboratory LLC
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.util.Arrays;
+
+/**
+ * Dense matrix stored row-major in a single array. Rows are contiguous, so
+ * the distance kernels and the layout optimizer read and update them in
+ * place through rowArray and rowOffset, and a pass over the rows walks
+ * memory in order. Unlike DefaultMatrix, row returns a copy.
+ */
+public class FlatMatrix extends Matrix {
+
+    private final float[] mData;
+
+    /**
+     * Construct a matrix backed by the given row-major array. Note the array
+     * is NOT copied, so that any external changes to the underlying array
+     * will affect that matrix as well.
+     *
+     * @param data row-major values, <code>rows * cols</code> of them
+     * @param rows number of rows
+     * @param cols number of columns
+     */
+    public FlatMatrix(final float[] data, final int rows, final int cols) {
+        super(rows, cols);
+        if (data.length != (long) rows * cols) {
+            throw new IllegalArgumentException("Expected " + ((long) rows * cols) + " values but got " + data.length);
+        }
+        mData = data;
+    }
+
+    /**
+     * Construct a matrix over the first <code>rows * cols</code> values of an
+     * array that may have spare capacity after them, see appendRows.
+     */
+    private FlatMatrix(final int rows, final int cols, final float[] data) {
+        super(rows, cols);
+        mData = data;
+    }
+
+    /**
+     * Construct a new zero matrix of specified dimensions.
+     *
+     * @param rows number of rows
+     * @param cols number of columns
+     */
+    public FlatMatrix(final int rows, final int cols) {
+        this(new float[Math.multiplyExact(rows, cols)], rows, cols);
+    }
+
+    /**
+     * Copy a nested array into a new flat matrix.
+     *
+     * @param matrix matrix values, all rows the same length
+     * @return flat copy
+     */
+    public static FlatMatrix of(final double[][] matrix) {
+        final int cols = matrix.length == 0 ? 0 : matrix[0].length;
+        final float[] data = new float[Math.multiplyExact(matrix.length, cols)];
+        for (int k = 0, i = 0; k < matrix.length; ++k) {
+            final double[] row = matrix[k];
+            for (int j = 0; j < cols; ++j) {
+                data[i++] = (float) row[j];
+            }
+        }
+        return new FlatMatrix(data, matrix.length, cols);
+    }
+
+    /**
+     * Append rows to a matrix. Spare capacity in the backing array of a flat
+     * matrix is reused and otherwise the capacity is doubled, so appending
+     * many small batches costs amortised time in the rows appended rather
+     * than a copy of the whole matrix per batch. The result may share its
+     * backing array with the given matrix, which must not be appended to
+     * again.
+     *
+     * @param matrix matrix to extend
+     * @param rows   row-major values of the new rows
+     * @return matrix holding the rows of matrix followed by the new rows
+     */
+    static FlatMatrix appendRows(final Matrix matrix, final float[] rows) {
+        final int cols = matrix.cols();
+        if (cols == 0 || rows.length % cols != 0) {
+            throw new IllegalArgumentException("Expected a multiple of " + cols + " values but got " + rows.length);
+        }
+        final int used = Math.multiplyExact(matrix.rows(), cols);
+        final int size = Math.addExact(used, rows.length);
+        final float[] data;
+        if (matrix instanceof FlatMatrix && ((FlatMatrix) matrix).mData.length >= size) {
+            data = ((FlatMatrix) matrix).mData;
+        } else {
+            data = new float[(int) Math.min(Integer.MAX_VALUE - 8, Math.max(size, 2L * used))];
+            for (int r = 0; r < matrix.rows(); ++r) {
+                System.arraycopy(matrix.rowArray(r), matrix.rowOffset(r), data, r * cols, cols);
+            }
+        }
+        System.arraycopy(rows, 0, data, used, rows.length);
+        return new FlatMatrix(matrix.rows() + rows.length / cols, cols, data);
+    }
+
+    /**
+     * The row-major backing array, which may be longer than
+     * <code>rows * cols</code> if the matrix was built by appendRows.
+     *
+     * @return values, not copied
+     */
+    float[] data() {
+        return mData;
+    }
+
+    @Override
+    float get(final int row, final int col) {
+        return mData[row * cols() + col];
+    }
+
+    @Override
+    void set(final int row, final int col, final float val) {
+        mData[row * cols() + col] = val;
+    }
+
+    @Override
+    boolean isFinite() {
+        final int size = rows() * cols();
+        for (int i = 0; i < size; ++i) {
+            if (!Float.isFinite(mData[i])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    Matrix copy() {
+        return new FlatMatrix(Arrays.copyOf(mData, rows() * cols()), rows(), cols());
+    }
+
+    @Override
+    float[][] toArray() {
+        final float[][] res = new float[rows()][];
+        for (int r = 0; r < res.length; ++r) {
+            res[r] = row(r);
+        }
+        return res;
+    }
+
+    @Override
+    float[] row(final int row) {
+        final int from = row * cols();
+        return Arrays.copyOfRange(mData, from, from + cols());
+    }
+
+    @Override
+    float[] rowArray(final int row) {
+        return mData;
+    }
+
+    @Override
+    int rowOffset(final int row) {
+        return row * cols();
+    }
+
+    @Override
+    Matrix eliminateZeros() {
+        // There is nothing to be done in this implementation (zeros cannot be removed)
+        return this;
+    }
+}
@@ -25,6 +25,7 @@ package edu.jhuapl.trinity.utils.umap;
  * #L%
  */
 
+import java.io.IOException;
 import java.util.Random;
 
 /**
@@ -55,6 +56,44 @@ class FlatTree {
         return mIndices;
     }
 
+    void write(final UmapModelFile.Writer out) throws IOException {
+        if (!(mHyperplanes instanceof float[][])) {
+            throw new IllegalArgumentException("Saving not available for sparse input.");
+        }
+        final float[][] hyperplanes = (float[][]) mHyperplanes;
+        final int dim = hyperplanes.length == 0 ? 0 : hyperplanes[0].length;
+        out.writeInt(hyperplanes.length);
+        out.writeInt(dim);
+        for (int node = 0; node < hyperplanes.length; ++node) {
+            out.writeFloats(hyperplanes[node], 0, dim);
+            out.writeFloat(mOffsets[node]);
+            out.writeInts(mChildren[node], 0, 2);
+        }
+        out.writeInt(mIndices.length);
+        for (final int[] leaf : mIndices) {
+            out.writeInt(leaf.length);
+            out.writeInts(leaf, 0, leaf.length);
+        }
+    }
+
+    static FlatTree read(final UmapModelFile.Reader in) throws IOException {
+        final int nodes = in.readCount();
+        final int dim = in.readCount();
+        final float[][] hyperplanes = new float[nodes][];
+        final float[] offsets = new float[nodes];
+        final int[][] children = new int[nodes][];
+        for (int node = 0; node < nodes; ++node) {
+            hyperplanes[node] = in.readFloats(dim);
+            offsets[node] = in.readFloat();
+            children[node] = in.readInts(2);
+        }
+        final int[][] indices = new int[in.readCount()][];
+        for (int leaf = 0; leaf < indices.length; ++leaf) {
+            indices[leaf] = in.readInts(in.readCount());
+        }
+        return new FlatTree(hyperplanes, offsets, children, indices);
+    }
+
     private static boolean selectSide(final float[] hyperplane, final float offset, final float[] point, final Random random) {
         float margin = offset;
         for (int d = 0; d < point.length; ++d) {
@@ -0,0 +1,554 @@
+/*
+ * BSD 3-Clause License
+ * Copyright (c) 2017, Leland McInnes, 2019 Tag.bio (Java port).
+ * See UMAPLicense.txt.
+ */
+package edu.jhuapl.trinity.utils.umap;
+
+/*-
+ * #%L
+ * trinity
+ * %%
+ * Copyright (C) 2021 - 2023 The Johns Hopkins University Applied Physics Laboratory LLC
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import edu.jhuapl.trinity.utils.umap.metric.Metric;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntConsumer;
+
+/**
+ * Hierarchical navigable small world graph (Malkov and Yashunin) for
+ * approximate nearest neighbor search. Points are inserted one at a time,
+ * so the index can keep growing after it is built, and batches are inserted
+ * in parallel when more than one thread is allowed.
+ * <p>
+ * Recall is traded against speed with <code>M</code> and
+ * <code>efConstruction</code>, which fix the quality of the graph and must be
+ * chosen before the first point is added, and <code>efSearch</code>, the
+ * breadth of each query, which can be changed at any time. With one thread
+ * the index is deterministic for a given seed.
+ */
+public class HnswIndex implements NeighborIndex {
+
+    private static final int DEFAULT_M = 16;
+    private static final int DEFAULT_EF_CONSTRUCTION = 100;
+    private static final int DEFAULT_EF_SEARCH = 64;
+    private static final int MAX_LEVEL = 16;
+
+    private final Metric mMetric;
+    private int mM = DEFAULT_M;
+    private int mEfConstruction = DEFAULT_EF_CONSTRUCTION;
+    private int mEfSearch = DEFAULT_EF_SEARCH;
+    private int mThreads = 1;
+    private long mSeed = 42;
+
+    private int mDimension = -1;
+    private int mSize = 0;
+    private float[] mData = new float[0];
+    private int[] mLevels = new int[0];
+    // mLinks[node][level] holds the neighbor count followed by the neighbors;
+    // mLinks[node] is also the lock guarding them
+    private int[][][] mLinks = new int[0][][];
+    private final Object mEntryLock = new Object();
+    private int mEntry = -1;
+    private int mMaxLevel = -1;
+    private final ThreadLocal<Visited> mVisited = ThreadLocal.withInitial(Visited::new);
+
+    /**
+     * Construct an empty index.
+     *
+     * @param metric distance function
+     */
+    public HnswIndex(final Metric metric) {
+        mMetric = metric;
+    }
+
+    @Override
+    public Metric getMetric() {
+        return mMetric;
+    }
+
+    @Override
+    public synchronized int size() {
+        return mSize;
+    }
+
+    private void checkEmpty(final String parameter) {
+        if (size() > 0) {
+            throw new IllegalStateException(parameter + " cannot change once points have been added");
+        }
+    }
+
+    /**
+     * Set the number of neighbors each point links to on the upper layers,
+     * twice this on the bottom layer. Larger values give better recall,
+     * especially in high dimensions, at the cost of memory and build time.
+     * The default is 16.
+     *
+     * @param m number of links
+     */
+    public void setM(final int m) {
+        if (m < 2) {
+            throw new IllegalArgumentException("M must be at least 2.");
+        }
+        checkEmpty("M");
+        mM = m;
+    }
+
+    /**
+     * Set the number of candidates considered when linking a new point.
+     * Larger values build a better graph more slowly. The default is 100.
+     *
+     * @param efConstruction candidate list size during insertion
+     */
+    public void setEfConstruction(final int efConstruction) {
+        if (efConstruction < 1) {
+            throw new IllegalArgumentException("efConstruction must be at least 1.");
+        }
+        checkEmpty("efConstruction");
+        mEfConstruction = efConstruction;
+    }
+
+    /**
+     * Set the number of candidates considered by a query, at least the number
+     * of neighbors asked for is always used. Larger values increase recall
+     * and latency. The default is 64.
+     *
+     * @param efSearch candidate list size during search
+     */
+    public void setEfSearch(final int efSearch) {
+        if (efSearch < 1) {
+            throw new IllegalArgumentException("efSearch must be at least 1.");
+        }
+        mEfSearch = efSearch;
+    }
+
+    /**
+     * Set the maximum number of threads used to insert a batch of points and
+     * to answer a batch of queries (default 1).
+     *
+     * @param threads number of threads
+     */
+    public void setThreads(final int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("threads must be at least 1");
+        }
+        mThreads = threads;
+    }
+
+    /**
+     * Set the seed from which the layer of each point is drawn.
+     *
+     * @param seed seed value
+     */
+    public void setSeed(final long seed) {
+        checkEmpty("seed");
+        mSeed = seed;
+    }
+
+    @Override
+    public synchronized void add(final float[] points, final int dimension) {
+        if (dimension < 1 || points.length % dimension != 0) {
+            throw new IllegalArgumentException("Points must be a whole number of rows of " + dimension + " values.");
+        }
+        if (mDimension < 0) {
+            mDimension = dimension;
+        } else if (dimension != mDimension) {
+            throw new IllegalArgumentException("Expected points of dimension " + mDimension + " but got " + dimension);
+        }
+        final int count = points.length / dimension;
+        if (count == 0) {
+            return;
+        }
+        final int first = mSize;
+        ensureCapacity(first + count);
+        System.arraycopy(points, 0, mData, first * dimension, points.length);
+        final double levelScale = 1 / Math.log(mM);
+        for (int id = first; id < first + count; ++id) {
+            final double u = 1 - new SplittableRandom(mSeed + id).nextDouble();
+            final int level = Math.min(MAX_LEVEL, (int) (-Math.log(u) * levelScale));
+            mLevels[id] = level;
+            mLinks[id] = new int[level + 1][];
+            for (int l = 0; l <= level; ++l) {
+                mLinks[id][l] = new int[maxLinks(l) + 1];
+            }
+        }
+        int start = first;
+        if (mEntry < 0) {
+            mEntry = first;
+            mMaxLevel = mLevels[first];
+            ++start;
+        }
+        final int lo = start;
+        forEach(first + count - lo, i -> insert(lo + i));
+        mSize = first + count;
+    }
+
+    private void ensureCapacity(final int capacity) {
+        if (capacity > mLevels.length) {
+            final int newCapacity = Math.max(capacity, mLevels.length + (mLevels.length >> 1));
+            mData = Arrays.copyOf(mData, Math.multiplyExact(newCapacity, mDimension));
+            mLevels = Arrays.copyOf(mLevels, newCapacity);
+            mLinks = Arrays.copyOf(mLinks, newCapacity);
+        }
+    }
+
+    private int maxLinks(final int level) {
+        return level == 0 ? 2 * mM : mM;
+    }
+
+    private float distance(final float[] x, final int xOffset, final int node) {
+        return mMetric.distance(x, xOffset, mData, node * mDimension, mDimension);
+    }
+
+    private void insert(final int node) {
+        final int level = mLevels[node];
+        int entry;
+        final int maxLevel;
+        synchronized (mEntryLock) {
+            entry = mEntry;
+            maxLevel = mMaxLevel;
+        }
+        final int offset = node * mDimension;
+        float entryDist = distance(mData, offset, entry);
+        final int[] buffer = new int[maxLinks(0)];
+        for (int l = maxLevel; l > level; --l) {
+            entry = greedy(mData, offset, entry, entryDist, l, buffer);
+            entryDist = distance(mData, offset, entry);
+        }
+        for (int l = Math.min(level, maxLevel); l >= 0; --l) {
+            final NodeQueue found = searchLayer(mData, offset, entry, entryDist, mEfConstruction, l, buffer);
+            final int n = found.size();
+            final int[] ids = new int[n];
+            final float[] dists = new float[n];
+            for (int k = n - 1; k >= 0; --k) {
+                dists[k] = found.topKey();
+                ids[k] = found.pop();
+            }
+            final int[] selected = selectNeighbors(ids, dists, n, mM);
+            synchronized (mLinks[node]) {
+                final int[] links = mLinks[node][l];
+                links[0] = selected.length;
+                System.arraycopy(selected, 0, links, 1, selected.length);
+            }
+            for (final int neighbor : selected) {
+                connect(neighbor, node, l);
+            }
+            entry = ids[0];
+            entryDist = dists[0];
+        }
+        if (level > maxLevel) {
+            synchronized (mEntryLock) {
+                if (level > mMaxLevel) {
+                    mMaxLevel = level;
+                    mEntry = node;
+                }
+            }
+        }
+    }
+
+    // Add a reverse link, pruning the neighbor's links if that overfills them.
+    private void connect(final int node, final int neighbor, final int level) {
+        synchronized (mLinks[node]) {
+            final int[] links = mLinks[node][level];
+            final int count = links[0];
+            if (count < links.length - 1) {
+                links[count + 1] = neighbor;
+                links[0] = count + 1;
+                return;
+            }
+            final int offset = node * mDimension;
+            final int[] ids = Arrays.copyOfRange(links, 1, count + 2);
+            ids[count] = neighbor;
+            final float[] dists = new float[ids.length];
+            for (int k = 0; k < ids.length; ++k) {
+                dists[k] = distance(mData, offset, ids[k]);
+            }
+            sortByDistance(ids, dists);
+            final int[] selected = selectNeighbors(ids, dists, ids.length, links.length - 1);
+            links[0] = selected.length;
+            System.arraycopy(selected, 0, links, 1, selected.length);
+        }
+    }
+
+    private static void sortByDistance(final int[] ids, final float[] dists) {
+        for (int i = 1; i < ids.length; ++i) {
+            final int id = ids[i];
+            final float d = dists[i];
+            int j = i - 1;
+            while (j >= 0 && dists[j] > d) {
+                ids[j + 1] = ids[j];
+                dists[j + 1] = dists[j];
+                --j;
+            }
+            ids[j + 1] = id;
+            dists[j + 1] = d;
+        }
+    }
+
+    // Keep a candidate only if it is closer to the base point than to every
+    // candidate already kept, so links spread out in different directions.
+    private int[] selectNeighbors(final int[] ids, final float[] dists, final int n, final int m) {
+        final int[] selected = new int[Math.min(n, m)];
+        int count = 0;
+        for (int k = 0; k < n && count < selected.length; ++k) {
+            final int offset = ids[k] * mDimension;
+            boolean keep = true;
+            for (int s = 0; s < count; ++s) {
+                if (distance(mData, offset, selected[s]) < dists[k]) {
+                    keep = false;
+                    break;
+                }
+            }
+            if (keep) {
+                selected[count++] = ids[k];
+            }
+        }
+        return count == selected.length ? selected : Arrays.copyOf(selected, count);
+    }
+
+    private int links(final int node, final int level, final int[] buffer) {
+        synchronized (mLinks[node]) {
+            final int[] links = mLinks[node][level];
+            System.arraycopy(links, 1, buffer, 0, links[0]);
+            return links[0];
+        }
+    }
+
+    private int greedy(final float[] x, final int offset, final int entry, final float entryDist, final int level, final int[] buffer) {
+        int best = entry;
+        float bestDist = entryDist;
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+            final int n = links(best, level, buffer);
+            for (int k = 0; k < n; ++k) {
+                final float d = distance(x, offset, buffer[k]);
+                if (d < bestDist) {
+                    bestDist = d;
+                    best = buffer[k];
+                    changed = true;
+                }
+            }
+        }
+        return best;
+    }
+
+    // Best first search of one layer, returning at most ef nearest as a max queue.
+    private NodeQueue searchLayer(final float[] x, final int offset, final int entry, final float entryDist, final int ef, final int level, final int[] buffer) {
+        final Visited visited = mVisited.get();
+        visited.reset(mLevels.length);
+        final NodeQueue candidates = new NodeQueue(false);
+        final NodeQueue results = new NodeQueue(true);
+        visited.visit(entry);
+        candidates.push(entry, entryDist);
+        results.push(entry, entryDist);
+        while (candidates.size() > 0) {
+            if (candidates.topKey() > results.topKey() && results.size() >= ef) {
+                break;
+            }
+            final int node = candidates.pop();
+            final int n = links(node, level, buffer);
+            for (int k = 0; k < n; ++k) {
+                final int neighbor = buffer[k];
+                if (visited.visit(neighbor)) {
+                    final float d = distance(x, offset, neighbor);
+                    if (results.size() < ef || d < results.topKey()) {
+                        candidates.push(neighbor, d);
+                        results.push(neighbor, d);
+                        if (results.size() > ef) {
+                            results.pop();
+                        }
+                    }
+                }
+            }
+        }
+        return results;
+    }
+
+    @Override
+    public void search(final float[] queries, final int dimension, final int k, final int[][] indices, final float[][] distances) {
+        final int n = queries.length / dimension;
+        final int entry;
+        final int maxLevel;
+        synchronized (this) {
+            if (mSize > 0 && dimension != mDimension) {
+                throw new IllegalArgumentException("Expected queries of dimension " + mDimension + " but got " + dimension);
+            }
+            entry = mSize == 0 ? -1 : mEntry;
+            maxLevel = mMaxLevel;
+        }
+        final int ef = Math.max(mEfSearch, k);
+        forEach(n, q -> {
+            Arrays.fill(indices[q], 0, k, -1);
+            Arrays.fill(distances[q], 0, k, Float.POSITIVE_INFINITY);
+            if (entry < 0) {
+                return;
+            }
+            final int offset = q * dimension;
+            final int[] buffer = new int[maxLinks(0)];
+            int node = entry;
+            float dist = distance(queries, offset, node);
+            for (int l = maxLevel; l > 0; --l) {
+                node = greedy(queries, offset, node, dist, l, buffer);
+                dist = distance(queries, offset, node);
+            }
+            final NodeQueue found = searchLayer(queries, offset, node, dist, ef, 0, buffer);
+            while (found.size() > k) {
+                found.pop();
+            }
+            for (int j = found.size() - 1; j >= 0; --j) {
+                distances[q][j] = found.topKey();
+                indices[q][j] = found.pop();
+            }
+        });
+    }
+
+    private void forEach(final int n, final IntConsumer task) {
+        if (mThreads == 1 || n < 2) {
+            for (int i = 0; i < n; ++i) {
+                task.accept(i);
+            }
+            return;
+        }
+        final ExecutorService executor = Executors.newFixedThreadPool(mThreads);
+        try {
+            final AtomicInteger next = new AtomicInteger();
+            final List<Future<?>> futures = new ArrayList<>(mThreads);
+            for (int t = 0; t < mThreads; ++t) {
+                futures.add(executor.submit(() -> {
+                    for (int i = next.getAndIncrement(); i < n; i = next.getAndIncrement()) {
+                        task.accept(i);
+                    }
+                }));
+            }
+            for (final Future<?> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException | ExecutionException ex) {
+            throw new RuntimeException(ex);
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * Nodes already seen by a search, cleared in constant time by moving to
+     * a new generation.
+     */
+    private static final class Visited {
+        private int[] mMarks = new int[0];
+        private int mGeneration = 0;
+
+        void reset(final int capacity) {
+            if (mMarks.length < capacity) {
+                mMarks = new int[capacity];
+                mGeneration = 0;
+            }
+            if (++mGeneration == Integer.MAX_VALUE) {
+                Arrays.fill(mMarks, 0);
+                mGeneration = 1;
+            }
+        }
+
+        boolean visit(final int node) {
+            if (mMarks[node] == mGeneration) {
+                return false;
+            }
+            mMarks[node] = mGeneration;
+            return true;
+        }
+    }
+
+    /**
+     * Binary heap of nodes keyed by distance, nearest or furthest on top.
+     */
+    private static final class NodeQueue {
+        private final boolean mMax;
+        private int[] mIds = new int[16];
+        private float[] mKeys = new float[16];
+        private int mSize = 0;
+
+        NodeQueue(final boolean max) {
+            mMax = max;
+        }
+
+        int size() {
+            return mSize;
+        }
+
+        float topKey() {
+            return mKeys[0];
+        }
+
+        private boolean above(final float a, final float b) {
+            return mMax ? a > b : a < b;
+        }
+
+        void push(final int id, final float key) {
+            if (mSize == mIds.length) {
+                mIds = Arrays.copyOf(mIds, 2 * mSize);
+                mKeys = Arrays.copyOf(mKeys, 2 * mSize);
+            }
+            int i = mSize++;
+            while (i > 0) {
+                final int parent = (i - 1) >> 1;
+                if (!above(key, mKeys[parent])) {
+                    break;
+                }
+                mIds[i] = mIds[parent];
+                mKeys[i] = mKeys[parent];
+                i = parent;
+            }
+            mIds[i] = id;
+            mKeys[i] = key;
+        }
+
+        int pop() {
+            final int top = mIds[0];
+            final int id = mIds[--mSize];
+            final float key = mKeys[mSize];
+            int i = 0;
+            while (true) {
+                int child = 2 * i + 1;
+                if (child >= mSize) {
+                    break;
+                }
+                if (child + 1 < mSize && above(mKeys[child + 1], mKeys[child])) {
+                    ++child;
+                }
+                if (!above(mKeys[child], key)) {
+                    break;
+                }
+                mIds[i] = mIds[child];
+                mKeys[i] = mKeys[child];
+                i = child;
+            }
+            mIds[i] = id;
+            mKeys[i] = key;
+            return top;
+        }
+    }
+}
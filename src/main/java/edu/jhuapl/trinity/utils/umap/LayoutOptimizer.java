@@ -0,0 +1,203 @@
+/*
+ * BSD 3-Clause License
+ * Copyright (c) 2017, Leland McInnes, 2019 Tag.bio (Java port).
+ * See UMAPLicense.txt.
+ */
+package edu.jhuapl.trinity.utils.umap;
+
+/*-
+ * #%L
+ * trinity
+ * %%
+ * Copyright (C) 2021 - 2023 The Johns Hopkins University Applied Physics Laboratory LLC
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import edu.jhuapl.trinity.utils.umap.metric.ReducedEuclideanMetric;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Stochastic gradient descent over the edges of a fuzzy simplicial set.
+ * Minimizes the fuzzy set cross entropy between the 1-skeletons of the high
+ * dimensional and low dimensional fuzzy simplicial sets by sampling edges based
+ * on their membership strength (with the (1-p) terms coming from negative
+ * sampling similar to word2vec).
+ *
+ * @author Leland McInnes (Python)
+ * @author Sean A. Irvine (Java port)
+ * @author Richard Littin (Java port)
+ */
+class LayoutOptimizer {
+
+    final Matrix mHeadEmbedding;
+    final Matrix mTailEmbedding;
+    final int[] mHead;
+    final int[] mTail;
+    final int mNVertices;
+    final float[] mEpochsPerSample;
+    final float[] mEpochsPerNegativeSample;
+    final float[] mEpochOfNextNegativeSample;
+    final float[] mEpochOfNextSample;
+    final float mA;
+    final float mB;
+    final float mGamma;
+    final boolean mMoveOther;
+
+    /**
+     * Construct a layout optimizer for the given 1-simplices.
+     *
+     * @param headEmbedding      array of shape <code>(nSamples, nComponents)</code>
+     *                           The initial embedding to be improved by SGD.
+     * @param tailEmbedding      array of shape <code>(sourceSamples, nComponents)</code>
+     *                           The reference embedding of embedded points.
+     * @param head               The indices of the heads of 1-simplices with non-zero membership.
+     * @param tail               The indices of the tails of 1-simplices with non-zero membership.
+     * @param nVertices          The number of vertices (0-simplices) in the dataset.
+     * @param epochsPerSample    A float value of the number of epochs per 1-simplex.
+     * @param a                  Parameter of differentiable approximation of right adjoint functor
+     * @param b                  Parameter of differentiable approximation of right adjoint functor
+     * @param gamma              Weight to apply to negative samples.
+     * @param negativeSampleRate Number of negative samples to use per positive sample.
+     */
+    LayoutOptimizer(final Matrix headEmbedding, final Matrix tailEmbedding, final int[] head, final int[] tail, final int nVertices, final float[] epochsPerSample, final float a, final float b, final float gamma, final float negativeSampleRate) {
+        if (!(headEmbedding instanceof DefaultMatrix) && !(headEmbedding instanceof FlatMatrix)) {
+            throw new UnsupportedOperationException("Require matrix we can set entries on");
+        }
+        mHeadEmbedding = headEmbedding;
+        mTailEmbedding = tailEmbedding;
+        mHead = head;
+        mTail = tail;
+        mNVertices = nVertices;
+        mEpochsPerSample = epochsPerSample;
+        mEpochsPerNegativeSample = MathUtils.divide(epochsPerSample, negativeSampleRate);
+        mEpochOfNextNegativeSample = Arrays.copyOf(mEpochsPerNegativeSample, mEpochsPerNegativeSample.length);
+        mEpochOfNextSample = Arrays.copyOf(epochsPerSample, epochsPerSample.length);
+        mA = a;
+        mB = b;
+        mGamma = gamma;
+        mMoveOther = headEmbedding.rows() == tailEmbedding.rows();
+    }
+
+    /**
+     * Run the optimization for the requested number of epochs.
+     *
+     * @param nEpochs      The number of training epochs to use in optimization.
+     * @param initialAlpha Initial learning rate for the SGD.
+     * @param random       Random source
+     * @param verbose      Whether to report information on the current progress of the algorithm.
+     * @return array of shape <code>(nSamples, nComponents)</code> The optimized embedding.
+     */
+    Matrix optimize(final int nEpochs, final float initialAlpha, final Random random, final boolean verbose) {
+        UmapProgress.setPhase("Optimizing Layout");
+        final int reportPeriod = Math.max(1, nEpochs / 100);
+        float alpha = initialAlpha;
+        for (int n = 0; n < nEpochs; ++n) {
+            optimizeEpoch(n, alpha, random);
+
+            alpha = initialAlpha * (1 - (float) n / (float) nEpochs);
+
+            if (verbose && n % reportPeriod == 0) {
+                Utils.message("Completed " + n + "/" + nEpochs);
+            }
+            UmapProgress.update();
+        }
+        return mHeadEmbedding;
+    }
+
+    /**
+     * Perform a single epoch over all 1-simplices.
+     *
+     * @param n      current epoch
+     * @param alpha  current learning rate
+     * @param random Random source
+     */
+    void optimizeEpoch(final int n, final float alpha, final Random random) {
+        optimizeEdges(0, mEpochsPerSample.length, n, alpha, random);
+    }
+
+    /**
+     * Perform one epoch of SGD over the 1-simplices in <code>[lo, hi)</code>.
+     * The per-edge sampling schedules are only touched for edges in the range,
+     * so disjoint ranges may be processed concurrently.
+     *
+     * @param lo     first edge (inclusive)
+     * @param hi     last edge (exclusive)
+     * @param n      current epoch
+     * @param alpha  current learning rate
+     * @param random Random source used for negative sampling
+     */
+    final void optimizeEdges(final int lo, final int hi, final int n, final float alpha, final Random random) {
+        final int dim = mHeadEmbedding.cols();
+        final float a = mA;
+        final float b = mB;
+        for (int i = lo; i < hi; ++i) {
+            if (mEpochOfNextSample[i] <= n) {
+                final int j = mHead[i];
+                final int k = mTail[i];
+                // Note this assumes that "current" is a pointer to the internal matrix data,
+                // not ideal from a data encapsulation point of view.
+                final float[] current = mHeadEmbedding.rowArray(j);
+                final int c = mHeadEmbedding.rowOffset(j);
+                float[] other = mTailEmbedding.rowArray(k);
+                int o = mTailEmbedding.rowOffset(k);
+
+                float distSquared = ReducedEuclideanMetric.SINGLETON.distance(current, c, other, o, dim);
+
+                float gradCoeff;
+                if (distSquared > 0.0) {
+                    gradCoeff = (float) ((-2.0 * a * b * Math.pow(distSquared, b - 1.0)) / (a * Math.pow(distSquared, b) + 1.0));
+                } else {
+                    gradCoeff = 0;
+                }
+
+                for (int d = 0; d < dim; ++d) {
+                    final float gradD = Umap.clip(gradCoeff * (current[c + d] - other[o + d]));
+                    current[c + d] += gradD * alpha;
+                    if (mMoveOther) {
+                        other[o + d] += -gradD * alpha;
+                    }
+                }
+
+                mEpochOfNextSample[i] += mEpochsPerSample[i];
+
+                final int nNegSamples = (int) ((n - mEpochOfNextNegativeSample[i]) / mEpochsPerNegativeSample[i]);
+
+                for (int p = 0; p < nNegSamples; ++p) {
+                    final int kr = random.nextInt(mNVertices);
+                    other = mTailEmbedding.rowArray(kr);
+                    o = mTailEmbedding.rowOffset(kr);
+                    distSquared = ReducedEuclideanMetric.SINGLETON.distance(current, c, other, o, dim);
+
+                    if (distSquared > 0) {
+                        gradCoeff = 2.0F * mGamma * b / (float) ((0.001 + distSquared) * (a * Math.pow(distSquared, b) + 1));
+                    } else if (j == kr) {
+                        continue;
+                    } else {
+                        gradCoeff = 0;
+                    }
+
+                    for (int d = 0; d < dim; ++d) {
+                        final float gradD = gradCoeff > 0.0 ? Umap.clip(gradCoeff * (current[c + d] - other[o + d])) : 4;
+                        current[c + d] += gradD * alpha;
+                    }
+                }
+
+                mEpochOfNextNegativeSample[i] += nNegSamples * mEpochsPerNegativeSample[i];
+            }
+        }
+    }
+}
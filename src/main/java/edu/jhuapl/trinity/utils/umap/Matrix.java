@@ -25,6 +25,8 @@ package edu.jhuapl.trinity.utils.umap;
  * #L%
  */
 
+import edu.jhuapl.trinity.utils.umap.metric.Metric;
+
 import java.util.Arrays;
 
 /**
@@ -327,6 +329,43 @@ public abstract class Matrix {
         return data;
     }
 
+    /**
+     * Array holding a row, for kernels that read a row in place. Together
+     * with rowOffset it addresses the row's values without copying them
+     * when the implementation is dense. Otherwise it is a copy as from row.
+     *
+     * @param row row number to get
+     * @return array holding the row values from rowOffset on
+     */
+    float[] rowArray(final int row) {
+        return row(row);
+    }
+
+    /**
+     * Index of a row's first value within its rowArray.
+     *
+     * @param row row number
+     * @return offset of the row in rowArray
+     */
+    int rowOffset(final int row) {
+        return 0;
+    }
+
+    /**
+     * Distance between a row of this matrix and a row of another, read in
+     * place where the matrices allow it.
+     *
+     * @param metric   metric to measure with
+     * @param row      row of this matrix
+     * @param other    matrix holding the other point, possibly this one
+     * @param otherRow row of the other matrix
+     * @return distance between the rows
+     */
+    float distance(final Metric metric, final int row, final Matrix other, final int otherRow) {
+        return metric.distance(rowArray(row), rowOffset(row),
+            other.rowArray(otherRow), other.rowOffset(otherRow), mColCount);
+    }
+
     Matrix max(final Matrix other) {
         if (!isShapeSame(other)) {
             throw new IllegalArgumentException("Incompatible sizes");
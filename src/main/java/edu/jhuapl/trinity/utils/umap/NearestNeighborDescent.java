@@ -63,9 +63,8 @@ class NearestNeighborDescent {
         final int nVertices = data.rows();
         final Heap currentGraph = new Heap(data.rows(), nNeighbors);
         for (int i = 0; i < data.rows(); ++i) {
-            final float[] iRow = data.row(i);
             for (final int index : Utils.rejectionSample(nNeighbors, data.rows(), random)) {
-                final float d = mMetric.distance(iRow, data.row(index));
+                final float d = data.distance(mMetric, i, data, index);
                 currentGraph.push(i, d, index, true);
                 currentGraph.push(index, d, i, true);
             }
@@ -76,9 +75,8 @@ class NearestNeighborDescent {
             for (final FlatTree tree : forest) {
                 for (final int[] leaf : tree.getIndices()) {
                     for (int i = 0; i < leaf.length; ++i) {
-                        final float[] iRow = data.row(leaf[i]);
                         for (int j = i + 1; j < leaf.length; ++j) {
-                            final float d = mMetric.distance(iRow, data.row(leaf[j]));
+                            final float d = data.distance(mMetric, leaf[i], data, leaf[j]);
                             currentGraph.push(leaf[i], d, leaf[j], true);
                             currentGraph.push(leaf[j], d, leaf[i], true);
                         }
@@ -113,7 +111,7 @@ class NearestNeighborDescent {
                             continue;
                         }
 
-                        final float d = mMetric.distance(data.row(p), data.row(q));
+                        final float d = data.distance(mMetric, p, data, q);
                         if (currentGraph.push(p, d, q, true)) {
                             ++c;
                         }
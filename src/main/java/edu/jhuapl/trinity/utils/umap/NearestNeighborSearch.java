@@ -53,7 +53,7 @@ class NearestNeighborSearch {
                 if (index < 0) {
                     continue;
                 }
-                final float d = mDist.distance(data.row(index), queryPoints.row(i));
+                final float d = data.distance(mDist, index, queryPoints, i);
                 heap.push(i, d, index, true);
             }
         }
@@ -63,7 +63,7 @@ class NearestNeighborSearch {
         for (int i = 0; i < queryPoints.rows(); ++i) {
             final int[] indices = Utils.rejectionSample(nNeighbors, data.rows(), random);
             for (final int index : indices) {
-                final float d = mDist.distance(data.row(index), queryPoints.row(i));
+                final float d = data.distance(mDist, index, queryPoints, i);
                 heap.push(i, d, index, true);
             }
         }
@@ -89,7 +89,7 @@ class NearestNeighborSearch {
                     if (candidate == vertex || candidate == -1 || tried.contains(candidate)) {
                         continue;
                     }
-                    final float d = mDist.distance(data.row(candidate), queryPoints.row(i));
+                    final float d = data.distance(mDist, candidate, queryPoints, i);
                     initialization.uncheckedHeapPush(i, d, candidate, true);
                     tried.add(candidate);
                 }
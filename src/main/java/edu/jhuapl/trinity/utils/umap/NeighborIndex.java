@@ -0,0 +1,71 @@
+/*
+ * BSD 3-Clause License
+ * Copyright (c) 2017, Leland McInnes, 2019 Tag.bio (Java port).
+ * See UMAPLicense.txt.
+ */
+package edu.jhuapl.trinity.utils.umap;
+
+/*-
+ * #%L
+ * trinity
+ * %%
+ * Copyright (C) 2021 - 2023 The Johns Hopkins University Applied Physics Laboratory LLC
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import edu.jhuapl.trinity.utils.umap.metric.Metric;
+
+/**
+ * Service interface for the nearest neighbor index UMAP builds its graph
+ * from. Points are row-major float vectors numbered in the order they were
+ * added, starting from zero. An index given to {@link Umap#setNeighborIndex}
+ * finds the neighbors of the training data during fit, the neighbors of new
+ * data during transform, and keeps growing as a live feed adds points.
+ * <p>
+ * Searches may run concurrently with each other, but implementations need
+ * not support searching while points are being added.
+ */
+public interface NeighborIndex {
+
+    /**
+     * @return the metric distances are measured with
+     */
+    Metric getMetric();
+
+    /**
+     * @return number of points in the index
+     */
+    int size();
+
+    /**
+     * Add points to the index. They are numbered from the current size.
+     *
+     * @param points    row-major array of <code>nPoints * dimension</code> values
+     * @param dimension values per point, the same for every call
+     */
+    void add(float[] points, int dimension);
+
+    /**
+     * Find the nearest indexed points of each query, closest first. Slots
+     * for which no neighbor is found hold index -1 and an infinite distance.
+     *
+     * @param queries   row-major array of <code>nQueries * dimension</code> values
+     * @param dimension values per query
+     * @param k         number of neighbors to find
+     * @param indices   receives the neighbor indices, <code>nQueries</code> rows of at least <code>k</code>
+     * @param distances receives the neighbor distances, <code>nQueries</code> rows of at least <code>k</code>
+     */
+    void search(float[] queries, int dimension, int k, int[][] indices, float[][] distances);
+}
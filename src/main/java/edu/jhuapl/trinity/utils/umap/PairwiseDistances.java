@@ -25,16 +25,11 @@ package edu.jhuapl.trinity.utils.umap;
  * #L%
  */
 
-import edu.jhuapl.trinity.App;
-import edu.jhuapl.trinity.javafx.components.ProgressStatus;
-import edu.jhuapl.trinity.javafx.events.ApplicationEvent;
 import edu.jhuapl.trinity.utils.umap.metric.Metric;
 import edu.jhuapl.trinity.utils.umap.metric.PrecomputedMetric;
-import javafx.application.Platform;
-import javafx.scene.Scene;
-import javafx.scene.paint.Color;
 
 import java.util.ArrayList;
+import java.util.stream.IntStream;
 
 /**
  * Compute pairwise distances between instances using a specified metric.
@@ -45,10 +40,14 @@ import java.util.ArrayList;
 public class PairwiseDistances {
 
     // replacement for sklearn.pairwise_distances
+
+    // target size of the pair of row tiles being compared, chosen to sit comfortably in L2
+    private static final int TILE_BYTES = 1 << 17;
+    private static final int MIN_TILE_ROWS = 8;
+    private static final int MAX_TILE_ROWS = 256;
     int rowIndex;
     float[] xkRow;
     float[] kjDistances;
-    private static int count = 0;
 
 
     public PairwiseDistances(int rowIndex, int totalRows, float[] xkRow) {
@@ -57,6 +56,10 @@ public class PairwiseDistances {
         kjDistances = new float[totalRows]; //distances matrix will be n x n
     }
 
+    PairwiseDistances(int rowIndex, int totalRows) {
+        this(rowIndex, totalRows, null);
+    }
+
     static Matrix parallelPairwise(final Matrix x, final Metric metric, boolean mVerbose) {
         if (PrecomputedMetric.SINGLETON.equals(metric)) {
             return x;
@@ -65,44 +68,88 @@ public class PairwiseDistances {
         final float[][] distances = new float[n][n];
         ArrayList<PairwiseDistances> pdList = new ArrayList<>(n);
         for (int k = 0; k < n; ++k) {
-            pdList.add(new PairwiseDistances(k, n, x.row(k)));
+            pdList.add(new PairwiseDistances(k, n));
         }
-        Scene scene = App.getAppScene();
-        count = 0; //this is the start of the hack
-        int percent = 100;
-        if (n < 100)
-            percent = 10;
-        if (n < 10)
-            percent = 1;
-        int updatePercent = n / percent;
+        UmapProgress.setPhase("Computing Pairwise Distances");
+        UmapProgress.incTotal(n);
 
         pdList.parallelStream()
-            .peek(e -> {
-                count++;
-                if (count % updatePercent == 0) {
-                    double percentComplete = Double.valueOf(count) / Double.valueOf(n);
-                    Platform.runLater(() -> {
-                        ProgressStatus ps = new ProgressStatus(
-                            "Computing Pairwise Distances...", percentComplete);
-                        ps.fillStartColor = Color.AZURE;
-                        ps.fillEndColor = Color.LIME;
-                        ps.innerStrokeColor = Color.AZURE;
-                        ps.outerStrokeColor = Color.LIME;
-                        scene.getRoot().fireEvent(
-                            new ApplicationEvent(ApplicationEvent.UPDATE_BUSY_INDICATOR, ps));
-                    });
-                }
-            })
             .forEach(row -> {
                 for (int j = 0; j < n; ++j) {
-                    row.kjDistances[j] = metric.distance(row.xkRow, x.row(j));
+                    row.kjDistances[j] = x.distance(metric, row.rowIndex, x, j);
                 }
                 System.arraycopy(row.kjDistances, 0, distances[row.rowIndex], 0, row.kjDistances.length);
+                UmapProgress.update();
             });
 
         return new DefaultMatrix(distances);
     }
 
+    /**
+     * Number of rows per tile so that two tiles of rows fit in roughly <code>TILE_BYTES</code>.
+     *
+     * @param cols number of attributes per row
+     * @return rows per tile
+     */
+    static int tileRows(final int cols) {
+        final int rows = TILE_BYTES / (2 * Float.BYTES * Math.max(1, cols));
+        return Math.max(MIN_TILE_ROWS, Math.min(MAX_TILE_ROWS, rows));
+    }
+
+    /**
+     * Compute all pairwise distances of a symmetric metric in parallel. Only the
+     * upper triangle is computed, each distance exactly once, and it is written
+     * directly into packed storage. The work is split into square tiles of rows
+     * so that both tiles being compared stay in cache while every pair between
+     * them is visited. Progress is reported once per tile.
+     *
+     * @param x        instances
+     * @param metric   distance function, assumed symmetric
+     * @param mVerbose true to report progress
+     * @return symmetric matrix of distances
+     */
+    static Matrix symmetricPairwise(final Matrix x, final Metric metric, final boolean mVerbose) {
+        if (PrecomputedMetric.SINGLETON.equals(metric)) {
+            return x;
+        }
+        final int n = x.rows();
+        final SymmetricMatrix result = new SymmetricMatrix(n);
+        final float[] packed = result.data();
+        final int tile = tileRows(x.cols());
+        final int nTiles = (n + tile - 1) / tile;
+        // tile pairs (ti, tj) with ti <= tj, enumerated row by row
+        final int nPairs = nTiles * (nTiles + 1) / 2;
+        final int[] pairRow = new int[nPairs];
+        final int[] pairCol = new int[nPairs];
+        for (int ti = 0, p = 0; ti < nTiles; ++ti) {
+            for (int tj = ti; tj < nTiles; ++tj, ++p) {
+                pairRow[p] = ti;
+                pairCol[p] = tj;
+            }
+        }
+        if (mVerbose) {
+            Utils.message("computing " + n + " symmetric pairwise distances in " + nPairs + " tiles");
+        }
+        UmapProgress.setPhase("Computing Pairwise Distances");
+        UmapProgress.incTotal(nPairs);
+
+        IntStream.range(0, nPairs).parallel().forEach(p -> {
+            final int iLo = pairRow[p] * tile;
+            final int iHi = Math.min(iLo + tile, n);
+            final int jLo = pairCol[p] * tile;
+            final int jHi = Math.min(jLo + tile, n);
+            for (int i = iLo; i < iHi; ++i) {
+                final int rowBase = result.rowOffset(i) - i;
+                for (int j = Math.max(i, jLo); j < jHi; ++j) {
+                    packed[rowBase + j] = x.distance(metric, i, x, j);
+                }
+            }
+            UmapProgress.update();
+        });
+
+        return result;
+    }
+
     static Matrix pairwiseDistances(final Matrix x, final Metric metric) {
         return pairwiseDistances(x, metric, false);
     }
@@ -116,18 +163,44 @@ public class PairwiseDistances {
         if (mVerbose) {
             Utils.message("computing " + n + " squared pairwise distances");
         }
+        final int reportPeriod = Math.max(1, n / 100);
         for (int k = 0; k < n; ++k) {
-            final float[] xk = x.row(k);
             for (int j = 0; j < n; ++j) {
-                distances[k][j] = metric.distance(xk, x.row(j));
+                distances[k][j] = x.distance(metric, k, x, j);
             }
-            if (mVerbose && k % (n / 100) == 0) {
+            if (mVerbose && k % reportPeriod == 0) {
                 Utils.message(k + " of " + n + " rows computed...");
             }
         }
         return new DefaultMatrix(distances);
     }
 
+    /**
+     * Find the <code>nNeighbors</code> nearest rows of <code>y</code> to each row of <code>x</code> by
+     * exhaustive search. Distances from a row of <code>x</code> are streamed through a bounded
+     * max-heap, so the full distance matrix is never materialized and no row is fully sorted.
+     * Rows of <code>x</code> are processed in parallel.
+     *
+     * @param x          query instances
+     * @param y          reference instances
+     * @param nNeighbors number of neighbors to keep
+     * @param metric     distance function
+     * @return heap of shape <code>(x.rows(), nNeighbors)</code>, each row sorted by increasing distance
+     */
+    static Heap nearestNeighbors(final Matrix x, final Matrix y, final int nNeighbors, final Metric metric) {
+        if (PrecomputedMetric.SINGLETON.equals(metric)) {
+            throw new IllegalArgumentException("Cannot use this method with precomputed");
+        }
+        final int yn = y.rows();
+        final Heap heap = new Heap(x.rows(), nNeighbors);
+        IntStream.range(0, x.rows()).parallel().forEach(k -> {
+            for (int j = 0; j < yn; ++j) {
+                heap.uncheckedHeapPush(k, x.distance(metric, k, y, j), j, false);
+            }
+        });
+        return heap.deheapSort();
+    }
+
     static Matrix pairwiseDistances(final Matrix x, final Matrix y, final Metric metric) {
         if (PrecomputedMetric.SINGLETON.equals(metric)) {
             throw new IllegalArgumentException("Cannot use this method with precomputed");
@@ -136,9 +209,8 @@ public class PairwiseDistances {
         final int yn = y.rows();
         final float[][] distances = new float[xn][yn];
         for (int k = 0; k < xn; ++k) {
-            final float[] xk = x.row(k);
             for (int j = 0; j < yn; ++j) {
-                distances[k][j] = metric.distance(xk, y.row(j));
+                distances[k][j] = x.distance(metric, k, y, j);
             }
         }
         return new DefaultMatrix(distances);
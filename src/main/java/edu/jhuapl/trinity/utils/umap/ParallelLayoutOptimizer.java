@@ -0,0 +1,109 @@
+/*
+ * BSD 3-Clause License
+ * Copyright (c) 2017, Leland McInnes, 2019 Tag.bio (Java port).
+ * See UMAPLicense.txt.
+ */
+package edu.jhuapl.trinity.utils.umap;
+
+/*-
+ * #%L
+ * trinity
+ * %%
+ * Copyright (C) 2021 - 2023 The Johns Hopkins University Applied Physics Laboratory LLC
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Multi-threaded layout optimization. The 1-simplices are partitioned into
+ * contiguous ranges which are optimized concurrently within each epoch without
+ * any locking on the embedding (in the style of Hogwild! SGD). Occasional lost
+ * updates on rows shared between ranges are tolerated by the optimization.
+ * Each range has its own random source for negative sampling so threads do not
+ * contend on a shared generator.
+ */
+class ParallelLayoutOptimizer extends LayoutOptimizer {
+
+    private final int mThreads;
+    private ExecutorService mExecutor;
+    private Random[] mRandoms;
+
+    /**
+     * Construct a parallel layout optimizer for the given 1-simplices.
+     *
+     * @param headEmbedding      array of shape <code>(nSamples, nComponents)</code>
+     *                           The initial embedding to be improved by SGD.
+     * @param tailEmbedding      array of shape <code>(sourceSamples, nComponents)</code>
+     *                           The reference embedding of embedded points.
+     * @param head               The indices of the heads of 1-simplices with non-zero membership.
+     * @param tail               The indices of the tails of 1-simplices with non-zero membership.
+     * @param nVertices          The number of vertices (0-simplices) in the dataset.
+     * @param epochsPerSample    A float value of the number of epochs per 1-simplex.
+     * @param a                  Parameter of differentiable approximation of right adjoint functor
+     * @param b                  Parameter of differentiable approximation of right adjoint functor
+     * @param gamma              Weight to apply to negative samples.
+     * @param negativeSampleRate Number of negative samples to use per positive sample.
+     * @param threads            number of threads
+     */
+    ParallelLayoutOptimizer(final Matrix headEmbedding, final Matrix tailEmbedding, final int[] head, final int[] tail, final int nVertices, final float[] epochsPerSample, final float a, final float b, final float gamma, final float negativeSampleRate, final int threads) {
+        super(headEmbedding, tailEmbedding, head, tail, nVertices, epochsPerSample, a, b, gamma, negativeSampleRate);
+        if (threads < 1) {
+            throw new IllegalArgumentException();
+        }
+        mThreads = threads;
+    }
+
+    @Override
+    Matrix optimize(final int nEpochs, final float initialAlpha, final Random random, final boolean verbose) {
+        final int jobs = Math.min((int) (mThreads * (1 + MathUtils.log2(mThreads))), Math.max(1, mEpochsPerSample.length));
+        mRandoms = Utils.splitRandom(random, jobs);
+        mExecutor = Executors.newFixedThreadPool(mThreads);
+        try {
+            return super.optimize(nEpochs, initialAlpha, random, verbose);
+        } finally {
+            mExecutor.shutdown();
+            mExecutor = null;
+            mRandoms = null;
+        }
+    }
+
+    @Override
+    void optimizeEpoch(final int n, final float alpha, final Random random) {
+        final int nEdges = mEpochsPerSample.length;
+        final int jobs = mRandoms.length;
+        final int chunkSize = (nEdges + jobs - 1) / jobs;
+        final List<Future<?>> futures = new ArrayList<>(jobs);
+        for (int t = 0; t < jobs; ++t) {
+            final int lo = t * chunkSize;
+            final int hi = Math.min((t + 1) * chunkSize, nEdges);
+            final Random rand = mRandoms[t];
+            futures.add(mExecutor.submit(() -> optimizeEdges(lo, hi, n, alpha, rand)));
+        }
+        try {
+            for (final Future<?> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException | ExecutionException ex) {
+            throw new RuntimeException(ex);
+        }
+    }
+}
@@ -29,10 +29,16 @@ package edu.jhuapl.trinity.utils.umap;
 public class ProgressState {
     private final int mTotal;
     private final int mCount;
+    private final String mPhase;
 
     protected ProgressState(final int total, final int count) {
+        this(total, count, "");
+    }
+
+    protected ProgressState(final int total, final int count, final String phase) {
         mTotal = total;
         mCount = count;
+        mPhase = phase;
     }
 
     public int getTotal() {
@@ -42,4 +48,25 @@ public class ProgressState {
     public int getCount() {
         return mCount;
     }
+
+    /**
+     * @return description of the stage of the algorithm currently running
+     */
+    public String getPhase() {
+        return mPhase;
+    }
+
+    /**
+     * @return fraction of the work completed, between 0 and 1
+     */
+    public double getFraction() {
+        return mTotal <= 0 ? 0.0 : Math.min(1.0, (double) mCount / (double) mTotal);
+    }
+
+    /**
+     * @return true once all the work has been completed
+     */
+    public boolean isFinished() {
+        return mTotal > 0 && mCount >= mTotal;
+    }
 }
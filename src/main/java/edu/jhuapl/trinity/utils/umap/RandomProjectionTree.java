@@ -76,8 +76,12 @@ final class RandomProjectionTree {
         final int left = indices[leftIndex];
         final int right = indices[rightIndex];
 
-        float leftNorm = Utils.norm(data.row(left));
-        float rightNorm = Utils.norm(data.row(right));
+        final float[] leftRow = data.rowArray(left);
+        final int leftOffset = data.rowOffset(left);
+        final float[] rightRow = data.rowArray(right);
+        final int rightOffset = data.rowOffset(right);
+        float leftNorm = Utils.norm(leftRow, leftOffset, dim);
+        float rightNorm = Utils.norm(rightRow, rightOffset, dim);
 
         if (Math.abs(leftNorm) < EPS) {
             leftNorm = 1;
@@ -91,7 +95,7 @@ final class RandomProjectionTree {
         final float[] hyperplaneVector = new float[dim];
 
         for (int d = 0; d < dim; ++d) {
-            hyperplaneVector[d] = (data.get(left, d) / leftNorm) - (data.get(right, d) / rightNorm);
+            hyperplaneVector[d] = (leftRow[leftOffset + d] / leftNorm) - (rightRow[rightOffset + d] / rightNorm);
         }
 
         float hyperplaneNorm = Utils.norm(hyperplaneVector);
@@ -111,8 +115,10 @@ final class RandomProjectionTree {
         final boolean[] side = new boolean[indices.length];
         for (int i = 0; i < indices.length; ++i) {
             float margin = 0;
+            final float[] row = data.rowArray(indices[i]);
+            final int offset = data.rowOffset(indices[i]);
             for (int d = 0; d < dim; ++d) {
-                margin += hyperplaneVector[d] * data.get(indices[i], d);
+                margin += hyperplaneVector[d] * row[offset + d];
             }
 
             if (Math.abs(margin) < EPS) {
@@ -182,10 +188,13 @@ final class RandomProjectionTree {
         float hyperplaneOffset = 0;
         final float[] hyperplaneVector = new float[dim];
 
-        // todo what is the matrix type here?  Getting multiple values from same row ...
+        final float[] leftRow = data.rowArray(left);
+        final int leftOffset = data.rowOffset(left);
+        final float[] rightRow = data.rowArray(right);
+        final int rightOffset = data.rowOffset(right);
         for (int d = 0; d < dim; ++d) {
-            final float ld = data.get(left, d);
-            final float rd = data.get(right, d);
+            final float ld = leftRow[leftOffset + d];
+            final float rd = rightRow[rightOffset + d];
             final float delta = ld - rd;
             hyperplaneVector[d] = delta;
             hyperplaneOffset -= delta * (ld + rd);
@@ -200,8 +209,10 @@ final class RandomProjectionTree {
         final boolean[] side = new boolean[indices.length];
         for (int i = 0; i < indices.length; ++i) {
             float margin = hyperplaneOffset;
+            final float[] row = data.rowArray(indices[i]);
+            final int offset = data.rowOffset(indices[i]);
             for (int d = 0; d < dim; ++d) {
-                margin += hyperplaneVector[d] * data.get(indices[i], d);
+                margin += hyperplaneVector[d] * row[offset + d];
             }
             if (margin >= EPS) {
                 //side[i] = false;
@@ -25,45 +25,96 @@ package edu.jhuapl.trinity.utils.umap;
  * #L%
  */
 
-import java.util.Set;
-import java.util.TreeSet;
+import java.io.IOException;
+import java.util.Arrays;
 
 /**
- * Stores unordered pairs.
+ * Stores unordered pairs, as a sorted array of the partners of each instance.
  *
  * @author Sean A. Irvine
  * @author Richard Littin
  */
 class SearchGraph {
 
-    private final TreeSet<Integer>[] mRows;
+    private final int[][] mRows;
 
-    @SuppressWarnings("unchecked")
-    SearchGraph(final int rows) {
-        mRows = (TreeSet<Integer>[]) new TreeSet[rows];
-        for (int k = 0; k < rows; ++k) {
-            mRows[k] = new TreeSet<>();
-        }
+    private SearchGraph(final int[][] rows) {
+        mRows = rows;
     }
 
     /**
-     * Set the unordered pair of instances.
+     * Pair every instance with each of its nearest neighbors, except those at
+     * distance zero.
      *
-     * @param x instance index
-     * @param y instance index
+     * @param rows    number of instances
+     * @param indices nearest neighbor indices of each instance
+     * @param dists   nearest neighbor distances of each instance
+     * @return search graph
      */
-    void set(final int x, final int y) {
-        mRows[x].add(y);
-        mRows[y].add(x);
+    static SearchGraph fromNeighbors(final int rows, final int[][] indices, final float[][] dists) {
+        final int[] degree = new int[rows];
+        for (int k = 0; k < indices.length; ++k) {
+            for (int j = 0; j < indices[k].length; ++j) {
+                if (dists[k][j] != 0 && indices[k][j] >= 0) {
+                    ++degree[k];
+                    ++degree[indices[k][j]];
+                }
+            }
+        }
+        final int[][] pairs = new int[rows][];
+        for (int k = 0; k < rows; ++k) {
+            pairs[k] = new int[degree[k]];
+        }
+        Arrays.fill(degree, 0);
+        for (int k = 0; k < indices.length; ++k) {
+            for (int j = 0; j < indices[k].length; ++j) {
+                final int y = indices[k][j];
+                if (dists[k][j] != 0 && y >= 0) {
+                    pairs[k][degree[k]++] = y;
+                    pairs[y][degree[y]++] = k;
+                }
+            }
+        }
+        for (int k = 0; k < rows; ++k) {
+            pairs[k] = distinct(pairs[k]);
+        }
+        return new SearchGraph(pairs);
+    }
+
+    private static int[] distinct(final int[] a) {
+        Arrays.sort(a);
+        int len = 0;
+        for (int k = 0; k < a.length; ++k) {
+            if (len == 0 || a[len - 1] != a[k]) {
+                a[len++] = a[k];
+            }
+        }
+        return len == a.length ? a : Arrays.copyOf(a, len);
     }
 
     /**
-     * Set of indices for an instance.
+     * Instances paired with an instance, in increasing order.
      *
      * @param row instance number
-     * @return set of instance numbers
+     * @return instance numbers
      */
-    Set<Integer> row(final int row) {
+    int[] row(final int row) {
         return mRows[row];
     }
+
+    void write(final UmapModelFile.Writer out) throws IOException {
+        out.writeInt(mRows.length);
+        for (final int[] row : mRows) {
+            out.writeInt(row.length);
+            out.writeInts(row, 0, row.length);
+        }
+    }
+
+    static SearchGraph read(final UmapModelFile.Reader in) throws IOException {
+        final int[][] rows = new int[in.readCount()][];
+        for (int k = 0; k < rows.length; ++k) {
+            rows[k] = in.readInts(in.readCount());
+        }
+        return new SearchGraph(rows);
+    }
 }
@@ -0,0 +1,397 @@
+/*
+ * BSD 3-Clause License
+ * Copyright (c) 2017, Leland McInnes, 2019 Tag.bio (Java port).
+ * See UMAPLicense.txt.
+ */
+package edu.jhuapl.trinity.utils.umap;
+
+/*-
+ * #%L
+ * trinity
+ * %%
+ * Copyright (C) 2021 - 2023 The Johns Hopkins University Applied Physics Laboratory LLC
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+/**
+ * Spectral initialisation of the low dimensional embedding. The layout is
+ * given by the eigenvectors belonging to the smallest non-trivial eigenvalues
+ * of the symmetric normalised Laplacian <code>I - D^-1/2 W D^-1/2</code> of
+ * the fuzzy graph, found with the locally optimal block preconditioned
+ * conjugate gradient method (LOBPCG) so only sparse matrix-vector products
+ * against the graph are ever needed.
+ */
+final class Spectral {
+
+    private static final int MAX_ITERATIONS = 200;
+    // residual norm of the unit eigenvectors, an initialisation needs no more
+    private static final double TOLERANCE = 1e-3;
+    // extra block vectors speed convergence of the wanted ones
+    private static final int GUARD_VECTORS = 2;
+    private static final double DROP_TOLERANCE = 1e-10;
+
+    private Spectral() {
+    }
+
+    /**
+     * Compute a spectral layout of a symmetric graph. Returns null when the
+     * graph is not connected (or has isolated vertices), as then the trivial
+     * eigenvalue is repeated and the eigenvectors only separate components;
+     * callers should fall back to another initialisation in that case. If the
+     * iteration limit is reached first the current approximations are returned,
+     * they are still smooth over the graph and make a good starting layout.
+     *
+     * @param graph  symmetric weighted adjacency matrix
+     * @param dim    dimension of the layout
+     * @param random randomness source for the starting block
+     * @return array of shape <code>(nVertices, dim)</code> or null
+     */
+    static float[][] spectralLayout(final CsrMatrix graph, final int dim, final Random random) {
+        final int n = graph.rows();
+        final int k = dim + GUARD_VECTORS;
+        if (n <= 3 * k + 1) {
+            return null;
+        }
+        final int[] indptr = graph.indptr();
+        final int[] indices = graph.indices();
+        final float[] weights = graph.data();
+
+        final double[] invSqrtDegree = new double[n];
+        for (int i = 0; i < n; ++i) {
+            double degree = 0;
+            for (int j = indptr[i]; j < indptr[i + 1]; ++j) {
+                degree += weights[j];
+            }
+            if (degree <= 0) {
+                return null;
+            }
+            invSqrtDegree[i] = 1 / Math.sqrt(degree);
+        }
+        if (!isConnected(indptr, indices, n)) {
+            return null;
+        }
+        // D^-1/2 W D^-1/2, whose largest eigenvalues are the smallest of the Laplacian
+        final double[] normalized = new double[weights.length];
+        for (int i = 0; i < n; ++i) {
+            for (int j = indptr[i]; j < indptr[i + 1]; ++j) {
+                normalized[j] = weights[j] * invSqrtDegree[i] * invSqrtDegree[indices[j]];
+            }
+        }
+        final Operator op = new Operator(indptr, indices, normalized);
+
+        // D^1/2 1 is the trivial eigenvector, keep everything orthogonal to it
+        final double[] trivial = new double[n];
+        for (int i = 0; i < n; ++i) {
+            trivial[i] = 1 / invSqrtDegree[i];
+        }
+        normalize(trivial);
+
+        final List<double[]> start = new ArrayList<>();
+        for (int c = 0; c < k; ++c) {
+            final double[] v = new double[n];
+            for (int i = 0; i < n; ++i) {
+                v[i] = random.nextGaussian();
+            }
+            start.add(v);
+        }
+        double[][] x = orthonormalize(start, trivial);
+        if (x.length < k) {
+            return null;
+        }
+        double[][] ax = op.apply(x);
+        double[][] p = null;
+        for (int iter = 0; iter < MAX_ITERATIONS; ++iter) {
+            final double[] theta = rayleighQuotients(x, ax);
+            final List<double[]> basis = new ArrayList<>(Arrays.asList(x));
+            boolean converged = true;
+            for (int c = 0; c < k; ++c) {
+                final double[] r = new double[n];
+                for (int i = 0; i < n; ++i) {
+                    r[i] = ax[c][i] - theta[c] * x[c][i];
+                }
+                if (c < dim && norm(r) > TOLERANCE) {
+                    converged = false;
+                }
+                basis.add(r);
+            }
+            if (converged && iter > 0) {
+                break;
+            }
+            if (p != null) {
+                basis.addAll(Arrays.asList(p));
+            }
+            final double[][] s = orthonormalize(basis, trivial);
+            final double[][] as = op.apply(s);
+            final int m = s.length;
+            final double[][] gram = new double[m][m];
+            for (int a = 0; a < m; ++a) {
+                for (int b = a; b < m; ++b) {
+                    gram[a][b] = gram[b][a] = dot(s[a], as[b]);
+                }
+            }
+            final double[][] vectors = new double[m][m];
+            final int[] order = descending(symmetricEigen(gram, vectors));
+            final double[][] nextX = new double[k][n];
+            final double[][] nextAx = new double[k][n];
+            final double[][] nextP = m > k ? new double[k][n] : null;
+            for (int c = 0; c < k; ++c) {
+                final int col = order[c];
+                for (int a = 0; a < m; ++a) {
+                    final double coefficient = vectors[a][col];
+                    final double[] target = a < k || nextP == null ? nextX[c] : nextP[c];
+                    final double[] src = s[a];
+                    final double[] asrc = as[a];
+                    final double[] atarget = nextAx[c];
+                    for (int i = 0; i < n; ++i) {
+                        target[i] += coefficient * src[i];
+                        atarget[i] += coefficient * asrc[i];
+                    }
+                }
+                if (nextP != null) {
+                    for (int i = 0; i < n; ++i) {
+                        nextX[c][i] += nextP[c][i];
+                    }
+                }
+            }
+            x = nextX;
+            ax = nextAx;
+            p = nextP;
+        }
+
+        // order by decreasing Rayleigh quotient of the operator, i.e. increasing Laplacian eigenvalue
+        final int[] order = descending(rayleighQuotients(x, ax));
+        final float[][] layout = new float[n][dim];
+        for (int c = 0; c < dim; ++c) {
+            final double[] v = x[order[c]];
+            for (int i = 0; i < n; ++i) {
+                if (!Double.isFinite(v[i])) {
+                    return null;
+                }
+                layout[i][c] = (float) v[i];
+            }
+        }
+        return layout;
+    }
+
+    /**
+     * Rescale a layout so its largest absolute coordinate is <code>scale</code>
+     * and add a little gaussian noise to avoid local minima in the optimization.
+     *
+     * @param layout layout to rescale in place
+     * @param scale  largest absolute coordinate after scaling
+     * @param noise  standard deviation of the added noise
+     * @param random randomness source
+     * @return the rescaled layout
+     */
+    static float[][] noisyScale(final float[][] layout, final float scale, final float noise, final Random random) {
+        float max = 0;
+        for (final float[] row : layout) {
+            for (final float v : row) {
+                max = Math.max(max, Math.abs(v));
+            }
+        }
+        final float expansion = max > 0 ? scale / max : 1;
+        for (final float[] row : layout) {
+            for (int j = 0; j < row.length; ++j) {
+                row[j] = row[j] * expansion + (float) (random.nextGaussian() * noise);
+            }
+        }
+        return layout;
+    }
+
+    private static boolean isConnected(final int[] indptr, final int[] indices, final int n) {
+        final boolean[] seen = new boolean[n];
+        final int[] queue = new int[n];
+        int head = 0;
+        int tail = 0;
+        queue[tail++] = 0;
+        seen[0] = true;
+        while (head < tail) {
+            final int i = queue[head++];
+            for (int j = indptr[i]; j < indptr[i + 1]; ++j) {
+                final int neighbor = indices[j];
+                if (!seen[neighbor]) {
+                    seen[neighbor] = true;
+                    queue[tail++] = neighbor;
+                }
+            }
+        }
+        return tail == n;
+    }
+
+    private static final class Operator {
+        private final int[] mIndptr;
+        private final int[] mIndices;
+        private final double[] mData;
+
+        Operator(final int[] indptr, final int[] indices, final double[] data) {
+            mIndptr = indptr;
+            mIndices = indices;
+            mData = data;
+        }
+
+        double[][] apply(final double[][] vectors) {
+            final int m = vectors.length;
+            final double[][] res = new double[m][mIndptr.length - 1];
+            // one pass over the graph for the whole block, rows are independent
+            IntStream.range(0, mIndptr.length - 1).parallel().forEach(i -> {
+                for (int j = mIndptr[i]; j < mIndptr[i + 1]; ++j) {
+                    final double w = mData[j];
+                    final int col = mIndices[j];
+                    for (int c = 0; c < m; ++c) {
+                        res[c][i] += w * vectors[c][col];
+                    }
+                }
+            });
+            return res;
+        }
+    }
+
+    // Twice-iterated modified Gram-Schmidt, also orthogonal to the locked vector.
+    // Columns that are numerically dependent on earlier ones are dropped.
+    private static double[][] orthonormalize(final List<double[]> vectors, final double[] locked) {
+        final List<double[]> basis = new ArrayList<>();
+        for (final double[] vector : vectors) {
+            final double[] v = Arrays.copyOf(vector, vector.length);
+            final double original = norm(v);
+            if (original == 0 || !Double.isFinite(original)) {
+                continue;
+            }
+            for (int pass = 0; pass < 2; ++pass) {
+                subtract(v, locked, dot(v, locked));
+                for (final double[] b : basis) {
+                    subtract(v, b, dot(v, b));
+                }
+            }
+            if (norm(v) > DROP_TOLERANCE * original) {
+                normalize(v);
+                basis.add(v);
+            }
+        }
+        return basis.toArray(new double[0][]);
+    }
+
+    private static double[] rayleighQuotients(final double[][] x, final double[][] ax) {
+        final double[] theta = new double[x.length];
+        for (int c = 0; c < x.length; ++c) {
+            theta[c] = dot(x[c], ax[c]) / dot(x[c], x[c]);
+        }
+        return theta;
+    }
+
+    private static int[] descending(final double[] values) {
+        final Integer[] order = new Integer[values.length];
+        for (int i = 0; i < order.length; ++i) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> Double.compare(values[b], values[a]));
+        final int[] res = new int[order.length];
+        for (int i = 0; i < order.length; ++i) {
+            res[i] = order[i];
+        }
+        return res;
+    }
+
+    /**
+     * Cyclic Jacobi eigenvalue decomposition of a small dense symmetric matrix.
+     *
+     * @param matrix  symmetric matrix, destroyed by the decomposition
+     * @param vectors receives the eigenvectors as columns
+     * @return the eigenvalues
+     */
+    static double[] symmetricEigen(final double[][] matrix, final double[][] vectors) {
+        final int m = matrix.length;
+        for (int i = 0; i < m; ++i) {
+            Arrays.fill(vectors[i], 0);
+            vectors[i][i] = 1;
+        }
+        for (int sweep = 0; sweep < 100; ++sweep) {
+            double off = 0;
+            for (int i = 0; i < m; ++i) {
+                for (int j = i + 1; j < m; ++j) {
+                    off += matrix[i][j] * matrix[i][j];
+                }
+            }
+            if (off < 1e-30) {
+                break;
+            }
+            for (int p = 0; p < m; ++p) {
+                for (int q = p + 1; q < m; ++q) {
+                    if (matrix[p][q] == 0) {
+                        continue;
+                    }
+                    final double tau = (matrix[q][q] - matrix[p][p]) / (2 * matrix[p][q]);
+                    final double t = Math.signum(tau == 0 ? 1 : tau) / (Math.abs(tau) + Math.sqrt(1 + tau * tau));
+                    final double c = 1 / Math.sqrt(1 + t * t);
+                    final double s = t * c;
+                    for (int r = 0; r < m; ++r) {
+                        final double arp = matrix[r][p];
+                        final double arq = matrix[r][q];
+                        matrix[r][p] = c * arp - s * arq;
+                        matrix[r][q] = s * arp + c * arq;
+                    }
+                    for (int r = 0; r < m; ++r) {
+                        final double apr = matrix[p][r];
+                        final double aqr = matrix[q][r];
+                        matrix[p][r] = c * apr - s * aqr;
+                        matrix[q][r] = s * apr + c * aqr;
+                    }
+                    for (int r = 0; r < m; ++r) {
+                        final double vrp = vectors[r][p];
+                        final double vrq = vectors[r][q];
+                        vectors[r][p] = c * vrp - s * vrq;
+                        vectors[r][q] = s * vrp + c * vrq;
+                    }
+                }
+            }
+        }
+        final double[] values = new double[m];
+        for (int i = 0; i < m; ++i) {
+            values[i] = matrix[i][i];
+        }
+        return values;
+    }
+
+    private static double dot(final double[] a, final double[] b) {
+        double sum = 0;
+        for (int i = 0; i < a.length; ++i) {
+            sum += a[i] * b[i];
+        }
+        return sum;
+    }
+
+    private static double norm(final double[] a) {
+        return Math.sqrt(dot(a, a));
+    }
+
+    private static void normalize(final double[] a) {
+        final double len = norm(a);
+        for (int i = 0; i < a.length; ++i) {
+            a[i] /= len;
+        }
+    }
+
+    private static void subtract(final double[] a, final double[] b, final double scale) {
+        for (int i = 0; i < a.length; ++i) {
+            a[i] -= scale * b[i];
+        }
+    }
+}
@@ -0,0 +1,153 @@
+/*
+ * BSD 3-Clause License
+ * Copyright (c) 2017, Leland McInnes, 2019 Tag.bio (Java port).
+ * See UMAPLicense.txt.
+ */
+package edu.jhuapl.trinity.utils.umap;
+
+/*-
+ * #%L
+ * trinity
+ * %%
+ * Copyright (C) 2021 - 2023 The Johns Hopkins University Applied Physics Laboratory LLC
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+/**
+ * A square symmetric matrix storing only its upper triangle (including the
+ * diagonal) packed row by row into a single array. Setting an entry also sets
+ * its mirror.
+ */
+class SymmetricMatrix extends Matrix {
+
+    private final float[] mData;
+
+    /**
+     * Construct a new zero symmetric matrix of specified size.
+     *
+     * @param n number of rows and columns
+     */
+    SymmetricMatrix(final int n) {
+        this(n, new float[(int) packedLength(n)]);
+    }
+
+    /**
+     * Construct a matrix backed by the given packed upper triangle. Note the
+     * array is NOT copied.
+     *
+     * @param n    number of rows and columns
+     * @param data packed upper triangle of length <code>n * (n + 1) / 2</code>
+     */
+    SymmetricMatrix(final int n, final float[] data) {
+        super(n, n);
+        if (data.length != packedLength(n)) {
+            throw new IllegalArgumentException("Packed length " + data.length + " does not match size " + n);
+        }
+        mData = data;
+    }
+
+    /**
+     * Number of entries required to hold the upper triangle of an <code>n</code> by <code>n</code> matrix.
+     *
+     * @param n number of rows and columns
+     * @return packed length
+     */
+    static long packedLength(final int n) {
+        final long len = (long) n * (n + 1) / 2;
+        if (len > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Symmetric matrix of size " + n + " is too large");
+        }
+        return len;
+    }
+
+    /**
+     * Offset of the first stored entry of <code>row</code>, i.e. the diagonal element.
+     *
+     * @param row row index
+     * @return offset into the packed array
+     */
+    final int rowOffset(final int row) {
+        return (int) ((long) row * rows() - (long) row * (row - 1) / 2);
+    }
+
+    /**
+     * Offset of entry <code>(row, col)</code> where <code>row &lt;= col</code>.
+     *
+     * @param row row index
+     * @param col column index, not less than <code>row</code>
+     * @return offset into the packed array
+     */
+    final int index(final int row, final int col) {
+        return rowOffset(row) + col - row;
+    }
+
+    /**
+     * @return the packed upper triangle backing this matrix
+     */
+    float[] data() {
+        return mData;
+    }
+
+    @Override
+    float get(final int row, final int col) {
+        return row <= col ? mData[index(row, col)] : mData[index(col, row)];
+    }
+
+    @Override
+    void set(final int row, final int col, final float val) {
+        if (row <= col) {
+            mData[index(row, col)] = val;
+        } else {
+            mData[index(col, row)] = val;
+        }
+    }
+
+    @Override
+    boolean isFinite() {
+        for (final float v : mData) {
+            if (!Float.isFinite(v)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    Matrix copy() {
+        return new SymmetricMatrix(rows(), mData.clone());
+    }
+
+    @Override
+    Matrix transpose() {
+        return this;
+    }
+
+    @Override
+    float[] row(final int row) {
+        final int n = rows();
+        final float[] result = new float[n];
+        // lower part of the row is held in the columns of earlier rows
+        for (int k = 0; k < row; ++k) {
+            result[k] = mData[index(k, row)];
+        }
+        System.arraycopy(mData, rowOffset(row), result, row, n - row);
+        return result;
+    }
+
+    @Override
+    Matrix eliminateZeros() {
+        return this;
+    }
+}
@@ -25,18 +25,14 @@ package edu.jhuapl.trinity.utils.umap;
  * #L%
  */
 
-import edu.jhuapl.trinity.App;
-import edu.jhuapl.trinity.javafx.components.ProgressStatus;
-import edu.jhuapl.trinity.javafx.events.ApplicationEvent;
 import edu.jhuapl.trinity.utils.umap.metric.CategoricalMetric;
 import edu.jhuapl.trinity.utils.umap.metric.EuclideanMetric;
 import edu.jhuapl.trinity.utils.umap.metric.Metric;
 import edu.jhuapl.trinity.utils.umap.metric.PrecomputedMetric;
-import edu.jhuapl.trinity.utils.umap.metric.ReducedEuclideanMetric;
-import javafx.application.Platform;
-import javafx.scene.Scene;
-import javafx.scene.paint.Color;
 
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
@@ -176,20 +172,16 @@ public class Umap {
         if (verbose) {
             Utils.message("Finding nearest neighbors");
         }
+        UmapProgress.setPhase("Finding Nearest Neighbors");
         final int[][] knnIndices;
         final float[][] knnDists;
         final List<FlatTree> rpForest;
         if (metric.equals(PrecomputedMetric.SINGLETON)) {
             // Note that this does not support sparse distance matrices yet ...
-            // Compute indices of n nearest neighbors
-            knnIndices = Utils.fastKnnIndices(instances, nNeighbors);
-            // Compute the nearest neighbor distances
-            knnDists = new float[knnIndices.length][nNeighbors];
-            for (int i = 0; i < knnDists.length; ++i) {
-                for (int j = 0; j < nNeighbors; ++j) {
-                    knnDists[i][j] = instances.get(i, knnIndices[i][j]);
-                }
-            }
+            // Compute indices and distances of n nearest neighbors
+            final Heap nn = Utils.fastKnn(instances, nNeighbors);
+            knnIndices = nn.indices();
+            knnDists = nn.weights();
             rpForest = Collections.emptyList();
         } else {
             boolean isAngular = metric.isAngular();
@@ -364,6 +356,7 @@ public class Umap {
             knnDists = nn.getDistances();
         }
 
+        UmapProgress.setPhase("Constructing Fuzzy Simplicial Set");
         final float[][] sigmasRhos = smoothKnnDist(knnDists, nNeighbors, localConnectivity);
         final float[] sigmas = sigmasRhos[0];
         final float[] rhos = sigmasRhos[1];
@@ -476,93 +469,10 @@ public class Umap {
      * @return array of shape <code>(nSamples, nComponents)</code> The optimized embedding.
      */
     private Matrix optimizeLayout(final Matrix headEmbedding, final Matrix tailEmbedding, final int[] head, final int[] tail, final int nEpochs, final int nVertices, final float[] epochsPerSample, final float a, final float b, final Random random, final float gamma, final float initialAlpha, final float negativeSampleRate, final boolean verbose) {
-
-        if (!(headEmbedding instanceof DefaultMatrix)) {
-            throw new UnsupportedOperationException("Require matrix we can set entries on");
-        }
-
-        final int dim = headEmbedding.cols();
-        final boolean moveOther = headEmbedding.rows() == tailEmbedding.rows();
-        float alpha = initialAlpha;
-
-        final float[] epochsPerNegativeSample = MathUtils.divide(epochsPerSample, negativeSampleRate);
-        final float[] epochOfNextNegativeSample = Arrays.copyOf(epochsPerNegativeSample, epochsPerNegativeSample.length);
-        final float[] epochOfNextSample = Arrays.copyOf(epochsPerSample, epochsPerSample.length);
-
-        for (int n = 0; n < nEpochs; ++n) {
-            for (int i = 0; i < epochsPerSample.length; ++i) {
-                if (epochOfNextSample[i] <= n) {
-                    final int j = head[i];
-                    final int k = tail[i];
-                    // Note this assumes that "current" is a pointer to the internal matrix data,
-                    // not ideal from a data encapsulation point of view.
-                    final float[] current = headEmbedding.row(j);
-                    float[] other = tailEmbedding.row(k);
-
-                    float distSquared = ReducedEuclideanMetric.SINGLETON.distance(current, other);
-
-                    float gradCoeff;
-                    if (distSquared > 0.0) {
-                        gradCoeff = (float) ((-2.0 * a * b * Math.pow(distSquared, b - 1.0)) / (a * Math.pow(distSquared, b) + 1.0));
-                    } else {
-                        gradCoeff = 0;
-                    }
-
-                    for (int d = 0; d < dim; ++d) {
-                        final float gradD = clip(gradCoeff * (current[d] - other[d]));
-                        current[d] += gradD * alpha;
-                        if (moveOther) {
-                            other[d] += -gradD * alpha;
-                        }
-                    }
-
-                    epochOfNextSample[i] += epochsPerSample[i];
-
-                    final int nNegSamples = (int) ((n - epochOfNextNegativeSample[i]) / epochsPerNegativeSample[i]);
-
-                    for (int p = 0; p < nNegSamples; ++p) {
-                        final int kr = random.nextInt(nVertices);
-                        other = tailEmbedding.row(kr);
-                        distSquared = ReducedEuclideanMetric.SINGLETON.distance(current, other);
-
-                        if (distSquared > 0) {
-                            gradCoeff = 2.0F * gamma * b / (float) ((0.001 + distSquared) * (a * Math.pow(distSquared, b) + 1));
-                        } else if (j == kr) {
-                            continue;
-                        } else {
-                            gradCoeff = 0;
-                        }
-
-                        for (int d = 0; d < dim; ++d) {
-                            final float gradD = gradCoeff > 0.0 ? clip(gradCoeff * (current[d] - other[d])) : 4;
-                            current[d] += gradD * alpha;
-                        }
-                    }
-
-                    epochOfNextNegativeSample[i] += nNegSamples * epochsPerNegativeSample[i];
-                }
-            }
-
-            alpha = initialAlpha * (1 - (float) n / (float) nEpochs);
-
-            if (verbose && n % (nEpochs / 100) == 0) {
-                Scene scene = App.getAppScene();
-                Utils.message("Completed " + n + "/" + nEpochs);
-                double percentComplete = Double.valueOf(n) / Double.valueOf(nEpochs);
-                Platform.runLater(() -> {
-                    ProgressStatus ps = new ProgressStatus(
-                        "Optimizing Layout...", percentComplete);
-                    ps.fillStartColor = Color.CYAN;
-                    ps.fillEndColor = Color.NAVY;
-                    ps.innerStrokeColor = Color.CYAN;
-                    ps.outerStrokeColor = Color.NAVY;
-                    scene.getRoot().fireEvent(
-                        new ApplicationEvent(ApplicationEvent.UPDATE_BUSY_INDICATOR, ps));
-                });
-            }
-            UmapProgress.update();
-        }
-        return headEmbedding;
+        final LayoutOptimizer optimizer = mThreads == 1
+            ? new LayoutOptimizer(headEmbedding, tailEmbedding, head, tail, nVertices, epochsPerSample, a, b, gamma, negativeSampleRate)
+            : new ParallelLayoutOptimizer(headEmbedding, tailEmbedding, head, tail, nVertices, epochsPerSample, a, b, gamma, negativeSampleRate, mThreads);
+        return optimizer.optimize(nEpochs, initialAlpha, random, verbose);
     }
 
     /**
@@ -624,11 +534,16 @@ public class Umap {
             //embedding = random.uniform(low = -10.0, high = 10.0, size = (graph.rows(), nComponents)).astype(np.float32);
             embedding = new DefaultMatrix(MathUtils.uniform(random, -10, 10, graph.rows(), nComponents));
         } else if ("spectral".equals(init)) {
-            throw new UnsupportedOperationException();
-//      // We add a little noise to avoid local minima for optimization to come
-//      float[][] initialisation = Spectral.spectral_layout(data, graph, nComponents, random, /*metric=*/metric, /*metric_kwds=*/metric_kwds);
-//      float expansion = 10.0 / Math.abs(initialisation).max();
-//      embedding = (MathUtils.multiply(initialisation, expansion)).astype(np.float32) + random.normal(scale = 0.0001, size =[graph.rows(), nComponents]).astype(np.float32);
+            // We add a little noise to avoid local minima for optimization to come
+            final float[][] initialisation = Spectral.spectralLayout(graph.toCsr(), nComponents, random);
+            if (initialisation == null) {
+                if (verbose) {
+                    Utils.message("Graph is not connected, falling back to random initialisation");
+                }
+                embedding = new DefaultMatrix(MathUtils.uniform(random, -10, 10, graph.rows(), nComponents));
+            } else {
+                embedding = new DefaultMatrix(Spectral.noisyScale(initialisation, 10, 0.0001F, random));
+            }
         } else {
             // Situation where init contains prepared data
             throw new UnsupportedOperationException();
@@ -718,6 +633,7 @@ public class Umap {
     private float mSetOpMixRatio = 1.0F;
     private int mLocalConnectivity = 1;
     private int mNegativeSampleRate = 5;
+    private String mInit = "spectral";
     private float mTransformQueueSize = 4.0F;
     private Metric mTargetMetric = CategoricalMetric.SINGLETON;
     private int mTargetNNeighbors = -1;
@@ -744,6 +660,7 @@ public class Umap {
     private Matrix mGraph;
     private Matrix mEmbedding;
     private NearestNeighborSearch mSearch;
+    private NeighborIndex mNeighborIndex = null;
 
     /**
      * Set the size local neighborhood (in terms of number of neighboring
@@ -965,6 +882,41 @@ public class Umap {
         mVerbose = verbose;
     }
 
+    /**
+     * Get whether additional diagnostic output is turned on.
+     *
+     * @return verbose level
+     */
+    public boolean isVerbose() {
+        return mVerbose;
+    }
+
+    /**
+     * Set how to initialize the low dimensional embedding. Options are
+     * "spectral" (the default), which uses the eigenvectors of the graph
+     * Laplacian of the fuzzy 1-skeleton and falls back to random positions
+     * if the graph is not connected, or "random", which assigns initial
+     * positions uniformly at random. A spectral start typically needs far
+     * fewer epochs to reach a comparable layout.
+     *
+     * @param init initialization method
+     */
+    public void setInit(final String init) {
+        if (!"spectral".equals(init) && !"random".equals(init)) {
+            throw new IllegalArgumentException("init must be spectral or random");
+        }
+        mInit = init;
+    }
+
+    /**
+     * Get the initialization method of the low dimensional embedding.
+     *
+     * @return initialization method
+     */
+    public String getInit() {
+        return mInit;
+    }
+
     /**
      * Set the random number generator to be used.
      *
@@ -1051,7 +1003,9 @@ public class Umap {
 //  }
 
     /**
-     * Set the maximum number of threads to use (default 1).
+     * Set the maximum number of threads to use (default 1). Values greater
+     * than one enable parallel nearest neighbor descent and parallel
+     * (lock-free) layout optimization during both fit and transform.
      *
      * @param threads number of threads
      */
@@ -1062,6 +1016,26 @@ public class Umap {
         mThreads = threads;
     }
 
+    /**
+     * Set the nearest neighbor index to build the graph with, instead of the
+     * random projection forest and nearest neighbor descent (or the exact
+     * search used for small data). Fit adds the instances to the index, which
+     * must be empty and use the same metric, and transform searches it. Pass
+     * null to restore the default.
+     *
+     * @param index neighbor index or null
+     */
+    public void setNeighborIndex(final NeighborIndex index) {
+        mNeighborIndex = index;
+    }
+
+    /**
+     * @return the neighbor index, or null if the default search is used
+     */
+    public NeighborIndex getNeighborIndex() {
+        return mNeighborIndex;
+    }
+
     private void validateParameters() {
         if (mMinDist > mSpread) {
             throw new IllegalArgumentException("minDist must be less than or equal to spread");
@@ -1137,7 +1111,7 @@ public class Umap {
         UmapProgress.update();
 
         // Handle small cases efficiently by computing all distances
-        if (instances.rows() < SMALL_PROBLEM_THRESHOLD) {
+        if (mNeighborIndex == null && instances.rows() < SMALL_PROBLEM_THRESHOLD) {
             if (mVerbose) {
                 Utils.message(instances.rows() + " Rows less than " + SMALL_PROBLEM_THRESHOLD + ".");
                 Utils.message("Computing pairwise distances.");
@@ -1145,7 +1119,7 @@ public class Umap {
             mSmallData = true;
             Matrix dmat;
             if (parallelPairwise)
-                dmat = PairwiseDistances.parallelPairwise(instances, mMetric, mVerbose);
+                dmat = PairwiseDistances.symmetricPairwise(instances, mMetric, mVerbose);
             else
                 dmat = PairwiseDistances.pairwiseDistances(instances, mMetric, mVerbose);
 
@@ -1159,7 +1133,9 @@ public class Umap {
             }
             mSmallData = false;
             // Standard case
-            final IndexedDistances nn = nearestNeighbors(instances, mRunNNeighbors, mMetric, mAngularRpForest, mRandom, mThreads, mVerbose);
+            final IndexedDistances nn = mNeighborIndex != null
+                ? indexNeighbors(instances, mRunNNeighbors)
+                : nearestNeighbors(instances, mRunNNeighbors, mMetric, mAngularRpForest, mRandom, mThreads, mVerbose);
             mKnnIndices = nn.getIndices();
             mKnnDists = nn.getDistances();
             setmRpForest(nn.getForest());
@@ -1212,7 +1188,7 @@ public class Umap {
             Utils.message("Construct embedding");
         }
 
-        mEmbedding = simplicialSetEmbedding(mRawData, mGraph, mNComponents, mInitialAlpha, mRunA, mRunB, mRepulsionStrength, mNegativeSampleRate, nEpochs, "random", mRandom, mMetric, mVerbose);
+        mEmbedding = simplicialSetEmbedding(mRawData, mGraph, mNComponents, mInitialAlpha, mRunA, mRunB, mRepulsionStrength, mNegativeSampleRate, nEpochs, mInit, mRandom, mMetric, mVerbose);
 
         if (mVerbose) {
             Utils.message("Finished embedding");
@@ -1284,13 +1260,24 @@ public class Umap {
      * Embedding of the training data in low-dimensional space.
      */
     public double[][] fitTransform(final double[][] instances) {
-        final float[][] input = new float[instances.length][instances[0].length];
-        for (int k = 0; k < instances.length; ++k) {
-            for (int j = 0; j < instances[0].length; ++j) {
-                input[k][j] = (float) instances[k][j];
-            }
-        }
-        final Matrix result = fitTransform(new DefaultMatrix(input), null);
+        return toDoubleArray(fitTransform(FlatMatrix.of(instances), null));
+    }
+
+    /**
+     * Fit instances into an embedded space and return that transformed output.
+     * This version takes the instances as one row-major array, which is used
+     * in place as the rows of the fitted data without further copies.
+     *
+     * @param instances row-major array of <code>nSamples * nFeatures</code> values, one sample per row
+     * @param nFeatures number of values per sample
+     * @return array of shape <code>(nSamples, nComponents)</code>
+     * Embedding of the training data in low-dimensional space.
+     */
+    public double[][] fitTransform(final float[] instances, final int nFeatures) {
+        return toDoubleArray(fitTransform(new FlatMatrix(instances, instances.length / nFeatures, nFeatures), null));
+    }
+
+    private static double[][] toDoubleArray(final Matrix result) {
         final double[][] output = new double[result.rows()][result.cols()];
         for (int k = 0; k < result.rows(); ++k) {
             for (int j = 0; j < result.cols(); ++j) {
@@ -1300,6 +1287,33 @@ public class Umap {
         return output;
     }
 
+    /**
+     * Build any search structures used by <code>transform</code> that are not
+     * already available, so that the first transform after a fit does not pay
+     * for them. Calling this more than once has no further effect.
+     */
+    public void prepareTransform() {
+        if (!mSmallData && getmSearchGraph() == null && mKnnIndices != null) {
+            final int rows = mRawData.rows();
+            setmSearchGraph(SearchGraph.fromNeighbors(rows,
+                Arrays.copyOf(mKnnIndices, rows), Arrays.copyOf(mKnnDists, rows)));
+        }
+    }
+
+    /**
+     * @return true if a model has been fit and new instances can be transformed
+     */
+    public boolean isFitted() {
+        return mEmbedding != null && mEmbedding.rows() > 1;
+    }
+
+    /**
+     * @return number of attributes of the instances the model was fit on
+     */
+    public int getInputDimension() {
+        return mRawData == null ? 0 : mRawData.cols();
+    }
+
     /**
      * Transform instances into the existing embedded space and return that
      * transformed output.
@@ -1311,6 +1325,14 @@ public class Umap {
      * @throws IllegalArgumentException If we fit just a single instance then error.
      */
     public Matrix transform(Matrix instances) {
+        final IndexedDistances nn = transformNeighbors(instances);
+        return transformEmbedding(instances, nn.getIndices(), nn.getDistances(), mVerbose);
+    }
+
+    /**
+     * Find the nearest neighbors of each instance among the rows of the model.
+     */
+    private IndexedDistances transformNeighbors(final Matrix instances) {
         if (mEmbedding.rows() == 1) {
             throw new IllegalArgumentException("Transform unavailable when model was fit with only a single data sample.");
         }
@@ -1320,36 +1342,38 @@ public class Umap {
             throw new IllegalArgumentException("Transform of new data not available for precomputed metric.");
         }
         UmapProgress.reset(4);
+        UmapProgress.setPhase("Finding Nearest Neighbors");
 
-        int[][] indices;
+        final int[][] indices;
         final float[][] dists;
         if (mSmallData) {
-            final Matrix distanceMatrix = PairwiseDistances.pairwiseDistances(instances, mRawData, mMetric);
-            indices = new int[distanceMatrix.rows()][];
-            for (int k = 0; k < distanceMatrix.rows(); ++k) {
-                indices[k] = MathUtils.argsort(Arrays.copyOf(distanceMatrix.row(k), distanceMatrix.cols()));
+            final Heap nn = PairwiseDistances.nearestNeighbors(instances, mRawData, mRunNNeighbors, mMetric);
+            indices = nn.indices();
+            dists = nn.weights();
+        } else if (mNeighborIndex != null) {
+            if (mNeighborIndex.size() != mRawData.rows()) {
+                throw new IllegalStateException("Neighbor index does not hold the fitted data.");
             }
-            indices = MathUtils.subarray(indices, mRunNNeighbors);
-            dists = Utils.submatrix(distanceMatrix, indices, mRunNNeighbors);
+            indices = new int[instances.rows()][mRunNNeighbors];
+            dists = new float[instances.rows()][mRunNNeighbors];
+            mNeighborIndex.search(flatten(instances), instances.cols(), mRunNNeighbors, indices, dists);
         } else {
             final Heap init = NearestNeighborDescent.initialiseSearch(getmRpForest(), mRawData, instances, (int) (mRunNNeighbors * mTransformQueueSize), getmSearch(), mRandom);
-            if (getmSearchGraph() == null) {
-                setmSearchGraph(new SearchGraph(mRawData.rows()));
-                for (int k = 0; k < mKnnIndices.length; ++k) {
-                    for (int j = 0; j < mKnnIndices[k].length; ++j) {
-                        if (mKnnDists[k][j] != 0) {
-                            getmSearchGraph().set(k, mKnnIndices[k][j]);
-                        }
-                    }
-                }
-            }
+            prepareTransform();
             final Heap result = getmSearch().initializedNndSearch(mRawData, getmSearchGraph(), init, instances).deheapSort();
             indices = MathUtils.subarray(result.indices(), mRunNNeighbors);
             dists = MathUtils.subarray(result.weights(), mRunNNeighbors);
         }
 
         UmapProgress.update();
+        return new IndexedDistances(indices, dists, null);
+    }
 
+    /**
+     * Place each instance in the embedding given its nearest neighbors among
+     * the rows of the model.
+     */
+    private Matrix transformEmbedding(final Matrix instances, final int[][] indices, final float[][] dists, final boolean verbose) {
         final int adjustedLocalConnectivity = Math.max(0, mLocalConnectivity - 1);
         final float[][] sigmasRhos = smoothKnnDist(dists, mRunNNeighbors, adjustedLocalConnectivity);
         final float[] sigmas = sigmasRhos[0];
@@ -1388,7 +1412,11 @@ public class Umap {
 
         UmapProgress.update();
         UmapProgress.incTotal(nEpochs);
-        final Matrix matrix = optimizeLayout(embedding, mEmbedding.copy(), head, tail, nEpochs, graph.cols(), epochsPerSample, mRunA, mRunB, mRandom, mRepulsionStrength, mInitialAlpha, mNegativeSampleRate, mVerbose);
+        // The fitted embedding is only written to when the optimizer moves both
+        // ends of an edge, which it does when the row counts happen to match;
+        // otherwise it can be shared rather than copied for every transform.
+        final Matrix tailEmbedding = embedding.rows() == mEmbedding.rows() ? mEmbedding.copy() : mEmbedding;
+        final Matrix matrix = optimizeLayout(embedding, tailEmbedding, head, tail, nEpochs, graph.cols(), epochsPerSample, mRunA, mRunB, mRandom, mRepulsionStrength, mInitialAlpha, mNegativeSampleRate, verbose);
 
         UmapProgress.finished();
 
@@ -1409,6 +1437,319 @@ public class Umap {
         return transform(new DefaultMatrix(instances)).toArray();
     }
 
+    /**
+     * Transform instances into the existing embedded space and return that
+     * transformed output.
+     *
+     * @param instances row-major array of <code>nSamples * nFeatures</code> values, one sample per row
+     * @param nFeatures number of values per sample
+     * @return array, shape <code>(nSamples, nComponents)</code>
+     * Embedding of the new data in low-dimensional space.
+     * @throws IllegalArgumentException If we fit just a single instance then error.
+     */
+    public float[][] transform(final float[] instances, final int nFeatures) {
+        return transform(new FlatMatrix(instances, instances.length / nFeatures, nFeatures)).toArray();
+    }
+
+    /**
+     * Transform instances into the existing embedded space, optionally without
+     * diagnostic output or global progress reporting. A quiet transform is
+     * meant for a stream of small batches running alongside other work, it
+     * leaves the verbose setting and the progress of any fit untouched.
+     *
+     * @param instances row-major array of <code>nSamples * nFeatures</code> values, one sample per row
+     * @param nFeatures number of values per sample
+     * @param quiet     true to skip diagnostic output and progress reporting
+     * @return array, shape <code>(nSamples, nComponents)</code>
+     * Embedding of the new data in low-dimensional space.
+     * @throws IllegalArgumentException If we fit just a single instance then error.
+     */
+    public float[][] transform(final float[] instances, final int nFeatures, final boolean quiet) {
+        if (!quiet) {
+            return transform(instances, nFeatures);
+        }
+        final Matrix matrix = new FlatMatrix(instances, instances.length / nFeatures, nFeatures);
+        return UmapProgress.quietly(() -> {
+            final IndexedDistances nn = transformNeighbors(matrix);
+            return transformEmbedding(matrix, nn.getIndices(), nn.getDistances(), false).toArray();
+        });
+    }
+
+    /**
+     * Transform instances into the existing embedded space and then add them
+     * to the model, so that later transforms can find them as neighbors.
+     * This lets a live feed keep growing the model without refitting, and
+     * requires a neighbor index, see {@link #setNeighborIndex(NeighborIndex)}.
+     *
+     * @param instances row-major array of <code>nSamples * nFeatures</code> values, one sample per row
+     * @param nFeatures number of values per sample
+     * @return array, shape <code>(nSamples, nComponents)</code>
+     * Embedding of the new data in low-dimensional space.
+     * @throws IllegalStateException if there is no neighbor index
+     */
+    public float[][] transformAndAdd(final float[] instances, final int nFeatures) {
+        return transformAndAdd(instances, nFeatures, false);
+    }
+
+    /**
+     * Transform instances and add them to the model as
+     * {@link #transformAndAdd(float[], int)} does, optionally without
+     * diagnostic output or global progress reporting, see
+     * {@link #transform(float[], int, boolean)}.
+     *
+     * @param instances row-major array of <code>nSamples * nFeatures</code> values, one sample per row
+     * @param nFeatures number of values per sample
+     * @param quiet     true to skip diagnostic output and progress reporting
+     * @return array, shape <code>(nSamples, nComponents)</code>
+     * Embedding of the new data in low-dimensional space.
+     * @throws IllegalStateException if there is no neighbor index
+     */
+    public float[][] transformAndAdd(final float[] instances, final int nFeatures, final boolean quiet) {
+        if (mNeighborIndex == null) {
+            throw new IllegalStateException("Adding to the model requires a neighbor index.");
+        }
+        if (nFeatures != mRawData.cols()) {
+            throw new IllegalArgumentException("Expected " + mRawData.cols() + " features but got " + nFeatures);
+        }
+        final Matrix matrix = new FlatMatrix(instances, instances.length / nFeatures, nFeatures);
+        final IndexedDistances nn = quiet
+            ? UmapProgress.quietly(() -> transformNeighbors(matrix))
+            : transformNeighbors(matrix);
+        final float[][] embedding = quiet
+            ? UmapProgress.quietly(() -> transformEmbedding(matrix, nn.getIndices(), nn.getDistances(), false).toArray())
+            : transformEmbedding(matrix, nn.getIndices(), nn.getDistances(), mVerbose).toArray();
+        // grown in place, only the first append copies the fitted rows
+        appendNeighbors(nn.getIndices(), nn.getDistances());
+        mRawData = FlatMatrix.appendRows(mRawData, instances);
+        mEmbedding = FlatMatrix.appendRows(mEmbedding, flatten(new DefaultMatrix(embedding)));
+        mNeighborIndex.add(instances, nFeatures);
+        // rebuilt over all rows when next needed
+        setmSearchGraph(null);
+        return embedding;
+    }
+
+    /**
+     * Keep the nearest neighbors of added rows with those of the fitted rows,
+     * so the search graph built from them, and saved with the model, reaches
+     * the added rows as well. The arrays grow by doubling and only their
+     * first <code>mRawData.rows()</code> rows are in use.
+     */
+    private void appendNeighbors(final int[][] indices, final float[][] dists) {
+        if (mKnnIndices == null) {
+            return;
+        }
+        final int rows = mRawData.rows();
+        if (mKnnIndices.length < rows + indices.length) {
+            final int capacity = Math.max(rows + indices.length, 2 * rows);
+            mKnnIndices = Arrays.copyOf(mKnnIndices, capacity);
+            mKnnDists = Arrays.copyOf(mKnnDists, capacity);
+        }
+        System.arraycopy(indices, 0, mKnnIndices, rows, indices.length);
+        System.arraycopy(dists, 0, mKnnDists, rows, dists.length);
+    }
+
+    private IndexedDistances indexNeighbors(final Matrix instances, final int nNeighbors) {
+        if (mNeighborIndex.getMetric() != mMetric) {
+            throw new IllegalArgumentException("Neighbor index metric does not match the UMAP metric.");
+        }
+        if (mNeighborIndex.size() != 0) {
+            throw new IllegalArgumentException("Neighbor index must be empty before fitting.");
+        }
+        if (mVerbose) {
+            Utils.message("Building neighbor index");
+        }
+        UmapProgress.setPhase("Finding Nearest Neighbors");
+        final float[] data = flatten(instances);
+        mNeighborIndex.add(data, instances.cols());
+        final int[][] indices = new int[instances.rows()][nNeighbors];
+        final float[][] dists = new float[instances.rows()][nNeighbors];
+        mNeighborIndex.search(data, instances.cols(), nNeighbors, indices, dists);
+        if (MathUtils.containsNegative(indices)) {
+            Utils.message("Failed to correctly find nearest neighbors for some samples. Results may be less than ideal. Try re-running with different parameters.");
+        }
+        return new IndexedDistances(indices, dists, Collections.emptyList());
+    }
+
+    private static float[] flatten(final Matrix matrix) {
+        if (matrix instanceof FlatMatrix && ((FlatMatrix) matrix).data().length == matrix.rows() * matrix.cols()) {
+            return ((FlatMatrix) matrix).data();
+        }
+        final int cols = matrix.cols();
+        final float[] data = new float[Math.multiplyExact(matrix.rows(), cols)];
+        for (int r = 0; r < matrix.rows(); ++r) {
+            System.arraycopy(matrix.rowArray(r), matrix.rowOffset(r), data, r * cols, cols);
+        }
+        return data;
+    }
+
+    /**
+     * Save the fitted model so it can be reopened with {@link #load(File)}
+     * and transform new data without refitting. The random number generator
+     * is reseeded from itself so that this model and the reloaded one
+     * continue with the same random sequence. A neighbor index is not saved,
+     * the reloaded model searches the stored nearest neighbor graph instead.
+     * An existing file is only replaced once the whole model has been written.
+     *
+     * @param file destination file
+     * @throws IOException if the file cannot be written
+     * @throws IllegalStateException if no model has been fit
+     * @throws IllegalArgumentException if the model cannot transform new data
+     */
+    public void save(final File file) throws IOException {
+        UmapModelFile.write(this, file.toPath());
+    }
+
+    /**
+     * Load a model saved with {@link #save(File)}. The file is memory mapped
+     * and its arrays copied straight into the model.
+     *
+     * @param file model file
+     * @return the fitted model
+     * @throws IOException if the file cannot be read or is not a supported model file
+     */
+    public static Umap load(final File file) throws IOException {
+        return UmapModelFile.read(file.toPath());
+    }
+
+    void writeModel(final UmapModelFile.Writer out) throws IOException {
+        if (!isFitted()) {
+            throw new IllegalStateException("No fitted model to save.");
+        }
+        if (mRawData instanceof CsrMatrix) {
+            throw new IllegalArgumentException("Saving not available for sparse input.");
+        }
+        final String metricName = Metric.getMetricName(mMetric);
+        if (metricName == null) {
+            throw new IllegalArgumentException("Saving not available for unnamed metric " + mMetric.getClass().getSimpleName() + ".");
+        }
+        prepareTransform();
+
+        out.writeInt(mNNeighbors);
+        out.writeInt(mNComponents);
+        out.writeInt(mNEpochs == null ? -1 : mNEpochs);
+        out.writeString(metricName);
+        out.writeFloat(mLearningRate);
+        out.writeFloat(mRepulsionStrength);
+        out.writeFloat(mMinDist);
+        out.writeFloat(mSpread);
+        out.writeFloat(mSetOpMixRatio);
+        out.writeInt(mLocalConnectivity);
+        out.writeInt(mNegativeSampleRate);
+        out.writeString(mInit);
+        out.writeFloat(mTransformQueueSize);
+        out.writeBoolean(mAngularRpForest);
+        out.writeInt(mThreads);
+
+        out.writeFloat(mInitialAlpha);
+        out.writeInt(mRunNNeighbors);
+        out.writeFloat(mRunA);
+        out.writeFloat(mRunB);
+        out.writeBoolean(mSmallData);
+        final long seed = mRandom.nextLong();
+        mRandom.setSeed(seed);
+        out.writeLong(seed);
+
+        writeMatrix(out, mRawData);
+        writeMatrix(out, mEmbedding);
+        out.writeBoolean(mKnnIndices != null);
+        if (mKnnIndices != null) {
+            // rows past the model's are spare capacity, see appendNeighbors
+            final int rows = mRawData.rows();
+            out.writeInt(rows);
+            out.writeInt(rows == 0 ? 0 : mKnnIndices[0].length);
+            for (int k = 0; k < rows; ++k) {
+                out.writeInts(mKnnIndices[k], 0, mKnnIndices[k].length);
+                out.writeFloats(mKnnDists[k], 0, mKnnDists[k].length);
+            }
+        }
+        final List<FlatTree> forest = getmRpForest();
+        out.writeInt(forest == null ? 0 : forest.size());
+        if (forest != null) {
+            for (final FlatTree tree : forest) {
+                tree.write(out);
+            }
+        }
+        out.writeBoolean(getmSearchGraph() != null);
+        if (getmSearchGraph() != null) {
+            getmSearchGraph().write(out);
+        }
+    }
+
+    private static void writeMatrix(final UmapModelFile.Writer out, final Matrix matrix) throws IOException {
+        out.writeInt(matrix.rows());
+        out.writeInt(matrix.cols());
+        for (int r = 0; r < matrix.rows(); ++r) {
+            out.writeFloats(matrix.rowArray(r), matrix.rowOffset(r), matrix.cols());
+        }
+    }
+
+    void readModel(final UmapModelFile.Reader in) throws IOException {
+        mNNeighbors = in.readInt();
+        mNComponents = in.readInt();
+        final int epochs = in.readInt();
+        mNEpochs = epochs < 0 ? null : epochs;
+        try {
+            mMetric = Metric.getMetric(in.readString());
+        } catch (final IllegalArgumentException e) {
+            throw new IOException(e.getMessage(), e);
+        }
+        mLearningRate = in.readFloat();
+        mRepulsionStrength = in.readFloat();
+        mMinDist = in.readFloat();
+        mSpread = in.readFloat();
+        mSetOpMixRatio = in.readFloat();
+        mLocalConnectivity = in.readInt();
+        mNegativeSampleRate = in.readInt();
+        try {
+            setInit(in.readString());
+        } catch (final IllegalArgumentException e) {
+            throw new IOException(e.getMessage(), e);
+        }
+        mTransformQueueSize = in.readFloat();
+        mAngularRpForest = in.readBoolean();
+        mThreads = Math.max(1, in.readInt());
+
+        mInitialAlpha = in.readFloat();
+        mRunNNeighbors = in.readInt();
+        mRunA = in.readFloat();
+        mRunB = in.readFloat();
+        mSmallData = in.readBoolean();
+        mRandom = new Random(in.readLong());
+
+        final int rows = in.readCount();
+        final int cols = in.readCount();
+        mRawData = new FlatMatrix(in.readFloats((long) rows * cols), rows, cols);
+        final float[][] embedding = new float[in.readCount()][];
+        final int components = in.readCount();
+        for (int r = 0; r < embedding.length; ++r) {
+            embedding[r] = in.readFloats(components);
+        }
+        mEmbedding = new DefaultMatrix(embedding);
+        if (in.readBoolean()) {
+            mKnnIndices = new int[in.readCount()][];
+            mKnnDists = new float[mKnnIndices.length][];
+            final int k = in.readCount();
+            for (int r = 0; r < mKnnIndices.length; ++r) {
+                mKnnIndices[r] = in.readInts(k);
+                mKnnDists[r] = in.readFloats(k);
+            }
+        }
+        final int trees = in.readCount();
+        if (trees > 0) {
+            final List<FlatTree> forest = new ArrayList<>(trees);
+            for (int t = 0; t < trees; ++t) {
+                forest.add(FlatTree.read(in));
+            }
+            setmRpForest(forest);
+        }
+        if (in.readBoolean()) {
+            setmSearchGraph(SearchGraph.read(in));
+        }
+        if (!(mMetric instanceof PrecomputedMetric)) {
+            setmSearch(new NearestNeighborSearch(mMetric));
+        }
+    }
+
     /**
      * @return the mSearchGraph
      */
@@ -0,0 +1,266 @@
+/*
+ * BSD 3-Clause License
+ * Copyright (c) 2017, Leland McInnes, 2019 Tag.bio (Java port).
+ * See UMAPLicense.txt.
+ */
+package edu.jhuapl.trinity.utils.umap;
+
+/*-
+ * #%L
+ * trinity
+ * %%
+ * Copyright (C) 2021 - 2023 The Johns Hopkins University Applied Physics Laboratory LLC
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Versioned binary format of a fitted UMAP model. Everything is written as
+ * flat big-endian arrays behind a small header, so that loading maps the
+ * file and bulk copies each section straight into the arrays the model
+ * works on rather than parsing it.
+ * <p>
+ * Layout: the magic number, the format version, then the sections written
+ * by {@link Umap#writeModel(Writer)} in order. Each array is preceded by its
+ * dimensions.
+ */
+final class UmapModelFile {
+
+    static final int MAGIC = 0x554D4150; // "UMAP"
+    static final int VERSION = 1;
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private UmapModelFile() {
+    }
+
+    static void write(final Umap umap, final Path path) throws IOException {
+        // written beside the destination and moved over it once complete, so a
+        // failed save never leaves a truncated model where a good one was
+        final Path target = path.toAbsolutePath();
+        final Path temp = Files.createTempFile(target.getParent(), target.getFileName().toString(), ".tmp");
+        try {
+            try (Writer out = new Writer(temp)) {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                umap.writeModel(out);
+            }
+            try {
+                Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (final AtomicMoveNotSupportedException e) {
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    static Umap read(final Path path) throws IOException {
+        final Reader in = new Reader(path);
+        if (in.readInt() != MAGIC) {
+            throw new IOException("Not a UMAP model file: " + path);
+        }
+        final int version = in.readInt();
+        if (version != VERSION) {
+            throw new IOException("Unsupported UMAP model version " + version + ": " + path);
+        }
+        final Umap umap = new Umap();
+        umap.readModel(in);
+        return umap;
+    }
+
+    /**
+     * Buffered writer of the primitive values and arrays of a model.
+     */
+    static final class Writer implements Closeable {
+        private final FileChannel mChannel;
+        private final ByteBuffer mBuffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+
+        Writer(final Path path) throws IOException {
+            mChannel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        }
+
+        private void ensure(final int bytes) throws IOException {
+            if (mBuffer.remaining() < bytes) {
+                flush();
+            }
+        }
+
+        private void flush() throws IOException {
+            mBuffer.flip();
+            while (mBuffer.hasRemaining()) {
+                mChannel.write(mBuffer);
+            }
+            mBuffer.clear();
+        }
+
+        void writeInt(final int v) throws IOException {
+            ensure(Integer.BYTES);
+            mBuffer.putInt(v);
+        }
+
+        void writeLong(final long v) throws IOException {
+            ensure(Long.BYTES);
+            mBuffer.putLong(v);
+        }
+
+        void writeFloat(final float v) throws IOException {
+            ensure(Float.BYTES);
+            mBuffer.putFloat(v);
+        }
+
+        void writeBoolean(final boolean v) throws IOException {
+            writeInt(v ? 1 : 0);
+        }
+
+        void writeString(final String s) throws IOException {
+            final byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+            writeInt(bytes.length);
+            for (final byte b : bytes) {
+                ensure(1);
+                mBuffer.put(b);
+            }
+        }
+
+        void writeFloats(final float[] a, final int offset, final int length) throws IOException {
+            for (int k = offset; k < offset + length; ++k) {
+                ensure(Float.BYTES);
+                mBuffer.putFloat(a[k]);
+            }
+        }
+
+        void writeInts(final int[] a, final int offset, final int length) throws IOException {
+            for (int k = offset; k < offset + length; ++k) {
+                ensure(Integer.BYTES);
+                mBuffer.putInt(a[k]);
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                flush();
+                mChannel.force(false);
+            } finally {
+                mChannel.close();
+            }
+        }
+    }
+
+    /**
+     * Reader over a read-only mapping of a whole model file.
+     */
+    static final class Reader {
+        private final MappedByteBuffer mBuffer;
+
+        Reader(final Path path) throws IOException {
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+                if (channel.size() > Integer.MAX_VALUE) {
+                    throw new IOException("UMAP model file too large to map: " + path);
+                }
+                // the mapping stays valid after the channel is closed
+                mBuffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            }
+        }
+
+        private void require(final long bytes) throws IOException {
+            if (bytes < 0 || mBuffer.remaining() < bytes) {
+                throw new IOException("Truncated UMAP model file");
+            }
+        }
+
+        int readInt() throws IOException {
+            require(Integer.BYTES);
+            return mBuffer.getInt();
+        }
+
+        long readLong() throws IOException {
+            require(Long.BYTES);
+            return mBuffer.getLong();
+        }
+
+        float readFloat() throws IOException {
+            require(Float.BYTES);
+            return mBuffer.getFloat();
+        }
+
+        /**
+         * Read a count or array dimension.
+         *
+         * @return non-negative count
+         * @throws IOException if the stored value is negative
+         */
+        int readCount() throws IOException {
+            final int count = readInt();
+            if (count < 0) {
+                throw new IOException("Corrupt UMAP model file");
+            }
+            return count;
+        }
+
+        boolean readBoolean() throws IOException {
+            return readInt() != 0;
+        }
+
+        String readString() throws IOException {
+            final int length = readInt();
+            require(length);
+            final byte[] bytes = new byte[length];
+            mBuffer.get(bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        /**
+         * Read an array of floats, checking first that the file holds that many.
+         *
+         * @param length number of values, as a long so corrupt dimensions cannot overflow
+         * @return values
+         * @throws IOException if the file is too short
+         */
+        float[] readFloats(final long length) throws IOException {
+            require(length * Float.BYTES);
+            final float[] a = new float[(int) length];
+            mBuffer.asFloatBuffer().get(a);
+            mBuffer.position(mBuffer.position() + a.length * Float.BYTES);
+            return a;
+        }
+
+        /**
+         * Read an array of integers, checking first that the file holds that many.
+         *
+         * @param length number of values, as a long so corrupt dimensions cannot overflow
+         * @return values
+         * @throws IOException if the file is too short
+         */
+        int[] readInts(final long length) throws IOException {
+            require(length * Integer.BYTES);
+            final int[] a = new int[(int) length];
+            mBuffer.asIntBuffer().get(a);
+            mBuffer.position(mBuffer.position() + a.length * Integer.BYTES);
+            return a;
+        }
+    }
+}
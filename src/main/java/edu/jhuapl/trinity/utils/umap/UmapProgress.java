@@ -25,74 +25,160 @@ package edu.jhuapl.trinity.utils.umap;
  * #L%
  */
 
-import java.util.ArrayList;
-import java.util.List;
-
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Supplier;
 
+/**
+ * Global progress tracking for UMAP computations. Listeners are notified at
+ * most once per <code>MIN_UPDATE_PERIOD</code>; updates in between are coalesced
+ * into the next notification, while phase changes and completion are always
+ * delivered. Listeners are called on the thread doing the work and outside
+ * of any lock held here, so they should hand off quickly (e.g. to a UI thread).
+ */
 public final class UmapProgress {
     private static final UmapProgress PROGRESS = new UmapProgress();
     private static final long MIN_UPDATE_PERIOD = 500; // milliseconds
+    // set on threads running work that should not be reported, see quietly
+    private static final ThreadLocal<Boolean> QUIET = ThreadLocal.withInitial(() -> Boolean.FALSE);
 
-    private final List<ProgressListener> mProgressListeners = new ArrayList<>();
+    private final CopyOnWriteArrayList<ProgressListener> mProgressListeners = new CopyOnWriteArrayList<>();
     private int mTotal = 0;
     private int mCounter = 0;
+    private String mPhase = "";
     private long mLastNotificationTime = 0L;
 
     private UmapProgress() {
     }
 
-    public static synchronized void addProgressListener(final ProgressListener listener) {
-        if (!PROGRESS.mProgressListeners.contains(listener)) {
-            PROGRESS.mProgressListeners.add(listener);
-        }
+    public static void addProgressListener(final ProgressListener listener) {
+        PROGRESS.mProgressListeners.addIfAbsent(listener);
     }
 
-    public static synchronized boolean removeProgressListener(final ProgressListener listener) {
+    public static boolean removeProgressListener(final ProgressListener listener) {
         return PROGRESS.mProgressListeners.remove(listener);
     }
 
-    protected void notifyListeners(ProgressState state) {
-        // limit calls to notify if occurring too often
+    private void notifyListeners(final ProgressState state) {
+        for (final ProgressListener listener : mProgressListeners) {
+            listener.updated(state);
+        }
+    }
+
+    /**
+     * Take a snapshot of the current state if a notification is due.
+     *
+     * @param force true to bypass rate limiting
+     * @return state to deliver or null if this update is coalesced
+     */
+    private synchronized ProgressState due(final boolean force) {
         final long now = System.currentTimeMillis();
-        if (now - mLastNotificationTime > MIN_UPDATE_PERIOD) {
-            for (final ProgressListener listener : mProgressListeners) {
-                listener.updated(state);
-            }
+        if (force || now - mLastNotificationTime > MIN_UPDATE_PERIOD) {
             mLastNotificationTime = now;
+            return new ProgressState(mTotal, mCounter, mPhase);
+        }
+        return null;
+    }
+
+    /**
+     * Run work on this thread without it touching the global progress, so a
+     * small background computation cannot reset or advance the progress of a
+     * fit running elsewhere.
+     *
+     * @param work computation to run
+     * @param <T>  result type
+     * @return result of the work
+     */
+    static <T> T quietly(final Supplier<T> work) {
+        final Boolean quiet = QUIET.get();
+        QUIET.set(Boolean.TRUE);
+        try {
+            return work.get();
+        } finally {
+            QUIET.set(quiet);
+        }
+    }
+
+    private static void publish(final boolean force) {
+        if (PROGRESS.mProgressListeners.isEmpty()) {
+            return;
+        }
+        final ProgressState state = PROGRESS.due(force);
+        if (state != null) {
+            PROGRESS.notifyListeners(state);
         }
     }
 
-    public static synchronized void reset(final int total) {
-        PROGRESS.mTotal = total;
-        PROGRESS.mCounter = 0;
-        PROGRESS.mLastNotificationTime = 0L;
-        update(0);
+    public static void reset(final int total) {
+        if (QUIET.get()) {
+            return;
+        }
+        synchronized (PROGRESS) {
+            PROGRESS.mTotal = total;
+            PROGRESS.mCounter = 0;
+            PROGRESS.mPhase = "";
+        }
+        publish(true);
     }
 
-    public static synchronized void incTotal(final int inc) {
-        PROGRESS.mTotal += inc;
-        update(0);
+    public static void incTotal(final int inc) {
+        if (QUIET.get()) {
+            return;
+        }
+        synchronized (PROGRESS) {
+            PROGRESS.mTotal += inc;
+        }
+        publish(false);
+    }
+
+    /**
+     * Describe the stage of the computation now running. Listeners are
+     * notified immediately of a change of phase.
+     *
+     * @param phase description of the current stage
+     */
+    public static void setPhase(final String phase) {
+        if (QUIET.get()) {
+            return;
+        }
+        synchronized (PROGRESS) {
+            if (phase.equals(PROGRESS.mPhase)) {
+                return;
+            }
+            PROGRESS.mPhase = phase;
+        }
+        publish(true);
     }
 
-    public static synchronized void finished() {
-        PROGRESS.mCounter = PROGRESS.mTotal;
-        PROGRESS.mLastNotificationTime = 0L;
-        update(0);
+    public static void finished() {
+        if (QUIET.get()) {
+            return;
+        }
+        synchronized (PROGRESS) {
+            PROGRESS.mCounter = PROGRESS.mTotal;
+        }
+        publish(true);
     }
 
     public static void update() {
         update(1);
     }
 
-    public static synchronized void update(int n) {
-        PROGRESS.mCounter += n;
-        if (PROGRESS.mCounter > PROGRESS.mTotal) {
-            Utils.message("Update counter exceeded total: " + PROGRESS.mCounter + " : " + PROGRESS.mTotal);
+    public static void update(int n) {
+        if (QUIET.get()) {
+            return;
         }
-        PROGRESS.notifyListeners(getProgress());
+        synchronized (PROGRESS) {
+            PROGRESS.mCounter += n;
+            if (PROGRESS.mCounter > PROGRESS.mTotal) {
+                Utils.message("Update counter exceeded total: " + PROGRESS.mCounter + " : " + PROGRESS.mTotal);
+            }
+        }
+        publish(false);
     }
 
     public static ProgressState getProgress() {
-        return new ProgressState(PROGRESS.mTotal, PROGRESS.mCounter);
+        synchronized (PROGRESS) {
+            return new ProgressState(PROGRESS.mTotal, PROGRESS.mCounter, PROGRESS.mPhase);
+        }
     }
 }
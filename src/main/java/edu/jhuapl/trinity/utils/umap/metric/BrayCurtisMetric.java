@@ -41,11 +41,24 @@ public final class BrayCurtisMetric extends Metric {
 
     @Override
     public float distance(final float[] x, final float[] y) {
+        return distance(x, 0, y, 0, x.length);
+    }
+
+    @Override
+    public float distance(final float[] x, final int xOffset, final float[] y, final int yOffset, final int length) {
+        if (useVectorKernels(length)) {
+            return VectorKernels.brayCurtis(x, xOffset, y, yOffset, length);
+        }
+        return scalarDistance(x, xOffset, y, yOffset, length);
+    }
+
+    @Override
+    float scalarDistance(final float[] x, final int xOffset, final float[] y, final int yOffset, final int length) {
         float numerator = 0;
         float denominator = 0;
-        for (int i = 0; i < x.length; ++i) {
-            numerator += Math.abs(x[i] - y[i]);
-            denominator += Math.abs(x[i] + y[i]);
+        for (int i = 0; i < length; ++i) {
+            numerator += Math.abs(x[xOffset + i] - y[yOffset + i]);
+            denominator += Math.abs(x[xOffset + i] + y[yOffset + i]);
         }
         return denominator > 0 ? numerator / denominator : 0;
     }
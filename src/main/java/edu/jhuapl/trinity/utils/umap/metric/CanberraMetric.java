@@ -41,11 +41,24 @@ public final class CanberraMetric extends Metric {
 
     @Override
     public float distance(final float[] x, final float[] y) {
+        return distance(x, 0, y, 0, x.length);
+    }
+
+    @Override
+    public float distance(final float[] x, final int xOffset, final float[] y, final int yOffset, final int length) {
+        if (useVectorKernels(length)) {
+            return VectorKernels.canberra(x, xOffset, y, yOffset, length);
+        }
+        return scalarDistance(x, xOffset, y, yOffset, length);
+    }
+
+    @Override
+    float scalarDistance(final float[] x, final int xOffset, final float[] y, final int yOffset, final int length) {
         float result = 0;
-        for (int i = 0; i < x.length; ++i) {
-            final float denominator = Math.abs(x[i]) + Math.abs(y[i]);
+        for (int i = 0; i < length; ++i) {
+            final float denominator = Math.abs(x[xOffset + i]) + Math.abs(y[yOffset + i]);
             if (denominator > 0) {
-                result += Math.abs(x[i] - y[i]) / denominator;
+                result += Math.abs(x[xOffset + i] - y[yOffset + i]) / denominator;
             }
         }
         return result;
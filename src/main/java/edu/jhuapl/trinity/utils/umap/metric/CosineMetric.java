@@ -43,13 +43,26 @@ public final class CosineMetric extends Metric {
 
     @Override
     public float distance(final float[] x, final float[] y) {
+        return distance(x, 0, y, 0, x.length);
+    }
+
+    @Override
+    public float distance(final float[] x, final int xOffset, final float[] y, final int yOffset, final int length) {
+        if (useVectorKernels(length)) {
+            return VectorKernels.cosine(x, xOffset, y, yOffset, length);
+        }
+        return scalarDistance(x, xOffset, y, yOffset, length);
+    }
+
+    @Override
+    float scalarDistance(final float[] x, final int xOffset, final float[] y, final int yOffset, final int length) {
         double result = 0.0;
         double normX = 0.0;
         double normY = 0.0;
-        for (int i = 0; i < x.length; ++i) {
-            result += x[i] * y[i];
-            normX += x[i] * x[i];
-            normY += y[i] * y[i];
+        for (int i = 0; i < length; ++i) {
+            result += x[xOffset + i] * y[yOffset + i];
+            normX += x[xOffset + i] * x[xOffset + i];
+            normY += y[yOffset + i] * y[yOffset + i];
         }
         if (normX == 0.0 && normY == 0.0) {
             return 0;
@@ -41,10 +41,23 @@ public final class ManhattanMetric extends Metric {
 
     @Override
     public float distance(final float[] x, final float[] y) {
+        return distance(x, 0, y, 0, x.length);
+    }
+
+    @Override
+    public float distance(final float[] x, final int xOffset, final float[] y, final int yOffset, final int length) {
+        if (useVectorKernels(length)) {
+            return VectorKernels.manhattan(x, xOffset, y, yOffset, length);
+        }
+        return scalarDistance(x, xOffset, y, yOffset, length);
+    }
+
+    @Override
+    float scalarDistance(final float[] x, final int xOffset, final float[] y, final int yOffset, final int length) {
         //  D(x, y) = \sum_i |x_i - y_i|
         float result = 0;
-        for (int i = 0; i < x.length; ++i) {
-            result += Math.abs(x[i] - y[i]);
+        for (int i = 0; i < length; ++i) {
+            result += Math.abs(x[xOffset + i] - y[yOffset + i]);
         }
         return result;
     }
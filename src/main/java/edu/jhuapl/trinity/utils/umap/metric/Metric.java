@@ -26,6 +26,7 @@ package edu.jhuapl.trinity.utils.umap.metric;
  */
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
@@ -57,6 +58,80 @@ public abstract class Metric {
      */
     public abstract float distance(final float[] x, final float[] y);
 
+    /**
+     * Distance between two points held in larger arrays, such as rows of a
+     * row-major matrix, without copying them out. Metrics that only
+     * implement the whole array form get copies of the ranges.
+     *
+     * @param x       array holding the first point
+     * @param xOffset index of the first point's first value
+     * @param y       array holding the second point
+     * @param yOffset index of the second point's first value
+     * @param length  dimension of the points
+     * @return distance between the points
+     */
+    public float distance(final float[] x, final int xOffset, final float[] y, final int yOffset, final int length) {
+        if (xOffset == 0 && yOffset == 0 && x.length == length && y.length == length) {
+            return distance(x, y);
+        }
+        return distance(Arrays.copyOfRange(x, xOffset, xOffset + length),
+            Arrays.copyOfRange(y, yOffset, yOffset + length));
+    }
+
+    /**
+     * Distance computed by the plain scalar loop, bypassing any vector
+     * kernel. Metrics without a vector kernel just use distance.
+     *
+     * @param x       array holding the first point
+     * @param xOffset index of the first point's first value
+     * @param y       array holding the second point
+     * @param yOffset index of the second point's first value
+     * @param length  dimension of the points
+     * @return distance between the points
+     */
+    float scalarDistance(final float[] x, final int xOffset, final float[] y, final int yOffset, final int length) {
+        return distance(x, xOffset, y, yOffset, length);
+    }
+
+    /**
+     * Number of float lanes the vector kernels process at once, or 0 when
+     * the jdk.incubator.vector module is not resolved in this runtime. Start
+     * the JVM with --add-modules jdk.incubator.vector to enable them.
+     */
+    private static final int VECTOR_LANES = vectorLanes();
+
+    private static int vectorLanes() {
+        try {
+            if (ModuleLayer.boot().findModule("jdk.incubator.vector").isEmpty())
+                return 0;
+            final int lanes = VectorKernels.lanes();
+            return lanes > 1 ? lanes : 0;
+        } catch (final LinkageError e) {
+            return 0;
+        }
+    }
+
+    /**
+     * Are the SIMD kernels of the Vector API in use.
+     *
+     * @return true iff vector kernels are used for long enough points
+     */
+    public static boolean isVectorized() {
+        return VECTOR_LANES > 0;
+    }
+
+    /**
+     * Should a distance over points of this length use a vector kernel.
+     * Points shorter than two vectors stay on the scalar loop, where the
+     * lane reductions cost more than the vector loop saves.
+     *
+     * @param length dimension of the points
+     * @return true iff the vector kernel should be used
+     */
+    static boolean useVectorKernels(final int length) {
+        return VECTOR_LANES > 0 && length >= 2 * VECTOR_LANES;
+    }
+
     /**
      * Is this an angular metric.
      *
@@ -113,6 +188,23 @@ public abstract class Metric {
         }
     }
 
+    /**
+     * Retrieve the name a metric is registered under.
+     *
+     * @param metric metric
+     * @return name of metric, or null if it is not a named metric
+     */
+    public static String getMetricName(final Metric metric) {
+        if (sMETRICS == null) generateDefaultMetrics();
+
+        for (final Map.Entry<String, Metric> entry : sMETRICS.entrySet()) {
+            if (entry.getValue() == metric) {
+                return entry.getKey();
+            }
+        }
+        return null;
+    }
+
     public static Metric getMetric(final String name) {
         if (sMETRICS == null) generateDefaultMetrics();
 
@@ -41,10 +41,23 @@ public class StandardisedEuclideanMetric extends Metric {
 
     @Override
     public float distance(final float[] x, final float[] y) {
+        return distance(x, 0, y, 0, x.length);
+    }
+
+    @Override
+    public float distance(final float[] x, final int xOffset, final float[] y, final int yOffset, final int length) {
+        if (useVectorKernels(length)) {
+            return (float) Math.sqrt(VectorKernels.standardisedSquaredEuclidean(x, xOffset, y, yOffset, length, mSigma));
+        }
+        return scalarDistance(x, xOffset, y, yOffset, length);
+    }
+
+    @Override
+    float scalarDistance(final float[] x, final int xOffset, final float[] y, final int yOffset, final int length) {
         //  D(x, y) = \sqrt{\sum_i \frac{(x_i - y_i)**2}{v_i}}
         float result = 0;
-        for (int i = 0; i < x.length; ++i) {
-            final float d = x[i] - y[i];
+        for (int i = 0; i < length; ++i) {
+            final float d = x[xOffset + i] - y[yOffset + i];
             result += d * d / mSigma[i];
         }
         return (float) Math.sqrt(result);
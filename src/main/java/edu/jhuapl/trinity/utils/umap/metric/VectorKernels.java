@@ -0,0 +1,259 @@
+/*
+ * BSD 3-Clause License
+ * Copyright (c) 2017, Leland McInnes, 2019 Tag.bio (Java port).
+ * See UMAPLicense.txt.
+ */
+package edu.jhuapl.trinity.utils.umap.metric;
+
+/*-
+ * #%L
+ * trinity
+ * %%
+ * Copyright (C) 2021 - 2023 The Johns Hopkins University Applied Physics Laboratory LLC
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import jdk.incubator.vector.FloatVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * SIMD kernels for the metrics, written against the incubating Vector API.
+ * Only referenced once Metric has confirmed the jdk.incubator.vector module
+ * is resolved, so the class never loads on a runtime without it. Each kernel
+ * reads <code>length</code> values from each array starting at the given
+ * offsets, processes whole vectors of the preferred species and finishes the
+ * tail scalar. Lanes accumulate separately, so sums can differ from the scalar
+ * loops in the last bits.
+ */
+final class VectorKernels {
+
+    private static final VectorSpecies<Float> SPECIES = FloatVector.SPECIES_PREFERRED;
+
+    private VectorKernels() {
+    }
+
+    static int lanes() {
+        return SPECIES.length();
+    }
+
+    static float squaredEuclidean(final float[] x, final int xOffset, final float[] y, final int yOffset, final int length) {
+        FloatVector acc = FloatVector.zero(SPECIES);
+        final int bound = SPECIES.loopBound(length);
+        int i = 0;
+        for (; i < bound; i += SPECIES.length()) {
+            final FloatVector d = FloatVector.fromArray(SPECIES, x, xOffset + i)
+                .sub(FloatVector.fromArray(SPECIES, y, yOffset + i));
+            acc = d.fma(d, acc);
+        }
+        float result = acc.reduceLanes(VectorOperators.ADD);
+        for (; i < length; ++i) {
+            final float d = x[xOffset + i] - y[yOffset + i];
+            result += d * d;
+        }
+        return result;
+    }
+
+    static float standardisedSquaredEuclidean(final float[] x, final int xOffset, final float[] y, final int yOffset, final int length, final float[] sigma) {
+        FloatVector acc = FloatVector.zero(SPECIES);
+        final int bound = SPECIES.loopBound(length);
+        int i = 0;
+        for (; i < bound; i += SPECIES.length()) {
+            final FloatVector d = FloatVector.fromArray(SPECIES, x, xOffset + i)
+                .sub(FloatVector.fromArray(SPECIES, y, yOffset + i));
+            acc = acc.add(d.mul(d).div(FloatVector.fromArray(SPECIES, sigma, i)));
+        }
+        float result = acc.reduceLanes(VectorOperators.ADD);
+        for (; i < length; ++i) {
+            final float d = x[xOffset + i] - y[yOffset + i];
+            result += d * d / sigma[i];
+        }
+        return result;
+    }
+
+    static float manhattan(final float[] x, final int xOffset, final float[] y, final int yOffset, final int length) {
+        FloatVector acc = FloatVector.zero(SPECIES);
+        final int bound = SPECIES.loopBound(length);
+        int i = 0;
+        for (; i < bound; i += SPECIES.length()) {
+            acc = acc.add(FloatVector.fromArray(SPECIES, x, xOffset + i)
+                .sub(FloatVector.fromArray(SPECIES, y, yOffset + i)).abs());
+        }
+        float result = acc.reduceLanes(VectorOperators.ADD);
+        for (; i < length; ++i) {
+            result += Math.abs(x[xOffset + i] - y[yOffset + i]);
+        }
+        return result;
+    }
+
+    static float chebyshev(final float[] x, final int xOffset, final float[] y, final int yOffset, final int length) {
+        FloatVector acc = FloatVector.zero(SPECIES);
+        final int bound = SPECIES.loopBound(length);
+        int i = 0;
+        for (; i < bound; i += SPECIES.length()) {
+            acc = acc.max(FloatVector.fromArray(SPECIES, x, xOffset + i)
+                .sub(FloatVector.fromArray(SPECIES, y, yOffset + i)).abs());
+        }
+        float result = acc.reduceLanes(VectorOperators.MAX);
+        for (; i < length; ++i) {
+            result = Math.max(result, Math.abs(x[xOffset + i] - y[yOffset + i]));
+        }
+        return result;
+    }
+
+    static double minkowskiSum(final float[] x, final int xOffset, final float[] y, final int yOffset, final int length, final float[] weights, final double power) {
+        final float p = (float) power;
+        FloatVector acc = FloatVector.zero(SPECIES);
+        final int bound = SPECIES.loopBound(length);
+        int i = 0;
+        for (; i < bound; i += SPECIES.length()) {
+            FloatVector d = FloatVector.fromArray(SPECIES, x, xOffset + i)
+                .sub(FloatVector.fromArray(SPECIES, y, yOffset + i)).abs();
+            if (weights != null) {
+                d = d.mul(FloatVector.fromArray(SPECIES, weights, i));
+            }
+            acc = acc.add(d.lanewise(VectorOperators.POW, p));
+        }
+        double result = acc.reduceLanes(VectorOperators.ADD);
+        for (; i < length; ++i) {
+            final float d = Math.abs(x[xOffset + i] - y[yOffset + i]);
+            result += Math.pow(weights != null ? weights[i] * d : d, power);
+        }
+        return result;
+    }
+
+    static float brayCurtis(final float[] x, final int xOffset, final float[] y, final int yOffset, final int length) {
+        FloatVector num = FloatVector.zero(SPECIES);
+        FloatVector den = FloatVector.zero(SPECIES);
+        final int bound = SPECIES.loopBound(length);
+        int i = 0;
+        for (; i < bound; i += SPECIES.length()) {
+            final FloatVector vx = FloatVector.fromArray(SPECIES, x, xOffset + i);
+            final FloatVector vy = FloatVector.fromArray(SPECIES, y, yOffset + i);
+            num = num.add(vx.sub(vy).abs());
+            den = den.add(vx.add(vy).abs());
+        }
+        float numerator = num.reduceLanes(VectorOperators.ADD);
+        float denominator = den.reduceLanes(VectorOperators.ADD);
+        for (; i < length; ++i) {
+            numerator += Math.abs(x[xOffset + i] - y[yOffset + i]);
+            denominator += Math.abs(x[xOffset + i] + y[yOffset + i]);
+        }
+        return denominator > 0 ? numerator / denominator : 0;
+    }
+
+    static float canberra(final float[] x, final int xOffset, final float[] y, final int yOffset, final int length) {
+        FloatVector acc = FloatVector.zero(SPECIES);
+        final int bound = SPECIES.loopBound(length);
+        int i = 0;
+        for (; i < bound; i += SPECIES.length()) {
+            final FloatVector vx = FloatVector.fromArray(SPECIES, x, xOffset + i);
+            final FloatVector vy = FloatVector.fromArray(SPECIES, y, yOffset + i);
+            final FloatVector den = vx.abs().add(vy.abs());
+            final VectorMask<Float> nonZero = den.compare(VectorOperators.GT, 0f);
+            //lanes with a zero denominator divide to NaN but are masked out of the sum
+            acc = acc.add(vx.sub(vy).abs().div(den), nonZero);
+        }
+        float result = acc.reduceLanes(VectorOperators.ADD);
+        for (; i < length; ++i) {
+            final float denominator = Math.abs(x[xOffset + i]) + Math.abs(y[yOffset + i]);
+            if (denominator > 0) {
+                result += Math.abs(x[xOffset + i] - y[yOffset + i]) / denominator;
+            }
+        }
+        return result;
+    }
+
+    static float cosine(final float[] x, final int xOffset, final float[] y, final int yOffset, final int length) {
+        FloatVector dot = FloatVector.zero(SPECIES);
+        FloatVector nx = FloatVector.zero(SPECIES);
+        FloatVector ny = FloatVector.zero(SPECIES);
+        final int bound = SPECIES.loopBound(length);
+        int i = 0;
+        for (; i < bound; i += SPECIES.length()) {
+            final FloatVector vx = FloatVector.fromArray(SPECIES, x, xOffset + i);
+            final FloatVector vy = FloatVector.fromArray(SPECIES, y, yOffset + i);
+            dot = vx.fma(vy, dot);
+            nx = vx.fma(vx, nx);
+            ny = vy.fma(vy, ny);
+        }
+        double result = dot.reduceLanes(VectorOperators.ADD);
+        double normX = nx.reduceLanes(VectorOperators.ADD);
+        double normY = ny.reduceLanes(VectorOperators.ADD);
+        for (; i < length; ++i) {
+            result += x[xOffset + i] * y[yOffset + i];
+            normX += x[xOffset + i] * x[xOffset + i];
+            normY += y[yOffset + i] * y[yOffset + i];
+        }
+        if (normX == 0.0 && normY == 0.0) {
+            return 0;
+        } else if (normX == 0.0 || normY == 0.0) {
+            return 1;
+        } else {
+            return (float) (1 - (result / Math.sqrt(normX * normY)));
+        }
+    }
+
+    static float correlation(final float[] x, final int xOffset, final float[] y, final int yOffset, final int length) {
+        FloatVector sx = FloatVector.zero(SPECIES);
+        FloatVector sy = FloatVector.zero(SPECIES);
+        final int bound = SPECIES.loopBound(length);
+        int i = 0;
+        for (; i < bound; i += SPECIES.length()) {
+            sx = sx.add(FloatVector.fromArray(SPECIES, x, xOffset + i));
+            sy = sy.add(FloatVector.fromArray(SPECIES, y, yOffset + i));
+        }
+        float muX = sx.reduceLanes(VectorOperators.ADD);
+        float muY = sy.reduceLanes(VectorOperators.ADD);
+        for (; i < length; ++i) {
+            muX += x[xOffset + i];
+            muY += y[yOffset + i];
+        }
+        muX /= length;
+        muY /= length;
+
+        final FloatVector mx = FloatVector.broadcast(SPECIES, muX);
+        final FloatVector my = FloatVector.broadcast(SPECIES, muY);
+        FloatVector dot = FloatVector.zero(SPECIES);
+        FloatVector nx = FloatVector.zero(SPECIES);
+        FloatVector ny = FloatVector.zero(SPECIES);
+        for (i = 0; i < bound; i += SPECIES.length()) {
+            final FloatVector vx = FloatVector.fromArray(SPECIES, x, xOffset + i).sub(mx);
+            final FloatVector vy = FloatVector.fromArray(SPECIES, y, yOffset + i).sub(my);
+            dot = vx.fma(vy, dot);
+            nx = vx.fma(vx, nx);
+            ny = vy.fma(vy, ny);
+        }
+        float dotProduct = dot.reduceLanes(VectorOperators.ADD);
+        float normX = nx.reduceLanes(VectorOperators.ADD);
+        float normY = ny.reduceLanes(VectorOperators.ADD);
+        for (; i < length; ++i) {
+            final float shiftedX = x[xOffset + i] - muX;
+            final float shiftedY = y[yOffset + i] - muY;
+            normX += shiftedX * shiftedX;
+            normY += shiftedY * shiftedY;
+            dotProduct += shiftedX * shiftedY;
+        }
+
+        if (normX == 0.0 && normY == 0.0) {
+            return 0;
+        } else if (dotProduct == 0.0) {
+            return 1;
+        } else {
+            return (float) (1 - (dotProduct / Math.sqrt(normX * normY)));
+        }
+    }
+}
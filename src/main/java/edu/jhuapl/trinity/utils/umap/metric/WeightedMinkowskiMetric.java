@@ -41,10 +41,23 @@ public class WeightedMinkowskiMetric extends Metric {
 
     @Override
     public float distance(final float[] x, final float[] y) {
+        return distance(x, 0, y, 0, x.length);
+    }
+
+    @Override
+    public float distance(final float[] x, final int xOffset, final float[] y, final int yOffset, final int length) {
+        if (useVectorKernels(length)) {
+            return (float) Math.pow(VectorKernels.minkowskiSum(x, xOffset, y, yOffset, length, mWeights, mPower), 1 / mPower);
+        }
+        return scalarDistance(x, xOffset, y, yOffset, length);
+    }
+
+    @Override
+    float scalarDistance(final float[] x, final int xOffset, final float[] y, final int yOffset, final int length) {
         // D(x, y) = \left(\sum_i w_i |x_i - y_i|^p\right)^{\frac{1}{p}}
         float result = 0;
-        for (int i = 0; i < x.length; ++i) {
-            result += Math.pow(mWeights[i] * Math.abs(x[i] - y[i]), mPower);
+        for (int i = 0; i < length; ++i) {
+            result += Math.pow(mWeights[i] * Math.abs(x[xOffset + i] - y[yOffset + i]), mPower);
         }
         return (float) Math.pow(result, 1 / mPower);
     }
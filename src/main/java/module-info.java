@@ -38,6 +38,7 @@ module edu.jhuapl.trinity {
     requires com.fasterxml.jackson.databind;
     requires webcam.capture;
     requires jdk.crypto.ec;
+    requires static jdk.incubator.vector;
     opens edu.jhuapl.trinity.javafx.components.radial to lit.litfx.controls;
     opens edu.jhuapl.trinity to webcam.capture;
     opens edu.jhuapl.trinity.data to javafx.base;
@@ -49,4 +50,6 @@ module edu.jhuapl.trinity {
     exports edu.jhuapl.trinity.data.messages;
     exports edu.jhuapl.trinity.data.files;
     exports edu.jhuapl.trinity.data.terrain;
+    exports edu.jhuapl.trinity.utils.umap;
+    exports edu.jhuapl.trinity.utils.umap.metric;
 }
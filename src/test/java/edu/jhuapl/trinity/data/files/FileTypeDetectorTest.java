@@ -0,0 +1,100 @@
+package edu.jhuapl.trinity.data.files;
+
+/*-
+ * #%L
+ * trinity
+ * %%
+ * Copyright (C) 2021 - 2023 The Johns Hopkins University Applied Physics Laboratory LLC
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+
+import edu.jhuapl.trinity.data.files.FileTypeDetector.FileType;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class FileTypeDetectorTest {
+
+    public FileTypeDetectorTest() {
+    }
+
+    private static File write(String content) throws IOException {
+        File file = Files.createTempFile("trinity", ".txt").toFile();
+        file.deleteOnExit();
+        Files.writeString(file.toPath(), content, StandardCharsets.UTF_8);
+        return file;
+    }
+
+    /**
+     * Test of detect with JSON files, of class FileTypeDetector.
+     */
+    @Test
+    public void testDetectJson() throws IOException {
+        System.out.println("detectJson");
+        assertEquals(FileType.FEATURE_COLLECTION, FileTypeDetector.detect(
+            write("{\"type\": \"FeatureCollection\", \"features\": []}")));
+        assertEquals(FileType.GAUSSIAN_MIXTURE_COLLECTION, FileTypeDetector.detect(
+            write("\n  {\"type\":\"GaussianMixtureCollection\",\"mixtures\":[]}")));
+        assertEquals(FileType.LABEL_CONFIG, FileTypeDetector.detect(
+            write("{\n    \"messageType\": \"label_config\",\n    \"labels\": {}\n}")));
+        assertEquals(FileType.MANIFOLD_DATA, FileTypeDetector.detect(
+            write("{\"messageType\": \"manifold_data\", \"points\": []}")));
+        //the type field after more than a prefix worth of values
+        StringBuilder sb = new StringBuilder("{\"features\": [");
+        for (int i = 0; i < 20_000; i++)
+            sb.append(i == 0 ? "" : ",").append("{\"data\": [1.0, 2.0], \"type\": \"x\"}");
+        sb.append("], \"type\": \"FeatureCollection\"}");
+        assertTrue(sb.length() > FileTypeDetector.PREFIX_BYTES);
+        File late = write(sb.toString());
+        assertEquals(FileType.FEATURE_COLLECTION, FileTypeDetector.detect(late));
+        assertTrue(FeatureCollectionFile.isFeatureCollectionFile(late));
+        assertFalse(LabelConfigFile.isLabelConfigFile(late));
+        //only the root object's type counts
+        assertEquals(FileType.UNKNOWN, FileTypeDetector.detect(
+            write("{\"inner\": {\"type\": \"FeatureCollection\"}}")));
+        assertEquals(FileType.UNKNOWN, FileTypeDetector.detect(
+            write("{type: FeatureCollection}")));
+    }
+
+    /**
+     * Test of detect with text files, of class FileTypeDetector.
+     */
+    @Test
+    public void testDetectText() throws IOException {
+        System.out.println("detectText");
+        assertEquals(FileType.TERRAIN_TEXT, FileTypeDetector.detect(
+            write("TERRAIN_TEXT_FILE\r\n1 2 3\r\n")));
+        assertEquals(FileType.TRIAL, FileTypeDetector.detect(
+            write("﻿TrialID 1\n0.1,0.2\n")));
+        assertEquals(FileType.CDC_CSV, FileTypeDetector.detect(
+            write(CdcCsvFile.FILE_DESC + ",extra\nA,1,B,2\n")));
+        assertEquals(FileType.ZERO_PILOT_LATENTS, FileTypeDetector.detect(
+            write("x,labels,traj_num,y\n")));
+        //markers only count on the first line
+        assertEquals(FileType.UNKNOWN, FileTypeDetector.detect(
+            write("header\nTERRAIN_TEXT_FILE\n")));
+        assertEquals(FileType.UNKNOWN, FileTypeDetector.detect(write("")));
+        assertEquals(FileType.UNKNOWN, FileTypeDetector.detectText("MCCLOD"));
+        assertEquals(FileType.MCCLOD_SPLIT_DATA, FileTypeDetector.detectText("MCCLOD Split Data v2"));
+    }
+}
@@ -0,0 +1,75 @@
+package edu.jhuapl.trinity.javafx.javafx3d;
+
+/*-
+ * #%L
+ * trinity
+ * %%
+ * Copyright (C) 2021 - 2023 The Johns Hopkins University Applied Physics Laboratory LLC
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import edu.jhuapl.trinity.data.HyperspaceSeed;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class DirectedScatterDataModelTest {
+
+    public DirectedScatterDataModelTest() {
+    }
+
+    private static Perspective3DNode node(double x, boolean visible) {
+        HyperspaceSeed seed = new HyperspaceSeed(0, 1, 2, 0, 1, 2, new double[]{x, 0, 0});
+        Perspective3DNode pNode = new Perspective3DNode(x, 0, 0, x, 0, 0, seed);
+        pNode.visible = visible;
+        return pNode;
+    }
+
+    /**
+     * Test of findIndexFromVisibleFacePoint and findVisibleFacePointFromIndex,
+     * of class DirectedScatterDataModel.
+     */
+    @Test
+    public void testFacePointMaps() {
+        System.out.println("facePointMaps");
+        DirectedScatterDataModel model = new DirectedScatterDataModel();
+        Perspective3DNode[] nodes = new Perspective3DNode[100];
+        for (int i = 0; i < nodes.length; i++)
+            nodes[i] = node(i, i % 4 != 1);
+        model.setNodes(nodes);
+        model.setLimits(-100, 100, -100, 100, -100, 100);
+        model.updateModel(4000, 4000);
+        assertEquals(75, model.data.size());
+        for (int face = 0; face < model.data.size(); face++) {
+            int index = model.findIndexFromVisibleFacePoint(face);
+            //the linear walk the maps replace
+            int expected = -1;
+            for (int i = model.store.nextVisible(0), count = 0; i >= 0; i = model.store.nextVisible(i + 1)) {
+                if (count++ == face) {
+                    expected = i;
+                    break;
+                }
+            }
+            assertEquals(expected, index);
+            assertEquals(face, model.findVisibleFacePointFromIndex(index));
+        }
+        assertEquals(-1, model.findVisibleFacePointFromIndex(1));
+        assertEquals(-1, model.findIndexFromVisibleFacePoint(75));
+        assertEquals(-1, model.findIndexFromVisibleFacePoint(-1));
+        //maps follow the points drawn, not a reset
+        model.reset();
+        assertEquals(4, model.findIndexFromVisibleFacePoint(3));
+    }
+}
@@ -0,0 +1,243 @@
+package edu.jhuapl.trinity.javafx.javafx3d;
+
+/*-
+ * #%L
+ * trinity
+ * %%
+ * Copyright (C) 2021 - 2023 The Johns Hopkins University Applied Physics Laboratory LLC
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+import edu.jhuapl.trinity.data.HyperspaceSeed;
+import edu.jhuapl.trinity.data.messages.FeatureVector;
+import javafx.scene.paint.Color;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+public class FeatureWindowTest {
+
+    public FeatureWindowTest() {
+    }
+
+    private static void add(FeatureWindow window, double value) {
+        FeatureVector fv = new FeatureVector();
+        fv.setData(List.of(value));
+        HyperspaceSeed seed = new HyperspaceSeed(0, 0, 0, 0, 0, 0, new double[]{value});
+        window.add(fv, seed, new Perspective3DNode(value, value, value, 0, 0, 0, seed));
+    }
+
+    /**
+     * Test of add past capacity, of class FeatureWindow.
+     */
+    @Test
+    public void testEviction() {
+        System.out.println("eviction");
+        FeatureWindow window = new FeatureWindow(20);
+        List<Double> evicted = new ArrayList<>();
+        window.setEvictionListener(fv -> evicted.add(fv.getData().get(0)));
+        for (int i = 0; i < 50; i++)
+            add(window, i);
+        assertEquals(20, window.size());
+        assertEquals(30, evicted.size());
+        assertEquals(29.0, evicted.get(29));
+        for (int i = 0; i < 20; i++) {
+            double expected = 30 + i;
+            //vector, seed and node must still line up after wrapping
+            assertEquals(expected, window.featureVectors().get(i).getData().get(0));
+            assertEquals(expected, window.getSeed(i).vector[0]);
+            assertSame(window.getSeed(i), window.getNode(i).factorAnalysisSeed);
+        }
+        FeatureVector[] array = window.featureVectors().toArray(FeatureVector[]::new);
+        assertEquals(20, array.length);
+        assertEquals(49.0, array[19].getData().get(0));
+
+        window.setCapacity(5);
+        assertEquals(5, window.size());
+        assertEquals(45.0, window.featureVectors().get(0).getData().get(0));
+        Perspective3DNode[] nodes = window.toNodeArray(1);
+        assertEquals(6, nodes.length);
+        assertEquals(null, nodes[0]);
+        assertEquals(49.0, nodes[5].xCoord);
+    }
+
+    /**
+     * Test of toNodeArray draw order, of class FeatureWindow.
+     */
+    @Test
+    public void testDrawOrder() {
+        System.out.println("drawOrder");
+        FeatureWindow window = new FeatureWindow(16);
+        for (int i = 0; i < 16; i++)
+            add(window, i);
+        //not wrapped yet, draw order is oldest first
+        assertEquals(0.0, window.toNodeArray(0)[0].xCoord);
+        Perspective3DNode[] before = window.toNodeArray(1);
+        for (int i = 16; i < 21; i++)
+            add(window, i);
+        Perspective3DNode[] after = window.toNodeArray(1);
+        assertEquals(17, after.length);
+        //the five newest replaced the five oldest in place, the rest kept position
+        for (int p = 0; p < 16; p++) {
+            if (p < 5)
+                assertEquals(16.0 + p, after[p + 1].xCoord);
+            else
+                assertSame(before[p + 1], after[p + 1]);
+        }
+        for (int i = 0; i < 16; i++) {
+            int position = window.drawPosition(i);
+            assertSame(window.getNode(i), after[position + 1]);
+            assertEquals(i, window.indexAtDrawPosition(position));
+        }
+        assertEquals(-1, window.drawPosition(16));
+        assertEquals(-1, window.indexAtDrawPosition(-1));
+    }
+
+    /**
+     * Test of evicting past the boxed Long cache, of class FeatureWindow.
+     */
+    @Test
+    public void testEvictionReleasesVectors() {
+        System.out.println("evictionReleasesVectors");
+        FeatureWindow window = new FeatureWindow(10);
+        List<FeatureVector> evicted = new ArrayList<>();
+        window.setEvictionListener(evicted::add);
+        for (int i = 0; i < 300; i++)
+            add(window, i);
+        assertEquals(290, evicted.size());
+        assertEquals(10, window.trackedVectors());
+        assertEquals(-1, window.indexOf(evicted.get(289)));
+        assertEquals(9, window.indexOf(window.featureVectors().get(9)));
+    }
+
+    /**
+     * Test of getSequence and indexOfSequence, of class FeatureWindow.
+     */
+    @Test
+    public void testSequence() {
+        System.out.println("sequence");
+        FeatureWindow window = new FeatureWindow(4);
+        for (int i = 0; i < 3; i++)
+            add(window, i);
+        long sequence = window.getSequence(2);
+        assertEquals(2, window.indexOfSequence(sequence));
+        add(window, 3);
+        add(window, 4);
+        assertEquals(1, window.indexOfSequence(sequence));
+        assertEquals(4.0, window.featureVectors().get(window.indexOfSequence(sequence + 2)).getData().get(0));
+        FeatureVector tracked = window.featureVectors().get(1);
+        assertEquals(1, window.indexOf(tracked));
+        assertEquals(-1, window.indexOf(new FeatureVector()));
+        add(window, 5);
+        add(window, 6);
+        assertEquals(-1, window.indexOfSequence(sequence));
+        assertEquals(-1, window.indexOf(tracked));
+        assertEquals(3, window.indexOf(window.featureVectors().get(3)));
+        window.clear();
+        assertEquals(0, window.size());
+        assertEquals(-1, window.indexOfSequence(sequence + 4));
+        add(window, 7);
+        assertArrayEquals(new double[]{7.0}, window.getSeed(0).vector);
+    }
+
+    /**
+     * Test of per entry filters surviving growth and eviction, of class
+     * FeatureWindow.
+     */
+    @Test
+    public void testVisibility() {
+        System.out.println("visibility");
+        FeatureWindow window = new FeatureWindow(40);
+        for (int i = 0; i < 10; i++)
+            add(window, i);
+        window.setVisible(3, false);
+        //grows the ring twice
+        for (int i = 10; i < 40; i++)
+            add(window, i);
+        for (int i = 0; i < 40; i++)
+            assertEquals(i != 3, window.isVisible(i));
+        add(window, 40);
+        add(window, 41);
+        window.refreshVisibility();
+        assertEquals(false, window.isVisible(1));
+        assertEquals(false, window.getNode(1).visible);
+        assertEquals(false, window.getSeed(1).visible);
+        window.setAllVisible();
+        assertEquals(true, window.isVisible(1));
+    }
+
+    /**
+     * Test of filterByTerm and filterByScore after eviction, of class
+     * FeatureWindow.
+     */
+    @Test
+    public void testFilters() {
+        System.out.println("filters");
+        FeatureWindow window = new FeatureWindow(8);
+        for (int i = 0; i < 12; i++) {
+            FeatureVector fv = new FeatureVector();
+            fv.setData(List.of((double) i));
+            fv.getMetaData().put("parity", i % 2 == 0 ? "even" : "odd");
+            fv.setScore(i / 10.0);
+            HyperspaceSeed seed = new HyperspaceSeed(0, 0, 0, 0, 0, 0, new double[]{i});
+            window.add(fv, seed, new Perspective3DNode(i, i, i, 0, 0, 0, seed));
+        }
+        //window holds 4..11
+        assertEquals(4, window.filterByTerm("even"));
+        assertEquals(2, window.filterByScore(0.55, 2.0));
+        for (int i = 0; i < 8; i++)
+            assertEquals(i + 4 >= 6 && (i + 4) % 2 == 0, window.isVisible(i));
+        window.setAllVisible();
+        assertEquals(8, window.filterByTerm("missing"));
+        assertEquals(false, window.isVisible(7));
+    }
+
+    /**
+     * Test of colorNodesByLabel and colorNodesByLayer, of class FeatureWindow.
+     */
+    @Test
+    public void testColorNodes() {
+        System.out.println("colorNodes");
+        FeatureWindow window = new FeatureWindow(30);
+        for (int i = 0; i < 40; i++) {
+            HyperspaceSeed seed = new HyperspaceSeed(0, 0, 0, 0, 0, 0, new double[]{i});
+            seed.label = i % 2 == 0 ? "even" : "odd";
+            seed.layer = i % 3;
+            window.add(null, seed, new Perspective3DNode(i, i, i, 0, 0, 0, seed));
+        }
+        AtomicInteger lookups = new AtomicInteger();
+        window.colorNodesByLabel(label -> {
+            lookups.incrementAndGet();
+            return label.equals("even") ? Color.RED : Color.BLUE;
+        });
+        assertEquals(2, lookups.get());
+        for (int i = 0; i < 30; i++)
+            assertEquals((i + 10) % 2 == 0 ? Color.RED : Color.BLUE, window.getNode(i).nodeColor);
+        lookups.set(0);
+        Color[] layerColors = {Color.RED, Color.GREEN, Color.BLUE};
+        window.colorNodesByLayer(layer -> {
+            lookups.incrementAndGet();
+            return layerColors[layer];
+        });
+        assertEquals(3, lookups.get());
+        for (int i = 0; i < 30; i++)
+            assertEquals(layerColors[(i + 10) % 3], window.getNode(i).nodeColor);
+    }
+}
@@ -0,0 +1,79 @@
+package edu.jhuapl.trinity.javafx.javafx3d;
+
+/*-
+ * #%L
+ * trinity
+ * %%
+ * Copyright (C) 2021 - 2023 The Johns Hopkins University Applied Physics Laboratory LLC
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import edu.jhuapl.trinity.data.HyperspaceSeed;
+import edu.jhuapl.trinity.utils.MicroBenchmark;
+
+import java.util.Random;
+
+/**
+ * Hand-run comparison of mapping a picked face back to a point store index,
+ * by walking the visible points as findIndexFromVisibleFacePoint used to
+ * versus the maps DirectedScatterDataModel now builds with the drawn points.
+ */
+public class PickingBenchmark {
+
+    public static void main(String[] args) {
+        int n = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        int picks = 1000;
+        Random random = new Random(7);
+        Perspective3DNode[] nodes = new Perspective3DNode[n];
+        for (int i = 0; i < n; i++) {
+            HyperspaceSeed seed = new HyperspaceSeed(0, 1, 2, 0, 1, 2,
+                new double[]{random.nextGaussian(), random.nextGaussian(), random.nextGaussian()});
+            nodes[i] = new Perspective3DNode(seed.vector[0], seed.vector[1], seed.vector[2],
+                0, 0, 0, seed);
+            nodes[i].visible = random.nextInt(10) != 0;
+        }
+        DirectedScatterDataModel model = new DirectedScatterDataModel();
+        model.setNodes(nodes);
+        model.setLimits(-4, 4, -4, 4, -4, 4);
+        MicroBenchmark.run("getVisiblePoints with maps, " + n + " points", 3, 10,
+            () -> model.getVisiblePoints(4000, 4000));
+        int visible = model.data.size() > 0 ? model.data.size() : model.store.visibleCount();
+        int[] faces = new int[picks];
+        for (int i = 0; i < picks; i++)
+            faces[i] = random.nextInt(visible);
+        System.out.println(visible + " visible points, " + picks + " picks per iteration");
+        MicroBenchmark.run("visible walk per pick", 1, 5, () -> {
+            long sum = 0;
+            for (int face : faces)
+                sum += walk(model.store, face);
+            return sum;
+        });
+        MicroBenchmark.run("face point map per pick", 20, 50, () -> {
+            long sum = 0;
+            for (int face : faces)
+                sum += model.findIndexFromVisibleFacePoint(face);
+            return sum;
+        });
+    }
+
+    private static int walk(PointStore store, int face) {
+        int count = 0;
+        for (int i = store.nextVisible(0); i >= 0; i = store.nextVisible(i + 1)) {
+            if (count++ == face)
+                return i;
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,105 @@
+package edu.jhuapl.trinity.javafx.javafx3d;
+
+/*-
+ * #%L
+ * trinity
+ * %%
+ * Copyright (C) 2021 - 2023 The Johns Hopkins University Applied Physics Laboratory LLC
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import edu.jhuapl.trinity.data.HyperspaceSeed;
+import javafx.scene.paint.Color;
+import org.fxyz3d.geometry.Point3D;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class PointStoreTest {
+
+    public PointStoreTest() {
+    }
+
+    private static Perspective3DNode node(double x, double y, double z, String label, boolean visible) {
+        HyperspaceSeed seed = new HyperspaceSeed(0, 1, 2, 0, 1, 2, new double[]{x, y, z});
+        seed.label = label;
+        Perspective3DNode pNode = new Perspective3DNode(x, y, z, x, y, z, seed);
+        pNode.nodeColor = Color.hsb(x * 10.0, 1, 1);
+        pNode.visible = visible;
+        return pNode;
+    }
+
+    /**
+     * Test of setVisible and nextVisible, of class PointStore.
+     */
+    @Test
+    public void testVisibility() {
+        System.out.println("visibility");
+        PointStore store = new PointStore(1);
+        Perspective3DNode[] nodes = new Perspective3DNode[200];
+        for (int i = 0; i < nodes.length; i++)
+            nodes[i] = node(i, 0, 0, i % 2 == 0 ? "even" : "odd", i % 3 == 0);
+        store.setAll(nodes);
+        assertEquals(200, store.size());
+        assertEquals(67, store.visibleCount());
+        int expected = 0;
+        for (int i = store.nextVisible(0); i >= 0; i = store.nextVisible(i + 1)) {
+            assertEquals(expected, i);
+            expected += 3;
+        }
+        assertEquals(201, expected);
+        store.setVisible(3, false);
+        store.setVisible(3, false);
+        assertFalse(store.isVisible(3));
+        assertEquals(66, store.visibleCount());
+        assertEquals(6, store.nextVisible(1));
+        assertEquals(store.getLabelId(0), store.internLabel("even"));
+        assertEquals("odd", store.labelOf(store.getLabelId(1)));
+        store.clear();
+        assertEquals(0, store.visibleCount());
+        assertEquals(-1, store.nextVisible(0));
+    }
+
+    /**
+     * Test of getVisiblePoints, of class DirectedScatterDataModel.
+     */
+    @Test
+    public void testGetVisiblePoints() {
+        System.out.println("getVisiblePoints");
+        DirectedScatterDataModel model = new DirectedScatterDataModel();
+        model.setNodes(new Perspective3DNode[]{
+            node(1, 2, 3, "a", true), node(4, 5, 6, "b", false), node(-1, -2, -3, "a", true)});
+        model.setLimits(-10, 10, -10, 10, -10, 10);
+        model.setShifts(1, 0, 0);
+        List<Point3D> points = model.getVisiblePoints(400, 200);
+        assertEquals(2, points.size());
+        //((x - shift) * scale - min) * halfWidth / range - quarterWidth, y reflected
+        Point3D p = points.get(0);
+        assertEquals((float) ((0 + 10) * 200.0 / 20) - 100f, p.x, 1e-4);
+        assertEquals(-((float) ((2 + 10) * 100.0 / 20) - 100f), p.y, 1e-4);
+        assertEquals((float) ((3 + 10) * 200.0 / 20) - 100f, p.z, 1e-4);
+        assertEquals((float) Color.hsb(10, 1, 1).getHue(), p.f, 1e-4);
+        assertEquals((float) ((-2 + 10) * 200.0 / 20) - 100f, points.get(1).x, 1e-4);
+        assertEquals(0, model.findIndexFromVisibleFacePoint(0));
+        assertEquals(2, model.findIndexFromVisibleFacePoint(1));
+        assertEquals(-1, model.findIndexFromVisibleFacePoint(2));
+        assertTrue(model.getFixedEndPoints(0f).stream().allMatch(e -> e.x == 0f && e.y == 0f && e.z == 0f));
+        assertEquals(3, model.getFixedEndPoints(0f).size());
+    }
+}
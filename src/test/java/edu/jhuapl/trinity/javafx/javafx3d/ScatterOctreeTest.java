@@ -0,0 +1,121 @@
+package edu.jhuapl.trinity.javafx.javafx3d;
+
+/*-
+ * #%L
+ * trinity
+ * %%
+ * Copyright (C) 2021 - 2023 The Johns Hopkins University Applied Physics Laboratory LLC
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ScatterOctreeTest {
+
+    public ScatterOctreeTest() {
+    }
+
+    //point 0 is the dummy, the rest are two clusters far apart on x
+    private static PackedPoint3DList clusters(int n, long seed) {
+        Random random = new Random(seed);
+        float[] xyz = new float[3 * n];
+        float[] f = new float[n];
+        for (int i = 1; i < n; i++) {
+            float side = i % 2 == 0 ? 1000f : -1000f;
+            xyz[3 * i] = side + (float) random.nextGaussian() * 50f;
+            xyz[3 * i + 1] = (float) random.nextGaussian() * 50f;
+            xyz[3 * i + 2] = (float) random.nextGaussian() * 50f;
+            //mostly one label per cluster with a sprinkling of another
+            f[i] = i % 10 == 1 ? 300f : side > 0 ? 60f : 120f;
+        }
+        return new PackedPoint3DList(xyz, f, n);
+    }
+
+    /**
+     * Test of select within a budget, of class ScatterOctree.
+     */
+    @Test
+    public void testBudget() {
+        System.out.println("budget");
+        PackedPoint3DList points = clusters(20001, 1L);
+        ScatterOctree octree = new ScatterOctree();
+        octree.build(points);
+        for (int budget : new int[]{1, 2, 10, 500, 2000}) {
+            ScatterOctree.Selection selection = octree.select(0, 0, -4000, budget);
+            assertTrue(selection.size() <= budget);
+            assertEquals(0, selection.source[0]);
+            //every point is drawn or stood in for exactly once
+            if (selection.size() > 1)
+                assertEquals(points.size(), Arrays.stream(selection.counts).sum());
+            for (int i = 1; i < selection.size(); i++) {
+                int source = selection.source[i];
+                assertTrue(source > 0 && source < points.size());
+            }
+        }
+        //a big enough budget draws every point as itself
+        ScatterOctree.Selection selection = octree.select(0, 0, -4000, points.size());
+        assertEquals(points.size(), selection.size());
+        int[] sources = selection.source.clone();
+        Arrays.sort(sources);
+        for (int i = 0; i < sources.length; i++)
+            assertEquals(i, sources[i]);
+        for (int i = 0; i < selection.size(); i++) {
+            int source = selection.source[i];
+            assertEquals(points.getX(source), selection.points.getX(i));
+            assertEquals(points.getF(source), selection.points.getF(i));
+        }
+    }
+
+    /**
+     * Test of refinement near the eye and aggregate colors, of class ScatterOctree.
+     */
+    @Test
+    public void testRefinesNearEye() {
+        System.out.println("refinesNearEye");
+        PackedPoint3DList points = clusters(20001, 2L);
+        ScatterOctree octree = new ScatterOctree();
+        octree.build(points);
+        ScatterOctree.Selection selection = octree.select(1200, 0, 0, 1000);
+        int near = 0, far = 0;
+        for (int i = 1; i < selection.size(); i++) {
+            float x = selection.points.getX(i);
+            if (x > 0)
+                near++;
+            else
+                far++;
+            //aggregates carry the dominant label of their cluster
+            if (selection.counts[i] > 20)
+                assertEquals(x > 0 ? 60f : 120f, selection.points.getF(i));
+        }
+        assertTrue(near > 4 * far, near + " near, " + far + " far");
+        //moving the eye to the other cluster swaps the detail over
+        selection = octree.select(-1200, 0, 0, 1000);
+        near = 0;
+        far = 0;
+        for (int i = 1; i < selection.size(); i++) {
+            if (selection.points.getX(i) < 0)
+                near++;
+            else
+                far++;
+        }
+        assertTrue(near > 4 * far, near + " near, " + far + " far");
+    }
+}
@@ -0,0 +1,113 @@
+package edu.jhuapl.trinity.messages;
+
+/*-
+ * #%L
+ * trinity
+ * %%
+ * Copyright (C) 2021 - 2023 The Johns Hopkins University Applied Physics Laboratory LLC
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import edu.jhuapl.trinity.data.messages.FeatureVector;
+import edu.jhuapl.trinity.data.messages.PackedDoubleList;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class FeatureVectorFrameTest {
+
+    public FeatureVectorFrameTest() {
+    }
+
+    static FeatureVector randomFeatureVector(int dimensions, long seed) {
+        Random random = new Random(seed);
+        FeatureVector fv = new FeatureVector();
+        for (int i = 0; i < dimensions; i++) {
+            fv.getData().add(random.nextGaussian());
+        }
+        fv.setLabel("héllo");
+        fv.setScore(-2.75);
+        fv.setPfa(0.00086);
+        fv.setLayer(3);
+        fv.setFrameId(41455);
+        fv.setImageId(7952);
+        return fv;
+    }
+
+    /**
+     * Test of encode and decode, of class FeatureVectorFrame.
+     */
+    @Test
+    public void testRoundTrip() {
+        System.out.println("roundTrip");
+        FeatureVector fv = randomFeatureVector(512, 1);
+        //reusable buffer with a frame at a non zero offset and trailing space
+        ByteBuffer buffer = ByteBuffer.allocate(16384);
+        buffer.position(7);
+        FeatureVectorFrame.encode(fv, FeatureVectorFrame.FLOAT64, buffer);
+        int end = buffer.position();
+        //the caller's byte order is its own business, decode must not change it
+        buffer.limit(end).position(7);
+        buffer.order(ByteOrder.BIG_ENDIAN);
+        assertTrue(FeatureVectorFrame.isFeatureVectorFrame(buffer));
+        FeatureVector decoded = FeatureVectorFrame.decode(buffer);
+        assertEquals(end, buffer.position());
+        assertEquals(ByteOrder.BIG_ENDIAN, buffer.order());
+        assertTrue(decoded.getData() instanceof PackedDoubleList);
+        assertEquals(fv.getData(), decoded.getData());
+        assertEquals(fv.getLabel(), decoded.getLabel());
+        assertEquals(fv.getScore(), decoded.getScore());
+        assertEquals(fv.getPfa(), decoded.getPfa());
+        assertEquals(fv.getLayer(), decoded.getLayer());
+        assertEquals(fv.getFrameId(), decoded.getFrameId());
+        assertEquals(fv.getImageId(), decoded.getImageId());
+
+        byte[] frame = FeatureVectorFrame.encode(fv, FeatureVectorFrame.FLOAT32);
+        assertEquals(FeatureVectorFrame.frameBytes(512, FeatureVectorFrame.FLOAT32, fv.getLabel()), frame.length);
+        decoded = FeatureVectorFrame.decode(ByteBuffer.wrap(frame));
+        double[] expected = FeatureVector.mapToStateArray.apply(fv);
+        for (int i = 0; i < expected.length; i++) {
+            expected[i] = (float) expected[i];
+        }
+        assertArrayEquals(expected, FeatureVector.mapToStateArray.apply(decoded));
+    }
+
+    /**
+     * Test of isFeatureVectorFrame and decode with bad input.
+     */
+    @Test
+    public void testRejects() {
+        System.out.println("rejects");
+        String json = "{\"messageType\": \"feature_vector\", \"data\": [0.1, 0.2, 0.3], \"label\": \"a\"}";
+        assertFalse(FeatureVectorFrame.isFeatureVectorFrame(
+            ByteBuffer.wrap(json.getBytes(StandardCharsets.UTF_8))));
+
+        byte[] frame = FeatureVectorFrame.encode(randomFeatureVector(16, 2), FeatureVectorFrame.FLOAT32);
+        ByteBuffer truncated = ByteBuffer.wrap(frame, 0, frame.length - 1);
+        assertTrue(FeatureVectorFrame.isFeatureVectorFrame(truncated));
+        assertThrows(IllegalArgumentException.class, () -> FeatureVectorFrame.decode(truncated));
+        assertEquals(0, truncated.position());
+        assertEquals(ByteOrder.BIG_ENDIAN, truncated.order());
+    }
+}
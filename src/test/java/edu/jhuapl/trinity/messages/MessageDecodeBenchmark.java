@@ -0,0 +1,160 @@
+package edu.jhuapl.trinity.messages;
+
+/*-
+ * #%L
+ * trinity
+ * %%
+ * Copyright (C) 2021 - 2023 The Johns Hopkins University Applied Physics Laboratory LLC
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import edu.jhuapl.trinity.data.FactorAnalysisState;
+import edu.jhuapl.trinity.data.messages.ChannelFrame;
+import edu.jhuapl.trinity.data.messages.FeatureVector;
+import edu.jhuapl.trinity.data.messages.GaussianMixture;
+import edu.jhuapl.trinity.data.messages.LabelConfig;
+import edu.jhuapl.trinity.utils.MicroBenchmark;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+/**
+ * Hand-run comparison of the per message cost of decoding a feature vector
+ * received as JSON, routed either by the old chain of String.contains checks
+ * or by MessageProcessor.peekMessageType, versus as a binary FeatureVectorFrame.
+ */
+public class MessageDecodeBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        int dimensions = args.length > 0 ? Integer.parseInt(args[0]) : 512;
+        int batch = 1000;
+        ObjectMapper mapper = new ObjectMapper();
+        mapper.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+        Random random = new Random(7);
+        FeatureVector fv = new FeatureVector();
+        for (int i = 0; i < dimensions; i++) {
+            fv.getData().add(random.nextGaussian());
+        }
+        fv.setLabel("no_object");
+        fv.setImageURL("/media/smartsensor/Data/video_31_frame_41455.jpg");
+        fv.setScore(-2.753245759396493);
+        fv.setPfa(0.0008605957637858228);
+        fv.setLayer(3);
+
+        byte[] json = mapper.writeValueAsBytes(fv);
+        byte[] float32 = FeatureVectorFrame.encode(fv, FeatureVectorFrame.FLOAT32);
+        byte[] float64 = FeatureVectorFrame.encode(fv, FeatureVectorFrame.FLOAT64);
+        ByteBuffer buffer = ByteBuffer.allocate(Math.max(json.length, float64.length));
+        System.out.println(dimensions + " dimensions, " + batch + " messages per iteration");
+        System.out.println("JSON " + json.length + " bytes, float32 " + float32.length
+            + " bytes, float64 " + float64.length + " bytes");
+
+        //mapper above is configured as MessageProcessor's was before, the
+        //processor's own mapper also enables the fast double parser
+        MessageProcessor processor = new MessageProcessor();
+        //messageType written last, the worst case for peeking
+        String jsonTypeLast = new String(json, StandardCharsets.UTF_8)
+            .replace("\"messageType\":\"feature_vector\",", "");
+        jsonTypeLast = jsonTypeLast.substring(0, jsonTypeLast.length() - 1)
+            + ",\"messageType\":\"feature_vector\"}";
+        String[] messages = {new String(json, StandardCharsets.UTF_8), jsonTypeLast};
+        String[] names = {"type first", "type last"};
+        for (int m = 0; m < messages.length; m++) {
+            String message = messages[m];
+            MicroBenchmark.run("contains() chain only, " + names[m], 20, 50, () -> {
+                int routed = 0;
+                for (int i = 0; i < batch; i++) {
+                    routed += legacyRoute(message);
+                }
+                return routed;
+            });
+            MicroBenchmark.run("peekMessageType only, " + names[m], 20, 50, () -> {
+                int routed = 0;
+                for (int i = 0; i < batch; i++) {
+                    try {
+                        routed += processor.peekMessageType(message).length();
+                    } catch (Exception ex) {
+                        throw new RuntimeException(ex);
+                    }
+                }
+                return routed;
+            });
+        }
+        MicroBenchmark.run("JSON recvStr + contains() chain + readValue", 20, 50, () -> {
+            double sum = 0;
+            for (int i = 0; i < batch; i++) {
+                String message = new String(json, StandardCharsets.UTF_8);
+                try {
+                    if (legacyRoute(message) == 3)
+                        sum += mapper.readValue(message, FeatureVector.class).getData().get(0);
+                } catch (Exception ex) {
+                    throw new RuntimeException(ex);
+                }
+            }
+            return sum;
+        });
+        for (int m = 0; m < messages.length; m++) {
+            byte[] bytes = messages[m].getBytes(StandardCharsets.UTF_8);
+            MicroBenchmark.run("JSON recvStr + readMessage, " + names[m], 20, 50, () -> {
+                double sum = 0;
+                for (int i = 0; i < batch; i++) {
+                    String message = new String(bytes, StandardCharsets.UTF_8);
+                    try {
+                        if (processor.readMessage(message) instanceof FeatureVector decoded)
+                            sum += decoded.getData().get(0);
+                    } catch (Exception ex) {
+                        throw new RuntimeException(ex);
+                    }
+                }
+                return sum;
+            });
+        }
+        MicroBenchmark.run("binary float32 decode", 20, 50, () -> decodeAll(float32, buffer, batch));
+        MicroBenchmark.run("binary float64 decode", 20, 50, () -> decodeAll(float64, buffer, batch));
+    }
+
+    /**
+     * The routing MessageProcessor.process used before peekMessageType.
+     */
+    private static int legacyRoute(String message) {
+        if (ChannelFrame.isChannelFrame(message))
+            return 1;
+        else if (FactorAnalysisState.isFactorAnalysisState(message))
+            return 2;
+        else if (FeatureVector.isFeatureVector(message))
+            return 3;
+        else if (GaussianMixture.isGaussianMixture(message))
+            return 4;
+        else if (LabelConfig.isLabelConfig(message))
+            return 5;
+        return 0;
+    }
+
+    private static double decodeAll(byte[] frame, ByteBuffer buffer, int batch) {
+        double sum = 0;
+        for (int i = 0; i < batch; i++) {
+            //stands in for recvByteBuffer into the reused receive buffer
+            buffer.clear();
+            buffer.put(frame).flip();
+            if (FeatureVectorFrame.isFeatureVectorFrame(buffer))
+                sum += FeatureVectorFrame.decode(buffer).getData().get(0);
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,124 @@
+package edu.jhuapl.trinity.messages;
+
+/*-
+ * #%L
+ * trinity
+ * %%
+ * Copyright (C) 2021 - 2023 The Johns Hopkins University Applied Physics Laboratory LLC
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import edu.jhuapl.trinity.data.FactorAnalysisState;
+import edu.jhuapl.trinity.data.messages.ChannelFrame;
+import edu.jhuapl.trinity.data.messages.FeatureVector;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class MessageProcessorTest {
+
+    public MessageProcessorTest() {
+    }
+
+    /**
+     * Test of peekMessageType method, of class MessageProcessor.
+     */
+    @Test
+    public void testPeekMessageType() throws Exception {
+        System.out.println("peekMessageType");
+        MessageProcessor processor = new MessageProcessor();
+        assertEquals(FeatureVector.TYPESTRING, processor.peekMessageType(
+            "{\"messageType\": \"feature_vector\", \"data\": [0.1, 0.2]}"));
+        //type after a large array and a nested object with its own messageType
+        assertEquals(FactorAnalysisState.TYPESTRING, processor.peekMessageType(
+            "{\"data\": [[1, 2], [3, 4]], \"meta\": {\"messageType\": \"ChannelFrame\"},"
+                + " \"label\": \"ChannelFrame\", \"messageType\": \"FactorAnalysisState\"}"));
+        //the old contains() checks would have routed this as a ChannelFrame
+        assertEquals(FeatureVector.TYPESTRING, processor.peekMessageType(
+            "{\"label\": \"" + ChannelFrame.TYPESTRING + "\", \"messageType\": \"feature_vector\"}"));
+        assertNull(processor.peekMessageType("{\"data\": [0.1, 0.2]}"));
+        assertNull(processor.peekMessageType("[{\"messageType\": \"feature_vector\"}]"));
+        assertNull(processor.peekMessageType("{\"messageType\": 3}"));
+        assertThrows(JsonProcessingException.class,
+            () -> processor.peekMessageType("{\"data\": [0.1, 0.2"));
+    }
+
+    /**
+     * Test of readMessage method, of class MessageProcessor.
+     */
+    @Test
+    public void testReadMessage() throws Exception {
+        System.out.println("readMessage");
+        MessageProcessor processor = new MessageProcessor();
+        //fields on both sides of the messageType, including unknown ones
+        Object object = processor.readMessage("{\"data\": [0.5, -1.25, 3.0], \"bbox\": [0.0, 0, 16.0, 0],"
+            + " \"unknown\": {\"nested\": [1, 2]}, \"messageType\": \"feature_vector\","
+            + " \"label\": \"dog\", \"score\": 0.75, \"layer\": 2}");
+        assertTrue(object instanceof FeatureVector);
+        FeatureVector fv = (FeatureVector) object;
+        assertEquals(List.of(0.5, -1.25, 3.0), fv.getData());
+        assertEquals(List.of(0.0, 0.0, 16.0, 0.0), fv.getBbox());
+        assertEquals("dog", fv.getLabel());
+        assertEquals(0.75, fv.getScore());
+        assertEquals(2, fv.getLayer());
+        assertEquals(FeatureVector.TYPESTRING, fv.getMessageType());
+
+        //type first, deserialized from the same parser
+        object = processor.readMessage("{\"messageType\": \"feature_vector\", \"data\": [0.5, -1.25],"
+            + " \"unknown\": {\"nested\": [1, 2]}, \"label\": \"cat\", \"layer\": 4}");
+        assertTrue(object instanceof FeatureVector);
+        fv = (FeatureVector) object;
+        assertEquals(List.of(0.5, -1.25), fv.getData());
+        assertEquals("cat", fv.getLabel());
+        assertEquals(4, fv.getLayer());
+        assertEquals(FeatureVector.TYPESTRING, fv.getMessageType());
+
+        FactorAnalysisState state = new FactorAnalysisState("entity", 42, List.of(1.0, 2.0));
+        object = processor.readMessage(processor.getMapper().writeValueAsString(state));
+        assertTrue(object instanceof FactorAnalysisState);
+        assertEquals(42, ((FactorAnalysisState) object).getFrameId());
+        assertEquals(state.getFactors(), ((FactorAnalysisState) object).getFactors());
+
+        assertNull(processor.readMessage("{\"messageType\": \"semantic_map\", \"data\": []}"));
+    }
+
+    /**
+     * Test of endBatch with overlapping poll cycles, of class MessageProcessor.
+     */
+    @Test
+    public void testOverlappingBatches() {
+        System.out.println("overlappingBatches");
+        MessageProcessor processor = new MessageProcessor();
+        List<Runnable> scheduled = new ArrayList<>();
+        processor.runLater = scheduled::add;
+        processor.beginBatch();
+        processor.beginBatch();
+        processor.process(new FeatureVector());
+        //the first cycle ending must not wait for the second
+        processor.endBatch();
+        assertEquals(1, scheduled.size());
+        processor.process(new FeatureVector());
+        //already waiting on the FX thread, picks up the second cycle as well
+        processor.endBatch();
+        assertEquals(1, scheduled.size());
+    }
+}
@@ -48,6 +48,8 @@ public class ZeroMQFeatureVectorTestApp {
     public static void main(String[] args) throws Exception {
         /** Provides serialization support for JSON messages */
         ObjectMapper mapper = new ObjectMapper();
+        //pass "binary" to publish FeatureVectorFrame frames instead of JSON
+        boolean binary = args.length > 0 && args[0].equalsIgnoreCase("binary");
 
         Thread thread = new Thread(() -> {
             System.out.println("Starting Publisher Thread...");
@@ -87,8 +89,13 @@ public class ZeroMQFeatureVectorTestApp {
                     featureVector.setTopic("some_topic");
                     featureVector.setVersion("0.1");
                     try {
-                        String fvAsString = mapper.writeValueAsString(featureVector);
-                        publisher.send(fvAsString);
+                        if (binary) {
+                            publisher.send(FeatureVectorFrame.encode(
+                                featureVector, FeatureVectorFrame.FLOAT32));
+                        } else {
+                            String fvAsString = mapper.writeValueAsString(featureVector);
+                            publisher.send(fvAsString);
+                        }
                     } catch (JsonProcessingException ex) {
                         Logger.getLogger(ZeroMQFeatureVectorTestApp.class.getName()).log(Level.SEVERE, null, ex);
                     }
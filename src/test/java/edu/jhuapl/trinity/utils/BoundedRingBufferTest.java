@@ -0,0 +1,127 @@
+package edu.jhuapl.trinity.utils;
+
+/*-
+ * #%L
+ * trinity
+ * %%
+ * Copyright (C) 2021 - 2023 The Johns Hopkins University Applied Physics Laboratory LLC
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import edu.jhuapl.trinity.utils.BoundedRingBuffer.OverflowPolicy;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class BoundedRingBufferTest {
+
+    public BoundedRingBufferTest() {
+    }
+
+    /**
+     * Test of put method with each OverflowPolicy, of class BoundedRingBuffer.
+     */
+    @Test
+    public void testOverflowPolicies() {
+        System.out.println("overflowPolicies");
+        BoundedRingBuffer<Integer> oldest = new BoundedRingBuffer<>(3, OverflowPolicy.DROP_OLDEST);
+        BoundedRingBuffer<Integer> newest = new BoundedRingBuffer<>(3, OverflowPolicy.DROP_NEWEST);
+        assertEquals(4, oldest.capacity());
+        for (int i = 0; i < 10; i++) {
+            assertTrue(oldest.put(i));
+            assertEquals(i < 4, newest.put(i));
+        }
+        assertEquals(4, oldest.size());
+        assertEquals(6, oldest.getDroppedCount());
+        assertEquals(6, newest.getDroppedCount());
+        List<Integer> drained = new ArrayList<>();
+        assertEquals(4, oldest.drain(drained::add, 100));
+        assertEquals(List.of(6, 7, 8, 9), drained);
+        drained.clear();
+        assertEquals(2, newest.drain(drained::add, 2));
+        assertEquals(List.of(0, 1), drained);
+        assertEquals(2, newest.size());
+
+        BoundedRingBuffer<Integer> block = new BoundedRingBuffer<>(2, OverflowPolicy.BLOCK);
+        assertTrue(block.put(1));
+        assertTrue(block.put(2));
+        //gives up when told to stop waiting and counts it as dropped
+        assertFalse(block.put(3, () -> false));
+        assertEquals(1, block.getDroppedCount());
+        assertEquals(Integer.valueOf(1), block.poll());
+        assertEquals(Integer.valueOf(2), block.poll());
+        assertNull(block.poll());
+        assertTrue(block.isEmpty());
+    }
+
+    /**
+     * Test of concurrent producers with a BLOCK policy, nothing may be lost.
+     */
+    @Test
+    public void testConcurrentBlock() throws InterruptedException {
+        System.out.println("concurrentBlock");
+        BoundedRingBuffer<Long> buffer = new BoundedRingBuffer<>(64, OverflowPolicy.BLOCK);
+        int producers = 3;
+        int perProducer = 20000;
+        AtomicBoolean running = new AtomicBoolean(true);
+        AtomicLong sum = new AtomicLong();
+        AtomicLong count = new AtomicLong();
+        Thread consumer = new Thread(() -> {
+            long[] lastSeen = new long[producers];
+            Arrays.fill(lastSeen, -1);
+            while (running.get() || !buffer.isEmpty()) {
+                buffer.drain(v -> {
+                    //per producer FIFO order is preserved
+                    int producer = (int) (v / perProducer);
+                    assertTrue(v > lastSeen[producer]);
+                    lastSeen[producer] = v;
+                    sum.addAndGet(v);
+                    count.incrementAndGet();
+                }, 128);
+                Thread.yield();
+            }
+        });
+        consumer.start();
+        List<Thread> threads = new ArrayList<>();
+        for (int p = 0; p < producers; p++) {
+            long base = (long) p * perProducer;
+            Thread t = new Thread(() -> {
+                for (long i = 0; i < perProducer; i++) {
+                    assertTrue(buffer.put(base + i));
+                }
+            });
+            threads.add(t);
+            t.start();
+        }
+        for (Thread t : threads) {
+            t.join();
+        }
+        running.set(false);
+        consumer.join(30000);
+        long n = (long) producers * perProducer;
+        assertEquals(n, count.get());
+        assertEquals(n * (n - 1) / 2, sum.get());
+        assertEquals(0, buffer.getDroppedCount());
+    }
+}
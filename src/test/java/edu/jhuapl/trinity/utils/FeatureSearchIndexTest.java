@@ -0,0 +1,106 @@
+package edu.jhuapl.trinity.utils;
+
+/*-
+ * #%L
+ * trinity
+ * %%
+ * Copyright (C) 2021 - 2023 The Johns Hopkins University Applied Physics Laboratory LLC
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import edu.jhuapl.trinity.data.messages.FeatureVector;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class FeatureSearchIndexTest {
+
+    public FeatureSearchIndexTest() {
+    }
+
+    private static TreeSet<Long> distinct(long[] sequences) {
+        TreeSet<Long> set = new TreeSet<>();
+        Arrays.stream(sequences).forEach(set::add);
+        return set;
+    }
+
+    /**
+     * Test of searchTerm, searchScore and searchProbability against a scan of
+     * a sliding window, of class FeatureSearchIndex.
+     */
+    @Test
+    public void testSlidingWindow() {
+        System.out.println("slidingWindow");
+        Random random = new Random(11);
+        String[] sources = {"radar", "camera", "lidar", "sonar"};
+        FeatureSearchIndex index = new FeatureSearchIndex();
+        List<FeatureVector> window = new ArrayList<>();
+        long firstSequence = 0;
+        int windowSize = 300;
+        //enough unique values to force several compactions
+        for (long sequence = 0; sequence < 5000; sequence++) {
+            FeatureVector fv = new FeatureVector();
+            HashMap<String, String> meta = new HashMap<>();
+            meta.put("source", sources[random.nextInt(sources.length)]);
+            meta.put("file", "img_" + sequence + ".png");
+            if (random.nextBoolean())
+                meta.put("tag", "tag" + random.nextInt(50));
+            fv.setMetaData(meta);
+            fv.setScore(random.nextInt(10) == 0 ? Double.NaN : random.nextDouble());
+            fv.setPfa(random.nextDouble() * 2.0 - 1.0);
+            index.add(sequence, fv);
+            window.add(fv);
+            if (window.size() > windowSize) {
+                window.remove(0);
+                firstSequence++;
+                index.evictBefore(firstSequence);
+            }
+            if (sequence % 250 != 249)
+                continue;
+            for (String term : new String[]{"ar", "radar", "img_49", "tag1", "a", "", "zzz", "png"}) {
+                TreeSet<Long> expected = new TreeSet<>();
+                for (int i = 0; i < window.size(); i++) {
+                    if (window.get(i).metaContainsTerm(term))
+                        expected.add(firstSequence + i);
+                }
+                assertEquals(expected, distinct(index.searchTerm(term)), term);
+            }
+            double min = random.nextDouble() * 0.5;
+            double max = min + random.nextDouble() * 0.5;
+            TreeSet<Long> expectedScore = new TreeSet<>();
+            TreeSet<Long> expectedPfa = new TreeSet<>();
+            for (int i = 0; i < window.size(); i++) {
+                double score = window.get(i).getScore();
+                if (!(score < min || score > max))
+                    expectedScore.add(firstSequence + i);
+                double pfa = window.get(i).getPfa();
+                if (!(pfa < -max || pfa > max))
+                    expectedPfa.add(firstSequence + i);
+            }
+            assertEquals(expectedScore, distinct(index.searchScore(min, max)));
+            assertEquals(expectedPfa, distinct(index.searchProbability(-max, max)));
+        }
+        index.clear();
+        assertEquals(0, index.searchTerm("radar").length);
+        assertEquals(0, index.searchScore(0.0, 1.0).length);
+    }
+}
@@ -0,0 +1,69 @@
+package edu.jhuapl.trinity.utils;
+
+/*-
+ * #%L
+ * trinity
+ * %%
+ * Copyright (C) 2021 - 2023 The Johns Hopkins University Applied Physics Laboratory LLC
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.util.Arrays;
+import java.util.function.Supplier;
+
+/**
+ * Minimal harness for the hand-run benchmark apps under the test tree. Each
+ * operation is run for a number of warmup iterations to let the JIT settle,
+ * then timed over the measured iterations. Results are fed to a sink so the
+ * work cannot be optimized away.
+ */
+public final class MicroBenchmark {
+
+    private static volatile int sink;
+
+    private MicroBenchmark() {
+    }
+
+    /**
+     * Time an operation and print a one line summary.
+     *
+     * @param name       label for the report
+     * @param warmups    number of untimed iterations
+     * @param iterations number of timed iterations
+     * @param op         operation to time, returning its result
+     * @return median nanoseconds per operation
+     */
+    public static double run(final String name, final int warmups, final int iterations, final Supplier<?> op) {
+        for (int k = 0; k < warmups; ++k) {
+            consume(op.get());
+        }
+        final long[] times = new long[iterations];
+        for (int k = 0; k < iterations; ++k) {
+            final long start = System.nanoTime();
+            consume(op.get());
+            times[k] = System.nanoTime() - start;
+        }
+        Arrays.sort(times);
+        final double median = times[iterations / 2];
+        final double mean = Arrays.stream(times).average().orElse(0);
+        System.out.println(String.format("%-48s median %12.3f us  mean %12.3f us  min %12.3f us",
+            name, median / 1e3, mean / 1e3, times[0] / 1e3));
+        return median;
+    }
+
+    private static void consume(final Object o) {
+        sink += System.identityHashCode(o);
+    }
+}
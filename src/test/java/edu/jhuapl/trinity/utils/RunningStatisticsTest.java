@@ -0,0 +1,98 @@
+package edu.jhuapl.trinity.utils;
+
+/*-
+ * #%L
+ * trinity
+ * %%
+ * Copyright (C) 2021 - 2023 The Johns Hopkins University Applied Physics Laboratory LLC
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import edu.jhuapl.trinity.data.messages.FeatureVector;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class RunningStatisticsTest {
+
+    public RunningStatisticsTest() {
+    }
+
+    /**
+     * Test of add and removeOldest against full rescans of a sliding window,
+     * of class RunningStatistics.
+     */
+    @Test
+    public void testSlidingWindow() {
+        System.out.println("slidingWindow");
+        Random random = new Random(7);
+        RunningStatistics stats = new RunningStatistics();
+        List<FeatureVector> window = new ArrayList<>();
+        int windowSize = 50;
+        for (int i = 0; i < 500; i++) {
+            List<Double> data = new ArrayList<>();
+            for (int d = 0; d < 4; d++)
+                data.add(random.nextGaussian() * (d + 1) + (i % 97) * 0.1);
+            FeatureVector fv = new FeatureVector();
+            fv.setData(data);
+            window.add(fv);
+            stats.add(data);
+            if (window.size() > windowSize)
+                stats.removeOldest(window.remove(0).getData());
+
+            assertEquals(window.size(), stats.size());
+            List<Double> mean = FeatureVector.getMeanVector(window);
+            List<Double> actual = stats.getMeanVector();
+            for (int d = 0; d < 4; d++) {
+                assertEquals(mean.get(d), actual.get(d), 1e-9);
+                double variance = 0.0;
+                for (FeatureVector v : window) {
+                    double delta = v.getData().get(d) - mean.get(d);
+                    variance += delta * delta;
+                }
+                assertEquals(variance / window.size(), stats.getVariance(d), 1e-9);
+            }
+            assertEquals(FeatureVector.getMaxAbsValue(window), stats.getMaxAbsValue(), 1e-12);
+            assertEquals(FeatureVector.getMeanCenteredMaxAbsValue(window, mean),
+                stats.getMeanCenteredMaxAbsValue(), 1e-9);
+        }
+    }
+
+    /**
+     * Test of emptying the window and clear, of class RunningStatistics.
+     */
+    @Test
+    public void testEmpty() {
+        System.out.println("empty");
+        RunningStatistics stats = new RunningStatistics();
+        assertEquals(0, stats.getDimensions());
+        assertEquals(0.0, stats.getMaxAbsValue());
+        stats.add(new double[]{-3.0, 2.0});
+        stats.removeOldest(new double[]{-3.0, 2.0});
+        assertEquals(0, stats.size());
+        assertEquals(0.0, stats.getMean(0));
+        assertEquals(0.0, stats.getMaxAbsValue());
+        stats.add(new double[]{1.0, -5.0});
+        assertEquals(5.0, stats.getMaxAbsValue());
+        assertEquals(-5.0, stats.getMin(1));
+        stats.clear();
+        assertEquals(0, stats.size());
+        assertEquals(0, stats.getDimensions());
+    }
+}
@@ -0,0 +1,132 @@
+package edu.jhuapl.trinity.utils;
+
+/*-
+ * #%L
+ * trinity
+ * %%
+ * Copyright (C) 2021 - 2023 The Johns Hopkins University Applied Physics Laboratory LLC
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class SpatialIndex3DTest {
+
+    public SpatialIndex3DTest() {
+    }
+
+    private static double[] randomPoints(int n, long seed) {
+        Random random = new Random(seed);
+        double[] xyz = new double[3 * n];
+        for (int i = 0; i < xyz.length; i++)
+            xyz[i] = random.nextGaussian() * 100.0;
+        //some duplicates and a flat cluster to exercise ties and thin splits
+        for (int i = 0; i < n / 10; i++) {
+            xyz[3 * i] = 5.0;
+            xyz[3 * i + 1] = i % 7;
+            xyz[3 * i + 2] = 0.0;
+        }
+        return xyz;
+    }
+
+    private static double distanceSquared(double[] xyz, int i, double x, double y, double z) {
+        double dx = xyz[3 * i] - x, dy = xyz[3 * i + 1] - y, dz = xyz[3 * i + 2] - z;
+        return dx * dx + dy * dy + dz * dz;
+    }
+
+    /**
+     * Test of nearest and withinRadius, of class SpatialIndex3D.
+     */
+    @Test
+    public void testNearestAndRadius() {
+        System.out.println("nearestAndRadius");
+        int n = 3000;
+        double[] xyz = randomPoints(n, 11L);
+        SpatialIndex3D index = new SpatialIndex3D(xyz, n);
+        Random random = new Random(12L);
+        for (int q = 0; q < 200; q++) {
+            double x = random.nextGaussian() * 120.0, y = random.nextGaussian() * 120.0, z = random.nextGaussian() * 120.0;
+            //brute force distances in order
+            double[] sorted = new double[n];
+            for (int i = 0; i < n; i++)
+                sorted[i] = distanceSquared(xyz, i, x, y, z);
+            Arrays.sort(sorted);
+            int[] neighbors = index.nearest(x, y, z, 10);
+            assertEquals(10, neighbors.length);
+            for (int k = 0; k < neighbors.length; k++)
+                assertEquals(sorted[k], distanceSquared(xyz, neighbors[k], x, y, z));
+            assertEquals(sorted[0], distanceSquared(xyz, index.nearest(x, y, z), x, y, z));
+
+            double radius = 40.0;
+            int[] within = index.withinRadius(x, y, z, radius);
+            Arrays.sort(within);
+            int[] expected = new int[n];
+            int count = 0;
+            for (int i = 0; i < n; i++) {
+                if (distanceSquared(xyz, i, x, y, z) <= radius * radius)
+                    expected[count++] = i;
+            }
+            assertArrayEquals(Arrays.copyOf(expected, count), within);
+        }
+        SpatialIndex3D empty = new SpatialIndex3D(new double[0], 0);
+        assertEquals(-1, empty.nearest(0, 0, 0));
+        assertEquals(0, empty.withinRadius(0, 0, 0, 1).length);
+        assertEquals(-1, empty.nearestToRay(0, 0, 0, 0, 0, 1, 10));
+    }
+
+    /**
+     * Test of nearestToRay, of class SpatialIndex3D.
+     */
+    @Test
+    public void testNearestToRay() {
+        System.out.println("nearestToRay");
+        int n = 3000;
+        double[] xyz = randomPoints(n, 13L);
+        SpatialIndex3D index = new SpatialIndex3D(xyz, n);
+        Random random = new Random(14L);
+        int hits = 0;
+        for (int q = 0; q < 200; q++) {
+            double ox = random.nextGaussian() * 300.0, oy = random.nextGaussian() * 300.0, oz = -500.0;
+            double dx = random.nextGaussian() * 0.3, dy = random.nextGaussian() * 0.3, dz = 1.0;
+            double length = Math.sqrt(dx * dx + dy * dy + dz * dz);
+            double best = 25.0;
+            for (int i = 0; i < n; i++) {
+                double px = xyz[3 * i] - ox, py = xyz[3 * i + 1] - oy, pz = xyz[3 * i + 2] - oz;
+                double t = Math.max(0, (px * dx + py * dy + pz * dz) / length);
+                double ex = px - t * dx / length, ey = py - t * dy / length, ez = pz - t * dz / length;
+                best = Math.min(best, Math.sqrt(ex * ex + ey * ey + ez * ez));
+            }
+            int found = index.nearestToRay(ox, oy, oz, dx, dy, dz, 25.0);
+            if (best >= 25.0) {
+                assertEquals(-1, found);
+            } else {
+                hits++;
+                double px = xyz[3 * found] - ox, py = xyz[3 * found + 1] - oy, pz = xyz[3 * found + 2] - oz;
+                double t = Math.max(0, (px * dx + py * dy + pz * dz) / length);
+                double ex = px - t * dx / length, ey = py - t * dy / length, ez = pz - t * dz / length;
+                assertEquals(best, Math.sqrt(ex * ex + ey * ey + ez * ez), 1e-9);
+            }
+        }
+        assertTrue(hits > 50, hits + " hits");
+        assertTrue(hits < 200, hits + " hits");
+    }
+}
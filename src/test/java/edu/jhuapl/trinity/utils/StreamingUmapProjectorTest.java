@@ -0,0 +1,119 @@
+package edu.jhuapl.trinity.utils;
+
+/*-
+ * #%L
+ * trinity
+ * %%
+ * Copyright (C) 2021 - 2023 The Johns Hopkins University Applied Physics Laboratory LLC
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import edu.jhuapl.trinity.data.messages.FeatureVector;
+import edu.jhuapl.trinity.utils.umap.ProgressState;
+import edu.jhuapl.trinity.utils.umap.Umap;
+import edu.jhuapl.trinity.utils.umap.UmapProgress;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class StreamingUmapProjectorTest {
+
+    public StreamingUmapProjectorTest() {
+    }
+
+    private static FeatureVector vector(Random random, int dim, int cluster) {
+        FeatureVector fv = new FeatureVector();
+        for (int j = 0; j < dim; j++) {
+            fv.getData().add(random.nextGaussian() * 0.3 + (j % 3 == cluster ? 5.0 : 0.0));
+        }
+        fv.setLabel("cluster" + cluster);
+        return fv;
+    }
+
+    /**
+     * Test of submit, of class StreamingUmapProjector.
+     */
+    @Test
+    public void testSubmit() throws InterruptedException {
+        System.out.println("submit");
+        int dim = 12;
+        Random random = new Random(5);
+        double[][] data = new double[300][];
+        for (int i = 0; i < data.length; i++) {
+            data[i] = FeatureVector.mapToStateArray.apply(vector(random, dim, i % 3));
+        }
+        Umap umap = new Umap();
+        umap.setNumberComponents(3);
+        umap.setNumberEpochs(50);
+        umap.setNumberNearestNeighbours(8);
+        umap.fitTransform(data);
+        umap.setVerbose(true);
+        ProgressState fitted = UmapProgress.getProgress();
+
+        int count = 40;
+        List<FeatureVector> originals = new ArrayList<>();
+        List<FeatureVector> projected = new ArrayList<>();
+        CountDownLatch latch = new CountDownLatch(count);
+        StreamingUmapProjector projector = new StreamingUmapProjector(umap, 16,
+            (batchOriginals, batchProjected) -> {
+                assertEquals(batchOriginals.size(), batchProjected.size());
+                assertTrue(batchOriginals.size() <= 16);
+                originals.addAll(batchOriginals);
+                projected.addAll(batchProjected);
+                for (int i = 0; i < batchProjected.size(); i++) {
+                    latch.countDown();
+                }
+            });
+        List<FeatureVector> submitted = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            FeatureVector fv = vector(random, dim, i % 3);
+            submitted.add(fv);
+            assertTrue(projector.submit(fv));
+        }
+        //wrong width is rejected rather than failing a whole batch
+        assertFalse(projector.submit(vector(random, dim + 1, 0)));
+        assertTrue(latch.await(60, TimeUnit.SECONDS));
+        projector.stop();
+
+        assertEquals(count, projector.getProjectedCount());
+        assertEquals(1, projector.getRejectedCount());
+        for (int i = 0; i < count; i++) {
+            //delivered in submission order
+            assertSame(submitted.get(i), originals.get(i));
+            assertEquals(submitted.get(i).getLabel(), projected.get(i).getLabel());
+            assertEquals(3, projected.get(i).getData().size());
+            for (Double d : projected.get(i).getData()) {
+                assertTrue(Double.isFinite(d));
+            }
+        }
+        assertFalse(projector.submit(vector(random, dim, 0)));
+        //quiet per batch transforms leave the caller's setting and the
+        //global progress of the last fit alone
+        assertTrue(umap.isVerbose());
+        ProgressState after = UmapProgress.getProgress();
+        assertEquals(fitted.getPhase(), after.getPhase());
+        assertEquals(fitted.getTotal(), after.getTotal());
+        assertEquals(fitted.getCount(), after.getCount());
+    }
+}
@@ -0,0 +1,129 @@
+package edu.jhuapl.trinity.utils;
+
+/*-
+ * #%L
+ * trinity
+ * %%
+ * Copyright (C) 2021 - 2023 The Johns Hopkins University Applied Physics Laboratory LLC
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class VisibilityIndexTest {
+
+    public VisibilityIndexTest() {
+    }
+
+    /**
+     * Test of label, layer and point toggles against a per point check, of
+     * class VisibilityIndex.
+     */
+    @Test
+    public void testToggles() {
+        System.out.println("toggles");
+        Set<String> hiddenLabels = new HashSet<>();
+        Set<Integer> hiddenLayers = new HashSet<>();
+        VisibilityIndex index = new VisibilityIndex(
+            label -> !hiddenLabels.contains(label), layer -> !hiddenLayers.contains(layer));
+        Random random = new Random(3);
+        int points = 1000;
+        String[] labels = new String[points];
+        Integer[] layers = new Integer[points];
+        boolean[] filters = new boolean[points];
+        for (int i = 0; i < points; i++) {
+            labels[i] = random.nextInt(10) == 0 ? null : "label" + random.nextInt(5);
+            layers[i] = random.nextInt(10) == 0 ? null : random.nextInt(3);
+            filters[i] = true;
+            index.setPoint(i, labels[i], layers[i]);
+        }
+        assertEquals(points, index.visibleCount());
+        for (int round = 0; round < 50; round++) {
+            switch (random.nextInt(3)) {
+                case 0 -> {
+                    String label = "label" + random.nextInt(5);
+                    if (!hiddenLabels.remove(label))
+                        hiddenLabels.add(label);
+                    index.refresh();
+                }
+                case 1 -> {
+                    Integer layer = random.nextInt(3);
+                    boolean show = hiddenLayers.contains(layer);
+                    if (show)
+                        hiddenLayers.remove(layer);
+                    else
+                        hiddenLayers.add(layer);
+                    index.setLayerVisible(layer, show);
+                }
+                default -> {
+                    int point = random.nextInt(points);
+                    filters[point] = !filters[point];
+                    index.setPointVisible(point, filters[point]);
+                }
+            }
+            int expectedCount = 0;
+            int firstVisible = -1;
+            for (int i = 0; i < points; i++) {
+                boolean expected = !hiddenLabels.contains(labels[i])
+                    && !hiddenLayers.contains(layers[i]) && filters[i];
+                assertEquals(expected, index.isVisible(i));
+                if (expected) {
+                    expectedCount++;
+                    if (firstVisible < 0)
+                        firstVisible = i;
+                }
+            }
+            assertEquals(expectedCount, index.visibleCount());
+            assertEquals(firstVisible, index.nextVisible(0));
+        }
+    }
+
+    /**
+     * Test of setPoint over an occupied slot and clearPoint, of class
+     * VisibilityIndex.
+     */
+    @Test
+    public void testReplaceAndClear() {
+        System.out.println("replaceAndClear");
+        Set<String> hiddenLabels = new HashSet<>();
+        VisibilityIndex index = new VisibilityIndex(
+            label -> !hiddenLabels.contains(label), layer -> true);
+        index.setPoint(70, "a", null);
+        hiddenLabels.add("a");
+        index.refresh();
+        assertFalse(index.isVisible(70));
+        index.setPoint(70, "b", 1);
+        assertTrue(index.isVisible(70));
+        hiddenLabels.clear();
+        index.refresh();
+        index.setPointVisible(70, false);
+        assertFalse(index.isVisible(70));
+        index.setAllPointsVisible();
+        assertTrue(index.isVisible(70));
+        index.clearPoint(70);
+        assertFalse(index.isVisible(70));
+        index.setAllPointsVisible();
+        assertEquals(0, index.visibleCount());
+        assertEquals(-1, index.nextVisible(0));
+    }
+}
@@ -0,0 +1,103 @@
+package edu.jhuapl.trinity.utils.umap;
+
+/*-
+ * #%L
+ * trinity
+ * %%
+ * Copyright (C) 2021 - 2023 The Johns Hopkins University Applied Physics Laboratory LLC
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+
+import edu.jhuapl.trinity.utils.umap.metric.EuclideanMetric;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class HnswIndexTest {
+
+    public HnswIndexTest() {
+    }
+
+    static double recall(final HnswIndex index, final float[] data, final float[] queries, final int dim, final int k) {
+        final int n = queries.length / dim;
+        final int[][] indices = new int[n][k];
+        final float[][] distances = new float[n][k];
+        index.search(queries, dim, k, indices, distances);
+        final Heap exact = PairwiseDistances.nearestNeighbors(new FlatMatrix(queries, n, dim),
+            new FlatMatrix(data, data.length / dim, dim), k, EuclideanMetric.SINGLETON).deheapSort();
+        int found = 0;
+        for (int i = 0; i < n; ++i) {
+            for (int j = 1; j < k; ++j) {
+                assertTrue(distances[i][j - 1] <= distances[i][j]);
+            }
+            for (final int a : indices[i]) {
+                for (final int b : exact.indices()[i]) {
+                    if (a == b) {
+                        ++found;
+                    }
+                }
+            }
+        }
+        return found / (double) (n * k);
+    }
+
+    /**
+     * Test of add and search, of class HnswIndex.
+     */
+    @Test
+    public void testRecall() {
+        System.out.println("recall");
+        final int dim = 16;
+        final float[] data = UmapTest.flatten(UmapTest.clusters(3000, dim, 5, 21));
+        final float[] queries = UmapTest.flatten(UmapTest.clusters(100, dim, 5, 22));
+        final HnswIndex index = new HnswIndex(EuclideanMetric.SINGLETON);
+        //two batches, so the second is inserted into an existing graph
+        index.add(Arrays.copyOf(data, 1000 * dim), dim);
+        index.add(Arrays.copyOfRange(data, 1000 * dim, data.length), dim);
+        assertEquals(3000, index.size());
+        assertTrue(recall(index, data, queries, dim, 10) > 0.95);
+
+        final HnswIndex parallel = new HnswIndex(EuclideanMetric.SINGLETON);
+        parallel.setThreads(4);
+        parallel.add(data, dim);
+        assertTrue(recall(parallel, data, queries, dim, 10) > 0.95);
+    }
+
+    /**
+     * Test of search and parameter checks, of class HnswIndex.
+     */
+    @Test
+    public void testEdgeCases() {
+        System.out.println("edgeCases");
+        final HnswIndex index = new HnswIndex(EuclideanMetric.SINGLETON);
+        final int[][] indices = new int[1][3];
+        final float[][] distances = new float[1][3];
+        index.search(new float[]{1, 2}, 2, 3, indices, distances);
+        assertArrayEquals(new int[]{-1, -1, -1}, indices[0]);
+        index.add(new float[]{0, 0, 3, 4}, 2);
+        index.search(new float[]{0, 0}, 2, 3, indices, distances);
+        assertArrayEquals(new int[]{0, 1, -1}, indices[0]);
+        assertArrayEquals(new float[]{0, 5, Float.POSITIVE_INFINITY}, distances[0]);
+        assertThrows(IllegalStateException.class, () -> index.setM(8));
+        assertThrows(IllegalArgumentException.class, () -> index.add(new float[]{1, 2, 3}, 3));
+        index.setEfSearch(8);
+    }
+}
@@ -0,0 +1,101 @@
+package edu.jhuapl.trinity.utils.umap;
+
+/*-
+ * #%L
+ * trinity
+ * %%
+ * Copyright (C) 2021 - 2023 The Johns Hopkins University Applied Physics Laboratory LLC
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+
+import edu.jhuapl.trinity.utils.MicroBenchmark;
+import edu.jhuapl.trinity.utils.umap.metric.EuclideanMetric;
+
+import java.util.Random;
+
+/**
+ * Compares building the UMAP nearest neighbor graph with the random projection
+ * forest and nearest neighbor descent against an HNSW index, and shows how
+ * efSearch trades query recall against latency. Recall is measured against an
+ * exact search of a sample of rows. Run by hand: arguments are optional size,
+ * dimension and threads.
+ */
+public class NeighborIndexBenchmark {
+
+    private static double recall(final int[][] indices, final int[] sample, final int[][] exact) {
+        int found = 0;
+        int total = 0;
+        for (int s = 0; s < sample.length; ++s) {
+            for (final int a : indices[sample[s]]) {
+                for (final int b : exact[s]) {
+                    if (a == b) {
+                        ++found;
+                    }
+                }
+            }
+            total += exact[s].length;
+        }
+        return found / (double) total;
+    }
+
+    public static void main(String[] args) {
+        final int n = args.length > 0 ? Integer.parseInt(args[0]) : 20000;
+        final int dim = args.length > 1 ? Integer.parseInt(args[1]) : 64;
+        final int threads = args.length > 2 ? Integer.parseInt(args[2]) : 1;
+        final int k = 15;
+        final float[] data = UmapTest.flatten(UmapTest.clusters(n, dim, 20, 42));
+        final FlatMatrix x = new FlatMatrix(data, n, dim);
+
+        final int[] sample = new Random(1).ints(200, 0, n).toArray();
+        final float[] sampled = new float[sample.length * dim];
+        for (int s = 0; s < sample.length; ++s) {
+            System.arraycopy(data, sample[s] * dim, sampled, s * dim, dim);
+        }
+        final int[][] exact = PairwiseDistances.nearestNeighbors(new FlatMatrix(sampled, sample.length, dim), x, k, EuclideanMetric.SINGLETON).indices();
+
+        final IndexedDistances[] nnd = new IndexedDistances[1];
+        MicroBenchmark.run("nn descent graph n=" + n + " d=" + dim, 0, 1,
+            () -> nnd[0] = Umap.nearestNeighbors(x, k, EuclideanMetric.SINGLETON, false, new Random(42), threads, false));
+        System.out.printf("  recall %.3f%n", recall(nnd[0].getIndices(), sample, exact));
+
+        final HnswIndex[] index = new HnswIndex[1];
+        final int[][] indices = new int[n][k];
+        final float[][] distances = new float[n][k];
+        MicroBenchmark.run("hnsw graph n=" + n + " d=" + dim, 0, 1, () -> {
+            index[0] = new HnswIndex(EuclideanMetric.SINGLETON);
+            index[0].setThreads(threads);
+            index[0].add(data, dim);
+            index[0].search(data, dim, k, indices, distances);
+            return index[0];
+        });
+        System.out.printf("  recall %.3f%n", recall(indices, sample, exact));
+
+        final int[][] sampleIndices = new int[sample.length][k];
+        final float[][] sampleDistances = new float[sample.length][k];
+        final int[] identity = new int[sample.length];
+        for (int s = 0; s < identity.length; ++s) {
+            identity[s] = s;
+        }
+        for (final int ef : new int[]{16, 32, 64, 128, 256}) {
+            index[0].setEfSearch(ef);
+            MicroBenchmark.run("hnsw " + sample.length + " queries efSearch=" + ef, 2, 10, () -> {
+                index[0].search(sampled, dim, k, sampleIndices, sampleDistances);
+                return sampleIndices;
+            });
+            System.out.printf("  recall %.3f%n", recall(sampleIndices, identity, exact));
+        }
+    }
+}
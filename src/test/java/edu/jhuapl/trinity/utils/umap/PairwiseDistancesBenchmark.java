@@ -0,0 +1,49 @@
+package edu.jhuapl.trinity.utils.umap;
+
+/*-
+ * #%L
+ * trinity
+ * %%
+ * Copyright (C) 2021 - 2023 The Johns Hopkins University Applied Physics Laboratory LLC
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import edu.jhuapl.trinity.utils.MicroBenchmark;
+import edu.jhuapl.trinity.utils.umap.metric.EuclideanMetric;
+import edu.jhuapl.trinity.utils.umap.metric.Metric;
+
+/**
+ * Compares the row-parallel full matrix pairwise distance kernel with the
+ * tiled, upper-triangle-only kernel used below the small problem threshold.
+ * Run by hand: arguments are optional sizes and dimension.
+ */
+public class PairwiseDistancesBenchmark {
+
+    public static void main(String[] args) {
+        final int dim = args.length > 1 ? Integer.parseInt(args[1]) : 512;
+        final int[] sizes = args.length > 0 ? new int[]{Integer.parseInt(args[0])} : new int[]{500, 1000, 2000, 4000};
+        final Metric metric = EuclideanMetric.SINGLETON;
+        for (final int n : sizes) {
+            final Matrix x = new DefaultMatrix(UmapTest.clusters(n, dim, 8, 42));
+            final int iterations = n >= 2000 ? 5 : 15;
+            final double full = MicroBenchmark.run("parallelPairwise n=" + n + " d=" + dim, 2, iterations,
+                () -> PairwiseDistances.parallelPairwise(x, metric, false));
+            final double tiled = MicroBenchmark.run("symmetricPairwise n=" + n + " d=" + dim, 2, iterations,
+                () -> PairwiseDistances.symmetricPairwise(x, metric, false));
+            System.out.println(String.format("speedup %.2fx, %d MB vs %d MB result",
+                full / tiled, 4L * n * n >> 20, 4L * SymmetricMatrix.packedLength(n) >> 20));
+        }
+    }
+}
@@ -0,0 +1,485 @@
+package edu.jhuapl.trinity.utils.umap;
+
+/*-
+ * #%L
+ * trinity
+ * %%
+ * Copyright (C) 2021 - 2023 The Johns Hopkins University Applied Physics Laboratory LLC
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import edu.jhuapl.trinity.utils.umap.metric.EuclideanMetric;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Headless tests of the UMAP engine; none of these start the JavaFX toolkit.
+ */
+public class UmapTest {
+
+    public UmapTest() {
+    }
+
+    static float[][] clusters(final int n, final int dim, final int nClusters, final long seed) {
+        final Random random = new Random(seed);
+        final float[][] data = new float[n][dim];
+        for (int i = 0; i < n; ++i) {
+            final int c = i % nClusters;
+            for (int j = 0; j < dim; ++j) {
+                data[i][j] = (float) (random.nextGaussian() * 0.3 + (j % nClusters == c ? 5.0 : 0.0));
+            }
+        }
+        return data;
+    }
+
+    static void assertFinite(final float[][] embedding, final int rows, final int cols) {
+        assertEquals(rows, embedding.length);
+        for (final float[] row : embedding) {
+            assertEquals(cols, row.length);
+            for (final float v : row) {
+                assertTrue(Float.isFinite(v));
+            }
+        }
+    }
+
+    /**
+     * Test of symmetricPairwise, of class PairwiseDistances.
+     */
+    @Test
+    public void testSymmetricPairwise() {
+        System.out.println("symmetricPairwise");
+        // several tiles in each direction with a ragged last tile
+        final int n = 3 * PairwiseDistances.tileRows(600) + 5;
+        final Matrix x = new DefaultMatrix(clusters(n, 600, 3, 11));
+        final Matrix expected = PairwiseDistances.pairwiseDistances(x, EuclideanMetric.SINGLETON);
+        final Matrix result = PairwiseDistances.symmetricPairwise(x, EuclideanMetric.SINGLETON, false);
+        for (int i = 0; i < n; ++i) {
+            assertArrayEquals(expected.row(i), result.row(i));
+        }
+        assertEquals(expected, result);
+    }
+
+    /**
+     * Test of nearestNeighbors, of class PairwiseDistances.
+     */
+    @Test
+    public void testNearestNeighborsMatchesFullSort() {
+        System.out.println("nearestNeighborsMatchesFullSort");
+        final int k = 15;
+        final Matrix x = new DefaultMatrix(clusters(40, 24, 4, 3));
+        final Matrix y = new DefaultMatrix(clusters(500, 24, 4, 4));
+        final Matrix distances = PairwiseDistances.pairwiseDistances(x, y, EuclideanMetric.SINGLETON);
+        final Heap nn = PairwiseDistances.nearestNeighbors(x, y, k, EuclideanMetric.SINGLETON);
+        final Heap fromMatrix = Utils.fastKnn(distances, k);
+        for (int i = 0; i < x.rows(); ++i) {
+            final float[] sorted = distances.row(i).clone();
+            Arrays.sort(sorted);
+            assertArrayEquals(Arrays.copyOf(sorted, k), nn.weights()[i]);
+            assertArrayEquals(nn.weights()[i], fromMatrix.weights()[i]);
+            for (int j = 0; j < k; ++j) {
+                assertEquals(distances.get(i, nn.indices()[i][j]), nn.weights()[i][j]);
+            }
+        }
+    }
+
+    /**
+     * Test of fitTransform with progress reporting, of class Umap.
+     */
+    @Test
+    public void testFitTransformReportsProgress() {
+        System.out.println("fitTransformReportsProgress");
+        final List<ProgressState> states = new ArrayList<>();
+        final ProgressListener listener = states::add;
+        UmapProgress.addProgressListener(listener);
+        try {
+            final Umap umap = new Umap();
+            umap.setNumberComponents(3);
+            umap.setNumberEpochs(50);
+            umap.setVerbose(true);
+            assertFinite(umap.fitTransform(clusters(300, 16, 4, 42)), 300, 3);
+        } finally {
+            UmapProgress.removeProgressListener(listener);
+        }
+        assertFalse(states.isEmpty());
+        assertTrue(states.get(states.size() - 1).isFinished());
+        assertTrue(states.stream().anyMatch(s -> "Optimizing Layout".equals(s.getPhase())));
+    }
+
+    /**
+     * Test of fitTransform and transform with several threads, of class Umap.
+     */
+    @Test
+    public void testParallelFitAndTransform() {
+        System.out.println("parallelFitAndTransform");
+        final float[][] data = clusters(400, 16, 4, 7);
+        final Umap umap = new Umap();
+        umap.setNumberComponents(2);
+        umap.setNumberEpochs(50);
+        umap.setThreads(4);
+        assertFinite(umap.fitTransform(data), 400, 2);
+        assertFinite(umap.transform(clusters(20, 16, 4, 8)), 20, 2);
+    }
+
+    /**
+     * Test of ParallelLayoutOptimizer against the serial LayoutOptimizer, of
+     * class Umap.
+     */
+    @Test
+    public void testParallelLayoutPreservesNeighbors() {
+        System.out.println("parallelLayoutPreservesNeighbors");
+        final float[][] data = clusters(400, 16, 4, 21);
+        final float[][] serial = fitWithThreads(data, 1);
+        final float[][] parallel = fitWithThreads(data, 4);
+        final double serialTrust = neighborOverlap(data, serial, 10);
+        final double parallelTrust = neighborOverlap(data, parallel, 10);
+        //lost updates between threads may cost a little, but not the structure
+        assertTrue(parallelTrust >= serialTrust - 0.05, parallelTrust + " vs serial " + serialTrust);
+        int sameCluster = 0;
+        for (int i = 0; i < parallel.length; ++i) {
+            if (nearest(parallel, i, 1)[0] % 4 == i % 4) {
+                ++sameCluster;
+            }
+        }
+        assertTrue(sameCluster > 0.95 * parallel.length, sameCluster + " of " + parallel.length);
+    }
+
+    private static float[][] fitWithThreads(final float[][] data, final int threads) {
+        final Umap umap = new Umap();
+        umap.setNumberEpochs(200);
+        umap.setSeed(3);
+        umap.setThreads(threads);
+        return umap.fitTransform(data);
+    }
+
+    /**
+     * @return mean fraction of each point's k nearest neighbors in data that
+     * are also among its k nearest in the embedding
+     */
+    private static double neighborOverlap(final float[][] data, final float[][] embedding, final int k) {
+        double total = 0;
+        for (int i = 0; i < data.length; ++i) {
+            final int[] high = nearest(data, i, k);
+            final int[] low = nearest(embedding, i, k);
+            int shared = 0;
+            for (final int h : high) {
+                for (final int l : low) {
+                    if (h == l) {
+                        ++shared;
+                    }
+                }
+            }
+            total += shared / (double) k;
+        }
+        return total / data.length;
+    }
+
+    private static int[] nearest(final float[][] points, final int i, final int k) {
+        final Integer[] order = new Integer[points.length];
+        final double[] dist = new double[points.length];
+        for (int j = 0; j < points.length; ++j) {
+            order[j] = j;
+            for (int d = 0; d < points[i].length; ++d) {
+                final double diff = points[i][d] - points[j][d];
+                dist[j] += diff * diff;
+            }
+        }
+        dist[i] = Double.POSITIVE_INFINITY;
+        Arrays.sort(order, (x, y) -> Double.compare(dist[x], dist[y]));
+        final int[] result = new int[k];
+        for (int j = 0; j < k; ++j) {
+            result[j] = order[j];
+        }
+        return result;
+    }
+
+    static float[] flatten(final float[][] data) {
+        final int cols = data[0].length;
+        final float[] flat = new float[data.length * cols];
+        for (int i = 0; i < data.length; ++i) {
+            System.arraycopy(data[i], 0, flat, i * cols, cols);
+        }
+        return flat;
+    }
+
+    /**
+     * Test of row views, of class FlatMatrix.
+     */
+    @Test
+    public void testFlatMatrixMatchesDefault() {
+        System.out.println("flatMatrixMatchesDefault");
+        final float[][] data = clusters(300, 40, 3, 5);
+        final Matrix nested = new DefaultMatrix(data);
+        final FlatMatrix flat = new FlatMatrix(flatten(data), 300, 40);
+        assertEquals(nested, flat);
+        assertArrayEquals(data[7], flat.row(7));
+        assertEquals(7 * 40, flat.rowOffset(7));
+        assertEquals(nested.toString(), FlatMatrix.of(toDouble(data)).toString());
+        assertEquals(PairwiseDistances.symmetricPairwise(nested, EuclideanMetric.SINGLETON, false),
+            PairwiseDistances.symmetricPairwise(flat, EuclideanMetric.SINGLETON, false));
+        final Matrix y = new FlatMatrix(flatten(clusters(50, 40, 3, 6)), 50, 40);
+        assertArrayEquals(PairwiseDistances.nearestNeighbors(nested, y, 5, EuclideanMetric.SINGLETON).indices(),
+            PairwiseDistances.nearestNeighbors(flat, y, 5, EuclideanMetric.SINGLETON).indices());
+    }
+
+    /**
+     * Test of appendRows, of class FlatMatrix.
+     */
+    @Test
+    public void testAppendRows() {
+        System.out.println("appendRows");
+        final float[][] data = clusters(10, 4, 2, 19);
+        Matrix matrix = new DefaultMatrix(Arrays.copyOf(data, 6));
+        matrix = FlatMatrix.appendRows(matrix, flatten(Arrays.copyOfRange(data, 6, 7)));
+        final float[] backing = ((FlatMatrix) matrix).data();
+        //the first append left room, so the next ones reuse the same array
+        matrix = FlatMatrix.appendRows(matrix, flatten(Arrays.copyOfRange(data, 7, 10)));
+        assertSame(backing, ((FlatMatrix) matrix).data());
+        assertEquals(new DefaultMatrix(data), matrix);
+        assertEquals(new DefaultMatrix(data), matrix.copy());
+        assertTrue(matrix.isFinite());
+        assertThrows(IllegalArgumentException.class, () -> FlatMatrix.appendRows(new FlatMatrix(2, 4), new float[3]));
+    }
+
+    private static double[][] toDouble(final float[][] data) {
+        final double[][] result = new double[data.length][];
+        for (int i = 0; i < data.length; ++i) {
+            result[i] = new double[data[i].length];
+            for (int j = 0; j < data[i].length; ++j) {
+                result[i][j] = data[i][j];
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Test of fitTransform with a row-major array, of class Umap.
+     */
+    @Test
+    public void testFlatFitMatchesNested() {
+        System.out.println("flatFitMatchesNested");
+        //above the small problem threshold, so the random projection forest and descent run
+        final float[][] data = clusters(4200, 8, 4, 9);
+        final Umap nestedUmap = new Umap();
+        nestedUmap.setNumberEpochs(20);
+        final double[][] nested = nestedUmap.fitTransform(toDouble(data));
+        final Umap flatUmap = new Umap();
+        flatUmap.setNumberEpochs(20);
+        final double[][] flat = flatUmap.fitTransform(flatten(data), 8);
+        assertEquals(nested.length, flat.length);
+        for (int i = 0; i < nested.length; ++i) {
+            assertArrayEquals(nested[i], flat[i]);
+        }
+        assertFinite(flatUmap.transform(flatten(clusters(10, 8, 4, 10)), 8), 10, 2);
+    }
+
+    private static CooMatrix rings(final int n, final int count) {
+        final int nnz = 2 * n * count;
+        final float[] data = new float[nnz];
+        final int[] row = new int[nnz];
+        final int[] col = new int[nnz];
+        int k = 0;
+        for (int r = 0; r < count; ++r) {
+            for (int i = 0; i < n; ++i) {
+                final int v = r * n + i;
+                row[k] = v;
+                col[k] = r * n + (i + 1) % n;
+                data[k++] = 1;
+                row[k] = v;
+                col[k] = r * n + (i + n - 1) % n;
+                data[k++] = 1;
+            }
+        }
+        return new CooMatrix(data, row, col, n * count, n * count);
+    }
+
+    /**
+     * Test of spectralLayout, of class Spectral.
+     */
+    @Test
+    public void testSpectralLayout() {
+        System.out.println("spectralLayout");
+        //the two smallest non-trivial eigenvectors of a ring's Laplacian lay it out as a circle
+        final float[][] layout = Spectral.spectralLayout(rings(60, 1).toCsr(), 2, new Random(1));
+        assertFinite(layout, 60, 2);
+        final double radius = Math.hypot(layout[0][0], layout[0][1]);
+        for (final float[] p : layout) {
+            assertEquals(radius, Math.hypot(p[0], p[1]), 1e-2 * radius);
+        }
+        for (int i = 0; i < layout.length; ++i) {
+            final float[] p = layout[i];
+            final float[] q = layout[(i + 1) % layout.length];
+            assertEquals(2 * Math.PI / 60, Math.abs(Math.atan2(p[0] * q[1] - p[1] * q[0], p[0] * q[0] + p[1] * q[1])), 1e-2);
+        }
+        //disconnected graphs are left to the caller's fallback
+        assertNull(Spectral.spectralLayout(rings(60, 2).toCsr(), 2, new Random(1)));
+    }
+
+    /**
+     * Test of setInit, of class Umap.
+     */
+    @Test
+    public void testInit() {
+        System.out.println("init");
+        final Umap umap = new Umap();
+        assertEquals("spectral", umap.getInit());
+        assertThrows(IllegalArgumentException.class, () -> umap.setInit("pca"));
+        umap.setNumberEpochs(30);
+        assertFinite(umap.fitTransform(clusters(300, 16, 1, 3)), 300, 2);
+        umap.setInit("random");
+        assertFinite(umap.fitTransform(clusters(300, 16, 1, 3)), 300, 2);
+    }
+
+    private static Umap reload(final Umap umap) throws IOException {
+        final File file = Files.createTempFile("trinity", ".umap").toFile();
+        file.deleteOnExit();
+        umap.save(file);
+        return Umap.load(file);
+    }
+
+    /**
+     * Test of save and load, of class Umap.
+     */
+    @Test
+    public void testSaveAndLoad() throws IOException {
+        System.out.println("saveAndLoad");
+        //above the small problem threshold, so the forest and search graph are saved
+        final Umap large = new Umap();
+        large.setNumberEpochs(20);
+        large.fitTransform(clusters(4200, 8, 4, 11));
+        final Umap largeCopy = reload(large);
+        assertEquals(8, largeCopy.getInputDimension());
+        final float[][] query = clusters(30, 8, 4, 12);
+        final float[][] expected = large.transform(query);
+        final float[][] actual = largeCopy.transform(query);
+        for (int i = 0; i < expected.length; ++i) {
+            assertArrayEquals(expected[i], actual[i]);
+        }
+
+        final Umap small = new Umap();
+        small.setMetric("manhattan");
+        small.setNumberComponents(3);
+        small.setNumberEpochs(20);
+        small.fitTransform(clusters(300, 16, 4, 13));
+        final Umap smallCopy = reload(small);
+        final float[][] smallQuery = clusters(10, 16, 4, 14);
+        final float[][] smallExpected = small.transform(smallQuery);
+        final float[][] smallActual = smallCopy.transform(smallQuery);
+        for (int i = 0; i < smallExpected.length; ++i) {
+            assertArrayEquals(smallExpected[i], smallActual[i]);
+        }
+
+        assertThrows(IllegalStateException.class, () -> reload(new Umap()));
+        //a failed save leaves the previous model in place and no partial file behind
+        final File dir = Files.createTempDirectory("trinity").toFile();
+        final File model = new File(dir, "model.umap");
+        small.save(model);
+        assertThrows(IllegalStateException.class, () -> new Umap().save(model));
+        assertArrayEquals(new String[]{"model.umap"}, dir.list());
+        assertEquals(3, Umap.load(model).transform(smallQuery)[0].length);
+        assertTrue(model.delete());
+        assertTrue(dir.delete());
+        final File junk = Files.createTempFile("trinity", ".umap").toFile();
+        junk.deleteOnExit();
+        Files.writeString(junk.toPath(), "not a model");
+        assertThrows(IOException.class, () -> Umap.load(junk));
+        //an init method setInit would refuse is refused on load too
+        final File badInit = Files.createTempFile("trinity", ".umap").toFile();
+        badInit.deleteOnExit();
+        small.save(badInit);
+        final byte[] bytes = Files.readAllBytes(badInit.toPath());
+        final byte[] spectral = "spectral".getBytes(StandardCharsets.UTF_8);
+        final int at = indexOf(bytes, spectral);
+        assertTrue(at >= 0);
+        System.arraycopy("spectrum".getBytes(StandardCharsets.UTF_8), 0, bytes, at, spectral.length);
+        Files.write(badInit.toPath(), bytes);
+        assertThrows(IOException.class, () -> Umap.load(badInit));
+    }
+
+    private static int indexOf(final byte[] bytes, final byte[] target) {
+        for (int i = 0; i + target.length <= bytes.length; ++i) {
+            if (Arrays.equals(bytes, i, i + target.length, target, 0, target.length)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Test of save and load after transformAndAdd, of class Umap.
+     */
+    @Test
+    public void testSaveAndLoadAfterAdd() throws IOException {
+        System.out.println("saveAndLoadAfterAdd");
+        final Umap live = new Umap();
+        live.setNeighborIndex(new HnswIndex(EuclideanMetric.SINGLETON));
+        live.setNumberEpochs(20);
+        live.fitTransform(clusters(500, 16, 4, 22));
+        live.transformAndAdd(flatten(clusters(40, 16, 4, 23)), 16);
+        live.transformAndAdd(flatten(clusters(25, 16, 4, 24)), 16);
+        //the reloaded model has no index, search the stored graph in both
+        live.setNeighborIndex(null);
+        final Umap copy = reload(live);
+        copy.prepareTransform();
+        for (int r = 500; r < 565; ++r) {
+            //added rows must be linked into the saved search graph
+            assertTrue(copy.getmSearchGraph().row(r).length > 0, "row " + r);
+        }
+        final float[][] query = clusters(30, 16, 4, 25);
+        final float[][] expected = live.transform(query);
+        final float[][] actual = copy.transform(query);
+        for (int i = 0; i < expected.length; ++i) {
+            assertArrayEquals(expected[i], actual[i]);
+        }
+    }
+
+    /**
+     * Test of setNeighborIndex and transformAndAdd, of class Umap.
+     */
+    @Test
+    public void testNeighborIndex() {
+        System.out.println("neighborIndex");
+        final Umap umap = new Umap();
+        assertThrows(IllegalStateException.class, () -> umap.transformAndAdd(new float[16], 16));
+        final HnswIndex index = new HnswIndex(EuclideanMetric.SINGLETON);
+        umap.setNeighborIndex(index);
+        umap.setNumberEpochs(30);
+        assertFinite(umap.fitTransform(clusters(500, 16, 4, 15)), 500, 2);
+        assertEquals(500, index.size());
+        assertFinite(umap.transform(clusters(20, 16, 4, 16)), 20, 2);
+        assertFinite(umap.transformAndAdd(flatten(clusters(20, 16, 4, 17)), 16), 20, 2);
+        assertEquals(520, index.size());
+        assertFinite(umap.transformAndAdd(flatten(clusters(30, 16, 4, 20)), 16), 30, 2);
+        assertEquals(550, index.size());
+        assertFinite(umap.transform(clusters(5, 16, 4, 18)), 5, 2);
+        //a fresh index is needed for every fit
+        assertThrows(IllegalArgumentException.class, () -> umap.fitTransform(clusters(500, 16, 4, 15)));
+    }
+}
@@ -0,0 +1,68 @@
+package edu.jhuapl.trinity.utils.umap.metric;
+
+/*-
+ * #%L
+ * trinity
+ * %%
+ * Copyright (C) 2021 - 2023 The Johns Hopkins University Applied Physics Laboratory LLC
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import edu.jhuapl.trinity.utils.MicroBenchmark;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Compares the vector kernels of each metric with its scalar loop at
+ * embedding sized dimensions. Run by hand with
+ * --add-modules jdk.incubator.vector, otherwise both columns are scalar.
+ * Arguments are optional dimensions.
+ */
+public class MetricBenchmark {
+
+    public static void main(String[] args) {
+        final int[] dims = args.length > 0
+            ? Arrays.stream(args).mapToInt(Integer::parseInt).toArray()
+            : new int[]{384, 768, 1536, 4096};
+        System.out.println("vectorized=" + Metric.isVectorized());
+        final int pairs = 256;
+        for (final int dim : dims) {
+            final Random random = new Random(42);
+            final float[][] xs = new float[pairs][];
+            final float[][] ys = new float[pairs][];
+            for (int k = 0; k < pairs; k++) {
+                xs[k] = MetricTest.point(random, dim);
+                ys[k] = MetricTest.point(random, dim);
+            }
+            for (final Metric metric : MetricTest.vectorizedMetrics(dim)) {
+                final String name = metric.getClass().getSimpleName() + " d=" + dim;
+                final double scalar = MicroBenchmark.run(name + " scalar", 200, 200, () -> {
+                    float sum = 0;
+                    for (int k = 0; k < pairs; k++)
+                        sum += metric.scalarDistance(xs[k], 0, ys[k], 0, dim);
+                    return sum;
+                });
+                final double vector = MicroBenchmark.run(name + " vector", 200, 200, () -> {
+                    float sum = 0;
+                    for (int k = 0; k < pairs; k++)
+                        sum += metric.distance(xs[k], ys[k]);
+                    return sum;
+                });
+                System.out.println(String.format("speedup %.2fx", scalar / vector));
+            }
+        }
+    }
+}
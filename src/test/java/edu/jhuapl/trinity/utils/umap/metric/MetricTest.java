@@ -0,0 +1,114 @@
+package edu.jhuapl.trinity.utils.umap.metric;
+
+/*-
+ * #%L
+ * trinity
+ * %%
+ * Copyright (C) 2021 - 2023 The Johns Hopkins University Applied Physics Laboratory LLC
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class MetricTest {
+
+    public MetricTest() {
+    }
+
+    static Metric[] vectorizedMetrics(final int dim) {
+        final float[] sigma = new float[dim];
+        final float[] weights = new float[dim];
+        final Random random = new Random(7);
+        for (int i = 0; i < dim; i++) {
+            sigma[i] = 0.5f + random.nextFloat();
+            weights[i] = random.nextFloat();
+        }
+        return new Metric[]{
+            EuclideanMetric.SINGLETON, ReducedEuclideanMetric.SINGLETON,
+            ManhattanMetric.SINGLETON, ChebyshevMetric.SINGLETON,
+            CosineMetric.SINGLETON, CorrelationMetric.SINGLETON,
+            BrayCurtisMetric.SINGLETON, CanberraMetric.SINGLETON,
+            MinkowskiMetric.SINGLETON, new WeightedMinkowskiMetric(3, weights),
+            new StandardisedEuclideanMetric(sigma)
+        };
+    }
+
+    static float[] point(final Random random, final int dim) {
+        final float[] p = new float[dim];
+        for (int i = 0; i < dim; i++)
+            p[i] = (float) random.nextGaussian();
+        return p;
+    }
+
+    /**
+     * Test of distance against scalarDistance, of class Metric.
+     */
+    @Test
+    public void testVectorKernelsMatchScalar() {
+        System.out.println("vectorKernelsMatchScalar vectorized=" + Metric.isVectorized());
+        final Random random = new Random(42);
+        for (final int dim : new int[]{3, 17, 64, 385, 1024, 4099}) {
+            for (final Metric metric : vectorizedMetrics(dim)) {
+                for (int k = 0; k < 5; k++) {
+                    final float[] x = point(random, dim);
+                    final float[] y = point(random, dim);
+                    if (k == 1)
+                        y[dim / 2] = -x[dim / 2]; //zero Canberra and Bray Curtis denominators
+                    if (k == 2)
+                        System.arraycopy(x, 0, y, 0, dim);
+                    final float scalar = metric.scalarDistance(x, 0, y, 0, dim);
+                    assertEquals(scalar, metric.distance(x, y), 1e-4 * Math.max(1, Math.abs(scalar)),
+                        metric.getClass().getSimpleName() + " d=" + dim);
+                }
+            }
+            //zero vectors take the special cases
+            final float[] zero = new float[dim];
+            assertEquals(0f, CosineMetric.SINGLETON.distance(zero, zero));
+            assertEquals(1f, CosineMetric.SINGLETON.distance(zero, point(random, dim)));
+            assertEquals(0f, CanberraMetric.SINGLETON.distance(zero, zero));
+            assertEquals(0f, BrayCurtisMetric.SINGLETON.distance(zero, zero));
+        }
+    }
+
+    /**
+     * Test of distance with offsets, of class Metric.
+     */
+    @Test
+    public void testDistanceInPlace() {
+        System.out.println("distanceInPlace");
+        final Random random = new Random(3);
+        final int dim = 100;
+        final float[] x = point(random, dim);
+        final float[] y = point(random, dim);
+        //the same points at different offsets of larger arrays
+        final float[] xs = new float[dim + 13];
+        final float[] ys = new float[dim + 40];
+        System.arraycopy(x, 0, xs, 13, dim);
+        System.arraycopy(y, 0, ys, 7, dim);
+        final Metric[] metrics = Arrays.copyOf(vectorizedMetrics(dim), vectorizedMetrics(dim).length + 1);
+        metrics[metrics.length - 1] = HammingMetric.SINGLETON; //no offset form, reads copies
+        for (final Metric metric : metrics) {
+            assertEquals(metric.distance(x, y), metric.distance(xs, 13, ys, 7, dim),
+                metric.getClass().getSimpleName());
+            assertEquals(metric.scalarDistance(x, 0, y, 0, dim), metric.scalarDistance(xs, 13, ys, 7, dim),
+                metric.getClass().getSimpleName());
+        }
+    }
+}